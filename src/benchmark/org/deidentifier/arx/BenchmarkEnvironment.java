@@ -0,0 +1,186 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.framework.check.Transformer;
+import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.groupify.IHashGroupify;
+import org.deidentifier.arx.framework.check.history.History;
+import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.lattice.Lattice;
+import org.deidentifier.arx.framework.lattice.LatticeBuilder;
+
+/**
+ * Prepares the internal data structures in the same way as the anonymizer, which allows
+ * to benchmark individual components of the framework in isolation.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class BenchmarkEnvironment {
+
+    /** The configuration. */
+    private final ARXConfiguration   config;
+
+    /** The dictionary for frequencies of the distributions. */
+    private final IntArrayDictionary dictionarySensFreq;
+
+    /** The dictionary for values of the distributions. */
+    private final IntArrayDictionary dictionarySensValue;
+
+    /** The data manager. */
+    private final DataManager        manager;
+
+    /**
+     * Creates a new instance. The configuration is initialized for the given data.
+     *
+     * @param data
+     * @param config
+     */
+    public BenchmarkEnvironment(final Data data, final ARXConfiguration config) {
+
+        // Encode
+        final DataHandleInput handle = (DataHandleInput) data.getHandle();
+        handle.getDefinition().materialize(handle);
+        handle.getRegistry().reset();
+        handle.getRegistry().createInputSubset(config);
+        this.manager = new DataManager(handle.header, handle.internalGetData(), handle.dictionary, handle.getDefinition(), config.getCriteria());
+        this.config = config;
+
+        // Initialize
+        config.initialize(manager);
+        config.getMetric().initialize(handle.getDefinition(), manager.getDataQI(), manager.getHierarchies(), config);
+        int initialSize = (int) (manager.getDataQI().getDataLength() * 0.01d);
+        this.dictionarySensValue = new IntArrayDictionary(initialSize);
+        this.dictionarySensFreq = new IntArrayDictionary(initialSize);
+    }
+
+    /**
+     * Creates a new groupify operator.
+     *
+     * @return
+     */
+    public IHashGroupify createGroupify() {
+        return new HashGroupify((int) (manager.getDataQI().getDataLength() * 0.01d), config.getInternalConfiguration());
+    }
+
+    /**
+     * Creates a new history, which stores snapshots of arbitrary size for all transformations.
+     *
+     * @param size
+     * @return
+     */
+    public History createHistory(final int size) {
+        final History history = new History(manager.getDataQI().getDataLength(),
+                                            size,
+                                            1d,
+                                            1d,
+                                            config.getInternalConfiguration(),
+                                            dictionarySensValue,
+                                            dictionarySensFreq);
+        history.setStorageTrigger(History.STORAGE_TRIGGER_ALL);
+        return history;
+    }
+
+    /**
+     * Creates the lattice of all transformations between the given levels.
+     *
+     * @param min
+     * @param max
+     * @return
+     */
+    public Lattice createLattice(final int[] min, final int[] max) {
+        return new LatticeBuilder(max, min).build(config.getMetric());
+    }
+
+    /**
+     * Creates a new transformer.
+     *
+     * @return
+     */
+    public Transformer createTransformer() {
+        return new Transformer(manager.getDataQI().getArray(),
+                               manager.getHierarchies(),
+                               manager.getDataSE().getArray(),
+                               config.getInternalConfiguration(),
+                               dictionarySensValue,
+                               dictionarySensFreq);
+    }
+
+    /**
+     * Returns the configuration.
+     *
+     * @return
+     */
+    public ARXConfiguration getConfig() {
+        return config;
+    }
+
+    /**
+     * Returns the dictionary for frequencies of the distributions.
+     *
+     * @return
+     */
+    public IntArrayDictionary getDictionarySensFreq() {
+        return dictionarySensFreq;
+    }
+
+    /**
+     * Returns the dictionary for values of the distributions.
+     *
+     * @return
+     */
+    public IntArrayDictionary getDictionarySensValue() {
+        return dictionarySensValue;
+    }
+
+    /**
+     * Returns a transformation, which generalizes each attribute to half of its maximal level.
+     *
+     * @return
+     */
+    public int[] getIntermediateTransformation() {
+        final int[] min = manager.getMinLevels();
+        final int[] max = manager.getMaxLevels();
+        final int[] result = new int[max.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = Math.max(min[i], max[i] / 2);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the internal configuration.
+     *
+     * @return
+     */
+    public ARXConfigurationInternal getInternalConfiguration() {
+        return config.getInternalConfiguration();
+    }
+
+    /**
+     * Returns the data manager.
+     *
+     * @return
+     */
+    public DataManager getManager() {
+        return manager;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+/**
+ * Base class for benchmarks. The runner calls setup() once, followed by a number of
+ * iterations, each consisting of an untimed call to prepare() and a timed call to run().
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public abstract class Benchmark {
+
+    /** The name. */
+    private final String name;
+
+    /** The parameters. */
+    private final String parameters;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param name
+     * @param parameters
+     */
+    protected Benchmark(final String name, final String parameters) {
+        this.name = name;
+        this.parameters = parameters;
+    }
+
+    /**
+     * Returns the name.
+     *
+     * @return
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the parameters.
+     *
+     * @return
+     */
+    public String getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Prepares an iteration. Not included in the measurements.
+     *
+     * @throws Exception
+     */
+    public void prepare() throws Exception {
+        // Empty by default
+    }
+
+    /**
+     * Performs an iteration. Returns a value derived from the result, which prevents
+     * the computation from being eliminated as dead code.
+     *
+     * @return
+     * @throws Exception
+     */
+    public abstract long run() throws Exception;
+
+    /**
+     * Sets up the benchmark. Not included in the measurements.
+     *
+     * @throws Exception
+     */
+    public abstract void setup() throws Exception;
+
+    /**
+     * Releases all resources.
+     */
+    public void teardown() {
+        // Empty by default
+    }
+}
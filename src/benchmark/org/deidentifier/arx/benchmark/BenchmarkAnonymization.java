@@ -0,0 +1,87 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.Data;
+
+/**
+ * Benchmarks the complete anonymization process, excluding data import.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class BenchmarkAnonymization extends Benchmark {
+
+    /** The configuration. */
+    private final ARXConfiguration config;
+
+    /** The dataset. */
+    private final String           dataset;
+
+    /** The data of the next iteration. */
+    private Data                   data;
+
+    /** Whether the sensitive attribute is sensitive. */
+    private final boolean          sensitive;
+
+    /**
+     * Creates a new instance for the given adult dataset.
+     *
+     * @param dataset
+     * @param config
+     * @param sensitive
+     * @param parameters
+     */
+    public BenchmarkAnonymization(final String dataset,
+                                  final ARXConfiguration config,
+                                  final boolean sensitive,
+                                  final String parameters) {
+        super("ARXAnonymizer.anonymize", dataset + "/" + parameters);
+        this.dataset = dataset;
+        this.config = config;
+        this.sensitive = sensitive;
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.benchmark.Benchmark#prepare()
+     */
+    @Override
+    public void prepare() throws Exception {
+        data = BenchmarkData.createAdult(dataset, sensitive);
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.benchmark.Benchmark#run()
+     */
+    @Override
+    public long run() throws Exception {
+        final ARXResult result = new ARXAnonymizer().anonymize(data, config.clone());
+        return result.getGlobalOptimum().getTransformation()[0];
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.benchmark.Benchmark#setup()
+     */
+    @Override
+    public void setup() throws Exception {
+        // Empty by design
+    }
+}
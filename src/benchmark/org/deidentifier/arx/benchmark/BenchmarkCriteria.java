@@ -0,0 +1,100 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.BenchmarkEnvironment;
+import org.deidentifier.arx.criteria.PrivacyCriterion;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
+import org.deidentifier.arx.framework.check.groupify.IHashGroupify;
+
+/**
+ * Benchmarks the evaluation of a privacy criterion for all equivalence classes of a
+ * transformation.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class BenchmarkCriteria extends Benchmark {
+
+    /** The criterion. */
+    private final PrivacyCriterion criterion;
+
+    /** The dataset. */
+    private final String           dataset;
+
+    /** The equivalence classes. */
+    private HashGroupifyEntry[]    entries;
+
+    /**
+     * Creates a new instance for a criterion, which must not be used for anything else.
+     *
+     * @param dataset
+     * @param criterion
+     */
+    public BenchmarkCriteria(final String dataset, final PrivacyCriterion criterion) {
+        super("PrivacyCriterion.isAnonymous", dataset + "/" + criterion.toString());
+        this.dataset = dataset;
+        this.criterion = criterion;
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.benchmark.Benchmark#run()
+     */
+    @Override
+    public long run() throws Exception {
+        long result = 0;
+        for (final HashGroupifyEntry entry : entries) {
+            if (criterion.isAnonymous(entry)) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.benchmark.Benchmark#setup()
+     */
+    @Override
+    public void setup() throws Exception {
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addCriterion(criterion);
+        final BenchmarkEnvironment environment = new BenchmarkEnvironment(BenchmarkData.createAdult(dataset, true), config);
+        final IHashGroupify groupify = environment.createTransformer().apply(0L,
+                                                                             environment.getIntermediateTransformation(),
+                                                                             environment.createGroupify());
+        final List<HashGroupifyEntry> list = new ArrayList<HashGroupifyEntry>();
+        HashGroupifyEntry entry = groupify.getFirstEntry();
+        while (entry != null) {
+            list.add(entry);
+            entry = entry.nextOrdered;
+        }
+        this.entries = list.toArray(new HashGroupifyEntry[list.size()]);
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.benchmark.Benchmark#teardown()
+     */
+    @Override
+    public void teardown() {
+        entries = null;
+    }
+}
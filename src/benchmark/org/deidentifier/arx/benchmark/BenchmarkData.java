@@ -0,0 +1,134 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.deidentifier.arx.AttributeType;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.AttributeType.Hierarchy.DefaultHierarchy;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.Data.DefaultData;
+
+/**
+ * Creates the datasets used for benchmarking.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class BenchmarkData {
+
+    /** The quasi-identifiers of the adult dataset. */
+    public static final String[] ADULT_QIS       = { "age", "education", "marital-status", "native-country", "race", "salary-class", "sex", "workclass" };
+
+    /** The sensitive attribute of the adult dataset. */
+    public static final String   ADULT_SENSITIVE = "occupation";
+
+    /** The directory containing the datasets. */
+    private static final String  DIRECTORY       = System.getProperty("arx.benchmark.data", "data");
+
+    /** The number of distinct values per attribute in synthetic datasets. */
+    private static final int     DOMAIN_SIZE     = 256;
+
+    /** The number of generalization levels per attribute in synthetic datasets, excluding the suppressed level. */
+    private static final int     NUM_LEVELS      = 4;
+
+    /**
+     * Loads the given adult dataset. If sensitive is true, the attribute "occupation"
+     * is sensitive, otherwise it is insensitive.
+     *
+     * @param dataset The file name, e.g. "adult.csv"
+     * @param sensitive
+     * @return
+     * @throws IOException
+     */
+    public static Data createAdult(final String dataset, final boolean sensitive) throws IOException {
+        final Data data = Data.create(new File(DIRECTORY, dataset), ';');
+        for (final String attribute : ADULT_QIS) {
+            data.getDefinition().setAttributeType(attribute, getAdultHierarchy(attribute));
+        }
+        data.getDefinition().setAttributeType(ADULT_SENSITIVE, sensitive ? AttributeType.SENSITIVE_ATTRIBUTE : AttributeType.INSENSITIVE_ATTRIBUTE);
+        return data;
+    }
+
+    /**
+     * Returns the hierarchy for the given attribute of the adult dataset.
+     *
+     * @param attribute
+     * @return
+     * @throws IOException
+     */
+    public static Hierarchy getAdultHierarchy(final String attribute) throws IOException {
+        return Hierarchy.create(new File(DIRECTORY, "adult_hierarchy_" + attribute + ".csv"), ';');
+    }
+
+    /**
+     * Creates a synthetic dataset with the given number of rows and quasi-identifiers. Each
+     * attribute has DOMAIN_SIZE values, each of which is generalized by dropping two bits per
+     * level. The rows form clusters, such that the rows in a cluster are indistinguishable
+     * from the first generalization level onwards. This results in few equivalence classes
+     * for generalized data regardless of the number of attributes.
+     *
+     * @param rows
+     * @param columns
+     * @param clusters
+     * @return
+     */
+    public static Data createSynthetic(final int rows, final int columns, final int clusters) {
+
+        // Create data
+        final Random random = new Random(0xDEADBEEF);
+        final DefaultData data = Data.create();
+        final String[] header = new String[columns];
+        for (int column = 0; column < columns; column++) {
+            header[column] = "attribute" + column;
+        }
+        data.add(header);
+        final int[][] prefixes = new int[clusters][columns];
+        for (int cluster = 0; cluster < clusters; cluster++) {
+            for (int column = 0; column < columns; column++) {
+                prefixes[cluster][column] = random.nextInt(DOMAIN_SIZE >> 2) << 2;
+            }
+        }
+        for (int row = 0; row < rows; row++) {
+            final int[] prefix = prefixes[random.nextInt(clusters)];
+            final String[] tuple = new String[columns];
+            for (int column = 0; column < columns; column++) {
+                tuple[column] = String.valueOf(prefix[column] | random.nextInt(4));
+            }
+            data.add(tuple);
+        }
+
+        // Create hierarchies
+        for (int column = 0; column < columns; column++) {
+            final DefaultHierarchy hierarchy = Hierarchy.create();
+            for (int value = 0; value < DOMAIN_SIZE; value++) {
+                final String[] levels = new String[NUM_LEVELS + 1];
+                for (int level = 0; level < NUM_LEVELS; level++) {
+                    levels[level] = String.valueOf(value >> (2 * level));
+                }
+                levels[NUM_LEVELS] = "*";
+                hierarchy.add(levels);
+            }
+            data.getDefinition().setAttributeType(header[column], hierarchy);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.util.Random;
+
+import org.deidentifier.arx.framework.check.distribution.Distribution;
+
+/**
+ * Benchmarks merging distributions of sensitive values, as performed when rolling up
+ * equivalence classes, and packing the result, as performed when creating snapshots.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class BenchmarkDistribution extends Benchmark {
+
+    /** The number of values in each distribution. */
+    private static final int VALUES = 32;
+
+    /** The number of distributions. */
+    private final int        count;
+
+    /** The distributions. */
+    private Distribution[]   distributions;
+
+    /** The number of distinct values. */
+    private final int        domain;
+
+    /** Whether to merge the packed form. */
+    private final boolean    packed;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param count
+     * @param domain
+     * @param packed
+     */
+    public BenchmarkDistribution(final int count, final int domain, final boolean packed) {
+        super(packed ? "Distribution.merge(int[],int[])+pack" : "Distribution.merge(Distribution)+pack",
+              count + "x" + domain);
+        this.count = count;
+        this.domain = domain;
+        this.packed = packed;
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.benchmark.Benchmark#run()
+     */
+    @Override
+    public long run() throws Exception {
+        final Distribution result = new Distribution();
+        for (final Distribution distribution : distributions) {
+            if (packed) {
+                result.merge(distribution.getPackedElements(), distribution.getPackedFrequency());
+            } else {
+                result.merge(distribution);
+            }
+        }
+        result.pack();
+        return result.getPackedElements().length;
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.benchmark.Benchmark#setup()
+     */
+    @Override
+    public void setup() throws Exception {
+        final Random random = new Random(0xDEADBEEF);
+        this.distributions = new Distribution[count];
+        for (int i = 0; i < count; i++) {
+            final Distribution distribution = new Distribution();
+            for (int j = 0; j < VALUES; j++) {
+                distribution.add(random.nextInt(domain));
+            }
+            distribution.pack();
+            distributions[i] = distribution;
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.benchmark.Benchmark#teardown()
+     */
+    @Override
+    public void teardown() {
+        distributions = null;
+    }
+}
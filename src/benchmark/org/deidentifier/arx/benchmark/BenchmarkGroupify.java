@@ -0,0 +1,113 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.BenchmarkEnvironment;
+import org.deidentifier.arx.framework.check.Transformer;
+import org.deidentifier.arx.framework.check.groupify.IHashGroupify;
+import org.deidentifier.arx.framework.data.DataMatrix;
+
+/**
+ * Benchmarks building equivalence classes from generalized data with addAll() and checking
+ * the privacy criteria with analyze().
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class BenchmarkGroupify extends Benchmark {
+
+    /** The configuration. */
+    private final ARXConfiguration config;
+
+    /** The dataset. */
+    private final String           dataset;
+
+    /** The generalized data. */
+    private DataMatrix             generalized;
+
+    /** The groupify operator. */
+    private IHashGroupify          groupify;
+
+    /** The sensitive data, if distributions are required. */
+    private DataMatrix             sensitive;
+
+    /** Whether the data contains a sensitive attribute. */
+    private final boolean          sensitiveAttribute;
+
+    /**
+     * Creates a new instance. The configuration must not be used for anything else.
+     *
+     * @param dataset
+     * @param config
+     * @param sensitiveAttribute
+     * @param parameters
+     */
+    public BenchmarkGroupify(final String dataset,
+                             final ARXConfiguration config,
+                             final boolean sensitiveAttribute,
+                             final String parameters) {
+        super("HashGroupify.addAll+analyze", dataset + "/" + parameters);
+        this.dataset = dataset;
+        this.config = config;
+        this.sensitiveAttribute = sensitiveAttribute;
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.benchmark.Benchmark#run()
+     */
+    @Override
+    public long run() throws Exception {
+        groupify.clear();
+        final int[] tuple = new int[generalized.getNumColumns()];
+        final int[] sensitiveTuple = sensitive == null ? null : new int[sensitive.getNumColumns()];
+        for (int row = 0; row < generalized.getNumRows(); row++) {
+            generalized.getRow(row, tuple);
+            if (sensitive != null) {
+                sensitive.getRow(row, sensitiveTuple);
+            }
+            groupify.addAll(tuple, row, 1, sensitiveTuple, -1);
+        }
+        groupify.analyze(true);
+        return groupify.size();
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.benchmark.Benchmark#setup()
+     */
+    @Override
+    public void setup() throws Exception {
+        final BenchmarkEnvironment environment = new BenchmarkEnvironment(BenchmarkData.createAdult(dataset, sensitiveAttribute), config);
+        final Transformer transformer = environment.createTransformer();
+        transformer.apply(0L, environment.getIntermediateTransformation(), environment.createGroupify());
+        this.generalized = transformer.getBuffer().clone();
+        this.sensitive = environment.getInternalConfiguration().requires(ARXConfiguration.REQUIREMENT_DISTRIBUTION) ?
+                environment.getManager().getDataSE().getArray() : null;
+        this.groupify = environment.createGroupify();
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.benchmark.Benchmark#teardown()
+     */
+    @Override
+    public void teardown() {
+        generalized = null;
+        sensitive = null;
+        groupify = null;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.BenchmarkEnvironment;
+import org.deidentifier.arx.framework.check.groupify.IHashGroupify;
+import org.deidentifier.arx.framework.check.history.History;
+import org.deidentifier.arx.framework.lattice.Lattice;
+import org.deidentifier.arx.framework.lattice.Node;
+
+/**
+ * Benchmarks storing a snapshot in the history and retrieving it for a successor.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class BenchmarkHistory extends Benchmark {
+
+    /** Whether snapshots are compressed. */
+    private final boolean          compression;
+
+    /** The configuration. */
+    private final ARXConfiguration config;
+
+    /** The dataset. */
+    private final String           dataset;
+
+    /** The groupify operator of the stored transformation. */
+    private IHashGroupify          groupify;
+
+    /** The history. */
+    private History                history;
+
+    /** Whether the data contains a sensitive attribute. */
+    private final boolean          sensitiveAttribute;
+
+    /** The stored transformation. */
+    private Node                   source;
+
+    /** The retrieving transformation. */
+    private Node                   target;
+
+    /**
+     * Creates a new instance. The configuration must not be used for anything else.
+     *
+     * @param dataset
+     * @param config
+     * @param sensitiveAttribute
+     * @param compression
+     * @param parameters
+     */
+    public BenchmarkHistory(final String dataset,
+                            final ARXConfiguration config,
+                            final boolean sensitiveAttribute,
+                            final boolean compression,
+                            final String parameters) {
+        super("History.store+get", dataset + "/" + parameters + (compression ? "/compressed" : ""));
+        this.dataset = dataset;
+        this.config = config;
+        this.sensitiveAttribute = sensitiveAttribute;
+        this.compression = compression;
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.benchmark.Benchmark#prepare()
+     */
+    @Override
+    public void prepare() throws Exception {
+        history.reset();
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.benchmark.Benchmark#run()
+     */
+    @Override
+    public long run() throws Exception {
+        if (!history.store(source, groupify, null)) {
+            throw new IllegalStateException("Snapshot has not been stored");
+        }
+        return history.get(target).length;
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.benchmark.Benchmark#setup()
+     */
+    @Override
+    public void setup() throws Exception {
+        final BenchmarkEnvironment environment = new BenchmarkEnvironment(BenchmarkData.createAdult(dataset, sensitiveAttribute), config);
+        final int[] min = environment.getIntermediateTransformation();
+        final int[] max = environment.getManager().getMaxLevels().clone();
+        for (int i = 0; i < max.length; i++) {
+            max[i] = Math.min(max[i], min[i] + 1);
+        }
+        final Lattice lattice = environment.createLattice(min, max);
+        this.source = lattice.getBottom();
+        this.target = lattice.getTop();
+        lattice.setProperty(source, Node.PROPERTY_FORCE_SNAPSHOT);
+        this.groupify = environment.createTransformer().apply(0L, source.getTransformation(), environment.createGroupify());
+        this.history = environment.createHistory(1);
+        this.history.setCompressionEnabled(compression);
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.benchmark.Benchmark#teardown()
+     */
+    @Override
+    public void teardown() {
+        if (history != null) {
+            history.reset();
+        }
+        history = null;
+        groupify = null;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.criteria.DistinctLDiversity;
+import org.deidentifier.arx.criteria.EntropyLDiversity;
+import org.deidentifier.arx.criteria.EqualDistanceTCloseness;
+import org.deidentifier.arx.criteria.HierarchicalDistanceTCloseness;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.criteria.RecursiveCLDiversity;
+import org.deidentifier.arx.framework.check.StateMachine.TransitionType;
+
+/**
+ * Runs all benchmarks and reports the results on the console and as a CSV file. Arguments
+ * are the output file and an optional filter, which must be contained in the name or the
+ * parameters of a benchmark for it to be executed. The number of warmup iterations and
+ * measured iterations are specified with the system properties "benchmark.warmup" and
+ * "benchmark.iterations".
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class BenchmarkRunner {
+
+    /** The header of the CSV file. */
+    private static final String HEADER     = "benchmark;parameters;iterations;mean_ns;stddev_ns;min_ns;max_ns";
+
+    /** The number of measured iterations. */
+    private static final int    ITERATIONS = Integer.getInteger("benchmark.iterations", 10);
+
+    /** The number of rows in synthetic datasets. */
+    private static final int    ROWS       = 100000;
+
+    /** The number of warmup iterations. */
+    private static final int    WARMUP     = Integer.getInteger("benchmark.warmup", 3);
+
+    /** Accumulates the results of all iterations to prevent dead code elimination. */
+    private static long         sink       = 0;
+
+    /**
+     * Main entry point.
+     *
+     * @param args
+     * @throws Exception
+     */
+    public static void main(final String[] args) throws Exception {
+
+        final File output = new File(args.length > 0 ? args[0] : "benchmark.csv");
+        final String filter = args.length > 1 ? args[1] : null;
+
+        final PrintWriter writer = new PrintWriter(output, "UTF-8");
+        try {
+            writer.println(HEADER);
+            System.out.println(HEADER);
+            for (final Benchmark benchmark : getBenchmarks()) {
+                if (filter == null || benchmark.getName().contains(filter) || benchmark.getParameters().contains(filter)) {
+                    final String result = run(benchmark);
+                    writer.println(result);
+                    writer.flush();
+                    System.out.println(result);
+                }
+            }
+        } finally {
+            writer.close();
+        }
+        System.out.println("Checksum: " + sink);
+    }
+
+    /**
+     * Returns all benchmarks.
+     *
+     * @return
+     * @throws IOException
+     */
+    private static List<Benchmark> getBenchmarks() throws IOException {
+
+        final List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+
+        // Transformation, covering all transformer implementations
+        for (int columns = 1; columns <= 16; columns++) {
+            for (final TransitionType type : TransitionType.values()) {
+                benchmarks.add(new BenchmarkTransformation(ROWS, columns, type));
+            }
+        }
+
+        // Groupify
+        benchmarks.add(new BenchmarkGroupify("adult.csv", ARXConfiguration.create().addCriterion(new KAnonymity(5)), false, "5-anonymity"));
+        benchmarks.add(new BenchmarkGroupify("adult.csv", ARXConfiguration.create().addCriterion(new DistinctLDiversity(BenchmarkData.ADULT_SENSITIVE, 3)), true, "distinct-3-diversity"));
+
+        // History
+        for (final boolean compression : new boolean[] { false, true }) {
+            benchmarks.add(new BenchmarkHistory("adult.csv", ARXConfiguration.create().addCriterion(new KAnonymity(5)), false, compression, "5-anonymity"));
+            benchmarks.add(new BenchmarkHistory("adult.csv", ARXConfiguration.create().addCriterion(new DistinctLDiversity(BenchmarkData.ADULT_SENSITIVE, 3)), true, compression, "distinct-3-diversity"));
+        }
+
+        // Distributions
+        for (final int domain : new int[] { 12, 64, 4096 }) {
+            benchmarks.add(new BenchmarkDistribution(10000, domain, false));
+            benchmarks.add(new BenchmarkDistribution(10000, domain, true));
+        }
+
+        // Privacy criteria
+        benchmarks.add(new BenchmarkCriteria("adult.csv", new DistinctLDiversity(BenchmarkData.ADULT_SENSITIVE, 3)));
+        benchmarks.add(new BenchmarkCriteria("adult.csv", new EntropyLDiversity(BenchmarkData.ADULT_SENSITIVE, 3)));
+        benchmarks.add(new BenchmarkCriteria("adult.csv", new RecursiveCLDiversity(BenchmarkData.ADULT_SENSITIVE, 4, 3)));
+        benchmarks.add(new BenchmarkCriteria("adult.csv", new EqualDistanceTCloseness(BenchmarkData.ADULT_SENSITIVE, 0.2d)));
+        benchmarks.add(new BenchmarkCriteria("adult.csv", new HierarchicalDistanceTCloseness(BenchmarkData.ADULT_SENSITIVE, 0.2d, BenchmarkData.getAdultHierarchy(BenchmarkData.ADULT_SENSITIVE))));
+
+        // Anonymization
+        for (final String dataset : new String[] { "adult_subset.csv", "adult.csv" }) {
+            benchmarks.add(new BenchmarkAnonymization(dataset, ARXConfiguration.create(0.04d).addCriterion(new KAnonymity(5)), false, "5-anonymity"));
+            benchmarks.add(new BenchmarkAnonymization(dataset, ARXConfiguration.create(0.04d).addCriterion(new DistinctLDiversity(BenchmarkData.ADULT_SENSITIVE, 3)), true, "distinct-3-diversity"));
+            benchmarks.add(new BenchmarkAnonymization(dataset, ARXConfiguration.create(0.04d).addCriterion(new KAnonymity(5)).addCriterion(new HierarchicalDistanceTCloseness(BenchmarkData.ADULT_SENSITIVE, 0.2d, BenchmarkData.getAdultHierarchy(BenchmarkData.ADULT_SENSITIVE))), true, "5-anonymity+0.2-closeness"));
+        }
+
+        return benchmarks;
+    }
+
+    /**
+     * Runs the given benchmark and returns a line of the CSV file.
+     *
+     * @param benchmark
+     * @return
+     * @throws Exception
+     */
+    private static String run(final Benchmark benchmark) throws Exception {
+
+        // Setup and warmup
+        benchmark.setup();
+        for (int i = 0; i < WARMUP; i++) {
+            benchmark.prepare();
+            sink += benchmark.run();
+        }
+
+        // Measure
+        final long[] times = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            benchmark.prepare();
+            final long start = System.nanoTime();
+            sink += benchmark.run();
+            times[i] = System.nanoTime() - start;
+        }
+        benchmark.teardown();
+
+        // Summarize
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        double mean = 0d;
+        for (final long time : times) {
+            min = Math.min(min, time);
+            max = Math.max(max, time);
+            mean += time;
+        }
+        mean /= ITERATIONS;
+        double variance = 0d;
+        for (final long time : times) {
+            variance += (time - mean) * (time - mean);
+        }
+        final double stddev = ITERATIONS > 1 ? Math.sqrt(variance / (ITERATIONS - 1)) : 0d;
+        return String.format(Locale.US, "%s;%s;%d;%.0f;%.0f;%d;%d",
+                             benchmark.getName(),
+                             benchmark.getParameters(),
+                             ITERATIONS,
+                             mean,
+                             stddev,
+                             ITERATIONS > 0 ? min : 0,
+                             ITERATIONS > 0 ? max : 0);
+    }
+}
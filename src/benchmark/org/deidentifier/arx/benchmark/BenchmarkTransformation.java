@@ -0,0 +1,145 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.util.Arrays;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.BenchmarkEnvironment;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.framework.check.StateMachine.TransitionType;
+import org.deidentifier.arx.framework.check.Transformer;
+import org.deidentifier.arx.framework.check.groupify.IHashGroupify;
+import org.deidentifier.arx.framework.check.history.History;
+import org.deidentifier.arx.framework.lattice.Lattice;
+import org.deidentifier.arx.framework.lattice.Node;
+
+/**
+ * Benchmarks the transformation of data. The number of columns determines the transformer
+ * implementation (Transformer01 to Transformer15, or TransformerAll for more columns). Data
+ * is transformed from the first to the second generalization level of all attributes, either
+ * from scratch, by rolling up the groupify operator of the first level, or from a snapshot.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class BenchmarkTransformation extends Benchmark {
+
+    /** The number of clusters in the synthetic data. */
+    private static final int     CLUSTERS = 64;
+
+    /** The number of columns. */
+    private final int            columns;
+
+    /** The number of rows. */
+    private final int            rows;
+
+    /** The groupify operator of the source transformation. */
+    private IHashGroupify        source;
+
+    /** The snapshot of the source transformation. */
+    private int[]                snapshot;
+
+    /** The target transformation. */
+    private int[]                state;
+
+    /** The groupify operator of the target transformation. */
+    private IHashGroupify        target;
+
+    /** The transformer. */
+    private Transformer          transformer;
+
+    /** The type of transition. */
+    private final TransitionType type;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param rows
+     * @param columns
+     * @param type
+     */
+    public BenchmarkTransformation(final int rows, final int columns, final TransitionType type) {
+        super("Transformer.apply", rows + "x" + columns + "/" + type);
+        this.rows = rows;
+        this.columns = columns;
+        this.type = type;
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.benchmark.Benchmark#run()
+     */
+    @Override
+    public long run() throws Exception {
+        switch (type) {
+        case UNOPTIMIZED:
+            return transformer.apply(0L, state, target).size();
+        case ROLLUP:
+            return transformer.applyRollup(0L, state, source, target).size();
+        case SNAPSHOT:
+            return transformer.applySnapshot(0L, state, target, snapshot).size();
+        default:
+            throw new IllegalArgumentException("Unknown transition type: " + type);
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.benchmark.Benchmark#setup()
+     */
+    @Override
+    public void setup() throws Exception {
+
+        // Prepare
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addCriterion(new KAnonymity(2));
+        final BenchmarkEnvironment environment = new BenchmarkEnvironment(BenchmarkData.createSynthetic(rows, columns, CLUSTERS), config);
+        final int[] min = new int[columns];
+        final int[] max = new int[columns];
+        Arrays.fill(min, 1);
+        Arrays.fill(max, 2);
+        final Lattice lattice = environment.createLattice(min, max);
+        final Node bottom = lattice.getBottom();
+        final Node top = lattice.getTop();
+
+        // Transform to the source transformation
+        this.transformer = environment.createTransformer();
+        this.source = transformer.apply(0L, bottom.getTransformation(), environment.createGroupify());
+        this.target = environment.createGroupify();
+        this.state = top.getTransformation();
+
+        // Create snapshot
+        final History history = environment.createHistory(1);
+        lattice.setProperty(bottom, Node.PROPERTY_FORCE_SNAPSHOT);
+        history.store(bottom, source, null);
+        this.snapshot = history.get(top);
+        if (type == TransitionType.SNAPSHOT && snapshot == null) {
+            throw new IllegalStateException("No snapshot available");
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.benchmark.Benchmark#teardown()
+     */
+    @Override
+    public void teardown() {
+        transformer = null;
+        source = null;
+        target = null;
+        snapshot = null;
+    }
+}
@@ -18,18 +18,25 @@
 package org.deidentifier.arx;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.deidentifier.arx.algorithm.AbstractAlgorithm;
 import org.deidentifier.arx.algorithm.FLASHAlgorithm;
 import org.deidentifier.arx.algorithm.FLASHStrategy;
+import org.deidentifier.arx.algorithm.FLASHStrategyLowerBound;
 import org.deidentifier.arx.criteria.KAnonymity;
 import org.deidentifier.arx.criteria.LDiversity;
+import org.deidentifier.arx.criteria.PrivacyCriterion;
 import org.deidentifier.arx.criteria.TCloseness;
 import org.deidentifier.arx.framework.check.INodeChecker;
 import org.deidentifier.arx.framework.check.NodeChecker;
+import org.deidentifier.arx.framework.check.NodeCheckerParallel;
+import org.deidentifier.arx.framework.check.Transformer;
 import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.data.DataMatrix;
 import org.deidentifier.arx.framework.data.Dictionary;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 import org.deidentifier.arx.framework.lattice.Lattice;
@@ -108,7 +115,8 @@ public class ARXAnonymizer {
 	        final ARXLattice flattice = new ARXLattice(lattice,
 	                                                   algorithm.getGlobalOptimum(),
 	                                                   manager.getDataQI().getHeader(),
-	                                                   config.getInternalConfiguration());
+	                                                   config.getInternalConfiguration(),
+	                                                   algorithm.isOptimal());
 
 			// Create output handle
 	        ((DataHandleInput)handle).setLocked(true);
@@ -118,27 +126,59 @@ public class ARXAnonymizer {
                                  handle.getDefinition(),
                                  config,
                                  flattice,
-                                 System.currentTimeMillis() - time);      
+                                 System.currentTimeMillis() - time,
+                                 algorithm.getStatistics(),
+                                 algorithm.isOptimal());      
 		}
     }
 
+    /** The maximal number of checks, 0 if unlimited. */
+    private long        checkLimit                     = 0L;
+
+    /** Whether snapshots in the history are compressed. */
+    private boolean     historyCompression             = false;
+
+    /** The maximal number of bytes used by snapshots of the history on disk. */
+    private long        historyDiskLimit               = 0L;
+
+    /** The maximal number of bytes used by the history, 0 if unlimited. */
+    private long        historyMemoryLimit             = 0L;
+
     /** History size. */
-    private int         historySize          = 200;
+    private int         historySize                    = 200;
 
     /** The listener, if any. */
-    private ARXListener listener             = null;
+    private ARXListener listener                       = null;
 
     /** Snapshot size. */
-    private double      snapshotSizeDataset  = 0.2d;
+    private double      snapshotSizeDataset            = 0.2d;
 
     /** Snapshot size snapshot. */
-    private double      snapshotSizeSnapshot = 0.8d;
+    private double      snapshotSizeSnapshot           = 0.8d;
 
     /** The maximal number of QIs that can be processed. */
-    private int         maxQuasiIdentifiers  = Integer.MAX_VALUE;
+    private int         maxQuasiIdentifiers            = Integer.MAX_VALUE;
 
     /** The maximal size of the search space that can be processed. */
-    private int         maxTransformations   = 200000;
+    private int         maxTransformations             = Integer.MAX_VALUE;
+
+    /** The maximal size of the search space that is materialized. */
+    private int         maxMaterializedTransformations = 200000;
+
+    /** The number of threads used for checking transformations. */
+    private int         numThreads                     = 1;
+
+    /** The number of threads used for transforming the data. */
+    private int         numThreadsPerCheck             = 1;
+
+    /** The minimal number of rows transformed by each of these threads. */
+    private int         minRowsPerThread               = Transformer.DEFAULT_MIN_ROWS_PER_THREAD;
+
+    /** The minimal number of milliseconds between two progress events. */
+    private long        progressInterval               = 1000L;
+
+    /** The maximal execution time in milliseconds, 0 if unlimited. */
+    private long        timeLimit                      = 0L;
 
 
     /**
@@ -195,7 +235,130 @@ public class ARXAnonymizer {
         // Execute
         return anonymizeInternal(handle, handle.getDefinition(), config).asResult(config, handle);
     }
+
+    /**
+     * Performs data anonymization of data which has been prepared with prepare(). This
+     * method may be called concurrently from multiple threads, but each call requires a
+     * separate configuration including a separate metric. As with anonymize(Data, ARXConfiguration),
+     * each call releases all output handles obtained from previous results and the view of
+     * the input handle reflects the research subset of the most recent call. Output handles
+     * of the results must therefore not be accessed while anonymizations are running.
+     *
+     * @param data The prepared data
+     * @param config The privacy config
+     * @return ARXResult
+     * @throws IOException
+     */
+    public ARXResult anonymize(final ARXPreparedData data, ARXConfiguration config) throws IOException {
+
+        DataHandleInput handle = data.getInputHandle();
+        if (handle.getDefinition().getSensitiveAttributes().size() > 1 && config.isProtectSensitiveAssociations()) {
+            throw new UnsupportedOperationException("Currently not supported!");
+        }
+        checkBeforeEncoding(handle, config);
+        synchronized (handle.getRegistry()) {
+            handle.getRegistry().reset();
+            handle.getRegistry().createInputSubset(config);
+        }
+
+        // Execute
+        DataManager manager = data.getManager().getInstance(config.getCriteria());
+        return anonymizeInternal(manager, handle.getDefinition(), config, null).asResult(config, handle);
+    }
+
+    /**
+     * Performs data anonymization with multiple configurations, e.g. with a range of values
+     * for k or for the suppression limit. The data is encoded only once and the configurations
+     * are processed in an order which allows reusing the results of previous runs:
+     * transformations which are anonymous with a configuration are also anonymous with
+     * configurations that have weaker criteria and a higher suppression limit, and vice versa.
+     * Anonymous transformations are only reused if their information loss is known to be
+     * equal, which requires that the configurations share the same metric instance and
+     * attribute weights, and that the metric is independent or no records may be suppressed.
+     * Configurations for which this does not hold are anonymized independently.
+     *
+     * @param data The data
+     * @param configs The privacy configs
+     * @return One result per configuration, in the same order
+     * @throws IOException
+     */
+    public List<ARXResult> anonymize(final Data data, final List<ARXConfiguration> configs) throws IOException {
+        Set<PrivacyCriterion> criteria = new HashSet<PrivacyCriterion>();
+        for (ARXConfiguration config : configs) {
+            criteria.addAll(config.getCriteria());
+        }
+        return anonymize(prepare(data, criteria.toArray(new PrivacyCriterion[criteria.size()])), configs);
+    }
+
+    /**
+     * Performs data anonymization of data which has been prepared with prepare() with
+     * multiple configurations. See anonymize(Data, List) for details. All output handles
+     * obtained from previous results are released. Each result owns a separate buffer, so
+     * output handles of different results of the sweep do not overwrite each other. The view
+     * of the input handle reflects the research subset of the last configuration in the list.
+     *
+     * @param data The prepared data
+     * @param configs The privacy configs
+     * @return One result per configuration, in the same order
+     * @throws IOException
+     */
+    public List<ARXResult> anonymize(final ARXPreparedData data, final List<ARXConfiguration> configs) throws IOException {
+
+        DataHandleInput handle = data.getInputHandle();
+        for (ARXConfiguration config : configs) {
+            if (handle.getDefinition().getSensitiveAttributes().size() > 1 && config.isProtectSensitiveAssociations()) {
+                throw new UnsupportedOperationException("Currently not supported!");
+            }
+            checkBeforeEncoding(handle, config);
+        }
+
+        // Execute
+        handle.getRegistry().reset();
+        ParameterSweep sweep = new ParameterSweep(configs);
+        ARXResult[] results = new ARXResult[configs.size()];
+        for (int index : sweep.getOrder()) {
+            ARXConfiguration config = configs.get(index);
+            handle.getRegistry().createInputSubset(config);
+            DataManager manager = data.getManager().getInstance(config.getCriteria());
+            Result result = anonymizeInternal(manager, handle.getDefinition(), config, sweep);
+            sweep.add(config, result.lattice);
+            results[index] = result.asResult(config, handle);
+        }
+        
+        // Make the view of the input deterministic
+        if (!configs.isEmpty()) {
+            handle.getRegistry().createInputSubset(configs.get(configs.size() - 1));
+        }
+        return Arrays.asList(results);
+    }
     
+    /**
+     * Returns the maximal number of transformations checked by the search, 0 if unlimited.
+     *
+     * @return
+     */
+    public long getCheckLimit() {
+        return checkLimit;
+    }
+
+    /**
+     * Returns the maximal number of bytes used by snapshots of the history on disk.
+     *
+     * @return
+     */
+    public long getHistoryDiskLimit() {
+        return historyDiskLimit;
+    }
+
+    /**
+     * Returns the maximal number of bytes used by the history, 0 if unlimited.
+     *
+     * @return
+     */
+    public long getHistoryMemoryLimit() {
+        return historyMemoryLimit;
+    }
+
     /**
      * Returns the maximum number of snapshots allowed to store in the history.
      * 
@@ -224,6 +387,15 @@ public class ARXAnonymizer {
         return snapshotSizeSnapshot;
     }
 
+    /**
+     * Returns the maximal size of a search space that is materialized.
+     *
+     * @return
+     */
+    public int getMaxMaterializedTransformations() {
+        return maxMaterializedTransformations;
+    }
+
     /**
      * Returns the maximal number of quasi-identifiers.
      * @return
@@ -241,6 +413,157 @@ public class ARXAnonymizer {
         return maxTransformations;
     }
 
+    /**
+     * Returns the minimal number of rows transformed by each thread when checking
+     * a single transformation.
+     *
+     * @return
+     */
+    public int getMinRowsPerThread() {
+        return minRowsPerThread;
+    }
+
+    /**
+     * Returns the number of threads used for checking transformations.
+     *
+     * @return
+     */
+    public int getNumThreads() {
+        return numThreads;
+    }
+
+    /**
+     * Returns the number of threads used for transforming the data when checking
+     * a single transformation.
+     *
+     * @return
+     */
+    public int getNumThreadsPerCheck() {
+        return numThreadsPerCheck;
+    }
+
+    /**
+     * Returns the minimal number of milliseconds between two progress events.
+     *
+     * @return
+     */
+    public long getProgressInterval() {
+        return progressInterval;
+    }
+
+    /**
+     * Returns the maximal execution time of the search in milliseconds, 0 if unlimited.
+     *
+     * @return
+     */
+    public long getTimeLimit() {
+        return timeLimit;
+    }
+
+    /**
+     * Prepares data for being anonymized with multiple configurations via
+     * anonymize(ARXPreparedData, ARXConfiguration). The data is encoded and the
+     * generalization hierarchies are built only once. Values precomputed by metrics
+     * are shared by all configurations which use the same research subset. The input
+     * handle is locked until it is released, and its rows must not be reordered while
+     * anonymizations are running. Hierarchies of sensitive attributes, which are
+     * required for t-closeness with hierarchical ground distance, must be encoded
+     * together with the data by passing the according criteria.
+     *
+     * @param data The data
+     * @param criteria Criteria which define hierarchies for sensitive attributes, if any
+     * @return The prepared data
+     * @throws IOException
+     */
+    public ARXPreparedData prepare(final Data data, final PrivacyCriterion... criteria) throws IOException {
+
+        if (((DataHandleInput)data.getHandle()).isLocked()){
+            throw new RuntimeException("This data handle is locked. Please release it first");
+        }
+
+        DataHandleInput handle = (DataHandleInput) data.getHandle();
+        handle.getDefinition().materialize(handle);
+        checkDefinition(handle);
+        handle.getRegistry().reset();
+        handle.setView(null);
+
+        // Encode
+        DataManager manager = new DataManager(handle.header,
+                                              handle.internalGetData(),
+                                              handle.dictionary,
+                                              handle.getDefinition(),
+                                              new HashSet<PrivacyCriterion>(Arrays.asList(criteria)));
+        handle.update(manager);
+        handle.setLocked(true);
+
+        // Check
+        checkHierarchies(manager);
+        return new ARXPreparedData(handle, manager);
+    }
+
+    /**
+     * Returns whether snapshots in the history are compressed.
+     *
+     * @return
+     */
+    public boolean isHistoryCompressionEnabled() {
+        return historyCompression;
+    }
+
+    /**
+     * Limits the number of transformations checked by the search. When the limit is
+     * reached, the search is terminated and the result contains the best transformation
+     * found so far, see ARXResult.isOptimal(). Transformations are then checked in the
+     * order of the lower bounds on information loss provided by the metric, if any.
+     * Default is 0, i.e. unlimited.
+     *
+     * @param checkLimit
+     */
+    public void setCheckLimit(final long checkLimit) {
+        if (checkLimit < 0) { throw new IllegalArgumentException("Limit must be >= 0"); }
+        this.checkLimit = checkLimit;
+    }
+
+    /**
+     * Sets whether snapshots in the history are compressed. Compression reduces the memory
+     * required by each snapshot, which allows to store more snapshots within the memory limit,
+     * but snapshots must be decompressed whenever they are used. Default is false.
+     *
+     * @param historyCompression
+     */
+    public void setHistoryCompressionEnabled(final boolean historyCompression) {
+        this.historyCompression = historyCompression;
+    }
+
+    /**
+     * Sets the maximal number of bytes used by snapshots of the history on disk. If set,
+     * snapshots which are evicted from memory are written to memory-mapped files in a
+     * temporary directory, from which they are loaded when they are needed again. This is
+     * useful for large datasets, for which re-scanning all rows is expensive. Each thread set
+     * via setNumThreads() owns a separate history with this limit. Default is 0, which
+     * disables this feature.
+     *
+     * @param historyDiskLimit
+     */
+    public void setHistoryDiskLimit(final long historyDiskLimit) {
+        if (historyDiskLimit < 0) { throw new IllegalArgumentException("Disk limit must be positive or 0"); }
+        this.historyDiskLimit = historyDiskLimit;
+    }
+
+    /**
+     * Sets the maximal number of bytes used by the history, including the dictionaries
+     * referenced by its snapshots. If the limit is exceeded, snapshots which save the
+     * least work per byte and have not been used recently are evicted first. Each thread
+     * set via setNumThreads() owns a separate history with this limit. Default is 0, which
+     * means that the history is only bounded by its size.
+     *
+     * @param historyMemoryLimit
+     */
+    public void setHistoryMemoryLimit(final long historyMemoryLimit) {
+        if (historyMemoryLimit < 0) { throw new IllegalArgumentException("Memory limit must be positive or 0"); }
+        this.historyMemoryLimit = historyMemoryLimit;
+    }
+
     /**
      * Sets the maximum number of snapshots allowed to store in the history.
      * 
@@ -253,7 +576,8 @@ public class ARXAnonymizer {
     }
 
     /**
-     * Sets a listener.
+     * Sets a listener. If the listener implements ARXProgressListener, it is also
+     * informed periodically about the progress, see setProgressInterval().
      * 
      * @param listener
      *            the new listener, if any
@@ -284,6 +608,22 @@ public class ARXAnonymizer {
         this.snapshotSizeSnapshot = snapshotSizeSnapshot;
     }
 
+    /**
+     * Sets the maximal size of a search space that is materialized. Larger search spaces are
+     * represented implicitly: transformations are created on demand and only their properties
+     * are stored in compact data structures. In this case, the resulting lattice only contains
+     * the transformations which have been explored, see ARXLattice.isComplete().
+     * Default is 200,000.
+     * 
+     * @param maxMaterializedTransformations
+     */
+    public void setMaxMaterializedTransformations(int maxMaterializedTransformations) {
+        if (maxMaterializedTransformations < 0) {
+            throw new IllegalArgumentException("Number of transformations must be >= 0");
+        }
+        this.maxMaterializedTransformations = maxMaterializedTransformations;
+    }
+
     /**
      * Sets the maximal number of quasi-identifiers. Set to Integer.MAX_VALUE to disable the 
      * restriction. By default, the restriction is disabled.
@@ -295,13 +635,77 @@ public class ARXAnonymizer {
 
     /**
      * Sets the maximal size of the search space. Set to Integer.MAX_VALUE to disable the 
-     * restriction. Default is 200,000.
+     * restriction. Search spaces with more than getMaxMaterializedTransformations() 
+     * transformations are represented implicitly. By default, the restriction is disabled.
      * @param maxTransformations
      */
     public void setMaxTransformations(int maxTransformations) {
         this.maxTransformations = maxTransformations;
     }
 
+    /**
+     * Sets the minimal number of rows transformed by each thread when checking a single
+     * transformation with multiple threads. Datasets with less than twice as many rows are
+     * always processed by a single thread. Default is 50,000.
+     * 
+     * @param minRowsPerThread
+     */
+    public void setMinRowsPerThread(int minRowsPerThread) {
+        if (minRowsPerThread < 1) { throw new IllegalArgumentException("Number of rows must be positive"); }
+        this.minRowsPerThread = minRowsPerThread;
+    }
+
+    /**
+     * Sets the number of threads used for checking transformations. If more than one thread 
+     * is used, transformations which are likely to be checked next are checked concurrently. 
+     * Each thread owns a separate buffer and history, which increases memory requirements
+     * accordingly. The result is the same as with a single thread. Default is 1.
+     * 
+     * @param numThreads
+     */
+    public void setNumThreads(int numThreads) {
+        if (numThreads < 1) { throw new IllegalArgumentException("Number of threads must be positive"); }
+        this.numThreads = numThreads;
+    }
+
+    /**
+     * Sets the number of threads used for transforming the data when checking a single
+     * transformation. Large datasets are split into partitions of consecutive rows, which
+     * are grouped concurrently and merged afterwards. Smaller datasets are always processed
+     * by a single thread. This only affects checks performed by the calling thread, not
+     * by the threads set via setNumThreads(). Default is 1.
+     * 
+     * @param numThreadsPerCheck
+     */
+    public void setNumThreadsPerCheck(int numThreadsPerCheck) {
+        if (numThreadsPerCheck < 1) { throw new IllegalArgumentException("Number of threads must be positive"); }
+        this.numThreadsPerCheck = numThreadsPerCheck;
+    }
+
+    /**
+     * Sets the minimal number of milliseconds between two progress events, which are fired
+     * at listeners implementing ARXProgressListener. Default is 1,000.
+     * 
+     * @param progressInterval
+     */
+    public void setProgressInterval(long progressInterval) {
+        if (progressInterval < 0) { throw new IllegalArgumentException("Interval must be >= 0"); }
+        this.progressInterval = progressInterval;
+    }
+
+    /**
+     * Limits the execution time of the search. When the limit is reached, the search is
+     * terminated and the result contains the best transformation found so far, see
+     * ARXResult.isOptimal(). Transformations are then checked in the order of the lower
+     * bounds on information loss provided by the metric, if any. Default is 0, i.e. unlimited.
+     *
+     * @param timeLimit The limit in milliseconds
+     */
+    public void setTimeLimit(final long timeLimit) {
+        if (timeLimit < 0) { throw new IllegalArgumentException("Limit must be >= 0"); }
+        this.timeLimit = timeLimit;
+    }
+
     /**
      * Performs some sanity checks.
      *
@@ -323,7 +727,15 @@ public class ARXAnonymizer {
 	            }
             }
         }
-        
+    }
+
+    /**
+     * Performs sanity checks of the hierarchies.
+     *
+     * @param manager the manager
+     */
+    private void checkHierarchies(final DataManager manager) {
+
         // Check whether all hierarchies are monotonic
         for (final GeneralizationHierarchy hierarchy : manager.getHierarchies()) {
             hierarchy.checkMonotonicity(manager);
@@ -393,6 +805,21 @@ public class ARXAnonymizer {
             }
         }
 
+        // Check suppression limit
+        if ((config.getMaxOutliers() < 0d) || (config.getMaxOutliers() > 1d)) { throw new IllegalArgumentException("Suppression rate " + config.getMaxOutliers() + "must be in [0, 1]"); }
+
+        // Check definition
+        checkDefinition(handle);
+    }
+
+    /**
+     * Performs sanity checks of the data definition.
+     * 
+     * @param handle
+     *            the data handle
+     */
+    private void checkDefinition(final DataHandle handle) {
+
         // Check handle
         if (!(handle instanceof DataHandleInput)) { throw new IllegalArgumentException("Invalid data handle provided!"); }
 
@@ -425,14 +852,14 @@ public class ARXAnonymizer {
         
         // Perform sanity checks
         Set<String> qis = definition.getQuasiIdentifyingAttributes();
-        if ((config.getMaxOutliers() < 0d) || (config.getMaxOutliers() > 1d)) { throw new IllegalArgumentException("Suppression rate " + config.getMaxOutliers() + "must be in [0, 1]"); }
         if (qis.size() == 0) { throw new IllegalArgumentException("You need to specify at least one quasi-identifier"); }
         if (qis.size() > maxQuasiIdentifiers) { 
             throw new IllegalArgumentException("Too many quasi-identifiers (" + qis.size()+"). This restriction is configurable."); 
         }
-        int transformations = 1;
+        long transformations = 1;
         for (String qi : qis) {
             transformations *= definition.getMaximumGeneralization(qi) - definition.getMinimumGeneralization(qi) + 1;
+            transformations = Math.min(transformations, (long)Integer.MAX_VALUE + 1);
         }
         if (transformations > maxTransformations) { 
             throw new IllegalArgumentException("Too many transformations in the search space (" + transformations+ "). This restriction is configurable."); 
@@ -452,7 +879,7 @@ public class ARXAnonymizer {
 
         // Extract data
         final String[] header = ((DataHandleInput) handle).header;
-        final int[][] dataArray = ((DataHandleInput) handle).data;
+        final DataMatrix dataArray = ((DataHandleInput) handle).internalGetData();
         final Dictionary dictionary = ((DataHandleInput) handle).dictionary;
         final DataManager manager = new DataManager(header, dataArray, dictionary, definition, config.getCriteria());
         return manager;
@@ -475,9 +902,28 @@ public class ARXAnonymizer {
         final DataManager manager = prepareDataManager(handle, definition, config);
         
         // Attach arrays to data handle
-        ((DataHandleInput)handle).update(manager.getDataQI().getArray(), 
-                                         manager.getDataSE().getArray(),
-                                         manager.getDataIS().getArray());
+        ((DataHandleInput)handle).update(manager);
+
+        // Check
+        checkHierarchies(manager);
+
+        // Execute
+        return anonymizeInternal(manager, definition, config, null);
+    }
+
+    /**
+     * Run the algorithm on encoded data.
+     *
+     * @param manager
+     * @param definition
+     * @param config
+     * @param sweep Results of previous runs which may be reused, may be null
+     * @return
+     */
+    protected Result anonymizeInternal(final DataManager manager,
+                                       final DataDefinition definition,
+                                       final ARXConfiguration config,
+                                       final ParameterSweep sweep) {
 
         // Initialize
         config.initialize(manager);
@@ -486,27 +932,53 @@ public class ARXAnonymizer {
         checkAfterEncoding(config, manager);
 
         // Build or clean the lattice
-        Lattice lattice = new LatticeBuilder(manager.getMaxLevels(), manager.getMinLevels()).build();
+        LatticeBuilder builder = new LatticeBuilder(manager.getMaxLevels(), manager.getMinLevels());
+        Lattice lattice = builder.getSize() > maxMaterializedTransformations ? builder.buildImplicit() : builder.build(config.getMetric());
         lattice.setListener(listener);
 
         // Build a node checker
-        final INodeChecker checker = new NodeChecker(manager, config.getMetric(), config.getInternalConfiguration(), historySize, snapshotSizeDataset, snapshotSizeSnapshot);
+        final NodeChecker checker = new NodeChecker(manager, config.getMetric(), config.getInternalConfiguration(), historySize, snapshotSizeDataset, snapshotSizeSnapshot, numThreadsPerCheck, minRowsPerThread);
+        checker.getHistory().setMemoryLimit(historyMemoryLimit == 0L ? Long.MAX_VALUE : historyMemoryLimit);
+        checker.getHistory().setCompressionEnabled(historyCompression);
+        checker.getHistory().setDiskLimit(historyDiskLimit);
+
+        // Build a parallel node checker, if required
+        final NodeCheckerParallel parallelChecker = numThreads == 1 ? null :
+                                                    new NodeCheckerParallel(checker, manager, config.getMetric(), config.getInternalConfiguration(), historySize, snapshotSizeDataset, snapshotSizeSnapshot, numThreads);
 
         // Initialize the metric
         config.getMetric().initialize(definition, manager.getDataQI(), manager.getHierarchies(), config);
 
-        // Create an algorithm instance
-        FLASHStrategy strategy = new FLASHStrategy(lattice, manager.getHierarchies());
-        AbstractAlgorithm algorithm = FLASHAlgorithm.create(lattice, checker, strategy);
+        // Create an algorithm instance, which prefers promising transformations if the search is limited
+        boolean limited = timeLimit > 0 || checkLimit > 0;
+        FLASHStrategy strategy = limited ? new FLASHStrategyLowerBound(lattice, manager.getHierarchies(), config.getMetric()) :
+                                           new FLASHStrategy(lattice, manager.getHierarchies());
+        AbstractAlgorithm algorithm = FLASHAlgorithm.create(lattice, parallelChecker != null ? parallelChecker : checker, strategy);
+        algorithm.setLimits(timeLimit, checkLimit);
+        if (listener instanceof ARXProgressListener) {
+            algorithm.setProgressListener((ARXProgressListener) listener, progressInterval);
+        }
+
+        // Reuse previous results
+        if (sweep != null) {
+            sweep.apply(config, lattice, algorithm);
+        }
         
         // Execute
 
         final long time = System.currentTimeMillis();
-        algorithm.traverse();
-        
-        // Deactivate history to prevent bugs when sorting data
-        checker.getHistory().reset();
-        checker.getHistory().setSize(0);
+        try {
+            algorithm.traverse();
+        } finally {
+            if (parallelChecker != null) {
+                parallelChecker.shutdown();
+            }
+            checker.shutdown();
+
+            // Deactivate history to prevent bugs when sorting data. This also removes snapshots on disk
+            checker.getHistory().reset();
+            checker.getHistory().setSize(0);
+        }
         
         // Return the result
         return new Result(config.getMetric(), checker, lattice, manager, algorithm, time);
@@ -199,6 +199,24 @@ public class ARXConfiguration implements Serializable, Cloneable {
         public boolean isCriterionMonotonic() {
             return config.isCriterionMonotonic();
         }
+
+        /**
+         * Returns whether results of privacy criteria are cached.
+         *
+         * @return
+         */
+        public boolean isCriterionCacheEnabled() {
+            return config.isCriterionCacheEnabled();
+        }
+
+        /**
+         * Returns whether equivalence classes are stored in primitive arrays.
+         *
+         * @return
+         */
+        public boolean isPrimitiveGroupifyEnabled() {
+            return config.isPrimitiveGroupifyEnabled();
+        }
     }
 
     /** Do the criteria require a counter per equivalence class. */
@@ -267,6 +285,9 @@ public class ARXConfiguration implements Serializable, Cloneable {
     /** The criteria. */
     private Set<PrivacyCriterion>              criteria                     = new HashSet<PrivacyCriterion>();
 
+    /** Determines whether results of privacy criteria are cached per distribution of sensitive values. */
+    private Boolean                            criterionCache               = true;
+
     /** The metric. */
     private Metric<?>                          metric                       = Metric.createLossMetric();
 
@@ -279,6 +300,9 @@ public class ARXConfiguration implements Serializable, Cloneable {
     /** Relative tuple outliers. */
     private double                             relMaxOutliers               = -1;
 
+    /** Determines whether equivalence classes are stored in primitive arrays instead of individual objects. */
+    private Boolean                            primitiveGroupify            = false;
+
     /** The requirements per equivalence class. */
     private int                                requirements                 = 0x0;
 
@@ -375,6 +399,8 @@ public class ARXConfiguration implements Serializable, Cloneable {
         result.suppressionString = this.suppressionString;
         result.suppressionAlwaysEnabled = this.suppressionAlwaysEnabled;
         result.suppressedAttributeTypes = this.suppressedAttributeTypes;
+        result.primitiveGroupify = this.primitiveGroupify;
+        result.criterionCache = this.criterionCache;
         if (this.attributeWeights != null) {
             result.attributeWeights = new HashMap<String, Double>(this.attributeWeights);
         } else {
@@ -541,6 +567,20 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return true;
     }
 
+    /**
+     * Returns whether results of privacy criteria, which only depend on the distribution of
+     * sensitive values within an equivalence class, are cached. Default is <code>true</code>.
+     *
+     * @return
+     */
+    public boolean isCriterionCacheEnabled() {
+        // Ensure backwards compatibility
+        if (this.criterionCache == null) {
+            this.criterionCache = true;
+        }
+        return this.criterionCache;
+    }
+
     /**
      * Is practical monotonicity assumed.
      *
@@ -550,6 +590,20 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return practicalMonotonicity;
     }
 
+    /**
+     * Returns whether equivalence classes are stored in primitive arrays, which are reused
+     * across checks, instead of individual objects. Default is <code>false</code>.
+     * 
+     * @return
+     */
+    public boolean isPrimitiveGroupifyEnabled() {
+        // Ensure backwards compatibility
+        if (this.primitiveGroupify == null) {
+            this.primitiveGroupify = false;
+        }
+        return this.primitiveGroupify;
+    }
+
     /**
      * Returns, whether the anonymizer should take associations between sensitive attributes into account.
      *
@@ -631,6 +685,19 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.attributeWeights.put(attribute, weight);
     }
 
+    /**
+     * Sets whether results of privacy criteria, which only depend on the distribution of sensitive
+     * values within an equivalence class, are cached. Many equivalence classes of many transformations
+     * share identical distributions, which are then evaluated only once. This speeds up l-diversity
+     * and t-closeness, in particular with hierarchical distances, at the cost of memory for up to
+     * 100.000 results per criterion and checker. Default is <code>true</code>.
+     *
+     * @param enabled
+     */
+    public void setCriterionCacheEnabled(boolean enabled) {
+        this.criterionCache = enabled;
+    }
+
     /**
      * Allows for a certain percentage of outliers and thus
      * triggers tuple suppression.
@@ -660,6 +727,18 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.practicalMonotonicity = assumeMonotonicity;
     }
 
+    /**
+     * Sets whether equivalence classes are stored in primitive arrays, which are reused
+     * across checks, instead of individual objects. This avoids allocating objects for 
+     * each equivalence class, which reduces pressure on the garbage collector when 
+     * transformations result in a very large number of classes. Default is <code>false</code>.
+     * 
+     * @param enabled
+     */
+    public void setPrimitiveGroupifyEnabled(boolean enabled) {
+        this.primitiveGroupify = enabled;
+    }
+
     /**
      * Set, whether the anonymizer should take associations between sensitive attributes into account.
      *
@@ -20,8 +20,10 @@ package org.deidentifier.arx;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
@@ -347,8 +349,9 @@ public class ARXLattice implements Serializable {
          *
          * @param node
          * @param headermap
+         * @param searchComplete Whether the search space has been searched completely
          */
-        private ARXNode(final Node node, final Map<String, Integer> headermap) {
+        private ARXNode(final Node node, final Map<String, Integer> headermap, final boolean searchComplete) {
             
             // Set properties
             this.headermap = headermap;
@@ -375,7 +378,7 @@ public class ARXLattice implements Serializable {
                     this.anonymity = uncertainty ? Anonymity.PROBABLY_NOT_ANONYMOUS : Anonymity.NOT_ANONYMOUS;
                 } else if (node.hasProperty(Node.PROPERTY_NOT_K_ANONYMOUS)) {
                     this.anonymity = Anonymity.NOT_ANONYMOUS;
-                } else if (node.hasProperty(Node.PROPERTY_INSUFFICIENT_UTILITY)) {
+                } else if (node.hasProperty(Node.PROPERTY_INSUFFICIENT_UTILITY) || !searchComplete) {
                     this.anonymity = Anonymity.UNKNOWN;
                 } else {
                     throw new IllegalStateException("Missing node information");
@@ -636,7 +639,7 @@ public class ARXLattice implements Serializable {
         }
 
     }
-    
+
     /**
      * Context for deserialization.
      *
@@ -650,7 +653,7 @@ public class ARXLattice implements Serializable {
         /**  TODO */
         public int maxLevel = 0;
     }
-    
+
     /** Deserialization context. */
     private static LatticeDeserializationContext deserializationContext = new LatticeDeserializationContext();
 
@@ -672,6 +675,9 @@ public class ARXLattice implements Serializable {
     /** The bottom node. */
     private transient ARXNode     bottom;
 
+    /** Does the lattice contain all transformations. */
+    private Boolean               complete                          = true;
+
     /** The levels in the lattice. */
     private transient ARXNode[][] levels;
 
@@ -692,7 +698,7 @@ public class ARXLattice implements Serializable {
 
     /** Monotonicity of information loss. */
     private boolean               monotonicAnonymous;
-    
+
     /** Monotonicity of information loss. */
     private boolean               monotonicNonAnonymous;
 
@@ -709,11 +715,13 @@ public class ARXLattice implements Serializable {
      * @param globalOptimum
      * @param header The header
      * @param config The config
+     * @param searchComplete Whether the search space has been searched completely
      */
     ARXLattice(final Lattice lattice,
                final Node globalOptimum,
                final String[] header,
-               final ARXConfigurationInternal config) {
+               final ARXConfigurationInternal config,
+               final boolean searchComplete) {
 
         this.metric = config.getMetric();
         this.monotonicNonAnonymous = metric.isMonotonic() || !config.isSuppressionAlwaysEnabled();
@@ -732,34 +740,72 @@ public class ARXLattice implements Serializable {
 
         // Create nodes
         final Map<Node, ARXNode> map = new HashMap<Node, ARXNode>();
-        size = lattice.getSize();
-        levels = new ARXNode[lattice.getLevels().length][];
-        for (int i = 0; i < lattice.getLevels().length; i++) {
-            final Node[] level = lattice.getLevels()[i];
-            levels[i] = new ARXNode[level.length];
-            for (int j = 0; j < level.length; j++) {
-                final ARXNode node = new ARXNode(level[j], headermap);
-                if (level[j] == globalOptimum) {
-                    optimum = node;
+        if (lattice.isMaterialized()) {
+            size = lattice.getSize();
+            final Node[][] nodes = lattice.getLevels();
+            levels = new ARXNode[nodes.length][];
+            for (int i = 0; i < nodes.length; i++) {
+                final Node[] level = nodes[i];
+                levels[i] = new ARXNode[level.length];
+                for (int j = 0; j < level.length; j++) {
+                    final ARXNode node = new ARXNode(level[j], headermap, searchComplete);
+                    if (level[j].equals(globalOptimum)) {
+                        optimum = node;
+                    }
+                    levels[i][j] = node;
+                    map.put(level[j], node);
                 }
-                levels[i][j] = node;
-                map.put(level[j], node);
             }
-        }
 
-        // Create relationships
-        for (final Node[] level : lattice.getLevels()) {
-            for (final Node node : level) {
-                final ARXNode fnode = map.get(node);
-                fnode.successors = new ARXNode[node.getSuccessors().length];
-                fnode.predecessors = new ARXNode[node.getPredecessors().length];
-                for (int i = 0; i < node.getSuccessors().length; i++) {
-                    fnode.successors[i] = map.get(node.getSuccessors()[i]);
+            // Create relationships
+            for (final Node[] level : nodes) {
+                for (final Node node : level) {
+                    final ARXNode fnode = map.get(node);
+                    final Node[] successors = node.getSuccessors();
+                    final Node[] predecessors = node.getPredecessors();
+                    fnode.successors = new ARXNode[successors.length];
+                    fnode.predecessors = new ARXNode[predecessors.length];
+                    for (int i = 0; i < successors.length; i++) {
+                        fnode.successors[i] = map.get(successors[i]);
+                    }
+                    for (int i = 0; i < predecessors.length; i++) {
+                        fnode.predecessors[i] = map.get(predecessors[i]);
+                    }
                 }
-                for (int i = 0; i < node.getPredecessors().length; i++) {
-                    fnode.predecessors[i] = map.get(node.getPredecessors()[i]);
+            }
+        } else {
+
+            // Only represent explored transformations, the bottom and the top
+            complete = false;
+            final List<Node> nodes = lattice.getExploredNodes();
+            nodes.add(lattice.getBottom());
+            nodes.add(lattice.getTop());
+            final List<List<ARXNode>> list = new ArrayList<List<ARXNode>>();
+            for (int i = 0; i < lattice.getNumLevels(); i++) {
+                list.add(new ArrayList<ARXNode>());
+            }
+            for (final Node node : nodes) {
+                if (!map.containsKey(node)) {
+                    final ARXNode fnode = new ARXNode(node, headermap, searchComplete);
+                    if (node.equals(globalOptimum)) {
+                        optimum = fnode;
+                    }
+                    list.get(node.getLevel()).add(fnode);
+                    map.put(node, fnode);
                 }
             }
+            size = map.size();
+            levels = new ARXNode[list.size()][];
+            for (int i = 0; i < levels.length; i++) {
+                levels[i] = list.get(i).toArray(new ARXNode[list.get(i).size()]);
+            }
+
+            // Create relationships between represented nodes
+            for (final Node node : map.keySet()) {
+                final ARXNode fnode = map.get(node);
+                fnode.successors = getNodes(node.getSuccessors(), map);
+                fnode.predecessors = getNodes(node.getPredecessors(), map);
+            }
         }
 
         // find bottom node
@@ -840,7 +886,7 @@ public class ARXLattice implements Serializable {
         }
         return this.minimumInformationLoss;
     }
-    
+
     /**
      * Returns the number of nodes.
      *
@@ -858,7 +904,37 @@ public class ARXLattice implements Serializable {
     public ARXNode getTop() {
         return top;
     }
-    
+
+    /**
+     * Returns whether the lattice contains all transformations. For very large search spaces,
+     * the lattice only contains the transformations which have been checked or for which the
+     * information loss is known, the bottom and the top. In this case, predecessors and
+     * successors only link transformations contained in the lattice.
+     *
+     * @return
+     */
+    public boolean isComplete() {
+        return complete == null || complete;
+    }
+
+    /**
+     * Returns the nodes which represent the given transformations, if any.
+     *
+     * @param nodes
+     * @param map
+     * @return
+     */
+    private ARXNode[] getNodes(final Node[] nodes, final Map<Node, ARXNode> map) {
+        final List<ARXNode> result = new ArrayList<ARXNode>();
+        for (final Node node : nodes) {
+            final ARXNode fnode = map.get(node);
+            if (fnode != null) {
+                result.add(fnode);
+            }
+        }
+        return result.toArray(new ARXNode[result.size()]);
+    }
+
     /**
      * De-serialization.
      *
@@ -900,7 +976,7 @@ public class ARXLattice implements Serializable {
         this.minimumInformationLoss = estimator.getGlobalMinimum();
         this.maximumInformationLoss = estimator.getGlobalMaximum();
     }
-    
+
 
     /**
      * Returns the optimum, if any.
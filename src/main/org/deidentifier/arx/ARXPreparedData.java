@@ -0,0 +1,76 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import org.deidentifier.arx.framework.data.DataManager;
+
+/**
+ * Data which has been prepared for being anonymized with multiple configurations.
+ * The data is encoded only once and the encoded data, the generalization hierarchies
+ * and values precomputed by metrics are shared by all anonymizations, which may also
+ * be executed concurrently. Instances are created with ARXAnonymizer.prepare().
+ * 
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class ARXPreparedData {
+
+    /** The input handle. */
+    private final DataHandleInput handle;
+
+    /** The data manager. */
+    private final DataManager     manager;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param handle
+     * @param manager
+     */
+    ARXPreparedData(final DataHandleInput handle, final DataManager manager) {
+        this.handle = handle;
+        this.manager = manager;
+    }
+
+    /**
+     * Returns the input handle. It is locked until it is released.
+     *
+     * @return
+     */
+    public DataHandle getHandle() {
+        return handle;
+    }
+
+    /**
+     * Returns the input handle.
+     *
+     * @return
+     */
+    DataHandleInput getInputHandle() {
+        return handle;
+    }
+
+    /**
+     * Returns the data manager.
+     *
+     * @return
+     */
+    DataManager getManager() {
+        return manager;
+    }
+}
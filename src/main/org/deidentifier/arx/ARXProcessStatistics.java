@@ -0,0 +1,416 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.io.IOException;
+
+import org.deidentifier.arx.framework.check.CheckStatistics;
+import org.deidentifier.arx.framework.check.StateMachine.TransitionType;
+
+/**
+ * Statistics about the anonymization process, which allow to understand where time and
+ * memory are spent. The transformation of data includes grouping it into equivalence classes.
+ * All times are measured in milliseconds and all sizes in bytes. With multiple threads, times
+ * are summed up over all threads and peak memory usage of the history is summed up over the
+ * histories of all threads.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class ARXProcessStatistics {
+
+    /** Nanoseconds per millisecond. */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /** The statistics of the checker. */
+    private final CheckStatistics checks;
+
+    /** The time elapsed. */
+    private final long            duration;
+
+    /** The number of checks in the binary phase. */
+    private final long            numChecksBinaryPhase;
+
+    /** The number of checks in the linear phase. */
+    private final long            numChecksLinearPhase;
+
+    /** The number of transformations evaluated without a check. */
+    private final long            numEvaluations;
+
+    /** The peak heap usage. */
+    private final long            peakHeapUsage;
+
+    /** The size of the search space. */
+    private final long            searchSpaceSize;
+
+    /**
+     * Creates a new instance. Used internally.
+     *
+     * @param duration
+     * @param searchSpaceSize
+     * @param checks
+     * @param numChecksBinaryPhase
+     * @param numChecksLinearPhase
+     * @param numEvaluations
+     * @param peakHeapUsage
+     */
+    public ARXProcessStatistics(final long duration,
+                                final long searchSpaceSize,
+                                final CheckStatistics checks,
+                                final long numChecksBinaryPhase,
+                                final long numChecksLinearPhase,
+                                final long numEvaluations,
+                                final long peakHeapUsage) {
+        this.duration = duration;
+        this.searchSpaceSize = searchSpaceSize;
+        this.checks = checks;
+        this.numChecksBinaryPhase = numChecksBinaryPhase;
+        this.numChecksLinearPhase = numChecksLinearPhase;
+        this.numEvaluations = numEvaluations;
+        this.peakHeapUsage = peakHeapUsage;
+    }
+
+    /**
+     * Returns the average number of equivalence classes of the transformations checked.
+     *
+     * @return
+     */
+    public double getAverageNumberOfEquivalenceClasses() {
+        final long count = checks.getNumChecks();
+        return count == 0 ? 0d : (double) checks.getTotalEquivalenceClasses() / (double) count;
+    }
+
+    /**
+     * Returns the time elapsed.
+     *
+     * @return
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    /**
+     * Returns the maximal number of equivalence classes of a transformation checked.
+     *
+     * @return
+     */
+    public long getMaximalNumberOfEquivalenceClasses() {
+        return checks.getMaxEquivalenceClasses();
+    }
+
+    /**
+     * Returns the number of transformations checked.
+     *
+     * @return
+     */
+    public long getNumChecks() {
+        return checks.getNumChecks();
+    }
+
+    /**
+     * Returns the number of transformations checked in the binary phase of the search.
+     *
+     * @return
+     */
+    public long getNumChecksBinaryPhase() {
+        return numChecksBinaryPhase;
+    }
+
+    /**
+     * Returns the number of transformations checked in the linear phase of the search.
+     *
+     * @return
+     */
+    public long getNumChecksLinearPhase() {
+        return numChecksLinearPhase;
+    }
+
+    /**
+     * Returns the number of transformations checked by rolling up the equivalence classes
+     * of the previous transformation.
+     *
+     * @return
+     */
+    public long getNumChecksRollup() {
+        return checks.getNumChecks(TransitionType.ROLLUP);
+    }
+
+    /**
+     * Returns the number of transformations checked by transforming a snapshot.
+     *
+     * @return
+     */
+    public long getNumChecksSnapshot() {
+        return checks.getNumChecks(TransitionType.SNAPSHOT);
+    }
+
+    /**
+     * Returns the number of transformations checked by transforming the input data.
+     *
+     * @return
+     */
+    public long getNumChecksUnoptimized() {
+        return checks.getNumChecks(TransitionType.UNOPTIMIZED);
+    }
+
+    /**
+     * Returns the number of transformations, whose information loss has been evaluated
+     * without checking them.
+     *
+     * @return
+     */
+    public long getNumEvaluations() {
+        return numEvaluations;
+    }
+
+    /**
+     * Returns the number of rows, equivalence classes (for roll-ups) or snapshot entries
+     * that have been transformed.
+     *
+     * @return
+     */
+    public long getNumRowsProcessed() {
+        return checks.getRowsProcessed();
+    }
+
+    /**
+     * Returns the number of results of privacy criteria, which have been found in the cache.
+     *
+     * @return
+     */
+    public long getNumCriterionCacheHits() {
+        return checks.getNumCriterionCacheHits();
+    }
+
+    /**
+     * Returns the number of results of privacy criteria, which have been computed because
+     * they have not been found in the cache.
+     *
+     * @return
+     */
+    public long getNumCriterionCacheMisses() {
+        return checks.getNumCriterionCacheMisses();
+    }
+
+    /**
+     * Returns the number of snapshots evicted from memory.
+     *
+     * @return
+     */
+    public long getNumSnapshotsEvicted() {
+        return checks.getNumSnapshotsEvicted();
+    }
+
+    /**
+     * Returns the number of requests for a snapshot, which have been answered.
+     *
+     * @return
+     */
+    public long getNumSnapshotHits() {
+        return checks.getNumSnapshotHits();
+    }
+
+    /**
+     * Returns the number of snapshots loaded from disk.
+     *
+     * @return
+     */
+    public long getNumSnapshotsLoaded() {
+        return checks.getNumSnapshotsLoaded();
+    }
+
+    /**
+     * Returns the number of requests for a snapshot, which could not be answered.
+     *
+     * @return
+     */
+    public long getNumSnapshotMisses() {
+        return checks.getNumSnapshotMisses();
+    }
+
+    /**
+     * Returns the number of snapshots written to disk.
+     *
+     * @return
+     */
+    public long getNumSnapshotsSpilled() {
+        return checks.getNumSnapshotsSpilled();
+    }
+
+    /**
+     * Returns the number of snapshots which could not be written to disk.
+     *
+     * @return
+     */
+    public long getNumSnapshotSpillErrors() {
+        return checks.getNumSnapshotSpillErrors();
+    }
+
+    /**
+     * Returns the number of snapshots stored.
+     *
+     * @return
+     */
+    public long getNumSnapshotsStored() {
+        return checks.getNumSnapshotsStored();
+    }
+
+    /**
+     * Returns the peak heap usage of the JVM observed after checking transformations.
+     *
+     * @return
+     */
+    public long getPeakHeapUsage() {
+        return peakHeapUsage;
+    }
+
+    /**
+     * Returns the peak disk usage of snapshots.
+     *
+     * @return
+     */
+    public long getPeakHistoryDiskUsage() {
+        return checks.getPeakDiskUsage();
+    }
+
+    /**
+     * Returns the estimated peak memory usage of snapshots.
+     *
+     * @return
+     */
+    public long getPeakHistoryMemoryUsage() {
+        return checks.getPeakMemoryUsage();
+    }
+
+    /**
+     * Returns the size of the search space.
+     *
+     * @return
+     */
+    public long getSearchSpaceSize() {
+        return searchSpaceSize;
+    }
+
+    /**
+     * Returns the last error which occurred while writing a snapshot to disk, null if there is none.
+     *
+     * @return
+     */
+    public IOException getSpillError() {
+        return checks.getSpillError();
+    }
+
+    /**
+     * Returns the time spent on evaluating privacy criteria.
+     *
+     * @return
+     */
+    public long getTimeAnalysis() {
+        return checks.getTimeAnalysis() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns the time spent on storing and retrieving snapshots.
+     *
+     * @return
+     */
+    public long getTimeHistory() {
+        return checks.getTimeHistory() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns the time spent on computing information loss.
+     *
+     * @return
+     */
+    public long getTimeInformationLoss() {
+        return checks.getTimeInformationLoss() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns the time spent on transforming data.
+     *
+     * @return
+     */
+    public long getTimeTransformation() {
+        return checks.getTimeTransformation() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns the time spent on rolling up equivalence classes.
+     *
+     * @return
+     */
+    public long getTimeTransformationRollup() {
+        return checks.getTimeTransformation(TransitionType.ROLLUP) / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns the time spent on transforming snapshots.
+     *
+     * @return
+     */
+    public long getTimeTransformationSnapshot() {
+        return checks.getTimeTransformation(TransitionType.SNAPSHOT) / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns the time spent on transforming the input data.
+     *
+     * @return
+     */
+    public long getTimeTransformationUnoptimized() {
+        return checks.getTimeTransformation(TransitionType.UNOPTIMIZED) / NANOS_PER_MILLI;
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Duration: ").append(getDuration()).append(" ms\n");
+        builder.append("Checks: ").append(getNumChecks()).append(" of ").append(getSearchSpaceSize());
+        builder.append(" (unoptimized: ").append(getNumChecksUnoptimized());
+        builder.append(", roll-up: ").append(getNumChecksRollup());
+        builder.append(", snapshot: ").append(getNumChecksSnapshot());
+        builder.append(", binary phase: ").append(getNumChecksBinaryPhase());
+        builder.append(", linear phase: ").append(getNumChecksLinearPhase());
+        builder.append(", evaluations: ").append(getNumEvaluations()).append(")\n");
+        builder.append("Time: transformation ").append(getTimeTransformation()).append(" ms");
+        builder.append(", analysis ").append(getTimeAnalysis()).append(" ms");
+        builder.append(", information loss ").append(getTimeInformationLoss()).append(" ms");
+        builder.append(", history ").append(getTimeHistory()).append(" ms\n");
+        builder.append("Rows processed: ").append(getNumRowsProcessed());
+        builder.append(", equivalence classes: ").append(Math.round(getAverageNumberOfEquivalenceClasses()));
+        builder.append(" (average), ").append(getMaximalNumberOfEquivalenceClasses()).append(" (maximum)\n");
+        builder.append("Snapshots: ").append(getNumSnapshotHits()).append(" hits, ");
+        builder.append(getNumSnapshotMisses()).append(" misses, ");
+        builder.append(getNumSnapshotsStored()).append(" stored, ");
+        builder.append(getNumSnapshotsEvicted()).append(" evicted, ");
+        builder.append(getNumSnapshotsSpilled()).append(" spilled, ");
+        builder.append(getNumSnapshotSpillErrors()).append(" failed to spill, ");
+        builder.append(getNumSnapshotsLoaded()).append(" loaded\n");
+        builder.append("Criterion cache: ").append(getNumCriterionCacheHits()).append(" hits, ");
+        builder.append(getNumCriterionCacheMisses()).append(" misses\n");
+        builder.append("Peak memory: heap ").append(getPeakHeapUsage()).append(" bytes");
+        builder.append(", history ").append(getPeakHistoryMemoryUsage()).append(" bytes");
+        builder.append(", disk ").append(getPeakHistoryDiskUsage()).append(" bytes");
+        return builder.toString();
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+/**
+ * A listener, which is periodically informed about the progress of the anonymization
+ * process, in addition to the events defined by ARXListener. The interval between
+ * two events can be configured with ARXAnonymizer.setProgressInterval().
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public interface ARXProgressListener extends ARXListener {
+
+    /**
+     * Is called periodically while the search space is traversed.
+     *
+     * @param statistics The statistics collected so far
+     */
+    public void progress(ARXProcessStatistics statistics);
+}
@@ -23,7 +23,9 @@ import org.deidentifier.arx.framework.check.INodeChecker;
 import org.deidentifier.arx.framework.check.NodeChecker;
 import org.deidentifier.arx.framework.check.TransformedData;
 import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.data.DataMatrix;
 import org.deidentifier.arx.framework.data.Dictionary;
+import org.deidentifier.arx.framework.lattice.LatticeBuilder;
 import org.deidentifier.arx.framework.lattice.Node;
 import org.deidentifier.arx.metric.Metric;
 
@@ -36,34 +38,40 @@ import org.deidentifier.arx.metric.Metric;
 public class ARXResult {
 
     /** Lock the buffer. */
-    private DataHandle             bufferLockedByHandle = null;
+    private DataHandle                 bufferLockedByHandle = null;
 
     /** Lock the buffer. */
-    private ARXNode                bufferLockedByNode   = null;
+    private ARXNode                    bufferLockedByNode   = null;
 
     /** The node checker. */
-    private final INodeChecker     checker;
+    private final INodeChecker         checker;
 
     /** The config. */
-    private final ARXConfiguration config;
+    private final ARXConfiguration     config;
 
     /** The data definition. */
-    private final DataDefinition   definition;
+    private final DataDefinition       definition;
 
     /** Wall clock. */
-    private final long             duration;
+    private final long                 duration;
 
     /** The lattice. */
-    private final ARXLattice       lattice;
+    private final ARXLattice           lattice;
 
     /** The data manager. */
-    private final DataManager      manager;
+    private final DataManager          manager;
+
+    /** Whether the global optimum is known to be optimal. */
+    private final boolean              optimal;
 
     /** The global optimum. */
-    private final ARXNode          optimalNode;
+    private final ARXNode              optimalNode;
 
     /** The registry. */
-    private final DataRegistry     registry;
+    private final DataRegistry         registry;
+
+    /** The statistics, if any. */
+    private final ARXProcessStatistics statistics;
 
     /**
      * Internal constructor for deserialization.
@@ -99,7 +107,7 @@ public class ARXResult {
 
         // Extract data
         final String[] header = ((DataHandleInput) handle).header;
-        final int[][] dataArray = ((DataHandleInput) handle).data;
+        final DataMatrix dataArray = ((DataHandleInput) handle).internalGetData();
         final Dictionary dictionary = ((DataHandleInput) handle).dictionary;
         final DataManager manager = new DataManager(header,
                                                     dataArray,
@@ -108,9 +116,7 @@ public class ARXResult {
                                                     config.getCriteria());
 
         // Update handle
-        ((DataHandleInput)handle).update(manager.getDataQI().getArray(), 
-                                         manager.getDataSE().getArray(),
-                                         manager.getDataIS().getArray());
+        ((DataHandleInput)handle).update(manager);
         
         // Lock handle
         ((DataHandleInput)handle).setLocked(true);
@@ -137,7 +143,9 @@ public class ARXResult {
         this.config = config;
         this.lattice = lattice;
         this.optimalNode = lattice.getOptimum();
+        this.optimal = true;
         this.duration = time;
+        this.statistics = null;
     }
     
     
@@ -151,6 +159,8 @@ public class ARXResult {
      * @param config
      * @param lattice
      * @param duration
+     * @param statistics
+     * @param optimal
      */
     protected ARXResult(DataRegistry registry,
                         DataManager manager,
@@ -158,7 +168,9 @@ public class ARXResult {
                         DataDefinition definition,
                         ARXConfiguration config,
                         ARXLattice lattice,
-                        long duration) {
+                        long duration,
+                        ARXProcessStatistics statistics,
+                        boolean optimal) {
 
         this.registry = registry;
         this.manager = manager;
@@ -167,7 +179,9 @@ public class ARXResult {
         this.config = config;
         this.lattice = lattice;
         this.optimalNode = lattice.getOptimum();
+        this.optimal = optimal;
         this.duration = duration;
+        this.statistics = statistics;
     }
 
     /**
@@ -280,9 +294,7 @@ public class ARXResult {
         DataHandle handle = registry.getOutputHandle(node);
         if (handle != null) return handle;
 
-        final Node transformation = new Node(0);
-        int level = 0; for (int i : node.getTransformation()) level+= i;
-        transformation.setTransformation(node.getTransformation(), level);
+        final Node transformation = new LatticeBuilder(node.getTransformation(), node.getTransformation()).build().getBottom();
  
         // Apply the transformation
         TransformedData information = checker.applyAndSetProperties(transformation);
@@ -342,6 +354,16 @@ public class ARXResult {
         return getOutput(optimalNode, fork);
     }
 
+    /**
+     * Returns statistics about the anonymization process. Returns null, if the result
+     * has not been created by an ARXAnonymizer, e.g. when it has been loaded from a project.
+     *
+     * @return
+     */
+    public ARXProcessStatistics getStatistics() {
+        return statistics;
+    }
+
     /**
      * Returns the execution time (wall clock).
      *
@@ -351,6 +373,17 @@ public class ARXResult {
         return duration;
     }
 
+    /**
+     * Returns whether the global optimum is known to be optimal. This is not the case if
+     * the search has been terminated because its time or check limit has been reached.
+     * The global optimum is then the best transformation found so far, if any.
+     *
+     * @return
+     */
+    public boolean isOptimal() {
+        return optimal;
+    }
+
     /**
      * Indicates if a result is available.
      *
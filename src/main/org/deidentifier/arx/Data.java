@@ -21,12 +21,16 @@ package org.deidentifier.arx;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 
+import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.framework.data.Dictionary;
 import org.deidentifier.arx.io.CSVDataInput;
+import org.deidentifier.arx.io.CSVMappedDataInput;
 import org.deidentifier.arx.io.ImportAdapter;
 import org.deidentifier.arx.io.ImportConfiguration;
 
@@ -121,6 +125,100 @@ public abstract class Data {
 
     }
 
+    /**
+     * A data object for data which has already been encoded with a dictionary.
+     *
+     * @author Fabian Prasser
+     * @author Florian Kohlmayer
+     */
+    static class EncodedData extends Data {
+
+        /** The encoded rows. */
+        private final DataMatrix data;
+
+        /** The dictionary. */
+        private final Dictionary dictionary;
+
+        /** The header. */
+        private final String[]   header;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param header
+         * @param data
+         * @param dictionary
+         */
+        private EncodedData(final String[] header, final DataMatrix data, final Dictionary dictionary) {
+            this.header = header;
+            this.data = data;
+            this.dictionary = dictionary;
+        }
+
+        /**
+         * Returns the encoded rows.
+         *
+         * @return
+         */
+        protected DataMatrix getData() {
+            return data;
+        }
+
+        /**
+         * Returns the dictionary.
+         *
+         * @return
+         */
+        protected Dictionary getDictionary() {
+            return dictionary;
+        }
+
+        /**
+         * Returns the header.
+         *
+         * @return
+         */
+        protected String[] getHeader() {
+            return header;
+        }
+
+        /* (non-Javadoc)
+         * @see org.deidentifier.arx.Data#iterator()
+         */
+        @Override
+        protected Iterator<String[]> iterator() {
+            return new Iterator<String[]>() {
+
+                private int pos = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return pos < data.getNumRows();
+                }
+
+                @Override
+                public String[] next() throws NoSuchElementException {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    if (pos++ == -1) {
+                        return header;
+                    }
+                    final String[] row = new String[header.length];
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] = dictionary.getMapping()[i][data.get(pos - 1, i)];
+                    }
+                    return row;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
+
     /**
      * A data object for iterators.
      *
@@ -186,6 +284,28 @@ public abstract class Data {
         return new IterableData(new CSVDataInput(file, separator).iterator());
     }
 
+    /**
+     * Creates a new data object from a CSV file, which is mapped into memory and
+     * encoded directly without materializing its rows as strings. Fields may be
+     * quoted. The file can be parsed with multiple threads, in which case quoted
+     * fields must not contain line breaks.
+     *
+     * @param file A file
+     * @param charset The charset
+     * @param separator The utilized separator character
+     * @param numThreads The number of threads to use for parsing
+     * @return A Data object
+     * @throws IOException
+     */
+    public static Data create(final File file,
+                              final Charset charset,
+                              final char separator,
+                              final int numThreads) throws IOException {
+        CSVMappedDataInput input = new CSVMappedDataInput(file, charset, separator, numThreads);
+        input.read();
+        return new EncodedData(input.getHeader(), input.getData(), input.getDictionary());
+    }
+
     /**
      * Creates a new data object from a CSV file.
      *
@@ -18,10 +18,12 @@
 package org.deidentifier.arx;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.text.ParseException;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.Iterator;
 
@@ -34,6 +36,7 @@ import org.deidentifier.arx.aggregates.StatisticsBuilder;
 import org.deidentifier.arx.io.CSVDataOutput;
 
 import cern.colt.Swapper;
+import cern.colt.function.IntComparator;
 
 /**
  * This class provides access to dictionary encoded data. Furthermore, the data
@@ -243,6 +246,17 @@ public abstract class DataHandle {
      */
     public abstract int getNumRows();
 
+    /**
+     * Returns the number of threads used for sorting this handle and all handles
+     * paired with it.
+     *
+     * @return
+     */
+    public int getNumThreadsForSorting() {
+        checkRegistry();
+        return registry.getNumThreads();
+    }
+
     /**
      * Returns an object providing access to basic descriptive statistics about the data represented
      * by this handle.
@@ -330,9 +344,29 @@ public abstract class DataHandle {
      * @throws IOException
      */
     public void save(final File file, final char separator) throws IOException {
+        save(file, separator, 1);
+    }
+
+    /**
+     * Writes the data to a CSV file. Output data may be formatted with multiple
+     * threads.
+     *
+     * @param file A file
+     * @param separator The utilized separator character
+     * @param numThreads The number of threads
+     * @throws IOException
+     */
+    public void save(final File file, final char separator, final int numThreads) throws IOException {
         checkRegistry();
-        final CSVDataOutput output = new CSVDataOutput(file, separator);
-        output.write(iterator());
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+        final OutputStream out = new FileOutputStream(file);
+        try {
+            internalSave(out, separator, numThreads);
+        } finally {
+            out.close();
+        }
     }
 
     /**
@@ -344,8 +378,7 @@ public abstract class DataHandle {
      */
     public void save(final OutputStream out, final char separator) throws IOException {
         checkRegistry();
-        final CSVDataOutput output = new CSVDataOutput(out, separator);
-        output.write(iterator());
+        internalSave(out, separator, 1);
     }
 
     /**
@@ -356,9 +389,22 @@ public abstract class DataHandle {
      * @throws IOException
      */
     public void save(final String path, final char separator) throws IOException {
+        save(new File(path), separator);
+    }
+
+    /**
+     * Sets the number of threads used for sorting this handle and all handles
+     * paired with it. Ranges of rows which are large enough will be sorted in
+     * parallel. The default is 1.
+     *
+     * @param numThreads
+     */
+    public void setNumThreadsForSorting(int numThreads) {
         checkRegistry();
-        final CSVDataOutput output = new CSVDataOutput(path, separator);
-        output.write(iterator());
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+        registry.setNumThreads(numThreads);
     }
 
     /**
@@ -515,6 +561,58 @@ public abstract class DataHandle {
      */
     protected abstract String[] getDistinctValues(int column, InterruptHandler handler);
 
+    /**
+     * Returns a table that maps the codes of the given values to their ranks
+     * according to the given data type. Only codes which are marked as used are
+     * ranked, equal values are assigned equal ranks. Comparing ranks thus yields
+     * the same result as comparing the values with the data type.
+     *
+     * @param values
+     * @param used
+     * @param type
+     * @return
+     */
+    protected static int[] getRanks(final String[] values, final boolean[] used, final DataType<?> type) {
+
+        // Collect codes
+        int count = 0;
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) count++;
+        }
+        final Integer[] codes = new Integer[count];
+        count = 0;
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) codes[count++] = i;
+        }
+
+        // Sort codes by value
+        Arrays.sort(codes, new Comparator<Integer>() {
+            @Override
+            public int compare(final Integer code1, final Integer code2) {
+                try {
+                    return type.compare(values[code1], values[code2]);
+                } catch (final Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+
+        // Assign ranks
+        final int[] ranks = new int[values.length];
+        int rank = 0;
+        for (int i = 0; i < codes.length; i++) {
+            if (i > 0) {
+                try {
+                    if (type.compare(values[codes[i - 1]], values[codes[i]]) != 0) rank++;
+                } catch (final Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            ranks[codes[i]] = rank;
+        }
+        return ranks;
+    }
+
     /**
      * Returns the registry associated with this handle.
      *
@@ -567,6 +665,26 @@ public abstract class DataHandle {
         }
     }  
     
+    /**
+     * Returns a comparator for rows, which implements the same order as
+     * {@link #internalCompare(int, int, int[], boolean)}. Handles may override
+     * this method to avoid parsing values for every single comparison. The
+     * comparator must be safe to use from multiple threads as long as no rows
+     * are swapped.
+     *
+     * @param columns
+     * @param ascending
+     * @return
+     */
+    protected IntComparator internalGetComparator(final int[] columns, final boolean ascending) {
+        return new IntComparator() {
+            @Override
+            public int compare(final int row1, final int row2) {
+                return internalCompare(row1, row2, columns, ascending);
+            }
+        };
+    }
+
     /**
      * Internal representation of get value.
      *
@@ -575,6 +693,19 @@ public abstract class DataHandle {
      * @return
      */
     protected abstract String internalGetValue(int row, int col);
+
+    /**
+     * Writes the data to the given stream, which is flushed but not closed.
+     *
+     * @param out
+     * @param separator
+     * @param numThreads
+     * @throws IOException
+     */
+    protected void internalSave(final OutputStream out, final char separator, final int numThreads) throws IOException {
+        final CSVDataOutput output = new CSVDataOutput(out, separator);
+        output.write(iterator());
+    }
     
     /**
      * Updates the registry.
@@ -24,8 +24,12 @@ import java.util.List;
 
 import org.deidentifier.arx.DataHandleStatistics.InterruptHandler;
 import org.deidentifier.arx.aggregates.StatisticsBuilder;
+import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.data.DataMatrix;
 import org.deidentifier.arx.framework.data.Dictionary;
 
+import cern.colt.function.IntComparator;
+
 /**
  * An implementation of the DataHandle interface for input data.
  *
@@ -34,23 +38,26 @@ import org.deidentifier.arx.framework.data.Dictionary;
  */
 public class DataHandleInput extends DataHandle {
 
-    /** The data. */
-    protected int[][]    data       = null;
+    /** The number of rows per block when encoding data of unknown size. */
+    private static final int BLOCK_SIZE = 1 << 16;
 
     /** The dictionary. */
-    protected Dictionary dictionary = null;
-
-    /** The data. */
-    private int[][]      dataQI     = null;
+    protected Dictionary     dictionary = null;
 
-    /** The data. */
-    private int[][]      dataSE     = null;
+    /** For each column, the index in the store containing it. */
+    private int[]            indices    = null;
 
-    /** The data. */
-    private int[][]      dataIS     = null;
-    
     /** Is this handle locked?. */
-    private boolean      locked     = false;
+    private boolean          locked     = false;
+
+    /** The number of rows. */
+    private int              rows       = 0;
+
+    /** The stores containing the encoded data. */
+    private DataMatrix[]     stores     = null;
+
+    /** For each column, the store containing it. */
+    private int[]            storeOf    = null;
 
     /**
      * Creates a new data handle.
@@ -58,6 +65,20 @@ public class DataHandleInput extends DataHandle {
      * @param data
      */
     protected DataHandleInput(final Data data) {
+
+        // Use data which has already been encoded
+        if (data instanceof Data.EncodedData) {
+            final Data.EncodedData encoded = (Data.EncodedData) data;
+            this.setRegistry(new DataRegistry());
+            this.getRegistry().updateInput(this);
+            this.definition = data.getDefinition().clone();
+            super.header = Arrays.copyOf(encoded.getHeader(), encoded.getHeader().length);
+            this.dictionary = encoded.getDictionary();
+            this.setData(encoded.getData());
+            this.dataTypes = getDataTypeArray();
+            this.statistics = new StatisticsBuilder(new DataHandleStatistics(this), null);
+            return;
+        }
         
         // Obtain and check iterator
         final Iterator<String[]> iterator = data.iterator();
@@ -77,21 +98,42 @@ public class DataHandleInput extends DataHandle {
         // Init dictionary
         this.dictionary = new Dictionary(header.length);
 
-        // Encode data
-        List<int[]> vals = new ArrayList<int[]>();
+        // Encode data into blocks of rows, without keeping any strings
+        final int width = header.length;
+        final List<int[]> blocks = new ArrayList<int[]>();
+        int[] block = new int[BLOCK_SIZE * width];
+        int offset = 0;
+        int count = 0;
         while (iterator.hasNext()) {
 
             // Process a tuple
             final String[] strings = iterator.next();
-            final int[] tuple = new int[header.length];
+            if (strings.length > width) {
+                throw new IllegalArgumentException("Row " + count + " contains more columns than the header");
+            }
+            if (offset == block.length) {
+                blocks.add(block);
+                block = new int[BLOCK_SIZE * width];
+                offset = 0;
+            }
             for (int i = 0; i < strings.length; i++) {
-                tuple[i] = dictionary.register(i, strings[i]);
+                block[offset + i] = dictionary.register(i, strings[i]);
             }
-            vals.add(tuple);
+            offset += width;
+            count++;
         }
-
-        // Build array
-        this.data = vals.toArray(new int[vals.size()][]);
+        blocks.add(block);
+
+        // Build matrix
+        final DataMatrix matrix = new DataMatrix(count, width);
+        int position = 0;
+        for (int i = 0; i < blocks.size(); i++) {
+            final int length = Math.min(blocks.get(i).length, matrix.getArray().length - position);
+            System.arraycopy(blocks.get(i), 0, matrix.getArray(), position, length);
+            position += length;
+            blocks.set(i, null);
+        }
+        this.setData(matrix);
 
         // finalize dictionary
         this.dictionary.finalizeAll();
@@ -137,7 +179,7 @@ public class DataHandleInput extends DataHandle {
     @Override
     public int getNumRows() {
         checkRegistry();
-        return data.length;
+        return rows;
     }
 
     /* (non-Javadoc)
@@ -147,7 +189,7 @@ public class DataHandleInput extends DataHandle {
     public String getValue(final int row, final int column) {
         checkRegistry();
         checkColumn(column);
-        checkRow(row, data.length);
+        checkRow(row, rows);
         return internalGetValue(row, column);
     }
 
@@ -171,7 +213,7 @@ public class DataHandleInput extends DataHandle {
 
             @Override
             public boolean hasNext() {
-                return (index < data.length);
+                return (index < rows);
             }
 
             @Override
@@ -197,26 +239,28 @@ public class DataHandleInput extends DataHandle {
     }
 
     /**
-     * Swaps two rows.
+     * Stores the given matrix, which contains all columns.
      *
-     * @param row1
-     * @param row2
      * @param data
      */
-    private void swap(int row1, int row2, int[][] data){
-        final int[] temp = data[row1];
-        data[row1] = data[row2];
-        data[row2] = temp;
+    private void setData(final DataMatrix data) {
+        this.rows = data.getNumRows();
+        this.stores = new DataMatrix[] { data };
+        this.storeOf = new int[header.length];
+        this.indices = new int[header.length];
+        for (int i = 0; i < header.length; i++) {
+            this.indices[i] = i;
+        }
     }
-    
+
     /**
      * Releases all resources.
      */
     protected void doRelease() {
         this.setLocked(false);
-        dataQI = null;
-        dataSE = null;
-        dataIS = null;
+        if (stores.length > 1) {
+            this.setData(internalGetData());
+        }
     }
     
     /* (non-Javadoc)
@@ -262,6 +306,41 @@ public class DataHandleInput extends DataHandle {
         return vals;
     }
 
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.DataHandle#internalGetComparator(int[], boolean)
+     */
+    @Override
+    protected IntComparator internalGetComparator(final int[] columns, final boolean ascending) {
+
+        checkRegistry();
+
+        // Rank all values of the dictionary once
+        final int[][] ranks = new int[columns.length][];
+        for (int i = 0; i < columns.length; i++) {
+            final String[] values = dictionary.getMapping()[columns[i]];
+            final boolean[] used = new boolean[values.length];
+            Arrays.fill(used, true);
+            ranks[i] = getRanks(values, used, dataTypes[0][columns[i]]);
+        }
+
+        // Compare ranks
+        return new IntComparator() {
+            @Override
+            public int compare(final int row1, final int row2) {
+                for (int i = 0; i < columns.length; i++) {
+                    final int column = columns[i];
+                    final DataMatrix store = stores[storeOf[column]];
+                    final int cmp = Integer.compare(ranks[i][store.get(row1, indices[column])],
+                                                    ranks[i][store.get(row2, indices[column])]);
+                    if (cmp != 0) {
+                        return ascending ? cmp : -cmp;
+                    }
+                }
+                return 0;
+            }
+        };
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -269,7 +348,26 @@ public class DataHandleInput extends DataHandle {
      */
     @Override
     protected String internalGetValue(final int row, final int column) {
-        return dictionary.getMapping()[column][data[row][column]];
+        return dictionary.getMapping()[column][stores[storeOf[column]].get(row, indices[column])];
+    }
+
+    /**
+     * Returns the encoded data of all columns. If the data has been split up
+     * into the stores of a data manager, a new matrix is assembled.
+     *
+     * @return
+     */
+    protected DataMatrix internalGetData() {
+        if (stores.length == 1) {
+            return stores[0];
+        }
+        final DataMatrix result = new DataMatrix(rows, header.length);
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < header.length; column++) {
+                result.set(row, column, stores[storeOf[column]].get(row, indices[column]));
+            }
+        }
+        return result;
     }
     
     /**
@@ -281,14 +379,13 @@ public class DataHandleInput extends DataHandle {
     protected void internalSwap(final int row1, final int row2) {
 
         // Check
-        checkRow(row1, data.length);
-        checkRow(row2, data.length);
+        checkRow(row1, rows);
+        checkRow(row2, rows);
 
         // Swap
-        swap(row1, row2, data);
-        if (dataQI != null) swap(row1, row2, dataQI);
-        if (dataSE != null) swap(row1, row2, dataSE);
-        if (dataIS != null) swap(row1, row2, dataIS);
+        for (final DataMatrix store : stores) {
+            store.swap(row1, row2);
+        }
     }
 
     /**
@@ -333,15 +430,51 @@ public class DataHandleInput extends DataHandle {
     }
 
     /**
-     * Updates the definition with further data to swap.
+     * Splits the data up into the stores of the given data manager, which
+     * contain the same codes. Identifying attributes are moved into a separate
+     * store. Afterwards, this handle does not hold a copy of the data anymore.
      *
-     * @param dataQI
-     * @param dataSE
-     * @param dataIS
+     * @param manager
      */
-    protected void update(int[][] dataQI, int[][] dataSE, int[][] dataIS) {
-        this.dataQI = dataQI;
-        this.dataSE = dataSE;
-        this.dataIS = dataIS;
+    protected void update(DataManager manager) {
+
+        // Map columns to stores
+        final org.deidentifier.arx.framework.data.Data[] data = { manager.getDataQI(),
+                                                                   manager.getDataSE(),
+                                                                   manager.getDataIS() };
+        final int[] storeOf = new int[header.length];
+        final int[] indices = new int[header.length];
+        Arrays.fill(storeOf, -1);
+        for (int store = 0; store < data.length; store++) {
+            final int[] map = data[store].getMap();
+            for (int index = 0; index < map.length; index++) {
+                storeOf[map[index]] = store;
+                indices[map[index]] = index;
+            }
+        }
+
+        // Move remaining attributes into a separate store
+        int numIdentifiers = 0;
+        for (int column = 0; column < header.length; column++) {
+            if (storeOf[column] == -1) {
+                numIdentifiers++;
+            }
+        }
+        final DataMatrix identifiers = new DataMatrix(rows, numIdentifiers);
+        int index = 0;
+        for (int column = 0; column < header.length; column++) {
+            if (storeOf[column] == -1) {
+                for (int row = 0; row < rows; row++) {
+                    identifiers.set(row, index, stores[this.storeOf[column]].get(row, this.indices[column]));
+                }
+                storeOf[column] = data.length;
+                indices[column] = index++;
+            }
+        }
+
+        // Replace stores
+        this.stores = new DataMatrix[] { data[0].getArray(), data[1].getArray(), data[2].getArray(), identifiers };
+        this.storeOf = storeOf;
+        this.indices = indices;
     }
 }
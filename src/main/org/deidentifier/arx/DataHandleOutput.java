@@ -17,6 +17,9 @@
 
 package org.deidentifier.arx;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
@@ -27,9 +30,12 @@ import org.deidentifier.arx.aggregates.StatisticsBuilder;
 import org.deidentifier.arx.aggregates.StatisticsEquivalenceClasses;
 import org.deidentifier.arx.framework.data.Data;
 import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.data.DataMatrix;
 import org.deidentifier.arx.framework.data.Dictionary;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 
+import cern.colt.function.IntComparator;
+
 /**
  * An implementation of the class DataHandle for output data.
  * 
@@ -56,7 +62,7 @@ public class DataHandleOutput extends DataHandle {
          */
         @Override
         public boolean hasNext() {
-            return row < dataQI.getArray().length;
+            return row < dataQI.getDataLength();
         }
 
         /*
@@ -114,7 +120,7 @@ public class DataHandleOutput extends DataHandle {
     protected Data        dataSE;
 
     /** An inverse map to data arrays. */
-    private int[][][]     inverseData;
+    private DataMatrix[]  inverseData;
 
     /** An inverse map to dictionaries. */
     private Dictionary[]  inverseDictionaries;
@@ -197,7 +203,7 @@ public class DataHandleOutput extends DataHandle {
         }
 
         // Build inverse data array
-        this.inverseData = new int[3][][];
+        this.inverseData = new DataMatrix[3];
         this.inverseData[AttributeType.ATTR_TYPE_IS] = this.dataIS.getArray();
         this.inverseData[AttributeType.ATTR_TYPE_SE] = this.dataSE.getArray();
         this.inverseData[AttributeType.ATTR_TYPE_QI] = this.dataQI.getArray();
@@ -457,6 +463,66 @@ public class DataHandleOutput extends DataHandle {
         return 0;
     }
 
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.DataHandle#internalGetComparator(int[], boolean)
+     */
+    @Override
+    protected IntComparator internalGetComparator(final int[] columns, final boolean ascending) {
+
+        // Prepare
+        final int rows = getNumRows();
+        final int[] types = new int[columns.length];
+        final int[] indices = new int[columns.length];
+        final DataMatrix[] data = new DataMatrix[columns.length];
+        final int[][] ranks = new int[columns.length][];
+        int length = columns.length;
+
+        // Rank the values contained in the current transformation
+        for (int i = 0; i < columns.length; i++) {
+
+            types[i] = inverseMap[columns[i]] >>> AttributeType.SHIFT;
+            indices[i] = inverseMap[columns[i]] & AttributeType.MASK;
+
+            // Identifiers are equal and end the comparison
+            if (types[i] == AttributeType.ATTR_TYPE_ID) {
+                length = i;
+                break;
+            }
+
+            data[i] = inverseData[types[i]];
+            final String[] values = inverseDictionaries[types[i]].getMapping()[indices[i]];
+            final boolean[] used = new boolean[values.length];
+            for (int row = 0; row < rows; row++) {
+                used[data[i].get(row, indices[i]) & Data.REMOVE_OUTLIER_MASK] = true;
+            }
+            ranks[i] = getRanks(values, used, dataTypes[types[i]][indices[i]]);
+        }
+
+        // Compare ranks, suppressed values are larger than all other values
+        final int compared = length;
+        final DataMatrix outliers = dataQI.getArray();
+        return new IntComparator() {
+            @Override
+            public int compare(final int row1, final int row2) {
+                final boolean outlier1 = (outliers.get(row1, 0) & Data.OUTLIER_MASK) != 0;
+                final boolean outlier2 = (outliers.get(row2, 0) & Data.OUTLIER_MASK) != 0;
+                for (int i = 0; i < compared; i++) {
+                    int cmp;
+                    if ((suppressedAttributeTypes & (1 << types[i])) != 0 && (outlier1 || outlier2)) {
+                        cmp = outlier1 == outlier2 ? 0 : (outlier1 ? +1 : -1);
+                    } else {
+                        cmp = Integer.compare(ranks[i][data[i].get(row1, indices[i]) & Data.REMOVE_OUTLIER_MASK],
+                                              ranks[i][data[i].get(row2, indices[i]) & Data.REMOVE_OUTLIER_MASK]);
+                    }
+                    if (cmp != 0) {
+                        return ascending ? cmp : -cmp;
+                    }
+                }
+                return 0;
+            }
+        };
+    }
+
     /**
      * Gets the value internal.
      * 
@@ -476,17 +542,59 @@ public class DataHandleOutput extends DataHandle {
             return suppressionString;
         default:
             final int index = inverseMap[col] & AttributeType.MASK;
-            final int[][] data = inverseData[type];
+            final DataMatrix data = inverseData[type];
 
             if ((suppressedAttributeTypes & (1 << type)) != 0 &&
-                ((dataQI.getArray()[row][0] & Data.OUTLIER_MASK) != 0)) { return suppressionString; }
+                ((dataQI.getArray().get(row, 0) & Data.OUTLIER_MASK) != 0)) { return suppressionString; }
 
-            final int value = data[row][index] & Data.REMOVE_OUTLIER_MASK;
+            final int value = data.get(row, index) & Data.REMOVE_OUTLIER_MASK;
             final String[][] dictionary = inverseDictionaries[type].getMapping();
             return dictionary[index][value];
         }
     }
     
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.DataHandle#internalSave(java.io.OutputStream, char, int)
+     */
+    @Override
+    protected void internalSave(final OutputStream out, final char separator, final int numThreads) throws IOException {
+
+        // Encode labels once
+        final Charset charset = Charset.defaultCharset();
+        final byte[][][] labels = new byte[header.length][][];
+        final DataMatrix[] data = new DataMatrix[header.length];
+        final int[] indices = new int[header.length];
+        final boolean[] suppressed = new boolean[header.length];
+        final StringBuilder builder = new StringBuilder();
+        for (int column = 0; column < header.length; column++) {
+            builder.append(column == 0 ? "" : String.valueOf(separator)).append(header[column]);
+            final int type = inverseMap[column] >>> AttributeType.SHIFT;
+            if (type != AttributeType.ATTR_TYPE_ID) {
+                indices[column] = inverseMap[column] & AttributeType.MASK;
+                data[column] = inverseData[type];
+                suppressed[column] = (suppressedAttributeTypes & (1 << type)) != 0;
+                final String[] values = inverseDictionaries[type].getMapping()[indices[column]];
+                labels[column] = new byte[values.length][];
+                for (int i = 0; i < values.length; i++) {
+                    labels[column][i] = String.valueOf(values[i]).getBytes(charset);
+                }
+            }
+        }
+        final String newline = System.getProperty("line.separator");
+        builder.append(newline);
+
+        // Write
+        new DataHandleOutputWriter(builder.toString().getBytes(charset),
+                                   labels,
+                                   data,
+                                   indices,
+                                   suppressed,
+                                   dataQI.getArray(),
+                                   String.valueOf(suppressionString).getBytes(charset),
+                                   String.valueOf(separator).getBytes(charset),
+                                   newline.getBytes(charset)).write(out, numThreads);
+    }
+
     /**
      * Returns whether the given row is an outlier.
      *
@@ -494,7 +602,7 @@ public class DataHandleOutput extends DataHandle {
      * @return
      */
     protected boolean internalIsOutlier(final int row) {
-        return ((dataQI.getArray()[row][0] & Data.OUTLIER_MASK) != 0);
+        return ((dataQI.getArray().get(row, 0) & Data.OUTLIER_MASK) != 0);
     }
 
     /**
@@ -506,8 +614,6 @@ public class DataHandleOutput extends DataHandle {
      *            the row2
      */
     protected void internalSwap(final int row1, final int row2) {
-        int[] temp = dataQI.getArray()[row1];
-        dataQI.getArray()[row1] = dataQI.getArray()[row2];
-        dataQI.getArray()[row2] = temp;
+        dataQI.getArray().swap(row1, row2);
     }
 }
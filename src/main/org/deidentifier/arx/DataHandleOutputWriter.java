@@ -0,0 +1,222 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.deidentifier.arx;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.deidentifier.arx.framework.data.Data;
+import org.deidentifier.arx.framework.data.DataMatrix;
+
+/**
+ * Writes output data as CSV directly from the encoded data. The labels of all values are
+ * encoded into bytes once, and batches of rows are formatted into byte buffers, optionally
+ * with multiple threads. The buffers are written in the order of the rows.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+class DataHandleOutputWriter {
+
+    /**
+     * A growable byte buffer.
+     *
+     * @author Fabian Prasser
+     */
+    private static class Buffer {
+
+        /** The bytes. */
+        private byte[] bytes  = new byte[1024 * 1024];
+
+        /** The number of bytes used. */
+        private int    length = 0;
+
+        /**
+         * Appends the given bytes.
+         *
+         * @param value
+         */
+        private void append(final byte[] value) {
+            if (length + value.length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + value.length));
+            }
+            System.arraycopy(value, 0, bytes, length, value.length);
+            length += value.length;
+        }
+    }
+
+    /** The number of rows per batch. */
+    private static final int   BATCH_SIZE = 16384;
+
+    /** The data of each column. */
+    private final DataMatrix[] data;
+
+    /** The encoded header. */
+    private final byte[]       header;
+
+    /** The index of each column in its data. */
+    private final int[]        indices;
+
+    /** The encoded labels of each column. */
+    private final byte[][][]   labels;
+
+    /** The encoded line break. */
+    private final byte[]       newline;
+
+    /** The data containing the outlier flags. */
+    private final DataMatrix   outliers;
+
+    /** The encoded separator. */
+    private final byte[]       separator;
+
+    /** Whether each column is suppressed in outliers. */
+    private final boolean[]    suppressed;
+
+    /** The encoded suppression string. */
+    private final byte[]       suppression;
+
+    /**
+     * Creates a new instance. Columns without labels always contain the suppression string.
+     *
+     * @param header
+     * @param labels
+     * @param data
+     * @param indices
+     * @param suppressed
+     * @param outliers
+     * @param suppression
+     * @param separator
+     * @param newline
+     */
+    DataHandleOutputWriter(final byte[] header,
+                           final byte[][][] labels,
+                           final DataMatrix[] data,
+                           final int[] indices,
+                           final boolean[] suppressed,
+                           final DataMatrix outliers,
+                           final byte[] suppression,
+                           final byte[] separator,
+                           final byte[] newline) {
+        this.header = header;
+        this.labels = labels;
+        this.data = data;
+        this.indices = indices;
+        this.suppressed = suppressed;
+        this.outliers = outliers;
+        this.suppression = suppression;
+        this.separator = separator;
+        this.newline = newline;
+    }
+
+    /**
+     * Writes the header and all rows to the given stream.
+     *
+     * @param out
+     * @param numThreads
+     * @throws IOException
+     */
+    void write(final OutputStream out, final int numThreads) throws IOException {
+
+        out.write(header);
+        final int rows = outliers.getNumRows();
+
+        // Single thread
+        if (numThreads == 1 || rows <= BATCH_SIZE) {
+            final Buffer buffer = new Buffer();
+            for (int from = 0; from < rows; from += BATCH_SIZE) {
+                buffer.length = 0;
+                format(buffer, from, Math.min(rows, from + BATCH_SIZE));
+                out.write(buffer.bytes, 0, buffer.length);
+            }
+            out.flush();
+            return;
+        }
+
+        // Multiple threads, with a bounded number of pending batches
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ARX CSV writer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            final List<Future<Buffer>> pending = new ArrayList<Future<Buffer>>();
+            int next = 0;
+            while (next < rows || !pending.isEmpty()) {
+                while (next < rows && pending.size() < numThreads * 2) {
+                    final int from = next;
+                    final int to = Math.min(rows, from + BATCH_SIZE);
+                    pending.add(executor.submit(new Callable<Buffer>() {
+                        @Override
+                        public Buffer call() {
+                            final Buffer buffer = new Buffer();
+                            format(buffer, from, to);
+                            return buffer;
+                        }
+                    }));
+                    next = to;
+                }
+                final Buffer buffer = pending.remove(0).get();
+                out.write(buffer.bytes, 0, buffer.length);
+            }
+            out.flush();
+        } catch (final InterruptedException e) {
+            throw new IOException(e);
+        } catch (final ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Formats the given range of rows.
+     *
+     * @param buffer
+     * @param from
+     * @param to
+     */
+    private void format(final Buffer buffer, final int from, final int to) {
+        for (int row = from; row < to; row++) {
+            final boolean outlier = (outliers.get(row, 0) & Data.OUTLIER_MASK) != 0;
+            for (int column = 0; column < labels.length; column++) {
+                if (column != 0) {
+                    buffer.append(separator);
+                }
+                if (labels[column] == null || (outlier && suppressed[column])) {
+                    buffer.append(suppression);
+                } else {
+                    buffer.append(labels[column][data[column].get(row, indices[column]) & Data.REMOVE_OUTLIER_MASK]);
+                }
+            }
+            buffer.append(newline);
+        }
+    }
+}
@@ -24,6 +24,8 @@ import org.deidentifier.arx.DataHandleStatistics.InterruptHandler;
 import org.deidentifier.arx.aggregates.StatisticsBuilder;
 import org.deidentifier.arx.aggregates.StatisticsEquivalenceClasses;
 
+import cern.colt.function.IntComparator;
+
 
 /**
  * This implementation of a data handle projects a given data handle onto a given research subset.
@@ -233,6 +235,20 @@ public class DataHandleSubset extends DataHandle {
         return source.internalCompare(this.subset.getArray()[row1], this.subset.getArray()[row2], columns, ascending);
     }
 
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.DataHandle#internalGetComparator(int[], boolean)
+     */
+    @Override
+    protected IntComparator internalGetComparator(int[] columns, boolean ascending) {
+        final IntComparator comparator = source.internalGetComparator(columns, ascending);
+        return new IntComparator() {
+            @Override
+            public int compare(int row1, int row2) {
+                return comparator.compare(subset.getArray()[row1], subset.getArray()[row2]);
+            }
+        };
+    }
+
     /* (non-Javadoc)
      * @see org.deidentifier.arx.DataHandle#internalGetValue(int, int)
      */
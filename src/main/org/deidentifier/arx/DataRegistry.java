@@ -21,6 +21,8 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.deidentifier.arx.ARXLattice.ARXNode;
 import org.deidentifier.arx.aggregates.StatisticsEquivalenceClasses;
@@ -37,6 +39,95 @@ import cern.colt.function.IntComparator;
  */
 class DataRegistry {
 
+    /**
+     * Sorts a permutation of row indices with a parallel merge sort. The rows
+     * themselves are not modified.
+     *
+     * @author Fabian Prasser
+     */
+    private static class ParallelSort extends RecursiveAction {
+
+        /** SVUID. */
+        private static final long   serialVersionUID = -2565279315306939318L;
+
+        /** The buffer for merging. */
+        private final int[]         buffer;
+
+        /** The comparator. */
+        private final IntComparator comparator;
+
+        /** The lower bound. */
+        private final int           from;
+
+        /** The permutation. */
+        private final int[]         permutation;
+
+        /** The upper bound. */
+        private final int           to;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param permutation
+         * @param buffer
+         * @param from
+         * @param to
+         * @param comparator
+         */
+        private ParallelSort(final int[] permutation, final int[] buffer, final int from, final int to, final IntComparator comparator) {
+            this.permutation = permutation;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.comparator = comparator;
+        }
+
+        /* (non-Javadoc)
+         * @see java.util.concurrent.RecursiveAction#compute()
+         */
+        @Override
+        protected void compute() {
+
+            // Sort small ranges sequentially
+            if (to - from <= MIN_ROWS_PER_TASK) {
+                GenericSorting.mergeSort(from, to, new IntComparator() {
+                    @Override
+                    public int compare(final int arg0, final int arg1) {
+                        return comparator.compare(permutation[arg0], permutation[arg1]);
+                    }
+                }, new Swapper() {
+                    @Override
+                    public void swap(final int arg0, final int arg1) {
+                        final int temp = permutation[arg0];
+                        permutation[arg0] = permutation[arg1];
+                        permutation[arg1] = temp;
+                    }
+                });
+                return;
+            }
+
+            // Sort both halves
+            final int mid = (from + to) >>> 1;
+            invokeAll(new ParallelSort(permutation, buffer, from, mid, comparator),
+                      new ParallelSort(permutation, buffer, mid, to, comparator));
+
+            // Merge, preferring the left half to keep the sort stable
+            System.arraycopy(permutation, from, buffer, from, to - from);
+            int left = from;
+            int right = mid;
+            for (int i = from; i < to; i++) {
+                if (right >= to || (left < mid && comparator.compare(buffer[left], buffer[right]) <= 0)) {
+                    permutation[i] = buffer[left++];
+                } else {
+                    permutation[i] = buffer[right++];
+                }
+            }
+        }
+    }
+
+    /** The minimal number of rows sorted by a single task. */
+    private static final int MIN_ROWS_PER_TASK = 10000;
+
     /** The input handle, if any. */
     private DataHandleInput input;
     
@@ -49,6 +140,9 @@ class DataRegistry {
     /** The output subset handle, if any. */
     private Map<ARXNode, DataHandleSubset> outputSubset = new HashMap<ARXNode, DataHandleSubset>();
 
+    /** The number of threads used for sorting. */
+    private int numThreads = 1;
+
     /**
      * Default constructor.
      */
@@ -106,12 +200,7 @@ class DataRegistry {
         final DataHandle outer = handle;
         final DataHandleSubset subset = getSubset();
         
-        final IntComparator c = new IntComparator() {
-            @Override
-            public int compare(final int arg0, final int arg1) {
-                return outer.internalCompare(arg0, arg1, columns, ascending);
-            }
-        };
+        final IntComparator c = outer.internalGetComparator(columns, ascending);
         final Swapper s = new Swapper() {
             @Override
             public void swap(final int arg0, final int arg1) {
@@ -122,7 +211,7 @@ class DataRegistry {
             }
         };
         
-        GenericSorting.mergeSort(from, to, c, s);
+        sort(from, to, c, s);
         
         if (subset != null){
             subset.internalRebuild();
@@ -147,12 +236,7 @@ class DataRegistry {
                               final int... columns) {
 
         final DataHandleSubset outer = handle;
-        final IntComparator c = new IntComparator() {
-            @Override
-            public int compare(final int arg0, final int arg1) {
-                return outer.internalCompare(arg0, arg1, columns, ascending);
-            }
-        };
+        final IntComparator c = outer.internalGetComparator(columns, ascending);
         final Swapper s = new Swapper() {
             @Override
             public void swap(final int arg0, final int arg1) {
@@ -163,7 +247,57 @@ class DataRegistry {
         };
         
         // No need to swap and rebuild the subset views
-        GenericSorting.mergeSort(from, to, c, s);
+        sort(from, to, c, s);
+    }
+
+    /**
+     * Sorts the given range with a stable merge sort. If multiple threads are
+     * configured and the range is large enough, the order is first determined in
+     * parallel and then established with the given swapper.
+     *
+     * @param from
+     * @param to
+     * @param comparator
+     * @param swapper
+     */
+    private void sort(final int from, final int to, final IntComparator comparator, final Swapper swapper) {
+
+        // Sequential sorting
+        if (numThreads == 1 || to - from <= MIN_ROWS_PER_TASK) {
+            GenericSorting.mergeSort(from, to, comparator, swapper);
+            return;
+        }
+
+        // Determine the order in parallel
+        final int[] permutation = new int[to];
+        for (int i = from; i < to; i++) {
+            permutation[i] = i;
+        }
+        ForkJoinPool pool = new ForkJoinPool(numThreads);
+        try {
+            pool.invoke(new ParallelSort(permutation, new int[to], from, to, comparator));
+        } finally {
+            pool.shutdown();
+        }
+
+        // Apply the order, tracking the current position of each row
+        final int[] position = new int[to];
+        final int[] row = new int[to];
+        for (int i = from; i < to; i++) {
+            position[i] = i;
+            row[i] = i;
+        }
+        for (int i = from; i < to; i++) {
+            final int target = position[permutation[i]];
+            if (target != i) {
+                swapper.swap(i, target);
+                final int moved = row[i];
+                row[i] = row[target];
+                row[target] = moved;
+                position[row[i]] = i;
+                position[moved] = target;
+            }
+        }
     }
 
     /**
@@ -242,6 +376,15 @@ class DataRegistry {
         return this.input.getBaseDataType(attribute);
     }
 
+    /**
+     * Returns the number of threads used for sorting.
+     *
+     * @return
+     */
+    protected int getNumThreads() {
+        return this.numThreads;
+    }
+
     /**
      * Returns a registered handle, if any.
      *
@@ -325,6 +468,15 @@ class DataRegistry {
         }
     }
     
+    /**
+     * Sets the number of threads used for sorting.
+     *
+     * @param numThreads
+     */
+    protected void setNumThreads(int numThreads) {
+        this.numThreads = numThreads;
+    }
+
     /**
      * Implementation of {@link DataHandle#sort(boolean, int...)}
      * @param handle
@@ -263,6 +263,43 @@ public class DataSource {
         }
     }
     
+    /**
+     * Sets the number of rows fetched from the database at once. Only supported
+     * for JDBC sources.
+     *
+     * @param fetchSize
+     * @see ImportConfigurationJDBC#setFetchSize(int)
+     */
+    public void setFetchSize(int fetchSize) {
+        getJDBCConfiguration().setFetchSize(fetchSize);
+    }
+
+    /**
+     * Reads the table in the given number of partitions in parallel. Only supported
+     * for JDBC sources created with a URL.
+     *
+     * @param column Numeric column used for splitting the table
+     * @param numPartitions
+     * @see ImportConfigurationJDBC#setPartitioning(String, int)
+     */
+    public void setPartitioning(String column, int numPartitions) {
+        getJDBCConfiguration().setPartitioning(column, numPartitions);
+    }
+
+    /**
+     * Reads the file with the event API of Apache POI instead of loading the
+     * workbook into memory. Only supported for Excel sources.
+     *
+     * @param streaming
+     * @see ImportConfigurationExcel#setStreaming(boolean)
+     */
+    public void setStreaming(boolean streaming) {
+        if (!(config instanceof ImportConfigurationExcel)) {
+            throw new UnsupportedOperationException("Only supported for Excel sources");
+        }
+        ((ImportConfigurationExcel) config).setStreaming(streaming);
+    }
+
     /**
      * Returns the configuration.
      *
@@ -271,4 +308,16 @@ public class DataSource {
     protected ImportConfiguration getConfiguration(){
         return config;
     }
+
+    /**
+     * Returns the configuration of a JDBC source.
+     *
+     * @return
+     */
+    private ImportConfigurationJDBC getJDBCConfiguration() {
+        if (!(config instanceof ImportConfigurationJDBC)) {
+            throw new UnsupportedOperationException("Only supported for JDBC sources");
+        }
+        return (ImportConfigurationJDBC) config;
+    }
 }
@@ -0,0 +1,269 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.deidentifier.arx;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.deidentifier.arx.algorithm.AbstractAlgorithm;
+import org.deidentifier.arx.criteria.DPresence;
+import org.deidentifier.arx.criteria.PrivacyCriterion;
+import org.deidentifier.arx.framework.lattice.Lattice;
+import org.deidentifier.arx.framework.lattice.Node;
+import org.deidentifier.arx.metric.InformationLoss;
+
+/**
+ * Reuses the search spaces of anonymizations with some configurations when anonymizing
+ * the same data with further configurations. A configuration implies another configuration,
+ * if every transformation which is anonymous with the first one is also anonymous with the
+ * second one. This is the case if every criterion of the second configuration is implied by
+ * a criterion of the first one and if the first configuration allows suppressing at most
+ * as many records as the second one. Transformations which are not anonymous with a
+ * configuration are therefore not anonymous with configurations implying it. Anonymous
+ * transformations are only reused together with their information loss, which requires the
+ * same metric instance and attribute weights, as well as an independent metric or no
+ * suppression.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+class ParameterSweep {
+
+    /** The configurations. */
+    private final List<ARXConfiguration>            configs;
+
+    /** The search spaces of all configurations which have been processed. */
+    private final Map<ARXConfiguration, Lattice>    lattices = new IdentityHashMap<ARXConfiguration, Lattice>();
+
+    /** The order in which the configurations are processed. */
+    private final int[]                             order;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param configs
+     */
+    ParameterSweep(final List<ARXConfiguration> configs) {
+        this.configs = configs;
+        this.order = createOrder();
+    }
+
+    /**
+     * Returns whether the first configuration implies the second one.
+     *
+     * @param config
+     * @param other
+     * @return
+     */
+    private static boolean implies(final ARXConfiguration config, final ARXConfiguration other) {
+
+        // Tags may have been predicted
+        if (config.isPracticalMonotonicity() || other.isPracticalMonotonicity()) {
+            return false;
+        }
+
+        // Same semantics and data
+        if (config.isProtectSensitiveAssociations() != other.isProtectSensitiveAssociations() ||
+            getSubset(config) != getSubset(other)) {
+            return false;
+        }
+
+        // Suppression limit
+        if (config.getMaxOutliers() > other.getMaxOutliers()) {
+            return false;
+        }
+
+        // Criteria
+        for (final PrivacyCriterion criterion : other.getCriteria()) {
+            boolean implied = false;
+            for (final PrivacyCriterion candidate : config.getCriteria()) {
+                if (candidate.implies(criterion)) {
+                    implied = true;
+                    break;
+                }
+            }
+            if (!implied) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the research subset of the configuration, if any.
+     *
+     * @param config
+     * @return
+     */
+    private static DataSubset getSubset(final ARXConfiguration config) {
+        for (final PrivacyCriterion criterion : config.getCriteria()) {
+            if (criterion instanceof DPresence) {
+                return ((DPresence) criterion).getSubset();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether information loss measured with the first configuration equals
+     * the information loss measured with the second one for all transformations which
+     * are anonymous with both configurations.
+     *
+     * @param config
+     * @param other
+     * @return
+     */
+    private static boolean isInformationLossReusable(final ARXConfiguration config, final ARXConfiguration other) {
+        return (config.getMetric() == other.getMetric()) &&
+               config.getAttributeWeights().equals(other.getAttributeWeights()) &&
+               (config.getMetric().isIndependent() || (config.getMaxOutliers() == 0d && other.getMaxOutliers() == 0d));
+    }
+
+    /**
+     * Stores the search space of a configuration which has been processed.
+     *
+     * @param config
+     * @param lattice
+     */
+    void add(final ARXConfiguration config, final Lattice lattice) {
+        lattices.put(config, lattice);
+    }
+
+    /**
+     * Transfers all properties which are known from configurations which have already
+     * been processed to the search space of the given configuration. Must be called
+     * before the algorithm is executed.
+     *
+     * @param config
+     * @param lattice
+     * @param algorithm
+     */
+    void apply(final ARXConfiguration config, final Lattice lattice, final AbstractAlgorithm algorithm) {
+
+        for (final Entry<ARXConfiguration, Lattice> entry : lattices.entrySet()) {
+
+            final ARXConfiguration other = entry.getKey();
+            final Lattice known = entry.getValue();
+            if (known.getSize() != lattice.getSize()) {
+                continue;
+            }
+
+            // Not anonymous with a weaker configuration
+            if (implies(config, other)) {
+                lattice.setProperty(known.getProperty(Node.PROPERTY_NOT_ANONYMOUS), Node.PROPERTY_NOT_ANONYMOUS);
+            }
+
+            // Anonymous with a stricter configuration
+            if (implies(other, config) && isInformationLossReusable(other, config)) {
+                final BitSet anonymous = known.getProperty(Node.PROPERTY_ANONYMOUS);
+                for (int id = anonymous.nextSetBit(0); id >= 0; id = anonymous.nextSetBit(id + 1)) {
+                    final Node source = known.getNode(id);
+                    final InformationLoss<?> loss = source.getInformationLoss();
+                    if (loss != null) {
+                        final Node node = lattice.getNode(id);
+                        if (!node.hasProperty(Node.PROPERTY_CHECKED)) {
+                            lattice.setProperty(node, Node.PROPERTY_ANONYMOUS);
+                            lattice.setProperty(node, Node.PROPERTY_CHECKED);
+                            lattice.setInformationLoss(node, loss);
+                            lattice.setLowerBound(node, source.getLowerBound());
+                            algorithm.addKnownSolution(node);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the indices of the configurations in the order in which they should be processed.
+     *
+     * @return
+     */
+    int[] getOrder() {
+        return order;
+    }
+
+    /**
+     * Sorts the configurations from the weakest to the strictest one. If information loss
+     * can be reused, the extremes are processed first and the remaining configurations are
+     * processed by repeatedly bisecting the intervals between processed configurations.
+     * Otherwise, results can only be reused from weaker configurations.
+     *
+     * @return
+     */
+    private int[] createOrder() {
+
+        // Rank by the number of configurations which are strictly weaker
+        final int size = configs.size();
+        final int[] rank = new int[size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (i != j && implies(configs.get(i), configs.get(j)) && !implies(configs.get(j), configs.get(i))) {
+                    rank[i]++;
+                }
+            }
+        }
+
+        // Stable sort
+        final List<Integer> sorted = new ArrayList<Integer>();
+        for (int i = 0; i < size; i++) {
+            int position = sorted.size();
+            while (position > 0 && rank[sorted.get(position - 1)] > rank[i]) {
+                position--;
+            }
+            sorted.add(position, i);
+        }
+
+        // Check whether information loss can be reused
+        boolean reusable = size > 2;
+        for (int i = 1; i < size && reusable; i++) {
+            reusable = isInformationLossReusable(configs.get(sorted.get(i - 1)), configs.get(sorted.get(i)));
+        }
+
+        final int[] result = new int[size];
+        if (!reusable) {
+            for (int i = 0; i < size; i++) {
+                result[i] = sorted.get(i);
+            }
+            return result;
+        }
+
+        // Bisect
+        int index = 0;
+        result[index++] = sorted.get(0);
+        result[index++] = sorted.get(size - 1);
+        final LinkedList<int[]> intervals = new LinkedList<int[]>();
+        intervals.add(new int[] { 0, size - 1 });
+        while (!intervals.isEmpty()) {
+            final int[] interval = intervals.removeFirst();
+            final int mid = (interval[0] + interval[1]) / 2;
+            if (mid > interval[0] && mid < interval[1]) {
+                result[index++] = sorted.get(mid);
+                intervals.add(new int[] { interval[0], mid });
+                intervals.add(new int[] { mid, interval[1] });
+            }
+        }
+        return result;
+    }
+}
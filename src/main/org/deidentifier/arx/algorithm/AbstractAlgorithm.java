@@ -20,6 +20,8 @@ package org.deidentifier.arx.algorithm;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.deidentifier.arx.ARXProcessStatistics;
+import org.deidentifier.arx.ARXProgressListener;
 import org.deidentifier.arx.framework.check.INodeChecker;
 import org.deidentifier.arx.framework.lattice.Lattice;
 import org.deidentifier.arx.framework.lattice.Node;
@@ -35,16 +37,49 @@ import org.deidentifier.arx.metric.InformationLossWithBound;
 public abstract class AbstractAlgorithm {
 
     /** The optimal transformation. */
-    private Node               globalOptimum          = null;
+    private Node                globalOptimum          = null;
+
+    /** The listener for progress events, if any. */
+    private ARXProgressListener listener               = null;
+
+    /** The maximal number of checks, 0 if unlimited. */
+    private long                checkLimit             = 0L;
 
     /** The optimal information loss. */
-    private InformationLoss<?> optimalInformationLoss = null;
+    private InformationLoss<?>  optimalInformationLoss = null;
+
+    /** The peak heap usage observed. */
+    private long                peakHeapUsage          = 0L;
+
+    /** The minimal number of milliseconds between two progress events. */
+    private long                progressInterval       = 0L;
+
+    /** The time of the last progress event. */
+    private long                progressTime           = 0L;
+
+    /** The time at which the algorithm has been created. */
+    private final long          start                  = System.currentTimeMillis();
+
+    /** Whether the search has been terminated, because a limit has been reached. */
+    private boolean             terminated             = false;
+
+    /** The maximal execution time in milliseconds, 0 if unlimited. */
+    private long                timeLimit              = 0L;
 
     /** A node checker. */
-    protected INodeChecker     checker                = null;
+    protected INodeChecker      checker                = null;
 
     /** The lattice. */
-    protected Lattice          lattice                = null;
+    protected Lattice           lattice                = null;
+
+    /** The number of transformations checked in a binary phase. */
+    protected long              numChecksBinaryPhase   = 0L;
+
+    /** The number of transformations checked in a linear phase. */
+    protected long              numChecksLinearPhase   = 0L;
+
+    /** The number of transformations evaluated without checking them. */
+    protected long              numEvaluations         = 0L;
 
     /**
      * Walks the lattice.
@@ -60,6 +95,17 @@ public abstract class AbstractAlgorithm {
         this.lattice = lattice;
     }
 
+    /**
+     * Informs the algorithm about a transformation which is known to be anonymous and
+     * for which the information loss has already been stored in the lattice, e.g. from
+     * a run with a stricter configuration. Must be called before traverse().
+     *
+     * @param node
+     */
+    public void addKnownSolution(Node node) {
+        trackOptimum(node);
+    }
+
     /**
      * Returns a list of all anonymous nodes in the lattice.
      * 
@@ -67,8 +113,8 @@ public abstract class AbstractAlgorithm {
      */
     public List<Node> getAllAnonymousNodes() {
         final ArrayList<Node> results = new ArrayList<Node>();
-        for (final Node[] level : lattice.getLevels()) {
-            for (final Node n : level) {
+        for (int level = 0; level < lattice.getNumLevels(); level++) {
+            for (final Node n : lattice.getLevel(level)) {
                 if (n.hasProperty(Node.PROPERTY_ANONYMOUS)) {
                     results.add(n);
                 }
@@ -86,6 +132,55 @@ public abstract class AbstractAlgorithm {
         return globalOptimum;
     }
 
+    /**
+     * Returns the statistics collected so far.
+     *
+     * @return
+     */
+    public ARXProcessStatistics getStatistics() {
+        return new ARXProcessStatistics(System.currentTimeMillis() - start,
+                                        lattice.getSize(),
+                                        checker.getStatistics(),
+                                        numChecksBinaryPhase,
+                                        numChecksLinearPhase,
+                                        numEvaluations,
+                                        peakHeapUsage);
+    }
+
+    /**
+     * Returns whether the search space has been searched completely, i.e. whether the
+     * global optimum is known to be optimal.
+     *
+     * @return
+     */
+    public boolean isOptimal() {
+        return !terminated;
+    }
+
+    /**
+     * Limits the search. When a limit is reached, the search is terminated and the global
+     * optimum is the best transformation found so far.
+     *
+     * @param timeLimit The maximal execution time in milliseconds, 0 if unlimited
+     * @param checkLimit The maximal number of checks, 0 if unlimited
+     */
+    public void setLimits(final long timeLimit, final long checkLimit) {
+        this.timeLimit = timeLimit;
+        this.checkLimit = checkLimit;
+    }
+
+    /**
+     * Sets a listener, which is informed about the progress at most once per interval.
+     *
+     * @param listener
+     * @param interval The interval in milliseconds
+     */
+    public void setProgressListener(final ARXProgressListener listener, final long interval) {
+        this.listener = listener;
+        this.progressInterval = interval;
+        this.progressTime = System.currentTimeMillis();
+    }
+
     /**
      * Implement this method in order to provide a new algorithm.
      */
@@ -108,9 +203,45 @@ public abstract class AbstractAlgorithm {
                 InformationLossWithBound<?> loss = checker.getMetric().getInformationLoss(node, null);
                 lattice.setInformationLoss(node, loss.getInformationLoss());
                 lattice.setLowerBound(node, loss.getLowerBound());
+                numEvaluations++;
             } else {
                 lattice.setChecked(node, checker.check(node, true));
             }
+            progress();
+        }
+    }
+
+    /**
+     * Returns whether the search must be terminated, because a limit has been reached.
+     * Once this method has returned true, it will always return true.
+     *
+     * @return
+     */
+    protected boolean isTerminated() {
+        if (!terminated) {
+            terminated = (checkLimit > 0 && numChecksBinaryPhase + numChecksLinearPhase >= checkLimit) ||
+                         (timeLimit > 0 && System.currentTimeMillis() - start >= timeLimit);
+        }
+        return terminated;
+    }
+
+    /**
+     * Must be called after a transformation has been checked or evaluated. Tracks
+     * peak heap usage and fires progress events.
+     */
+    protected void progress() {
+
+        // Track memory
+        final Runtime runtime = Runtime.getRuntime();
+        peakHeapUsage = Math.max(peakHeapUsage, runtime.totalMemory() - runtime.freeMemory());
+
+        // Fire event
+        if (listener != null) {
+            final long time = System.currentTimeMillis();
+            if (time - progressTime >= progressInterval) {
+                progressTime = time;
+                listener.progress(getStatistics());
+            }
         }
     }
 
@@ -42,15 +42,15 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
     /** Configuration for the algorithm's phases. */
     protected final FLASHConfiguration config;
 
-    /** Are the pointers for a node with id 'index' already sorted?. */
-    private final boolean[]            sorted;
-
     /** The strategy. */
     private final FLASHStrategy        strategy;
 
     /** List of nodes that may be used for pruning transformations with insufficient utility. */
     private final List<Node>           potentiallyInsufficientUtility;
 
+    /** The sorted successors of each node, if the lattice is materialized. */
+    private final Node[][]             sortedSuccessors;
+
     /**
      * Creates a new instance.
      *
@@ -66,10 +66,27 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
         super(lattice, checker);
         this.strategy = strategy;
-        this.sorted = new boolean[lattice.getSize()];
         this.config = config;
         this.potentiallyInsufficientUtility = this.config.isPruneInsufficientUtility() ? 
                                               new LinkedList<Node>() : null;
+        this.sortedSuccessors = lattice.isMaterialized() ? new Node[lattice.getSize()][] : null;
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.algorithm.AbstractAlgorithm#addKnownSolution(org.deidentifier.arx.framework.lattice.Node)
+     */
+    @Override
+    public void addKnownSolution(Node node) {
+        super.addKnownSolution(node);
+
+        // Tag as if the node had been checked, if there is only a binary phase. Otherwise,
+        // its successors must still be explored during the linear phase.
+        if (config.isBinaryPhaseRequired() && !config.isLinearPhaseRequired()) {
+            FLASHPhaseConfiguration phase = config.getBinaryPhaseConfiguration();
+            if (phase.getAnonymityProperty() == Node.PROPERTY_ANONYMOUS) {
+                phase.getTriggerTag().apply(node);
+            }
+        }
     }
 
     /* (non-Javadoc)
@@ -91,7 +108,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         checker.getHistory().setStorageTrigger(config.getTriggerSnapshotStore());
 
         // Initialize
-        PriorityQueue<Node> queue = new PriorityQueue<Node>(lattice.getLevels().length, strategy);
+        PriorityQueue<Node> queue = new PriorityQueue<Node>(lattice.getNumLevels(), strategy);
 
         // Check bottom for speed and remember the result to prevent repeated checks
         Node bottom = lattice.getBottom();
@@ -100,10 +117,15 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         bottom.setData(result);
 
         // For each node in the lattice
-        int length = lattice.getLevels().length;
-        for (int i = 0; i < length; i++) {
+        int length = lattice.getNumLevels();
+        for (int i = 0; i < length && !isTerminated(); i++) {
             for (Node node : getUnsetNodesAndSort(i, outerLoopConfiguration.getTriggerSkip())) {
 
+                // Stop, if a limit has been reached
+                if (isTerminated()) {
+                    break;
+                }
+
                 // Run the correct phase
                 if (config.isBinaryPhaseRequired()) {
                     binarySearch(node, queue);
@@ -114,8 +136,10 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         }
 
         // Potentially allows to better estimate utility in the lattice
-        computeUtilityForMonotonicMetrics(lattice.getBottom());
-        computeUtilityForMonotonicMetrics(lattice.getTop());
+        if (isOptimal()) {
+            computeUtilityForMonotonicMetrics(lattice.getBottom());
+            computeUtilityForMonotonicMetrics(lattice.getTop());
+        }
 
         // Remove the associated result information to leave the lattice in a consistent state
         lattice.getBottom().setData(null);
@@ -141,7 +165,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         queue.add(start);
 
         // While queue is not empty
-        while (!queue.isEmpty()) {
+        while (!queue.isEmpty() && !isTerminated()) {
 
             // Remove head and process
             Node head = queue.poll();
@@ -177,8 +201,16 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             if (loss.getLowerBound() == null) {
                 lattice.setLowerBound(node, checker.getMetric().getLowerBound(node));
             }
+            numEvaluations++;
+            progress();
         } else if (configuration.getTriggerCheck().appliesTo(node)) {
             lattice.setChecked(node, checker.check(node));
+            if (configuration == config.getBinaryPhaseConfiguration()) {
+                numChecksBinaryPhase++;
+            } else {
+                numChecksLinearPhase++;
+            }
+            progress();
         }
 
         // Store optimum
@@ -210,7 +242,12 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         Node lastAnonymousNode = null;
 
         // While not done
-        while (low <= high) {
+        while (low <= high && !isTerminated()) {
+
+            // Hint at the nodes that may be checked next
+            if (checker.getNumberOfThreads() > 1) {
+                checker.prefetch(getCandidates(path, low, high, triggerSkip));
+            }
 
             // Init
             final int mid = (low + high) / 2;
@@ -224,7 +261,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
                 // Add nodes to queue
                 if (!node.hasProperty(anonymityProperty)) {
-                    for (final Node up : node.getSuccessors()) {
+                    for (final Node up : getSuccessors(node)) {
                         if (!skip(triggerSkip, up)) {
                             queue.add(up);
                         }
@@ -258,8 +295,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         boolean found = true;
         while (found) {
             found = false;
-            sortSuccessors(current);
-            for (final Node candidate : current.getSuccessors()) {
+            for (final Node candidate : getSortedSuccessors(current)) {
                 if (!skip(triggerSkip, candidate)) {
                     current = candidate;
                     path.add(candidate);
@@ -271,6 +307,71 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         return path;
     }
 
+    /**
+     * Returns the nodes that may be checked next when performing a binary search on 
+     * the given part of the path. Nodes are returned in breadth-first order of the 
+     * implicit search tree, i.e. the first node is the one which will be checked next.
+     *
+     * @param path The path
+     * @param low The lower bound of the part
+     * @param high The upper bound of the part
+     * @param triggerSkip
+     * @return
+     */
+    private List<Node> getCandidates(List<Node> path, int low, int high, NodeAction triggerSkip) {
+
+        // Prepare
+        FLASHPhaseConfiguration configuration = config.getBinaryPhaseConfiguration();
+        List<Node> result = new ArrayList<Node>();
+        LinkedList<int[]> intervals = new LinkedList<int[]>();
+        intervals.add(new int[] { low, high });
+
+        // Breadth-first traversal of the search tree
+        while (!intervals.isEmpty() && result.size() < checker.getNumberOfThreads()) {
+            int[] interval = intervals.removeFirst();
+            if (interval[0] <= interval[1]) {
+                int mid = (interval[0] + interval[1]) / 2;
+                Node node = path.get(mid);
+                if (isCandidate(configuration, triggerSkip, node)) {
+                    result.add(node);
+                }
+                intervals.add(new int[] { interval[0], mid - 1 });
+                intervals.add(new int[] { mid + 1, interval[1] });
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the nodes that may be checked next when performing a depth-first 
+     * search starting with the given node.
+     *
+     * @param start
+     * @param successors The sorted successors of the node
+     * @param triggerSkip
+     * @return
+     */
+    private List<Node> getCandidates(Node start, Node[] successors, NodeAction triggerSkip) {
+
+        // Prepare
+        FLASHPhaseConfiguration configuration = config.getLinearPhaseConfiguration();
+        List<Node> result = new ArrayList<Node>();
+        if (isCandidate(configuration, triggerSkip, start)) {
+            result.add(start);
+        }
+
+        // Add successors
+        for (final Node child : successors) {
+            if (result.size() >= checker.getNumberOfThreads()) {
+                break;
+            }
+            if (isCandidate(configuration, triggerSkip, child)) {
+                result.add(child);
+            }
+        }
+        return result;
+    }
+
     /**
      * Returns all nodes that do not have the given property and sorts the resulting array
      * according to the strategy.
@@ -284,8 +385,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
         // Create
         List<Node> result = new ArrayList<Node>();
-        Node[] nlevel = lattice.getLevels()[level];
-        for (Node n : nlevel) {
+        for (Node n : lattice.getLevel(level)) {
             if (!skip(triggerSkip, n)) {
                 result.add(n);
             }
@@ -297,6 +397,21 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         return resultArray;
     }
 
+    /**
+     * Returns whether the given node may need to be checked in the given phase. This 
+     * method has no side-effects, in contrast to skip().
+     *
+     * @param configuration
+     * @param triggerSkip
+     * @param node
+     * @return
+     */
+    private boolean isCandidate(FLASHPhaseConfiguration configuration, NodeAction triggerSkip, Node node) {
+        return !triggerSkip.appliesTo(node) && 
+               !configuration.getTriggerEvaluate().appliesTo(node) &&
+               configuration.getTriggerCheck().appliesTo(node);
+    }
+
     /**
      * Implements a depth-first search with predictive tagging.
      *
@@ -307,25 +422,37 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         // Obtain node action
         NodeAction triggerSkip = config.getLinearPhaseConfiguration().getTriggerSkip();
 
+        // Stop, if a limit has been reached
+        if (isTerminated()) {
+            return;
+        }
+
         // Skip this node
         if (!skip(triggerSkip, start)) {
 
             // Sort successors
-            sortSuccessors(start);
+            Node[] successors = getSortedSuccessors(start);
+
+            // Hint at the nodes that may be checked next
+            if (checker.getNumberOfThreads() > 1) {
+                checker.prefetch(getCandidates(start, successors, triggerSkip));
+            }
 
             // Check and tag
             checkAndTag(start, config.getLinearPhaseConfiguration());
 
             // DFS
-            for (final Node child : start.getSuccessors()) {
+            for (final Node child : successors) {
                 if (!skip(triggerSkip, child)) {
                     linearSearch(child);
                 }
             }
         }
 
-        // Mark as successors pruned
-        lattice.setProperty(start, Node.PROPERTY_SUCCESSORS_PRUNED);
+        // Mark as successors pruned, unless the search has been terminated
+        if (!isTerminated()) {
+            lattice.setProperty(start, Node.PROPERTY_SUCCESSORS_PRUNED);
+        }
     }
 
     /**
@@ -350,7 +477,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         Node optimalTransformation = getGlobalOptimum();
 
         // There is no need to do anything, if the transformation that was just checked was already pruned
-        if ((node != optimalTransformation) && node.hasProperty(Node.PROPERTY_SUCCESSORS_PRUNED)) {
+        if (!node.equals(optimalTransformation) && node.hasProperty(Node.PROPERTY_SUCCESSORS_PRUNED)) {
             return;
         }
 
@@ -364,7 +491,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         InformationLoss<?> optimalInfoLoss = optimalTransformation.getInformationLoss();
 
         // If the current node is not the new optimum, we simply check it
-        if (node != optimalTransformation) {
+        if (!node.equals(optimalTransformation)) {
 
             // Prune it
             if (optimalInfoLoss.compareTo(node.getLowerBound()) <= 0) {
@@ -462,14 +589,32 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
     }
 
     /**
-     * Sorts pointers to successor nodes according to the strategy.
+     * Returns the successors of the given node sorted according to the strategy. For materialized
+     * lattices, successors are only sorted when they are requested for the first time.
      *
      * @param node The node
+     * @return
      */
-    private void sortSuccessors(final Node node) {
-        if (!sorted[node.id]) {
-            sort(node.getSuccessors());
-            sorted[node.id] = true;
+    private Node[] getSortedSuccessors(final Node node) {
+        Node[] successors = sortedSuccessors != null ? sortedSuccessors[node.id] : null;
+        if (successors == null) {
+            successors = node.getSuccessors();
+            sort(successors);
+            if (sortedSuccessors != null) {
+                sortedSuccessors[node.id] = successors;
+            }
         }
+        return successors;
+    }
+
+    /**
+     * Returns the successors of the given node, in sorted order if they have already been sorted.
+     *
+     * @param node The node
+     * @return
+     */
+    private Node[] getSuccessors(final Node node) {
+        Node[] successors = sortedSuccessors != null ? sortedSuccessors[node.id] : null;
+        return successors != null ? successors : node.getSuccessors();
     }
 }
@@ -40,7 +40,7 @@ public class FLASHStrategy implements Comparator<Node> {
     /** The maximal level for each qi. */
     private final int[]      maxLevels;
 
-    /** The criteria for a node with id 'index'. */
+    /** The criteria for a node with id 'index'. Null for implicit lattices. */
     private final double[][] values;
 
     /**
@@ -62,8 +62,8 @@ public class FLASHStrategy implements Comparator<Node> {
         for (int i = 0; i < hier.length; i++) {
             distinct[i] = hier[i].getDistinctValues();
         }
-        maxlevel = lattice.getLevels().length - 1;
-        values = new double[lattice.getSize()][];
+        maxlevel = lattice.getNumLevels() - 1;
+        values = lattice.isMaterialized() ? new double[lattice.getSize()][] : null;
     }
 
     /**
@@ -79,14 +79,8 @@ public class FLASHStrategy implements Comparator<Node> {
     public int compare(final Node n1, final Node n2) {
 
         // Obtain vals
-        if (values[n1.id] == null) {
-            values[n1.id] = getValue(n1);
-        }
-        if (values[n2.id] == null) {
-            values[n2.id] = getValue(n2);
-        }
-        final double[] m1 = values[n1.id];
-        final double[] m2 = values[n2.id];
+        final double[] m1 = getCachedValue(n1);
+        final double[] m2 = getCachedValue(n2);
 
         // Compare vals
         if (m1[0] < m2[0]) {
@@ -106,6 +100,22 @@ public class FLASHStrategy implements Comparator<Node> {
         }
     }
 
+    /**
+     * Returns the criteria for the given node, which are cached for materialized lattices.
+     *
+     * @param node
+     * @return
+     */
+    private final double[] getCachedValue(final Node node) {
+        if (values == null) {
+            return getValue(node);
+        }
+        if (values[node.id] == null) {
+            values[node.id] = getValue(node);
+        }
+        return values[node.id];
+    }
+
     /**
      * Returns the criteria for the given node.
      * 
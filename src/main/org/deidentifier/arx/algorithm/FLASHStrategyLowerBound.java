@@ -0,0 +1,105 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.deidentifier.arx.algorithm;
+
+import java.util.BitSet;
+
+import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
+import org.deidentifier.arx.framework.lattice.Lattice;
+import org.deidentifier.arx.framework.lattice.Node;
+import org.deidentifier.arx.metric.InformationLoss;
+import org.deidentifier.arx.metric.Metric;
+
+/**
+ * A strategy which prefers nodes with lower bounds on information loss that are as low as
+ * possible. Nodes without a lower bound come last. Ties are resolved with the general
+ * strategy of the ARX algorithm. This helps to find good solutions early, if the search
+ * is limited.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class FLASHStrategyLowerBound extends FLASHStrategy {
+
+    /** The lower bounds for a node with id 'index'. Null for implicit lattices. */
+    private final InformationLoss<?>[] bounds;
+
+    /** The ids of all nodes for which the lower bound has been cached. Null for implicit lattices. */
+    private final BitSet               cached;
+
+    /** The metric. */
+    private final Metric<?>            metric;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param lattice
+     * @param hier
+     * @param metric
+     */
+    public FLASHStrategyLowerBound(final Lattice lattice,
+                                   final GeneralizationHierarchy[] hier,
+                                   final Metric<?> metric) {
+        super(lattice, hier);
+        this.metric = metric;
+        this.bounds = lattice.isMaterialized() ? new InformationLoss<?>[lattice.getSize()] : null;
+        this.cached = lattice.isMaterialized() ? new BitSet(lattice.getSize()) : null;
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.algorithm.FLASHStrategy#compare(org.deidentifier.arx.framework.lattice.Node, org.deidentifier.arx.framework.lattice.Node)
+     */
+    @Override
+    public int compare(final Node n1, final Node n2) {
+
+        // Obtain bounds
+        final InformationLoss<?> b1 = getCachedLowerBound(n1);
+        final InformationLoss<?> b2 = getCachedLowerBound(n2);
+
+        // Compare bounds
+        if (b1 != null && b2 != null) {
+            final int result = b1.compareTo(b2);
+            if (result != 0) {
+                return result;
+            }
+        } else if (b1 != null) {
+            return -1;
+        } else if (b2 != null) {
+            return +1;
+        }
+        return super.compare(n1, n2);
+    }
+
+    /**
+     * Returns the lower bound for the given node, which is cached for materialized lattices.
+     *
+     * @param node
+     * @return
+     */
+    private InformationLoss<?> getCachedLowerBound(final Node node) {
+        if (bounds == null) {
+            return metric.getLowerBound(node);
+        }
+        if (!cached.get(node.id)) {
+            bounds[node.id] = metric.getLowerBound(node);
+            cached.set(node.id);
+        }
+        return bounds[node.id];
+    }
+}
@@ -92,6 +92,21 @@ public class DPresence extends ImplicitPrivacyCriterion{
                ARXConfiguration.REQUIREMENT_SECONDARY_COUNTER;
     }
 
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.criteria.PrivacyCriterion#implies(org.deidentifier.arx.criteria.PrivacyCriterion)
+     */
+    @Override
+    public boolean implies(PrivacyCriterion other) {
+        if (super.implies(other)) {
+            return true;
+        }
+        if (other == null || other.getClass() != this.getClass()) {
+            return false;
+        }
+        DPresence criterion = (DPresence) other;
+        return (subset == criterion.subset) && (dMin >= criterion.dMin) && (dMax <= criterion.dMax);
+    }
+
     /* (non-Javadoc)
      * @see org.deidentifier.arx.criteria.PrivacyCriterion#isAnonymous(org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry)
      */
@@ -66,12 +66,23 @@ public class EntropyLDiversity extends LDiversity {
         double total = 0;
         double sum1 = 0d;
 
-        final int[] buckets = d.getBuckets();
-        for (int i = 0; i < buckets.length; i += 2) {
-            if (buckets[i] != -1) { // bucket not empty
-                final double frequency = buckets[i + 1];
-                sum1 += frequency * log2(frequency);
-                total += frequency;
+        if (d.isDense()) {
+            final int[] histogram = d.getHistogram();
+            for (int i = 0; i < histogram.length; i++) {
+                if (histogram[i] != 0) { // value contained
+                    final double frequency = histogram[i];
+                    sum1 += frequency * log2(frequency);
+                    total += frequency;
+                }
+            }
+        } else {
+            final int[] buckets = d.getBuckets();
+            for (int i = 0; i < buckets.length; i += 2) {
+                if (buckets[i] != -1) { // bucket not empty
+                    final double frequency = buckets[i + 1];
+                    sum1 += frequency * log2(frequency);
+                    total += frequency;
+                }
             }
         }
 
@@ -81,6 +92,14 @@ public class EntropyLDiversity extends LDiversity {
         return val >= logL;
     }
 
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.criteria.ExplicitPrivacyCriterion#isCacheable()
+     */
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
     /**
      * Computes log 2.
      *
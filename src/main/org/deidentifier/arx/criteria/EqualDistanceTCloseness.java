@@ -17,6 +17,7 @@
 
 package org.deidentifier.arx.criteria;
 
+import org.deidentifier.arx.framework.check.distribution.Distribution;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.data.DataManager;
 
@@ -63,7 +64,7 @@ public class EqualDistanceTCloseness extends TCloseness {
     public boolean isAnonymous(HashGroupifyEntry entry) {
 
         // Calculate EMD with equal distance
-        int[] buckets = entry.distributions[index].getBuckets();
+        Distribution local = entry.distributions[index];
         double count = entry.count;
         
         /* 
@@ -85,10 +86,21 @@ public class EqualDistanceTCloseness extends TCloseness {
          */
         
         double val = 1.0d;
-        for (int i = 0; i < buckets.length; i += 2) {
-            if (buckets[i] != -1) { // bucket not empty
-                double frequency = distribution[buckets[i]];
-                val += Math.abs((frequency - ((double) buckets[i + 1] / count))) - frequency;
+        if (local.isDense()) {
+            final int[] histogram = local.getHistogram();
+            for (int i = 0; i < histogram.length; i++) {
+                if (histogram[i] != 0) { // value contained
+                    double frequency = distribution[i];
+                    val += Math.abs((frequency - ((double) histogram[i] / count))) - frequency;
+                }
+            }
+        } else {
+            final int[] buckets = local.getBuckets();
+            for (int i = 0; i < buckets.length; i += 2) {
+                if (buckets[i] != -1) { // bucket not empty
+                    double frequency = distribution[buckets[i]];
+                    val += Math.abs((frequency - ((double) buckets[i + 1] / count))) - frequency;
+                }
             }
         }
         val /= 2;
@@ -55,6 +55,17 @@ public abstract class ExplicitPrivacyCriterion extends PrivacyCriterion {
         return attribute;
     }
 
+    /**
+     * Returns whether results of this criterion may be cached. This requires that the result only
+     * depends on the distribution of values of the sensitive attribute within an equivalence class
+     * and that evaluating the criterion is more expensive than looking up the result.
+     *
+     * @return
+     */
+    public boolean isCacheable() {
+        return false;
+    }
+
     /* (non-Javadoc)
      * @see org.deidentifier.arx.criteria.PrivacyCriterion#initialize(org.deidentifier.arx.framework.data.DataManager)
      */
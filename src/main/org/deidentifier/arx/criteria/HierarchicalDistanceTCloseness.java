@@ -17,7 +17,10 @@
 
 package org.deidentifier.arx.criteria;
 
+import java.util.Arrays;
+
 import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.framework.check.distribution.Distribution;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.data.DataManager;
 
@@ -44,6 +47,9 @@ public class HierarchicalDistanceTCloseness extends TCloseness {
     /** Internal empty tree. */
     private int[] empty;
 
+    /** Internal trees, one per thread, as the tree is modified during evaluation. */
+    private transient ThreadLocal<int[]> trees;
+
     /**
      * Creates a new instance of the t-closeness criterion with hierarchical earth-movers-distance as proposed in:
      * Li N, Li T, Venkatasubramanian S.
@@ -68,6 +74,13 @@ public class HierarchicalDistanceTCloseness extends TCloseness {
         this.tree = manager.getTree(attribute);
         this.start = this.tree[1] + 3;
         this.empty = new int[this.tree[1]];
+        final int[] template = this.tree;
+        this.trees = new ThreadLocal<int[]>() {
+            @Override
+            protected int[] initialValue() {
+                return template.clone();
+            }
+        };
     }
 
     /* (non-Javadoc)
@@ -77,6 +90,7 @@ public class HierarchicalDistanceTCloseness extends TCloseness {
     public boolean isAnonymous(HashGroupifyEntry entry) {
         
         // Empty data in tree
+        final int[] tree = trees.get();
         System.arraycopy(empty, 0, tree, start, empty.length);
 
         // init parameters
@@ -89,13 +103,25 @@ public class HierarchicalDistanceTCloseness extends TCloseness {
 
         // Copy and count
         int totalElementsQ = 0;
-        int[] buckets = entry.distributions[index].getBuckets();
-        for (int i = 0; i < buckets.length; i += 2) {
-            if (buckets[i] != -1) { // bucket not empty
-                final int value = buckets[i];
-                final int frequency = buckets[i + 1];
-                tree[value + extraStartPos] = frequency;
-                totalElementsQ += frequency;
+        final Distribution distribution = entry.distributions[index];
+        if (distribution.isDense()) {
+            final int[] histogram = distribution.getHistogram();
+            for (int value = 0; value < histogram.length; value++) {
+                final int frequency = histogram[value];
+                if (frequency != 0) { // value contained
+                    tree[value + extraStartPos] = frequency;
+                    totalElementsQ += frequency;
+                }
+            }
+        } else {
+            final int[] buckets = distribution.getBuckets();
+            for (int i = 0; i < buckets.length; i += 2) {
+                if (buckets[i] != -1) { // bucket not empty
+                    final int value = buckets[i];
+                    final int frequency = buckets[i + 1];
+                    tree[value + extraStartPos] = frequency;
+                    totalElementsQ += frequency;
+                }
             }
         }
         // Tree data format: #p_count, #leafs, height, freqLeaf_1, ...,
@@ -160,6 +186,26 @@ public class HierarchicalDistanceTCloseness extends TCloseness {
         return cost <= t;
     }
 
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.criteria.ExplicitPrivacyCriterion#isCacheable()
+     */
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.criteria.TCloseness#implies(org.deidentifier.arx.criteria.PrivacyCriterion)
+     */
+    @Override
+    public boolean implies(PrivacyCriterion other) {
+        if (!super.implies(other)) {
+            return false;
+        }
+        Hierarchy otherHierarchy = ((HierarchicalDistanceTCloseness) other).hierarchy;
+        return hierarchy == otherHierarchy || Arrays.deepEquals(hierarchy.getHierarchy(), otherHierarchy.getHierarchy());
+    }
+
     /**
      * Returns the hierarchy backing the EMD calculations.
      *
@@ -58,6 +58,14 @@ public class KAnonymity extends ImplicitPrivacyCriterion{
         return ARXConfiguration.REQUIREMENT_COUNTER;
     }
 
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.criteria.PrivacyCriterion#implies(org.deidentifier.arx.criteria.PrivacyCriterion)
+     */
+    @Override
+    public boolean implies(PrivacyCriterion other) {
+        return super.implies(other) || ((other instanceof KAnonymity) && (k >= ((KAnonymity) other).k));
+    }
+
     /* (non-Javadoc)
      * @see org.deidentifier.arx.criteria.PrivacyCriterion#isAnonymous(org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry)
      */
@@ -64,6 +64,21 @@ public abstract class LDiversity extends ExplicitPrivacyCriterion {
         return ARXConfiguration.REQUIREMENT_DISTRIBUTION;
     }
 
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.criteria.PrivacyCriterion#implies(org.deidentifier.arx.criteria.PrivacyCriterion)
+     */
+    @Override
+    public boolean implies(PrivacyCriterion other) {
+        if (super.implies(other)) {
+            return true;
+        }
+        if (other == null || other.getClass() != this.getClass()) {
+            return false;
+        }
+        LDiversity criterion = (LDiversity) other;
+        return attribute.equals(criterion.attribute) && (l >= criterion.l);
+    }
+
     /**
      * Returns the parameter l.
      *
@@ -60,6 +60,18 @@ public abstract class PrivacyCriterion implements Serializable{
      * @return
      */
     public abstract int getRequirements();
+
+    /**
+     * Returns whether every equivalence class which fulfills this criterion also fulfills the
+     * given criterion. This is used to reuse results across configurations. The default
+     * implementation only returns true for the same instance.
+     *
+     * @param other
+     * @return
+     */
+    public boolean implies(PrivacyCriterion other) {
+        return this == other;
+    }
     
     /**
      * Implement this, to enforce the criterion.
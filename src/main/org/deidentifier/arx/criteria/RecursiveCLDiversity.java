@@ -63,12 +63,21 @@ public class RecursiveCLDiversity extends LDiversity{
         if (d.size() < minSize) { return false; }
 
         // Copy and pack
-        int[] buckets = d.getBuckets();
         final int[] frequencyCopy = new int[d.size()];
         int count = 0;
-        for (int i = 0; i < buckets.length; i += 2) {
-            if (buckets[i] != -1) { // bucket not empty
-                frequencyCopy[count++] = buckets[i + 1];
+        if (d.isDense()) {
+            final int[] histogram = d.getHistogram();
+            for (int i = 0; count < frequencyCopy.length; i++) {
+                if (histogram[i] != 0) { // value contained
+                    frequencyCopy[count++] = histogram[i];
+                }
+            }
+        } else {
+            final int[] buckets = d.getBuckets();
+            for (int i = 0; i < buckets.length; i += 2) {
+                if (buckets[i] != -1) { // bucket not empty
+                    frequencyCopy[count++] = buckets[i + 1];
+                }
             }
         }
 
@@ -86,6 +95,23 @@ public class RecursiveCLDiversity extends LDiversity{
         return frequencyCopy[frequencyCopy.length - 1] < threshold;
     }
 
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.criteria.LDiversity#implies(org.deidentifier.arx.criteria.PrivacyCriterion)
+     */
+    @Override
+    public boolean implies(PrivacyCriterion other) {
+        // A larger l and a smaller c lead to a smaller threshold
+        return super.implies(other) && (c <= ((RecursiveCLDiversity) other).c);
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.criteria.ExplicitPrivacyCriterion#isCacheable()
+     */
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
     /**
      * Returns the parameter c.
      *
@@ -55,6 +55,21 @@ public abstract class TCloseness extends ExplicitPrivacyCriterion {
         // Requires a distribution
         return ARXConfiguration.REQUIREMENT_DISTRIBUTION;
     }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.criteria.PrivacyCriterion#implies(org.deidentifier.arx.criteria.PrivacyCriterion)
+     */
+    @Override
+    public boolean implies(PrivacyCriterion other) {
+        if (super.implies(other)) {
+            return true;
+        }
+        if (other == null || other.getClass() != this.getClass()) {
+            return false;
+        }
+        TCloseness criterion = (TCloseness) other;
+        return attribute.equals(criterion.attribute) && (t <= criterion.t);
+    }
     
     /**
      * Returns the parameter t.
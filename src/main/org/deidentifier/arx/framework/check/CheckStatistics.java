@@ -0,0 +1,402 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.deidentifier.arx.framework.check.StateMachine.TransitionType;
+import org.deidentifier.arx.framework.check.groupify.CriterionCache;
+import org.deidentifier.arx.framework.check.history.History;
+
+/**
+ * Counters and timers collected by a node checker. All times are measured in nanoseconds.
+ * Instances are not thread-safe, each checker collects its own statistics, which may be
+ * combined with add().
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class CheckStatistics implements Cloneable {
+
+    /** The number of checks per type of transition. */
+    private long[] checks                  = new long[TransitionType.values().length];
+
+    /** The maximal number of equivalence classes of a transformation. */
+    private long   maxEquivalenceClasses   = 0L;
+
+    /** The number of results of privacy criteria, which have been found in the cache. */
+    private long   numCacheHits            = 0L;
+
+    /** The number of results of privacy criteria, which have not been found in the cache. */
+    private long   numCacheMisses          = 0L;
+
+    /** The number of snapshots evicted from memory. */
+    private long   numEvicted              = 0L;
+
+    /** The number of requests, for which a snapshot has been found. */
+    private long   numHits                 = 0L;
+
+    /** The number of snapshots loaded from disk. */
+    private long   numLoaded               = 0L;
+
+    /** The number of requests, for which no snapshot has been found. */
+    private long   numMisses               = 0L;
+
+    /** The number of snapshots written to disk. */
+    private long   numSpilled              = 0L;
+
+    /** The number of snapshots which could not be written to disk. */
+    private long   numSpillErrors          = 0L;
+
+    /** The number of snapshots stored. */
+    private long   numStored               = 0L;
+
+    /** The maximal number of bytes used by snapshots on disk. */
+    private long   peakDisk                = 0L;
+
+    /** The maximal number of bytes used by snapshots in memory. */
+    private long   peakMemory              = 0L;
+
+    /** The number of rows, equivalence classes or snapshot entries processed. */
+    private long   rowsProcessed           = 0L;
+
+    /** The last error which occurred while writing a snapshot to disk, if any. */
+    private IOException spillError         = null;
+
+    /** The time spent on evaluating privacy criteria. */
+    private long   timeAnalysis            = 0L;
+
+    /** The time spent on storing and retrieving snapshots. */
+    private long   timeHistory             = 0L;
+
+    /** The time spent on computing information loss. */
+    private long   timeInformationLoss     = 0L;
+
+    /** The time spent on transforming and grouping data per type of transition. */
+    private long[] timeTransformation      = new long[TransitionType.values().length];
+
+    /** The total number of equivalence classes of all transformations. */
+    private long   totalEquivalenceClasses = 0L;
+
+    /**
+     * Adds the given statistics to this statistics. Peak values are summed up, as they
+     * refer to the separate histories of different checkers.
+     *
+     * @param other
+     */
+    public void add(final CheckStatistics other) {
+        for (int i = 0; i < checks.length; i++) {
+            checks[i] += other.checks[i];
+            timeTransformation[i] += other.timeTransformation[i];
+        }
+        maxEquivalenceClasses = Math.max(maxEquivalenceClasses, other.maxEquivalenceClasses);
+        numCacheHits += other.numCacheHits;
+        numCacheMisses += other.numCacheMisses;
+        numEvicted += other.numEvicted;
+        numHits += other.numHits;
+        numLoaded += other.numLoaded;
+        numMisses += other.numMisses;
+        numSpilled += other.numSpilled;
+        numSpillErrors += other.numSpillErrors;
+        numStored += other.numStored;
+        peakDisk += other.peakDisk;
+        peakMemory += other.peakMemory;
+        rowsProcessed += other.rowsProcessed;
+        spillError = other.spillError != null ? other.spillError : spillError;
+        timeAnalysis += other.timeAnalysis;
+        timeHistory += other.timeHistory;
+        timeInformationLoss += other.timeInformationLoss;
+        totalEquivalenceClasses += other.totalEquivalenceClasses;
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#clone()
+     */
+    @Override
+    public CheckStatistics clone() {
+        try {
+            final CheckStatistics result = (CheckStatistics) super.clone();
+            result.checks = Arrays.copyOf(checks, checks.length);
+            result.timeTransformation = Arrays.copyOf(timeTransformation, timeTransformation.length);
+            return result;
+        } catch (final CloneNotSupportedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns the maximal number of equivalence classes of a transformation.
+     *
+     * @return
+     */
+    public long getMaxEquivalenceClasses() {
+        return maxEquivalenceClasses;
+    }
+
+    /**
+     * Returns the number of checks.
+     *
+     * @return
+     */
+    public long getNumChecks() {
+        long result = 0L;
+        for (final long value : checks) {
+            result += value;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of checks performed with the given type of transition.
+     *
+     * @param type
+     * @return
+     */
+    public long getNumChecks(final TransitionType type) {
+        return checks[type.ordinal()];
+    }
+
+    /**
+     * Returns the number of results of privacy criteria, which have been found in the cache.
+     *
+     * @return
+     */
+    public long getNumCriterionCacheHits() {
+        return numCacheHits;
+    }
+
+    /**
+     * Returns the number of results of privacy criteria, which have not been found in the cache
+     * and thus have been computed.
+     *
+     * @return
+     */
+    public long getNumCriterionCacheMisses() {
+        return numCacheMisses;
+    }
+
+    /**
+     * Returns the number of snapshots evicted from memory.
+     *
+     * @return
+     */
+    public long getNumSnapshotsEvicted() {
+        return numEvicted;
+    }
+
+    /**
+     * Returns the number of snapshot requests, which have been answered.
+     *
+     * @return
+     */
+    public long getNumSnapshotHits() {
+        return numHits;
+    }
+
+    /**
+     * Returns the number of snapshots loaded from disk.
+     *
+     * @return
+     */
+    public long getNumSnapshotsLoaded() {
+        return numLoaded;
+    }
+
+    /**
+     * Returns the number of snapshot requests, which could not be answered.
+     *
+     * @return
+     */
+    public long getNumSnapshotMisses() {
+        return numMisses;
+    }
+
+    /**
+     * Returns the number of snapshots written to disk.
+     *
+     * @return
+     */
+    public long getNumSnapshotsSpilled() {
+        return numSpilled;
+    }
+
+    /**
+     * Returns the number of snapshots which could not be written to disk.
+     *
+     * @return
+     */
+    public long getNumSnapshotSpillErrors() {
+        return numSpillErrors;
+    }
+
+    /**
+     * Returns the number of snapshots stored.
+     *
+     * @return
+     */
+    public long getNumSnapshotsStored() {
+        return numStored;
+    }
+
+    /**
+     * Returns the maximal number of bytes used by snapshots on disk.
+     *
+     * @return
+     */
+    public long getPeakDiskUsage() {
+        return peakDisk;
+    }
+
+    /**
+     * Returns the maximal estimated number of bytes used by snapshots in memory.
+     *
+     * @return
+     */
+    public long getPeakMemoryUsage() {
+        return peakMemory;
+    }
+
+    /**
+     * Returns the number of rows, equivalence classes (for roll-ups) or snapshot entries
+     * processed.
+     *
+     * @return
+     */
+    public long getRowsProcessed() {
+        return rowsProcessed;
+    }
+
+    /**
+     * Returns the last error which occurred while writing a snapshot to disk, null if there is none.
+     *
+     * @return
+     */
+    public IOException getSpillError() {
+        return spillError;
+    }
+
+    /**
+     * Returns the time spent on evaluating privacy criteria.
+     *
+     * @return
+     */
+    public long getTimeAnalysis() {
+        return timeAnalysis;
+    }
+
+    /**
+     * Returns the time spent on storing and retrieving snapshots.
+     *
+     * @return
+     */
+    public long getTimeHistory() {
+        return timeHistory;
+    }
+
+    /**
+     * Returns the time spent on computing information loss.
+     *
+     * @return
+     */
+    public long getTimeInformationLoss() {
+        return timeInformationLoss;
+    }
+
+    /**
+     * Returns the time spent on transforming and grouping data.
+     *
+     * @return
+     */
+    public long getTimeTransformation() {
+        long result = 0L;
+        for (final long value : timeTransformation) {
+            result += value;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the time spent on transforming and grouping data with the given type of transition.
+     *
+     * @param type
+     * @return
+     */
+    public long getTimeTransformation(final TransitionType type) {
+        return timeTransformation[type.ordinal()];
+    }
+
+    /**
+     * Returns the total number of equivalence classes of all transformations checked.
+     *
+     * @return
+     */
+    public long getTotalEquivalenceClasses() {
+        return totalEquivalenceClasses;
+    }
+
+    /**
+     * Records a check.
+     *
+     * @param type
+     * @param timeHistory
+     * @param timeTransformation
+     * @param timeAnalysis
+     * @param timeInformationLoss
+     * @param equivalenceClasses
+     */
+    void addCheck(final TransitionType type,
+                  final long timeHistory,
+                  final long timeTransformation,
+                  final long timeAnalysis,
+                  final long timeInformationLoss,
+                  final int equivalenceClasses) {
+        this.checks[type.ordinal()]++;
+        this.timeTransformation[type.ordinal()] += timeTransformation;
+        this.timeHistory += timeHistory;
+        this.timeAnalysis += timeAnalysis;
+        this.timeInformationLoss += timeInformationLoss;
+        this.totalEquivalenceClasses += equivalenceClasses;
+        this.maxEquivalenceClasses = Math.max(this.maxEquivalenceClasses, equivalenceClasses);
+    }
+
+    /**
+     * Sets the counters maintained by the given history, transformer and cache.
+     *
+     * @param history
+     * @param transformer
+     * @param cache The cache, or null
+     */
+    void update(final History history, final Transformer transformer, final CriterionCache cache) {
+        if (cache != null) {
+            this.numCacheHits = cache.getNumHits();
+            this.numCacheMisses = cache.getNumMisses();
+        }
+        this.numEvicted = history.getNumEvicted();
+        this.numHits = history.getNumHits();
+        this.numLoaded = history.getNumLoaded();
+        this.numMisses = history.getNumMisses();
+        this.numSpilled = history.getNumSpilled();
+        this.numSpillErrors = history.getNumSpillErrors();
+        this.numStored = history.getNumStored();
+        this.peakDisk = history.getDiskPeak();
+        this.peakMemory = history.getMemoryPeak();
+        this.rowsProcessed = transformer.getRowsProcessed();
+        this.spillError = history.getSpillError();
+    }
+}
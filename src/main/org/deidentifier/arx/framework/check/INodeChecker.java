@@ -17,6 +17,8 @@
 
 package org.deidentifier.arx.framework.check;
 
+import java.util.List;
+
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.framework.check.groupify.IHashGroupify;
 import org.deidentifier.arx.framework.check.history.History;
@@ -142,6 +144,29 @@ public interface INodeChecker {
      */
     public abstract int getNumberOfGroups();
 
+    /**
+     * Returns the number of threads used for checking nodes concurrently.
+     *
+     * @return
+     */
+    public abstract int getNumberOfThreads();
+
+    /**
+     * Returns a copy of the statistics collected so far.
+     *
+     * @return
+     */
+    public abstract CheckStatistics getStatistics();
+
+    /**
+     * Hints that the given nodes are likely to be checked next, in the given order. 
+     * Implementations may check them in the background. Results obtained this way
+     * must be identical to the results of calling check(node).
+     *
+     * @param nodes
+     */
+    public abstract void prefetch(List<Node> nodes);
+
     /**
      * Applies the given transformation and sets its properties.
      *
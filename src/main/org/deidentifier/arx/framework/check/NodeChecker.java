@@ -17,18 +17,24 @@
 
 package org.deidentifier.arx.framework.check;
 
+import java.util.List;
+
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.framework.check.StateMachine.Transition;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
+import org.deidentifier.arx.framework.check.groupify.CriterionCache;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyArray;
 import org.deidentifier.arx.framework.check.groupify.IHashGroupify;
+import org.deidentifier.arx.framework.check.groupify.PackedKeyEncoder;
 import org.deidentifier.arx.framework.check.history.History;
 import org.deidentifier.arx.framework.data.Data;
 import org.deidentifier.arx.framework.data.DataManager;
-import org.deidentifier.arx.framework.lattice.Lattice;
+import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 import org.deidentifier.arx.framework.lattice.Node;
 import org.deidentifier.arx.metric.InformationLoss;
+import org.deidentifier.arx.metric.InformationLossAccumulator;
 import org.deidentifier.arx.metric.InformationLossWithBound;
 import org.deidentifier.arx.metric.Metric;
 
@@ -40,6 +46,9 @@ import org.deidentifier.arx.metric.Metric;
  */
 public class NodeChecker implements INodeChecker {
 
+    /** The cache for results of privacy criteria, may be null. */
+    private final CriterionCache   cache;
+
     /** The config. */
     private final ARXConfigurationInternal config;
 
@@ -58,6 +67,9 @@ public class NodeChecker implements INodeChecker {
     /** The metric. */
     protected Metric<?>            metric;
 
+    /** The statistics. */
+    private final CheckStatistics  statistics = new CheckStatistics();
+
     /** The state machine. */
     protected StateMachine         stateMachine;
 
@@ -81,6 +93,52 @@ public class NodeChecker implements INodeChecker {
      *            The history threshold replacement
      */
     public NodeChecker(final DataManager manager, final Metric<?> metric, final ARXConfigurationInternal config, final int historyMaxSize, final double snapshotSizeDataset, final double snapshotSizeSnapshot) {
+        this(manager, metric, config, historyMaxSize, snapshotSizeDataset, snapshotSizeSnapshot, 1);
+    }
+
+    /**
+     * Creates a new NodeChecker instance.
+     * 
+     * @param manager
+     *            The manager
+     * @param metric
+     *            The metric
+     * @param config
+     *            The anonymization configuration
+     * @param historyMaxSize
+     *            The history max size
+     * @param snapshotSizeDataset
+     *            The history threshold
+     * @param snapshotSizeSnapshot
+     *            The history threshold replacement
+     * @param threads
+     *            The number of threads used for transforming the data
+     */
+    public NodeChecker(final DataManager manager, final Metric<?> metric, final ARXConfigurationInternal config, final int historyMaxSize, final double snapshotSizeDataset, final double snapshotSizeSnapshot, final int threads) {
+        this(manager, metric, config, historyMaxSize, snapshotSizeDataset, snapshotSizeSnapshot, threads, Transformer.DEFAULT_MIN_ROWS_PER_THREAD);
+    }
+
+    /**
+     * Creates a new NodeChecker instance.
+     * 
+     * @param manager
+     *            The manager
+     * @param metric
+     *            The metric
+     * @param config
+     *            The anonymization configuration
+     * @param historyMaxSize
+     *            The history max size
+     * @param snapshotSizeDataset
+     *            The history threshold
+     * @param snapshotSizeSnapshot
+     *            The history threshold replacement
+     * @param threads
+     *            The number of threads used for transforming the data
+     * @param minRowsPerThread
+     *            The minimal number of rows transformed by each thread
+     */
+    public NodeChecker(final DataManager manager, final Metric<?> metric, final ARXConfigurationInternal config, final int historyMaxSize, final double snapshotSizeDataset, final double snapshotSizeSnapshot, final int threads, final int minRowsPerThread) {
 
         // Initialize all operators
         this.metric = metric;
@@ -99,7 +157,7 @@ public class NodeChecker implements INodeChecker {
             dictionarySensFreq = new IntArrayDictionary(0);
         }
 
-        this.history = new History(manager.getDataQI().getArray().length,
+        this.history = new History(manager.getDataQI().getDataLength(),
                                    historyMaxSize,
                                    snapshotSizeDataset,
                                    snapshotSizeSnapshot,
@@ -108,14 +166,19 @@ public class NodeChecker implements INodeChecker {
                                    dictionarySensFreq);
         
         this.stateMachine = new StateMachine(history);
-        this.currentGroupify = new HashGroupify(initialSize, config);
-        this.lastGroupify = new HashGroupify(initialSize, config);
+        this.cache = config.isCriterionCacheEnabled() ? CriterionCache.create(config.getCriteriaAsArray(),
+                                                                              manager.getDataSE().getHeader(),
+                                                                              CriterionCache.DEFAULT_MAX_PAIRS) : null;
+        this.currentGroupify = createGroupify(initialSize, config, manager.getHierarchies(), cache);
+        this.lastGroupify = createGroupify(initialSize, config, manager.getHierarchies(), cache);
         this.transformer = new Transformer(manager.getDataQI().getArray(),
                                            manager.getHierarchies(),
                                            manager.getDataSE().getArray(),
                                            config,
                                            dictionarySensValue,
-                                           dictionarySensFreq);
+                                           dictionarySensFreq,
+                                           threads,
+                                           minRowsPerThread);
     }
 
     /* (non-Javadoc)
@@ -138,12 +201,14 @@ public class NodeChecker implements INodeChecker {
         }
 
         // Store snapshot from last check
+        final long start = System.nanoTime();
         if (stateMachine.getLastNode() != null) {
             history.store(stateMachine.getLastNode(), currentGroupify, stateMachine.getLastTransition().snapshot);
         }
 
         // Transition
         final Transition transition = stateMachine.transition(node);
+        final long timeHistory = System.nanoTime();
 
         // Switch groupifies
         final IHashGroupify temp = lastGroupify;
@@ -162,18 +227,41 @@ public class NodeChecker implements INodeChecker {
             currentGroupify = transformer.applySnapshot(transition.projection, node.getTransformation(), currentGroupify, transition.snapshot);
             break;
         }
+        final long timeTransformation = System.nanoTime();
         
-        // We are done with transforming and adding
-        currentGroupify.analyze(forceMeasureInfoLoss);
-        if (forceMeasureInfoLoss && !currentGroupify.isAnonymous() && !config.isSuppressionAlwaysEnabled()) {
+        // We are done with transforming and adding. If supported by the metric, information
+        // loss and lower bound are accumulated while the classes are analyzed.
+        final InformationLossAccumulator<?> accumulator = metric.createAccumulator(node);
+        currentGroupify.analyze(forceMeasureInfoLoss, accumulator);
+        final boolean suppressed = currentGroupify.isAnonymous() || config.isSuppressionAlwaysEnabled();
+        if (forceMeasureInfoLoss && !suppressed && accumulator == null) {
             currentGroupify.resetSuppression();
         }
+        final long timeAnalysis = System.nanoTime();
         
         // Compute information loss and lower bound
-        InformationLossWithBound<?> result = (currentGroupify.isAnonymous() || forceMeasureInfoLoss) ?
-                                          metric.getInformationLoss(node, currentGroupify) : null;
+        InformationLossWithBound<?> result = null;
+        if (currentGroupify.isAnonymous() || forceMeasureInfoLoss) {
+            result = accumulator != null ? accumulator.getInformationLoss(suppressed) :
+                                           metric.getInformationLoss(node, currentGroupify);
+        }
         InformationLoss<?> loss = result != null ? result.getInformationLoss() : null;
-        InformationLoss<?> bound = result != null ? result.getLowerBound() : metric.getLowerBound(node, currentGroupify);
+        InformationLoss<?> bound = null;
+        if (result != null) {
+            bound = result.getLowerBound();
+        } else if (accumulator != null) {
+            bound = node.getLowerBound() != null ? node.getLowerBound() : accumulator.getLowerBound();
+        } else {
+            bound = metric.getLowerBound(node, currentGroupify);
+        }
+        
+        // Update statistics
+        statistics.addCheck(transition.type,
+                            timeHistory - start,
+                            timeTransformation - timeHistory,
+                            timeAnalysis - timeTransformation,
+                            System.nanoTime() - timeAnalysis,
+                            currentGroupify.size());
         
         // Return result;
         return new INodeChecker.Result(currentGroupify.isAnonymous(), 
@@ -248,6 +336,40 @@ public class NodeChecker implements INodeChecker {
         return currentGroupify.size();
     }
 
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.INodeChecker#getNumberOfThreads()
+     */
+    @Override
+    public int getNumberOfThreads() {
+        return 1;
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.INodeChecker#getStatistics()
+     */
+    @Override
+    public CheckStatistics getStatistics() {
+        final CheckStatistics result = statistics.clone();
+        result.update(history, transformer, cache);
+        return result;
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.INodeChecker#prefetch(java.util.List)
+     */
+    @Override
+    public void prefetch(List<Node> nodes) {
+        // Empty by design
+    }
+
+    /**
+     * Stops the threads used for transforming the data. Subsequent transformations are
+     * performed by the calling thread.
+     */
+    public void shutdown() {
+        transformer.shutdown();
+    }
+
     /* (non-Javadoc)
      * @see org.deidentifier.arx.framework.check.INodeChecker#applyAndSetProperties(org.deidentifier.arx.framework.lattice.Node)
      */
@@ -274,13 +396,30 @@ public class NodeChecker implements INodeChecker {
         }
         
         // Set properties
-        Lattice lattice = new Lattice(new Node[][]{{transformation}}, 0);
-        lattice.setChecked(transformation, new Result(currentGroupify.isAnonymous(), 
-                                                      currentGroupify.isKAnonymous(),
-                                                      loss,
-                                                      null));
+        transformation.getLattice().setChecked(transformation, new Result(currentGroupify.isAnonymous(), 
+                                                                          currentGroupify.isKAnonymous(),
+                                                                          loss,
+                                                                          null));
         
         // Return the buffer
         return new TransformedData(getBuffer(), currentGroupify.getGroupStatistics());
     }
+
+    /**
+     * Creates a hash groupify operator as defined by the configuration. The primitive
+     * groupify packs keys into two longs, if the hierarchies allow to do so.
+     *
+     * @param capacity
+     * @param config
+     * @param hierarchies
+     * @param cache The cache for results of privacy criteria, or null
+     * @return
+     */
+    static IHashGroupify createGroupify(final int capacity, final ARXConfigurationInternal config, final GeneralizationHierarchy[] hierarchies, final CriterionCache cache) {
+        if (config.isPrimitiveGroupifyEnabled()) {
+            return new HashGroupifyArray(capacity, config, hierarchies.length, PackedKeyEncoder.create(hierarchies), cache);
+        } else {
+            return new HashGroupify(capacity, config, cache);
+        }
+    }
 }
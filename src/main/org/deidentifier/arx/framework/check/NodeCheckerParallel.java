@@ -0,0 +1,324 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+
+import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.framework.check.groupify.IHashGroupify;
+import org.deidentifier.arx.framework.check.history.History;
+import org.deidentifier.arx.framework.data.Data;
+import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.lattice.Node;
+import org.deidentifier.arx.framework.lattice.Node.DetachedNode;
+import org.deidentifier.arx.metric.Metric;
+
+/**
+ * This class implements a node checker, which checks nodes that have been hinted via
+ * prefetch() concurrently. Each worker owns a complete NodeChecker, i.e. its own buffer,
+ * pair of hash groupifies and history. All other requests are delegated to a primary
+ * checker. Workers never modify the lattice: the state of each node is copied when its check
+ * is submitted and results are only handed back to the calling thread. Workers only read
+ * whether successors have been pruned from the lattice, so that their histories are cleaned
+ * up as the search progresses.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class NodeCheckerParallel implements INodeChecker {
+
+    /** The primary checker. */
+    private final NodeChecker                                checker;
+
+    /** All workers. */
+    private final NodeChecker[]                              checkers;
+
+    /** The executor. */
+    private final ExecutorService                            executor;
+
+    /** The maximal number of pending checks. */
+    private final int                                        maxPending;
+
+    /** Pending checks, in the order in which they have been hinted. */
+    private final LinkedHashMap<Node, Future<INodeChecker.Result>> pending;
+
+    /** The number of threads. */
+    private final int                                        threads;
+
+    /** Idle workers. */
+    private final BlockingQueue<NodeChecker>                 workers;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param checker The primary checker
+     * @param manager The manager
+     * @param metric The metric
+     * @param config The anonymization configuration
+     * @param historyMaxSize The history max size of each worker
+     * @param snapshotSizeDataset The history threshold
+     * @param snapshotSizeSnapshot The history threshold replacement
+     * @param threads The number of worker threads
+     */
+    public NodeCheckerParallel(final NodeChecker checker,
+                               final DataManager manager,
+                               final Metric<?> metric,
+                               final ARXConfigurationInternal config,
+                               final int historyMaxSize,
+                               final double snapshotSizeDataset,
+                               final double snapshotSizeSnapshot,
+                               final int threads) {
+
+        this.checker = checker;
+        this.threads = threads;
+        this.maxPending = threads * 2;
+        this.pending = new LinkedHashMap<Node, Future<INodeChecker.Result>>();
+        this.workers = new LinkedBlockingQueue<NodeChecker>();
+        this.checkers = new NodeChecker[threads];
+        for (int i = 0; i < threads; i++) {
+            this.checkers[i] = new NodeChecker(manager, metric, config, historyMaxSize, snapshotSizeDataset, snapshotSizeSnapshot);
+            this.workers.add(checkers[i]);
+        }
+        this.executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ARX NodeChecker");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.INodeChecker#applyAndSetProperties(org.deidentifier.arx.framework.lattice.Node)
+     */
+    @Override
+    public TransformedData applyAndSetProperties(Node transformation) {
+        return checker.applyAndSetProperties(transformation);
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.INodeChecker#check(org.deidentifier.arx.framework.lattice.Node)
+     */
+    @Override
+    public INodeChecker.Result check(final Node node) {
+        return check(node, false);
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.INodeChecker#check(org.deidentifier.arx.framework.lattice.Node, boolean)
+     */
+    @Override
+    public INodeChecker.Result check(final Node node, final boolean forceMeasureInfoLoss) {
+
+        // Use the result of a prefetched check, if any
+        if (!forceMeasureInfoLoss) {
+            Future<INodeChecker.Result> future = pending.remove(node);
+            if (future != null) {
+                return getResult(future);
+            }
+        }
+
+        // Check on the calling thread
+        return checker.check(node, forceMeasureInfoLoss);
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.INodeChecker#getBuffer()
+     */
+    @Override
+    public Data getBuffer() {
+        return checker.getBuffer();
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.INodeChecker#getConfiguration()
+     */
+    @Override
+    public ARXConfigurationInternal getConfiguration() {
+        return checker.getConfiguration();
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.INodeChecker#getData()
+     */
+    @Override
+    public Data getData() {
+        return checker.getData();
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.INodeChecker#getGroupify()
+     */
+    @Override
+    public IHashGroupify getGroupify() {
+        return checker.getGroupify();
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.INodeChecker#getHistory()
+     */
+    @Override
+    public History getHistory() {
+        return checker.getHistory();
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.INodeChecker#getInformationLoss(org.deidentifier.arx.framework.lattice.Node)
+     */
+    @Override
+    @Deprecated
+    public double getInformationLoss(Node node) {
+        return checker.getInformationLoss(node);
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.INodeChecker#getMetric()
+     */
+    @Override
+    public Metric<?> getMetric() {
+        return checker.getMetric();
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.INodeChecker#getNumberOfGroups()
+     */
+    @Override
+    public int getNumberOfGroups() {
+        return checker.getNumberOfGroups();
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.INodeChecker#getNumberOfThreads()
+     */
+    @Override
+    public int getNumberOfThreads() {
+        return threads;
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.INodeChecker#getStatistics()
+     */
+    @Override
+    public CheckStatistics getStatistics() {
+        // Counters of busy workers may be slightly outdated
+        final CheckStatistics result = checker.getStatistics();
+        for (final NodeChecker worker : checkers) {
+            result.add(worker.getStatistics());
+        }
+        return result;
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.INodeChecker#prefetch(java.util.List)
+     */
+    @Override
+    public void prefetch(List<Node> nodes) {
+
+        // Submit
+        for (final Node node : nodes) {
+            if (node.getData() == null && !node.hasProperty(Node.PROPERTY_CHECKED)) {
+                Future<INodeChecker.Result> future = pending.remove(node);
+                if (future == null) {
+                    future = submit(node);
+                }
+                pending.put(node, future);
+            }
+        }
+
+        // Discard the oldest hints
+        Iterator<Future<INodeChecker.Result>> iterator = pending.values().iterator();
+        while (pending.size() > maxPending) {
+            iterator.next().cancel(false);
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Discards all pending checks and stops the workers.
+     */
+    public void shutdown() {
+        for (Future<INodeChecker.Result> future : pending.values()) {
+            future.cancel(false);
+        }
+        pending.clear();
+        executor.shutdown();
+        for (final NodeChecker worker : checkers) {
+            worker.shutdown();
+        }
+    }
+
+    /**
+     * Waits for the result of a background check.
+     *
+     * @param future
+     * @return
+     */
+    private INodeChecker.Result getResult(Future<INodeChecker.Result> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Submits a check to the workers.
+     *
+     * @param node
+     * @return
+     */
+    private Future<INodeChecker.Result> submit(final Node node) {
+        
+        // Read the state of the node on the calling thread
+        final DetachedNode detached = node.detach();
+        return executor.submit(new Callable<INodeChecker.Result>() {
+            @Override
+            public INodeChecker.Result call() throws Exception {
+                NodeChecker worker = workers.take();
+                try {
+                    worker.getHistory().setStorageTrigger(checker.getHistory().getStorageTrigger());
+                    worker.getHistory().setMemoryLimit(checker.getHistory().getMemoryLimit());
+                    worker.getHistory().setCompressionEnabled(checker.getHistory().isCompressionEnabled());
+                    worker.getHistory().setDiskLimit(checker.getHistory().getDiskLimit());
+                    INodeChecker.Result result = worker.check(detached, false);
+                    detached.setChecked(result);
+                    return result;
+                } finally {
+                    workers.add(worker);
+                }
+            }
+        });
+    }
+}
@@ -17,6 +17,13 @@
 
 package org.deidentifier.arx.framework.check;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.framework.check.StateMachine.TransitionType;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
@@ -39,6 +46,7 @@ import org.deidentifier.arx.framework.check.transformer.Transformer13;
 import org.deidentifier.arx.framework.check.transformer.Transformer14;
 import org.deidentifier.arx.framework.check.transformer.Transformer15;
 import org.deidentifier.arx.framework.check.transformer.TransformerAll;
+import org.deidentifier.arx.framework.data.DataMatrix;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 
 /**
@@ -49,17 +57,20 @@ import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
  */
 public class Transformer {
 
+    /** The default minimal number of rows processed by a thread. */
+    public static final int                   DEFAULT_MIN_ROWS_PER_THREAD = 50000;
+
     /** The buffer. */
-    protected int[][]                          buffer;
+    protected DataMatrix                       buffer;
 
     /** Sensitive attribute values. */
-    protected int[][]                          sensitive;
+    protected DataMatrix                       sensitive;
 
     /** The config. */
     protected final ARXConfigurationInternal config;
 
     /** The data. */
-    protected final int[][]                    data;
+    protected final DataMatrix                 data;
 
     /** The dictionary for the snapshot compression *. */
     protected IntArrayDictionary               dictionarySensFreq;
@@ -76,6 +87,21 @@ public class Transformer {
     /** The instances. */
     protected final AbstractTransformer[]      instances;
 
+    /** The instances used for processing partitions, one set per thread. */
+    protected final AbstractTransformer[][]    partitionInstances;
+
+    /** The groupifies used for processing partitions, one per thread. */
+    protected final IHashGroupify[]            partitionGroupifies;
+
+    /** The minimal number of rows processed by a thread. */
+    private final int                          minRowsPerThread;
+
+    /** The pool used for processing partitions, if any. */
+    protected final ForkJoinPool               pool;
+
+    /** The number of rows, equivalence classes or snapshot entries processed so far. */
+    private long                               rowsProcessed       = 0L;
+
     /**
      * Instantiates a new transformer.
      *
@@ -86,29 +112,90 @@ public class Transformer {
      * @param dictionarySensValue
      * @param dictionarySensFreq
      */
-    public Transformer(final int[][] data,
+    public Transformer(final DataMatrix data,
                        final GeneralizationHierarchy[] hierarchies,
-                       final int[][] sensitive,
+                       final DataMatrix sensitive,
                        final ARXConfigurationInternal config,
                        final IntArrayDictionary dictionarySensValue,
                        final IntArrayDictionary dictionarySensFreq) {
+        this(data, hierarchies, sensitive, config, dictionarySensValue, dictionarySensFreq, 1);
+    }
+
+    /**
+     * Instantiates a new transformer, which partitions the rows of large datasets
+     * across the given number of threads.
+     *
+     * @param data
+     * @param hierarchies
+     * @param sensitive
+     * @param config
+     * @param dictionarySensValue
+     * @param dictionarySensFreq
+     * @param threads
+     */
+    public Transformer(final DataMatrix data,
+                       final GeneralizationHierarchy[] hierarchies,
+                       final DataMatrix sensitive,
+                       final ARXConfigurationInternal config,
+                       final IntArrayDictionary dictionarySensValue,
+                       final IntArrayDictionary dictionarySensFreq,
+                       final int threads) {
+        this(data, hierarchies, sensitive, config, dictionarySensValue, dictionarySensFreq, threads, DEFAULT_MIN_ROWS_PER_THREAD);
+    }
+
+    /**
+     * Instantiates a new transformer, which partitions the rows of large datasets
+     * across the given number of threads. Each thread processes at least the given
+     * number of rows.
+     *
+     * @param data
+     * @param hierarchies
+     * @param sensitive
+     * @param config
+     * @param dictionarySensValue
+     * @param dictionarySensFreq
+     * @param threads
+     * @param minRowsPerThread
+     */
+    public Transformer(final DataMatrix data,
+                       final GeneralizationHierarchy[] hierarchies,
+                       final DataMatrix sensitive,
+                       final ARXConfigurationInternal config,
+                       final IntArrayDictionary dictionarySensValue,
+                       final IntArrayDictionary dictionarySensFreq,
+                       final int threads,
+                       final int minRowsPerThread) {
 
         this.config = config;
+        this.minRowsPerThread = minRowsPerThread;
         this.data = data;
         this.hierarchies = hierarchies;
         this.instances = new AbstractTransformer[16];
-        this.buffer = new int[data.length][];
-        
-        for (int i = 0; i < data.length; i++) {
-            buffer[i] = new int[data[0].length];
-        }
-
-        this.dimensions = data[0].length;
+        this.buffer = new DataMatrix(data.getNumRows(), data.getNumColumns());
+        this.dimensions = data.getNumColumns();
         this.dictionarySensValue = dictionarySensValue;
         this.dictionarySensFreq = dictionarySensFreq;
         this.sensitive = sensitive;
 
-        buildApplicators();
+        buildApplicators(instances);
+
+        // Prepare partitioning, if it may be used at all
+        int partitions = Math.min(threads, data.getNumRows() / minRowsPerThread);
+        if (partitions > 1) {
+            int capacity = (int) (data.getNumRows() * 0.01d / partitions);
+            this.partitionInstances = new AbstractTransformer[partitions][];
+            this.partitionGroupifies = new IHashGroupify[partitions];
+            for (int i = 0; i < partitions; i++) {
+                this.partitionInstances[i] = new AbstractTransformer[16];
+                this.partitionGroupifies[i] = NodeChecker.createGroupify(capacity, config, hierarchies, null);
+                buildApplicators(partitionInstances[i]);
+            }
+            this.pool = new ForkJoinPool(partitions);
+        } else {
+            this.partitionInstances = null;
+            this.partitionGroupifies = null;
+            this.pool = null;
+        }
     }
 
     /**
@@ -188,14 +275,36 @@ public class Transformer {
      * 
      * @return the buffer
      */
-    public int[][] getBuffer() {
+    public DataMatrix getBuffer() {
         return buffer;
     }
 
+    /**
+     * Returns the number of rows, equivalence classes (for roll-ups) or snapshot entries
+     * processed so far.
+     *
+     * @return
+     */
+    public long getRowsProcessed() {
+        return rowsProcessed;
+    }
+
+    /**
+     * Stops the threads used for processing partitions. Subsequent transformations
+     * are performed by the calling thread.
+     */
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
     /**
      * Builds the applicators.
+     *
+     * @param instances
      */
-    private void buildApplicators() {
+    private void buildApplicators(final AbstractTransformer[] instances) {
         instances[15] = new Transformer15(data,
                                           hierarchies,
                                           sensitive,
@@ -327,7 +436,7 @@ public class Transformer {
         switch (transition) {
         case UNOPTIMIZED:
             startIndex = 0;
-            stopIndex = data.length;
+            stopIndex = data.getNumRows();
             break;
         case ROLLUP:
             startIndex = 0;
@@ -341,6 +450,12 @@ public class Transformer {
                         config.getSnapshotLength();
             break;
         }
+        rowsProcessed += stopIndex;
+
+        // Partition large inputs across multiple threads
+        if (pool != null && !pool.isShutdown() && transition != TransitionType.ROLLUP && stopIndex >= 2 * minRowsPerThread) {
+            return applyPartitioned(projection, state, target, snapshot, transition, stopIndex);
+        }
 
         AbstractTransformer app = null;
 
@@ -361,6 +476,74 @@ public class Transformer {
         return app.call();
     }
 
+    /**
+     * Applies the transformation by splitting the rows into consecutive partitions, which
+     * are grouped concurrently. The partial results are merged in the order of the
+     * partitions, which yields exactly the same classes, in the same order and with 
+     * the same representatives, as processing all rows at once.
+     *
+     * @param projection
+     * @param state
+     * @param target
+     * @param snapshot
+     * @param transition
+     * @param stopIndex
+     * @return
+     */
+    private IHashGroupify applyPartitioned(final long projection,
+                                           final int[] state,
+                                           final IHashGroupify target,
+                                           final int[] snapshot,
+                                           final TransitionType transition,
+                                           final int stopIndex) {
+
+        // Prepare tasks
+        int partitions = Math.min(partitionInstances.length, stopIndex / minRowsPerThread);
+        List<Callable<IHashGroupify>> tasks = new ArrayList<Callable<IHashGroupify>>();
+        for (int i = 0; i < partitions; i++) {
+            AbstractTransformer app = getApplicator(partitionInstances[i], projection);
+            app.init(projection,
+                     state,
+                     partitionGroupifies[i],
+                     null,
+                     snapshot,
+                     transition,
+                     (int) ((long) stopIndex * i / partitions),
+                     (int) ((long) stopIndex * (i + 1) / partitions),
+                     0,
+                     null,
+                     buffer);
+            tasks.add(app);
+        }
+
+        // Execute
+        List<Future<IHashGroupify>> results = pool.invokeAll(tasks);
+
+        // Merge
+        target.clear();
+        for (Future<IHashGroupify> result : results) {
+            IHashGroupify partial;
+            try {
+                partial = result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new RuntimeException(e.getCause());
+            }
+            HashGroupifyEntry entry = partial.getFirstEntry();
+            while (entry != null) {
+                target.addGroupify(entry.key, entry.representant, entry.count, entry.distributions, entry.pcount);
+                entry = entry.nextOrdered;
+            }
+            partial.clear();
+        }
+        return target;
+    }
+
     /**
      * Gets the applicator.
      * 
@@ -368,6 +551,17 @@ public class Transformer {
      * @return the applicator
      */
     protected AbstractTransformer getApplicator(final long projection) {
+        return getApplicator(instances, projection);
+    }
+
+    /**
+     * Gets the applicator from the given set of instances.
+     * 
+     * @param instances the instances
+     * @param projection the projection
+     * @return the applicator
+     */
+    protected AbstractTransformer getApplicator(final AbstractTransformer[] instances, final long projection) {
         final int index = dimensions - Long.bitCount(projection);
         if (index > (instances.length - 1)) {
             return instances[0];
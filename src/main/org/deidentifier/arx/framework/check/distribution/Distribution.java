@@ -22,22 +22,30 @@ import java.util.Arrays;
 import org.deidentifier.arx.framework.check.groupify.HashTableUtil;
 
 /**
- * This class can be utilized to track the distributions of values. It is backed by a hash table
- * implementing open addressing with linear probing.
+ * This class can be utilized to track the distributions of values. As long as all values are
+ * smaller than DENSE_LIMIT, which is the case for sensitive attributes with small domains, the
+ * frequencies are stored in a histogram indexed by value. Otherwise, the distribution switches
+ * to a hash table implementing open addressing with linear probing.
  * 
  * @author Fabian Prasser
  * @author Florian Kohlmayer
  */
 public class Distribution {
 
+    /** Values smaller than this limit are stored in the dense representation. */
+    public static final int     DENSE_LIMIT      = 64;
+
     /** The size. */
     private int                 size;
     
     /** The threshold used for rehashing. */
     private int                 threshold;
 
-    /** The elements. Even index contains value, odd index contains frequency */
+    /** The elements. Even index contains value, odd index contains frequency. Null, if dense. */
     private int[]               elements;
+
+    /** The frequencies indexed by value. Null, if not dense. */
+    private int[]               histogram;
     
     /** The sorted element array - used for history entries only. */
     private int[]               packedElements;
@@ -55,7 +63,8 @@ public class Distribution {
      * Default constructor.
      */
     public Distribution() {
-        this(DEFAULT_CAPACITY);
+        this.size = 0;
+        this.histogram = new int[DEFAULT_CAPACITY];
     }
 
     /**
@@ -65,26 +74,17 @@ public class Distribution {
      * @param frequency
      */
     public Distribution(final int[] element, final int[] frequency) {
-        this(element.length);
+        this.size = 0;
+        int max = -1;
         for (int i = 0; i < element.length; i++) {
-            if (element[i] != -1) {
-                this.add(element[i], frequency[i]);
-            }
+            max = Math.max(max, element[i]);
         }
-    }
-
-    /**
-     * Constructor using next power of two starting at capacity as initial
-     * capacity.
-     * 
-     * @param capacity
-     */
-    private Distribution(int capacity) {
-        capacity = HashTableUtil.calculateCapacity(capacity);
-        size = 0;
-        elements = new int[capacity << 1];
-        Arrays.fill(elements, -1);
-        threshold = HashTableUtil.calculateThreshold(capacity, LOADFACTOR);
+        if (max < DENSE_LIMIT) {
+            this.histogram = new int[HashTableUtil.calculateCapacity(Math.max(max + 1, DEFAULT_CAPACITY))];
+        } else {
+            this.initializeHashTable(element.length);
+        }
+        this.merge(element, frequency);
     }
 
     /**
@@ -100,19 +100,35 @@ public class Distribution {
      * Clears the table.
      */
     public void clear() {
-        Arrays.fill(elements, -1);
+        if (histogram != null) {
+            Arrays.fill(histogram, 0);
+        } else {
+            Arrays.fill(elements, -1);
+        }
         size = 0;
     }
 
     /**
-     * Gets all buckets of the hash table.
+     * Gets all buckets of the hash table. Returns null, if the distribution is dense.
      *
      * @return
+     * @see #isDense()
      */
     public int[] getBuckets() {
         return elements;
     }
 
+    /**
+     * Returns the frequencies indexed by value. Values that are not contained have a frequency
+     * of zero. Returns null, if the distribution is not dense.
+     *
+     * @return
+     * @see #isDense()
+     */
+    public int[] getHistogram() {
+        return histogram;
+    }
+
     /**
      * Gets all elements of the packed table.
      *
@@ -131,12 +147,49 @@ public class Distribution {
         return packedFrequencies;
     }
 
+    /**
+     * Returns whether the frequencies are stored in a histogram indexed by value, which can be
+     * accessed with getHistogram(). Otherwise, they are stored in a hash table, which can be
+     * accessed with getBuckets().
+     *
+     * @return
+     */
+    public boolean isDense() {
+        return histogram != null;
+    }
+
     /**
      * Merges two frequency sets.
      * 
      * @param other
      */
     public void merge(final Distribution other) {
+
+        // Dense
+        if (other.histogram != null) {
+            final int[] otherHistogram = other.histogram;
+            if (histogram != null) {
+                ensureCapacity(otherHistogram.length);
+                for (int i = 0; i < otherHistogram.length; i++) {
+                    final int frequency = otherHistogram[i];
+                    if (frequency != 0) {
+                        if (histogram[i] == 0) {
+                            size++;
+                        }
+                        histogram[i] += frequency;
+                    }
+                }
+            } else {
+                for (int i = 0; i < otherHistogram.length; i++) {
+                    if (otherHistogram[i] != 0) {
+                        this.add(i, otherHistogram[i]);
+                    }
+                }
+            }
+            return;
+        }
+
+        // Hashed
         final int[] otherElements = other.elements;
         for (int i = 0; i < otherElements.length; i += 2) {
             if (otherElements[i] != -1) {
@@ -152,6 +205,29 @@ public class Distribution {
      * @param frequency
      */
     public void merge(final int[] elements, final int[] frequency) {
+
+        // Dense
+        if (histogram != null) {
+            int max = -1;
+            for (int i = 0; i < elements.length; i++) {
+                max = Math.max(max, elements[i]);
+            }
+            if (max < DENSE_LIMIT) {
+                ensureCapacity(max + 1);
+                for (int i = 0; i < elements.length; i++) {
+                    final int element = elements[i];
+                    if (element != -1) {
+                        if (histogram[element] == 0) {
+                            size++;
+                        }
+                        histogram[element] += frequency[i];
+                    }
+                }
+                return;
+            }
+        }
+
+        // Generic
         for (int i = 0; i < elements.length; i++) {
             if (elements[i] != -1) {
                 this.add(elements[i], frequency[i]);
@@ -170,11 +246,21 @@ public class Distribution {
         if (size > 0) {
             // compress & copy
             int count = 0;
-            for (int i = 0; i < elements.length; i += 2) {
-                if (elements[i] != -1) { // bucket not empty
-                    sortedelements[count] = elements[i];
-                    sortedfrequency[count] = elements[i + 1];
-                    count++;
+            if (histogram != null) {
+                for (int i = 0; count < size; i++) {
+                    if (histogram[i] != 0) { // value contained
+                        sortedelements[count] = i;
+                        sortedfrequency[count] = histogram[i];
+                        count++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < elements.length; i += 2) {
+                    if (elements[i] != -1) { // bucket not empty
+                        sortedelements[count] = elements[i];
+                        sortedfrequency[count] = elements[i + 1];
+                        count++;
+                    }
                 }
             }
         }
@@ -200,6 +286,19 @@ public class Distribution {
      */
     private void add(final int element, final int value) {
 
+        // Dense
+        if (histogram != null) {
+            if (element < DENSE_LIMIT) {
+                ensureCapacity(element + 1);
+                if (histogram[element] == 0) {
+                    size++;
+                }
+                histogram[element] += value;
+                return;
+            }
+            toHashTable();
+        }
+
         final int mask = (elements.length - 1);
         int index = (element & ((elements.length >> 1) - 1)) << 1; // start at
                                                                    // home
@@ -224,6 +323,30 @@ public class Distribution {
 
     }
 
+    /**
+     * Makes sure that the histogram can store the given number of values.
+     *
+     * @param length
+     */
+    private void ensureCapacity(final int length) {
+        if (histogram.length < length) {
+            histogram = Arrays.copyOf(histogram, HashTableUtil.calculateCapacity(length));
+        }
+    }
+
+    /**
+     * Creates an empty hash table using next power of two starting at capacity as initial
+     * capacity.
+     *
+     * @param capacity
+     */
+    private void initializeHashTable(int capacity) {
+        capacity = HashTableUtil.calculateCapacity(capacity);
+        elements = new int[capacity << 1];
+        Arrays.fill(elements, -1);
+        threshold = HashTableUtil.calculateThreshold(capacity, LOADFACTOR);
+    }
+
     /**
      * Rehashes the frequency set table.
      */
@@ -252,4 +375,19 @@ public class Distribution {
         threshold = (int) (capacity * LOADFACTOR);
         elements = newelements;
     }
+
+    /**
+     * Switches from the dense representation to the hash table.
+     */
+    private void toHashTable() {
+        final int[] values = histogram;
+        initializeHashTable(Math.max(DEFAULT_CAPACITY, (int) (size / LOADFACTOR) + 1));
+        histogram = null;
+        size = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != 0) {
+                add(i, values[i]);
+            }
+        }
+    }
 }
@@ -60,9 +60,15 @@ public class IntArrayDictionary {
         return h1;
     }
 
+    /** Estimated size in bytes of an entry, excluding its key. */
+    private static final int                         ENTRY_SIZE = 56;
+
     /** The entry array. */
     private IntArrayDictionaryEntry[]                buckets;
 
+    /** The estimated size in bytes of all entries. */
+    private long                                     bytes;
+
     /** Current number of elements. */
     private int                                      elementCount;
 
@@ -105,6 +111,7 @@ public class IntArrayDictionary {
             elementCount = 0;
             HashTableUtil.nullifyArray(buckets);
             list.clear();
+            bytes = 0;
         }
     }
 
@@ -121,6 +128,7 @@ public class IntArrayDictionary {
         if (refCount == 0) { // entry no longer needed remove
 
             list.set(index, null);
+            bytes -= ENTRY_SIZE + 4L * entry.getKey().length;
 
             final int bucketIndex = entry.getHashcode() & (buckets.length - 1);
             IntArrayDictionaryEntry prev = buckets[bucketIndex];
@@ -153,6 +161,15 @@ public class IntArrayDictionary {
         return list.get(index).getKey();
     }
 
+    /**
+     * Returns the estimated number of bytes used by this dictionary.
+     *
+     * @return
+     */
+    public long getByteSize() {
+        return bytes + 4L * (buckets.length + list.size());
+    }
+
     /**
      * Probes the dictionary and either inserts a new entry index or returns the
      * corresponding entry index.
@@ -205,6 +222,7 @@ public class IntArrayDictionary {
         entry.setNext(buckets[index]);
         buckets[index] = entry;
         list.add(entry);
+        bytes += ENTRY_SIZE + 4L * key.length;
         return entry;
     }
 
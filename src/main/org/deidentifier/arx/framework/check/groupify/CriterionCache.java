@@ -0,0 +1,259 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.groupify;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.deidentifier.arx.criteria.ExplicitPrivacyCriterion;
+import org.deidentifier.arx.criteria.PrivacyCriterion;
+import org.deidentifier.arx.framework.check.distribution.Distribution;
+
+/**
+ * Caches the results of privacy criteria, which only depend on the distribution of values of a
+ * sensitive attribute within an equivalence class. Many classes of many transformations share
+ * identical distributions, which are thus evaluated only once. Distributions are identified by
+ * their (value, frequency) pairs sorted by value, which is independent of the layout of the
+ * underlying hash table. Instances are not thread-safe, each checker maintains its own cache.
+ * The size of each cache is bounded by the total number of pairs stored in its keys, which
+ * determines its memory consumption, rather than by the number of entries.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class CriterionCache {
+
+    /**
+     * A key, which consists of (value, frequency) pairs packed into longs and sorted by value.
+     *
+     * @author Fabian Prasser
+     * @author Florian Kohlmayer
+     */
+    private static class Key {
+
+        /** The hash code. */
+        private int    hash;
+
+        /** The number of pairs. */
+        private int    length;
+
+        /** The packed pairs. */
+        private long[] pairs;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param pairs
+         * @param length
+         * @param hash
+         */
+        private Key(final long[] pairs, final int length, final int hash) {
+            this.pairs = pairs;
+            this.length = length;
+            this.hash = hash;
+        }
+
+        /* (non-Javadoc)
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            final Key other = (Key) obj;
+            if (hash != other.hash || length != other.length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (pairs[i] != other.pairs[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /* (non-Javadoc)
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /** The default maximal number of pairs stored in the keys of all cached results, i.e. 8 MB. */
+    public static final long               DEFAULT_MAX_PAIRS = 1L << 20;
+
+    /** The cached results per criterion, null for criteria which are not cached. */
+    private final HashMap<Key, Boolean>[] caches;
+
+    /** The criteria. */
+    private final PrivacyCriterion[]       criteria;
+
+    /** The index of the sensitive attribute per criterion. */
+    private final int[]                    indices;
+
+    /** The maximal number of pairs stored in the keys of all cached results. */
+    private final long                     maxPairs;
+
+    /** The number of results answered from the cache. */
+    private long                           numHits           = 0L;
+
+    /** The number of results, which had to be computed. */
+    private long                           numMisses         = 0L;
+
+    /** The number of pairs stored in the keys of all cached results. */
+    private long                           numPairs          = 0L;
+
+    /** The key used for lookups. */
+    private final Key                      probe             = new Key(new long[16], 0, 0);
+
+    /**
+     * Creates a new instance.
+     *
+     * @param criteria
+     * @param indices
+     * @param maxPairs
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private CriterionCache(final PrivacyCriterion[] criteria, final int[] indices, final long maxPairs) {
+        this.criteria = criteria;
+        this.indices = indices;
+        this.maxPairs = maxPairs;
+        this.caches = new HashMap[criteria.length];
+        for (int i = 0; i < criteria.length; i++) {
+            if (indices[i] != -1) {
+                caches[i] = new HashMap<Key, Boolean>();
+            }
+        }
+    }
+
+    /**
+     * Creates a cache for the given criteria. Returns null, if none of the criteria can be cached.
+     *
+     * @param criteria The criteria, in the order in which they are evaluated
+     * @param header The header of the sensitive attributes
+     * @param maxPairs The maximal number of pairs stored in the keys of all cached results
+     * @return
+     */
+    public static CriterionCache create(final PrivacyCriterion[] criteria, final String[] header, final long maxPairs) {
+
+        // Determine the sensitive attribute of each cacheable criterion
+        final int[] indices = new int[criteria.length];
+        boolean cacheable = false;
+        for (int i = 0; i < criteria.length; i++) {
+            indices[i] = -1;
+            if (criteria[i] instanceof ExplicitPrivacyCriterion && ((ExplicitPrivacyCriterion) criteria[i]).isCacheable()) {
+                final String attribute = ((ExplicitPrivacyCriterion) criteria[i]).getAttribute();
+                for (int j = 0; j < header.length; j++) {
+                    if (header[j].equals(attribute)) {
+                        indices[i] = j;
+                        cacheable = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return cacheable ? new CriterionCache(criteria, indices, maxPairs) : null;
+    }
+
+    /**
+     * Returns the number of results answered from the cache.
+     *
+     * @return
+     */
+    public long getNumHits() {
+        return numHits;
+    }
+
+    /**
+     * Returns the number of results, which had to be computed.
+     *
+     * @return
+     */
+    public long getNumMisses() {
+        return numMisses;
+    }
+
+    /**
+     * Returns whether the criterion at the given index is fulfilled by the given equivalence
+     * class. The result is taken from the cache, if possible.
+     *
+     * @param index The index of the criterion
+     * @param entry The equivalence class
+     * @return
+     */
+    public boolean isAnonymous(final int index, final HashGroupifyEntry entry) {
+
+        // Not cached
+        final HashMap<Key, Boolean> cache = caches[index];
+        if (cache == null) {
+            return criteria[index].isAnonymous(entry);
+        }
+
+        // Build key
+        final Distribution distribution = entry.distributions[indices[index]];
+        final int size = distribution.size();
+        if (probe.pairs.length < size) {
+            probe.pairs = new long[Math.max(size, probe.pairs.length << 1)];
+        }
+        final long[] pairs = probe.pairs;
+        int count = 0;
+        if (distribution.isDense()) {
+            // Already sorted by value
+            final int[] histogram = distribution.getHistogram();
+            for (int i = 0; count < size; i++) {
+                if (histogram[i] != 0) { // value contained
+                    pairs[count++] = ((long) i << 32) | (histogram[i] & 0xFFFFFFFFL);
+                }
+            }
+        } else {
+            final int[] buckets = distribution.getBuckets();
+            for (int i = 0; i < buckets.length; i += 2) {
+                if (buckets[i] != -1) { // bucket not empty
+                    pairs[count++] = ((long) buckets[i] << 32) | (buckets[i + 1] & 0xFFFFFFFFL);
+                }
+            }
+            Arrays.sort(pairs, 0, count);
+        }
+        int hash = 1;
+        for (int i = 0; i < count; i++) {
+            final long pair = pairs[i];
+            hash = 31 * hash + (int) (pair ^ (pair >>> 32));
+        }
+        probe.length = count;
+        probe.hash = hash;
+
+        // Lookup
+        final Boolean cached = cache.get(probe);
+        if (cached != null) {
+            numHits++;
+            return cached;
+        }
+
+        // Evaluate and store
+        numMisses++;
+        final boolean result = criteria[index].isAnonymous(entry);
+        if (numPairs + count <= maxPairs) {
+            cache.put(new Key(Arrays.copyOf(pairs, count), count, hash), result);
+            numPairs += count;
+        }
+        return result;
+    }
+}
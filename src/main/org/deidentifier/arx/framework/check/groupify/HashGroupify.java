@@ -24,6 +24,8 @@ import org.deidentifier.arx.criteria.Inclusion;
 import org.deidentifier.arx.criteria.PrivacyCriterion;
 import org.deidentifier.arx.framework.check.distribution.Distribution;
 import org.deidentifier.arx.framework.data.Data;
+import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.metric.InformationLossAccumulator;
 
 /**
  * A hash groupify operator. It implements a hash table with chaining and keeps
@@ -228,6 +230,9 @@ public class HashGroupify implements IHashGroupify {
     /** Criteria. */
     private final PrivacyCriterion[] criteria;
 
+    /** The cache for results of criteria, may be null. */
+    private final CriterionCache     cache;
+
     /**
      * Constructs a new hash groupify operator.
      *
@@ -235,6 +240,17 @@ public class HashGroupify implements IHashGroupify {
      * @param config The config
      */
     public HashGroupify(int capacity, final ARXConfigurationInternal config) {
+        this(capacity, config, null);
+    }
+
+    /**
+     * Constructs a new hash groupify operator.
+     *
+     * @param capacity The capacity
+     * @param config The config
+     * @param cache The cache for results of criteria, or null
+     */
+    public HashGroupify(int capacity, final ARXConfigurationInternal config, final CriterionCache cache) {
 
         // Set capacity
         capacity = HashTableUtil.calculateCapacity(capacity);
@@ -254,6 +270,7 @@ public class HashGroupify implements IHashGroupify {
 
         // Extract criteria
         this.criteria = config.getCriteriaAsArray();
+        this.cache = cache;
         this.k = config.getMinimalGroupSize();
         
         // Sanity check: by convention, d-presence must be the first criterion 
@@ -359,8 +376,16 @@ public class HashGroupify implements IHashGroupify {
      */
     @Override
     public void analyze(boolean force){
-        if (force) analyzeAll();
-        else analyzeWithEarlyAbort();
+        analyze(force, null);
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.groupify.IHashGroupify#analyze(boolean, org.deidentifier.arx.metric.InformationLossAccumulator)
+     */
+    @Override
+    public void analyze(boolean force, InformationLossAccumulator<?> accumulator){
+        if (force) analyzeAll(accumulator);
+        else analyzeWithEarlyAbort(accumulator);
     }
 
     /*
@@ -482,14 +507,15 @@ public class HashGroupify implements IHashGroupify {
     }
     
     /* (non-Javadoc)
-     * @see org.deidentifier.arx.framework.check.groupify.IHashGroupify#markOutliers(int[][])
+     * @see org.deidentifier.arx.framework.check.groupify.IHashGroupify#markOutliers(org.deidentifier.arx.framework.data.DataMatrix)
      */
     @Override
-    public void markOutliers(final int[][] data) {
+    public void markOutliers(final DataMatrix data) {
         
-        for (int row = 0; row < data.length; row++) {
+        final int[] key = new int[data.getNumColumns()];
+        for (int row = 0; row < data.getNumRows(); row++) {
             if (subset == null || subset.contains(row)){
-                final int[] key = data[row];
+                data.getRow(row, key);
                 final int hash = HashTableUtil.hashcode(key);
                 final int index = hash & (buckets.length - 1);
                 HashGroupifyEntry m = buckets[index];
@@ -498,7 +524,7 @@ public class HashGroupify implements IHashGroupify {
                 }
                 if (m == null) { throw new RuntimeException("Invalid state! Groupify the data before marking outliers!"); }
                 if (!m.isNotOutlier) {
-                    key[0] |= Data.OUTLIER_MASK;
+                    data.set(row, 0, key[0] | Data.OUTLIER_MASK);
                 }
             }
         }
@@ -578,10 +604,29 @@ public class HashGroupify implements IHashGroupify {
         return entry;
     }
 
+    /**
+     * Passes the given class and all following classes to the accumulator.
+     *
+     * @param entry
+     * @param accumulator
+     * @param boundOnly Whether the classes are only needed for computing the lower bound
+     */
+    private void accumulate(HashGroupifyEntry entry, InformationLossAccumulator<?> accumulator, boolean boundOnly) {
+        if (accumulator == null || (boundOnly && !accumulator.isLowerBoundRequired())) {
+            return;
+        }
+        while (entry != null) {
+            accumulator.add(entry);
+            entry = entry.nextOrdered;
+        }
+    }
+
     /**
      * Analyze.
+     *
+     * @param accumulator
      */
-    private void analyzeAll(){
+    private void analyzeAll(InformationLossAccumulator<?> accumulator){
 
         // We have only checked k-anonymity so far
         kAnonymous = (currentOutliers <= absoluteMaxOutliers);
@@ -612,6 +657,9 @@ public class HashGroupify implements IHashGroupify {
             
             // We only suppress classes that are contained in the research subset
             entry.isNotOutlier = entry.count != 0 ? (anonymous == -1) : true;
+            if (accumulator != null) {
+                accumulator.add(entry);
+            }
             
             // Next class
             entry = entry.nextOrdered;
@@ -622,8 +670,10 @@ public class HashGroupify implements IHashGroupify {
 
     /**
      * Analyze.
+     *
+     * @param accumulator
      */
-    private void analyzeWithEarlyAbort(){
+    private void analyzeWithEarlyAbort(InformationLossAccumulator<?> accumulator){
         
         // We have only checked k-anonymity so far
         kAnonymous = (currentOutliers <= absoluteMaxOutliers);
@@ -631,6 +681,7 @@ public class HashGroupify implements IHashGroupify {
         // Abort early, if only k-anonymity was specified
         if (criteria.length == 0) { 
             anonymous = kAnonymous;
+            accumulate(firstEntry, accumulator, !anonymous);
             return;
         }
         
@@ -639,6 +690,7 @@ public class HashGroupify implements IHashGroupify {
         //          for non-anonymous transformations
         if (k != Integer.MAX_VALUE && !kAnonymous) {
             anonymous = false;
+            accumulate(firstEntry, accumulator, true);
             return; 
         }
         
@@ -662,6 +714,7 @@ public class HashGroupify implements IHashGroupify {
                 //          for non-anonymous transformations
                 if (dpresence && entry.count == 0 && anonymous == 1) {
                     this.anonymous = false;
+                    accumulate(entry, accumulator, true);
                     return;
                 }
                 currentOutliers += entry.count;
@@ -671,12 +724,16 @@ public class HashGroupify implements IHashGroupify {
                 //          for non-anonymous transformations
                 if (currentOutliers > absoluteMaxOutliers) { 
                     this.anonymous = false;
+                    accumulate(entry, accumulator, true);
                     return;
                 }
             }
             
             // We only suppress classes that are contained in the research subset
             entry.isNotOutlier = entry.count != 0 ? (anonymous == -1) : true;
+            if (accumulator != null) {
+                accumulator.add(entry);
+            }
             
             // Next class
             entry = entry.nextOrdered;
@@ -699,7 +756,7 @@ public class HashGroupify implements IHashGroupify {
      * @return the hash groupify entry
      */
     private HashGroupifyEntry createEntry(final int[] key, final int index, final int hash, final int line) {
-        final HashGroupifyEntry entry = new HashGroupifyEntry(key, hash);
+        final HashGroupifyEntry entry = new HashGroupifyEntry(key.clone(), hash);
         entry.next = buckets[index];
         entry.representant = line;
         buckets[index] = entry;
@@ -764,7 +821,7 @@ public class HashGroupify implements IHashGroupify {
         // Note: The d-presence criterion must be checked first to ensure correct handling of d-presence with tuple suppression.
         //       This is currently ensured by convention. See ARXConfiguration.getCriteriaAsArray();
         for (int i = 0; i < criteria.length; i++) {
-            if (!criteria[i].isAnonymous(entry)) {
+            if (!(cache != null ? cache.isAnonymous(i, entry) : criteria[i].isAnonymous(entry))) {
                 return i + 1;
             }
         }
@@ -0,0 +1,902 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.groupify;
+
+import java.util.Arrays;
+
+import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.RowSet;
+import org.deidentifier.arx.criteria.DPresence;
+import org.deidentifier.arx.criteria.Inclusion;
+import org.deidentifier.arx.criteria.PrivacyCriterion;
+import org.deidentifier.arx.framework.check.distribution.Distribution;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify.GroupStatistics;
+import org.deidentifier.arx.framework.data.Data;
+import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.metric.InformationLossAccumulator;
+
+/**
+ * A hash groupify operator, which implements a hash table with open addressing (linear probing).
+ * The properties of equivalence classes are stored in primitive arrays, which are indexed by
+ * the order in which classes have been created. Keys are either bit-packed or stored in a single
+ * array in row-major order. All arrays are reused across checks. Entry objects are only provided
+ * as a view via getFirstEntry(). They are materialized from a pool, which is reused as well,
+ * including the arrays holding their keys. The semantics are exactly the same as the ones of
+ * HashGroupify.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class HashGroupifyArray implements IHashGroupify {
+
+    /** Load factor. */
+    private static final float       LOAD_FACTOR = 0.5f;
+
+    /** Is the result k-anonymous?. */
+    private boolean                  kAnonymous;
+
+    /** Is the result anonymous. */
+    private boolean                  anonymous;
+
+    /** The current outliers. */
+    private int                      currentOutliers;
+
+    /** Current number of elements. */
+    private int                      elementCount;
+
+    /** The hash table, contains indices of classes + 1. Zero denotes an empty slot. */
+    private int[]                    table;
+
+    /** Maximum number of elements that can be put in this map before having to rehash. */
+    private int                      threshold;
+
+    /** The slot occupied by each class. */
+    private int[]                    slots;
+
+    /** The number of attributes in each key. */
+    private final int                dimensions;
+
+    /** The keys of all classes in row-major order, if keys are not packed. */
+    private int[]                    keys;
+
+    /** The packed key of each class, lower bits. */
+    private long[]                   packedLow;
+
+    /** The packed key of each class, upper bits. */
+    private long[]                   packedHigh;
+
+    /** The encoder for packed keys, if any. */
+    private final PackedKeyEncoder   encoder;
+
+    /** The hash code of each class. */
+    private int[]                    hashcodes;
+
+    /** The number of elements in each class. */
+    private int[]                    counts;
+
+    /** The number of public table elements in each class. */
+    private int[]                    pcounts;
+
+    /** The representative row of each class. */
+    private int[]                    representants;
+
+    /** Is the class not an outlier?. */
+    private boolean[]                notOutliers;
+
+    /** Frequency sets for sensitive attributes of each class. */
+    private Distribution[][]         distributions;
+
+    /** Pool of entries backing the view. */
+    private HashGroupifyEntry[]      entries;
+
+    /** Is the view up to date. */
+    private boolean                  viewValid;
+
+    /** Entry used for evaluating privacy criteria. */
+    private final HashGroupifyEntry  flyweight   = new HashGroupifyEntry(null, 0);
+
+    /** Allowed tuple outliers. */
+    private final int                absoluteMaxOutliers;
+
+    /** The parameter k, if k-anonymity is contained in the set of criteria. */
+    private final int                k;
+
+    /** The research subset, if d-presence is contained in the set of criteria. */
+    private final RowSet             subset;
+
+    /** True, if the contained d-presence criterion is not inclusion. */
+    private final boolean            dpresence;
+
+    /** Criteria. */
+    private final PrivacyCriterion[] criteria;
+
+    /** The cache for results of criteria, may be null. */
+    private final CriterionCache     cache;
+
+    /**
+     * Constructs a new hash groupify operator.
+     *
+     * @param capacity The capacity
+     * @param config The config
+     * @param dimensions The number of attributes in each key
+     */
+    public HashGroupifyArray(int capacity, final ARXConfigurationInternal config, final int dimensions) {
+        this(capacity, config, dimensions, null);
+    }
+
+    /**
+     * Constructs a new hash groupify operator, which stores keys bit-packed.
+     *
+     * @param capacity The capacity
+     * @param config The config
+     * @param dimensions The number of attributes in each key
+     * @param encoder The encoder for packed keys, or null
+     */
+    public HashGroupifyArray(int capacity, final ARXConfigurationInternal config, final int dimensions, final PackedKeyEncoder encoder) {
+        this(capacity, config, dimensions, encoder, null);
+    }
+
+    /**
+     * Constructs a new hash groupify operator, which stores keys bit-packed.
+     *
+     * @param capacity The capacity
+     * @param config The config
+     * @param dimensions The number of attributes in each key
+     * @param encoder The encoder for packed keys, or null
+     * @param cache The cache for results of criteria, or null
+     */
+    public HashGroupifyArray(int capacity, final ARXConfigurationInternal config, final int dimensions, final PackedKeyEncoder encoder, final CriterionCache cache) {
+
+        // Set capacity
+        this.encoder = encoder;
+        this.dimensions = dimensions;
+        this.flyweight.key = new int[dimensions];
+        capacity = HashTableUtil.calculateCapacity(capacity);
+        this.elementCount = 0;
+        this.table = new int[capacity];
+        this.threshold = HashTableUtil.calculateThreshold(table.length, LOAD_FACTOR);
+        this.allocate(threshold);
+        this.entries = new HashGroupifyEntry[0];
+
+        this.currentOutliers = 0;
+        this.absoluteMaxOutliers = config.getAbsoluteMaxOutliers();
+
+        // Extract research subset
+        if (config.containsCriterion(DPresence.class)) {
+            this.subset = config.getCriterion(DPresence.class).getSubset().getSet();
+        } else {
+            this.subset = null;
+        }
+
+        // Extract criteria
+        this.criteria = config.getCriteriaAsArray();
+        this.cache = cache;
+        this.k = config.getMinimalGroupSize();
+
+        // Sanity check: by convention, d-presence must be the first criterion
+        for (int i = 1; i < criteria.length; i++) {
+            if (criteria[i] instanceof DPresence) {
+                throw new RuntimeException("D-Presence must be the first criterion in the array");
+            }
+        }
+
+        // Remember, if (real) d-presence is part of the criteria that must be enforced
+        dpresence = (criteria.length > 0 && (criteria[0] instanceof DPresence) && !(criteria[0] instanceof Inclusion));
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.groupify.IHashGroupify#addAll(int[], int, int, int[], int)
+     */
+    @Override
+    public void addAll(int[] key, int representant, int count, int[] sensitive, int pcount) {
+
+        // Add
+        final int index = addInternal(key, representant, count, pcount);
+
+        // Is a sensitive attribute provided
+        if (sensitive != null) {
+            Distribution[] distribution = distributions[index];
+            if (distribution == null) {
+                distribution = new Distribution[sensitive.length];
+                for (int i = 0; i < distribution.length; i++) {
+                    distribution[i] = new Distribution();
+                }
+                distributions[index] = distribution;
+            }
+
+            // Only add sensitive value if in research subset
+            if (subset == null || subset.contains(representant)) {
+                for (int i = 0; i < distribution.length; i++) {
+                    distribution[i].add(sensitive[i]);
+                }
+            }
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.groupify.IHashGroupify#addGroupify(int[], int, int, org.deidentifier.arx.framework.check.distribution.Distribution[], int)
+     */
+    @Override
+    public void addGroupify(int[] key, int representant, int count, Distribution[] distribution, int pcount) {
+
+        // Add
+        final int index = addInternal(key, representant, count, pcount);
+
+        // Is a distribution provided
+        if (distribution != null) {
+            if (distributions[index] == null) {
+                distributions[index] = distribution;
+            } else {
+                for (int i = 0; i < distribution.length; i++) {
+                    distributions[index][i].merge(distribution[i]);
+                }
+            }
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.groupify.IHashGroupify#addSnapshot(int[], int, int, int[][], int[][], int)
+     */
+    @Override
+    public void addSnapshot(int[] key, int representant, int count, int[][] elements, int[][] frequencies, int pcount) {
+
+        // Add
+        final int index = addInternal(key, representant, count, pcount);
+
+        // Is a distribution provided
+        if (elements != null) {
+            if (distributions[index] == null) {
+                Distribution[] distribution = new Distribution[elements.length];
+                for (int i = 0; i < distribution.length; i++) {
+                    distribution[i] = new Distribution(elements[i], frequencies[i]);
+                }
+                distributions[index] = distribution;
+            } else {
+                for (int i = 0; i < elements.length; i++) {
+                    distributions[index][i].merge(elements[i], frequencies[i]);
+                }
+            }
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.groupify.IHashGroupify#analyze(boolean)
+     */
+    @Override
+    public void analyze(boolean force) {
+        analyze(force, null);
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.groupify.IHashGroupify#analyze(boolean, org.deidentifier.arx.metric.InformationLossAccumulator)
+     */
+    @Override
+    public void analyze(boolean force, InformationLossAccumulator<?> accumulator) {
+        viewValid = false;
+        if (force) analyzeAll(accumulator);
+        else analyzeWithEarlyAbort(accumulator);
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.groupify.IHashGroupify#clear()
+     */
+    @Override
+    public void clear() {
+        if (elementCount > 0) {
+            for (int i = 0; i < elementCount; i++) {
+                table[slots[i]] = 0;
+            }
+            Arrays.fill(counts, 0, elementCount, 0);
+            Arrays.fill(pcounts, 0, elementCount, 0);
+            Arrays.fill(notOutliers, 0, elementCount, false);
+            Arrays.fill(distributions, 0, elementCount, null);
+            this.elementCount = 0;
+            this.currentOutliers = 0;
+            this.viewValid = false;
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.groupify.IHashGroupify#getFirstEntry()
+     */
+    @Override
+    public HashGroupifyEntry getFirstEntry() {
+
+        // Empty
+        if (elementCount == 0) {
+            return null;
+        }
+
+        // Update view, if necessary
+        if (!viewValid) {
+            if (entries.length < elementCount) {
+                int offset = entries.length;
+                entries = Arrays.copyOf(entries, slots.length);
+                for (int i = offset; i < entries.length; i++) {
+                    entries[i] = new HashGroupifyEntry(new int[dimensions], 0);
+                }
+            }
+            for (int i = 0; i < elementCount; i++) {
+                HashGroupifyEntry entry = entries[i];
+                getKey(i, entry.key);
+                entry.hashcode = hashcodes[i];
+                entry.count = counts[i];
+                entry.pcount = pcounts[i];
+                entry.representant = representants[i];
+                entry.isNotOutlier = notOutliers[i];
+                entry.distributions = distributions[i];
+                entry.next = null;
+                entry.nextOrdered = i + 1 < elementCount ? entries[i + 1] : null;
+            }
+            viewValid = true;
+        }
+        return entries[0];
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.groupify.IHashGroupify#getGroupStatistics()
+     */
+    @Override
+    public GroupStatistics getGroupStatistics() {
+
+        // Statistics about equivalence classes
+        double averageEquivalenceClassSize = 0;
+        int averageEquivalenceClassSizeCounter = 0;
+        int maximalEquivalenceClassSize = Integer.MIN_VALUE;
+        int minimalEquivalenceClassSize = Integer.MAX_VALUE;
+        int numberOfEquivalenceClasses = 0;
+        int numberOfOutlyingEquivalenceClasses = 0;
+        int numberOfOutlyingTuples = 0;
+
+        for (int i = 0; i < elementCount; i++) {
+            int count = counts[i];
+            if (count > 0) {
+                numberOfEquivalenceClasses++;
+                if (!notOutliers[i]) {
+                    numberOfOutlyingEquivalenceClasses++;
+                    numberOfOutlyingTuples += count;
+                } else {
+                    averageEquivalenceClassSizeCounter += count;
+                    maximalEquivalenceClassSize = Math.max(maximalEquivalenceClassSize, count);
+                    minimalEquivalenceClassSize = Math.min(minimalEquivalenceClassSize, count);
+                }
+            }
+        }
+
+        // Sanitize
+        if (minimalEquivalenceClassSize == Integer.MAX_VALUE) {
+            minimalEquivalenceClassSize = 0;
+        }
+        if (maximalEquivalenceClassSize == Integer.MIN_VALUE) {
+            maximalEquivalenceClassSize = 0;
+        }
+        if (numberOfEquivalenceClasses - numberOfOutlyingEquivalenceClasses == 0) {
+            averageEquivalenceClassSize = 0;
+        } else {
+            averageEquivalenceClassSize = (double) averageEquivalenceClassSizeCounter /
+                                          (double) (numberOfEquivalenceClasses - numberOfOutlyingEquivalenceClasses);
+        }
+
+        // Statistics including suppression
+        double averageEquivalenceClassSizeAll = averageEquivalenceClassSize;
+        int maximalEquivalenceClassSizeAll = maximalEquivalenceClassSize;
+        int minimalEquivalenceClassSizeAll = minimalEquivalenceClassSize;
+        if (averageEquivalenceClassSize != 0 && numberOfOutlyingTuples > 0) {
+            averageEquivalenceClassSizeAll = (double) (averageEquivalenceClassSizeCounter + numberOfOutlyingTuples) /
+                                             (double) (numberOfEquivalenceClasses - numberOfOutlyingEquivalenceClasses + 1);
+            maximalEquivalenceClassSizeAll = Math.max(maximalEquivalenceClassSize, numberOfOutlyingTuples);
+            minimalEquivalenceClassSizeAll = Math.min(minimalEquivalenceClassSize, numberOfOutlyingTuples);
+        } else {
+            averageEquivalenceClassSizeAll = 0;
+            maximalEquivalenceClassSizeAll = 0;
+            minimalEquivalenceClassSizeAll = 0;
+        }
+
+        // Return
+        return new GroupStatistics(averageEquivalenceClassSize,
+                                   maximalEquivalenceClassSize,
+                                   minimalEquivalenceClassSize,
+                                   averageEquivalenceClassSizeAll,
+                                   maximalEquivalenceClassSizeAll,
+                                   minimalEquivalenceClassSizeAll,
+                                   numberOfEquivalenceClasses,
+                                   numberOfOutlyingEquivalenceClasses,
+                                   numberOfOutlyingTuples);
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.groupify.IHashGroupify#isAnonymous()
+     */
+    @Override
+    public boolean isAnonymous() {
+        return anonymous;
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.groupify.IHashGroupify#isKAnonymous()
+     */
+    @Override
+    public boolean isKAnonymous() {
+        return kAnonymous;
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.groupify.IHashGroupify#markOutliers(org.deidentifier.arx.framework.data.DataMatrix)
+     */
+    @Override
+    public void markOutliers(final DataMatrix data) {
+
+        final int mask = table.length - 1;
+        final int[] key = new int[data.getNumColumns()];
+        for (int row = 0; row < data.getNumRows(); row++) {
+            if (subset == null || subset.contains(row)) {
+                data.getRow(row, key);
+                final int index = encoder == null ? findIgnoringOutliers(key, mask) : findIgnoringOutliersPacked(key, mask);
+                if (index == -1) { throw new RuntimeException("Invalid state! Groupify the data before marking outliers!"); }
+                if (!notOutliers[index]) {
+                    data.set(row, 0, key[0] | Data.OUTLIER_MASK);
+                }
+            }
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.groupify.IHashGroupify#resetSuppression()
+     */
+    @Override
+    public void resetSuppression() {
+        Arrays.fill(notOutliers, 0, elementCount, true);
+        this.currentOutliers = 0;
+        this.viewValid = false;
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.check.groupify.IHashGroupify#size()
+     */
+    @Override
+    public int size() {
+        return elementCount;
+    }
+
+    /**
+     * Internal adder method.
+     *
+     * @param key the key
+     * @param representant
+     * @param count
+     * @param pcount
+     * @return the index of the class
+     */
+    private final int addInternal(final int[] key, final int representant, int count, final int pcount) {
+
+        // Is the line contained in the research subset
+        if (subset != null && !subset.contains(representant)) {
+            count = 0;
+        }
+
+        // Find or create class
+        final int index = encoder == null ? findOrCreate(key, representant) : findOrCreatePacked(key, representant);
+        viewValid = false;
+        int total = counts[index] += count;
+
+        // Indirectly check if we are in d-presence mode
+        if (subset != null) {
+            pcounts[index] += pcount;
+            if (count > 0) {
+                // This is a tuple from the research subset: Reset its representative, necessary for rollup / history
+                representants[index] = representant;
+            }
+        }
+
+        // Compute current outliers, if k-anonymity is part of the criteria
+        if (total >= k) {
+            if (!notOutliers[index]) {
+                notOutliers[index] = true;
+                currentOutliers -= (total - count);
+            }
+        } else {
+            currentOutliers += count;
+        }
+
+        return index;
+    }
+
+    /**
+     * Allocates the arrays for the given number of classes, retaining their contents.
+     *
+     * @param capacity
+     */
+    private void allocate(int capacity) {
+        if (slots == null) {
+            slots = new int[capacity];
+            keys = new int[encoder == null ? capacity * dimensions : 0];
+            packedLow = new long[encoder == null ? 0 : capacity];
+            packedHigh = new long[encoder == null ? 0 : capacity];
+            hashcodes = new int[capacity];
+            counts = new int[capacity];
+            pcounts = new int[capacity];
+            representants = new int[capacity];
+            notOutliers = new boolean[capacity];
+            distributions = new Distribution[capacity][];
+        } else {
+            slots = Arrays.copyOf(slots, capacity);
+            if (encoder == null) {
+                keys = Arrays.copyOf(keys, capacity * dimensions);
+            } else {
+                packedLow = Arrays.copyOf(packedLow, capacity);
+                packedHigh = Arrays.copyOf(packedHigh, capacity);
+            }
+            hashcodes = Arrays.copyOf(hashcodes, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            pcounts = Arrays.copyOf(pcounts, capacity);
+            representants = Arrays.copyOf(representants, capacity);
+            notOutliers = Arrays.copyOf(notOutliers, capacity);
+            distributions = Arrays.copyOf(distributions, capacity);
+        }
+    }
+
+    /**
+     * Passes the given class and all following classes to the accumulator.
+     *
+     * @param index
+     * @param accumulator
+     * @param boundOnly Whether the classes are only needed for computing the lower bound
+     */
+    private void accumulate(int index, InformationLossAccumulator<?> accumulator, boolean boundOnly) {
+        if (accumulator == null || (boundOnly && !accumulator.isLowerBoundRequired())) {
+            return;
+        }
+        for (int i = index; i < elementCount; i++) {
+            accumulate(i, accumulator);
+        }
+    }
+
+    /**
+     * Passes the given class to the accumulator.
+     *
+     * @param index
+     * @param accumulator
+     */
+    private void accumulate(int index, InformationLossAccumulator<?> accumulator) {
+        getKey(index, flyweight.key);
+        flyweight.hashcode = hashcodes[index];
+        flyweight.count = counts[index];
+        flyweight.pcount = pcounts[index];
+        flyweight.representant = representants[index];
+        flyweight.isNotOutlier = notOutliers[index];
+        flyweight.distributions = distributions[index];
+        accumulator.add(flyweight);
+    }
+
+    /**
+     * Analyze.
+     *
+     * @param accumulator
+     */
+    private void analyzeAll(InformationLossAccumulator<?> accumulator) {
+
+        // We have only checked k-anonymity so far
+        kAnonymous = (currentOutliers <= absoluteMaxOutliers);
+
+        // Iterate over all classes
+        boolean dpresent = true;
+        currentOutliers = 0;
+        for (int i = 0; i < elementCount; i++) {
+
+            // Check for anonymity
+            int anonymous = isAnonymous(i);
+
+            // Determine outliers
+            if (anonymous != -1) {
+
+                // See HashGroupify.analyzeAll()
+                if (dpresence && counts[i] == 0 && anonymous == 1) {
+                    dpresent = false;
+                }
+
+                currentOutliers += counts[i];
+            }
+
+            // We only suppress classes that are contained in the research subset
+            notOutliers[i] = counts[i] != 0 ? (anonymous == -1) : true;
+            if (accumulator != null) {
+                accumulate(i, accumulator);
+            }
+        }
+
+        this.anonymous = (currentOutliers <= absoluteMaxOutliers) && dpresent;
+    }
+
+    /**
+     * Analyze.
+     *
+     * @param accumulator
+     */
+    private void analyzeWithEarlyAbort(InformationLossAccumulator<?> accumulator) {
+
+        // We have only checked k-anonymity so far
+        kAnonymous = (currentOutliers <= absoluteMaxOutliers);
+
+        // Abort early, if only k-anonymity was specified
+        if (criteria.length == 0) {
+            anonymous = kAnonymous;
+            accumulate(0, accumulator, !anonymous);
+            return;
+        }
+
+        // Abort early, if k-anonymity sub-criterion is not fulfilled
+        // CAUTION: This leaves the outlier flags and currentOutliers in an inconsistent state
+        //          for non-anonymous transformations
+        if (k != Integer.MAX_VALUE && !kAnonymous) {
+            anonymous = false;
+            accumulate(0, accumulator, true);
+            return;
+        }
+
+        // Iterate over all classes
+        currentOutliers = 0;
+        for (int i = 0; i < elementCount; i++) {
+
+            // Check for anonymity
+            int anonymous = isAnonymous(i);
+
+            // Determine outliers
+            if (anonymous != -1) {
+
+                // See HashGroupify.analyzeWithEarlyAbort()
+                if (dpresence && counts[i] == 0 && anonymous == 1) {
+                    this.anonymous = false;
+                    accumulate(i, accumulator, true);
+                    return;
+                }
+                currentOutliers += counts[i];
+
+                // Break as soon as too many classes are not anonymous
+                if (currentOutliers > absoluteMaxOutliers) {
+                    this.anonymous = false;
+                    accumulate(i, accumulator, true);
+                    return;
+                }
+            }
+
+            // We only suppress classes that are contained in the research subset
+            notOutliers[i] = counts[i] != 0 ? (anonymous == -1) : true;
+            if (accumulator != null) {
+                accumulate(i, accumulator);
+            }
+        }
+
+        this.anonymous = true;
+    }
+
+    /**
+     * Returns whether the given key equals the key of the given class.
+     *
+     * @param key
+     * @param index
+     * @return
+     */
+    private boolean equals(final int[] key, final int index) {
+        final int offset = index * dimensions;
+        for (int i = 0; i < dimensions; i++) {
+            if (key[i] != keys[offset + i]) { return false; }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the given key equals the key of the given class, when the outlier
+     * flag of the class is ignored.
+     *
+     * @param key
+     * @param index
+     * @return
+     */
+    private boolean equalsIgnoringOutliers(final int[] key, final int index) {
+        final int offset = index * dimensions;
+        for (int i = 0; i < dimensions; i++) {
+            if (key[i] != (keys[offset + i] & Data.REMOVE_OUTLIER_MASK)) { return false; }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the index of the class with the given key, while ignoring outlier flags.
+     *
+     * @param key
+     * @param mask
+     * @return the index, or -1
+     */
+    private int findIgnoringOutliers(final int[] key, final int mask) {
+        final int hash = HashTableUtil.hashcode(key);
+        int slot = getSlot(hash, mask);
+        int index = table[slot] - 1;
+        while ((index != -1) && ((hashcodes[index] != hash) || !equalsIgnoringOutliers(key, index))) {
+            slot = (slot + 1) & mask;
+            index = table[slot] - 1;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the index of the class with the given key, while ignoring outlier flags. Packed variant.
+     *
+     * @param key
+     * @param mask
+     * @return the index, or -1
+     */
+    private int findIgnoringOutliersPacked(final int[] key, final int mask) {
+        final long low = encoder.encodeLow(key);
+        final long high = encoder.encodeHigh(key);
+        final int hash = PackedKeyEncoder.hashcode(low, high);
+        int slot = getSlot(hash, mask);
+        int index = table[slot] - 1;
+        while ((index != -1) && ((hashcodes[index] != hash) || encoder.removeOutlier(packedLow[index]) != low || packedHigh[index] != high)) {
+            slot = (slot + 1) & mask;
+            index = table[slot] - 1;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the index of the class with the given key. Creates a new class, if none exists.
+     *
+     * @param key
+     * @param representant
+     * @return the index
+     */
+    private int findOrCreate(final int[] key, final int representant) {
+        final int hash = HashTableUtil.hashcode(key);
+        int mask = table.length - 1;
+        int slot = getSlot(hash, mask);
+        int index = table[slot] - 1;
+        while ((index != -1) && ((hashcodes[index] != hash) || !equals(key, index))) {
+            slot = (slot + 1) & mask;
+            index = table[slot] - 1;
+        }
+        if (index == -1) {
+            index = create(hash, representant);
+            System.arraycopy(key, 0, keys, index * dimensions, dimensions);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the index of the class with the given key. Creates a new class, if none exists.
+     * Packed variant.
+     *
+     * @param key
+     * @param representant
+     * @return the index
+     */
+    private int findOrCreatePacked(final int[] key, final int representant) {
+        final long low = encoder.encodeLow(key);
+        final long high = encoder.encodeHigh(key);
+        final int hash = PackedKeyEncoder.hashcode(low, high);
+        int mask = table.length - 1;
+        int slot = getSlot(hash, mask);
+        int index = table[slot] - 1;
+        while ((index != -1) && ((hashcodes[index] != hash) || packedLow[index] != low || packedHigh[index] != high)) {
+            slot = (slot + 1) & mask;
+            index = table[slot] - 1;
+        }
+        if (index == -1) {
+            index = create(hash, representant);
+            packedLow[index] = low;
+            packedHigh[index] = high;
+        }
+        return index;
+    }
+
+    /**
+     * Creates a new class with the given hash code. Rehashes, if necessary.
+     *
+     * @param hash
+     * @param representant
+     * @return the index of the class
+     */
+    private int create(final int hash, final int representant) {
+        if (elementCount + 1 > threshold) {
+            rehash();
+        }
+        final int mask = table.length - 1;
+        int slot = getSlot(hash, mask);
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        final int index = elementCount++;
+        table[slot] = index + 1;
+        slots[index] = slot;
+        hashcodes[index] = hash;
+        representants[index] = representant;
+        return index;
+    }
+
+    /**
+     * Copies the key of the given class into the given array.
+     *
+     * @param index
+     * @param key
+     */
+    private void getKey(final int index, final int[] key) {
+        if (encoder == null) {
+            System.arraycopy(keys, index * dimensions, key, 0, dimensions);
+        } else {
+            encoder.decode(packedLow[index], packedHigh[index], key);
+        }
+    }
+
+    /**
+     * Returns the initial slot for the given hash code. Bits are spread, as linear 
+     * probing is sensitive to clustering of the lower bits.
+     *
+     * @param hash
+     * @param mask
+     * @return
+     */
+    private int getSlot(int hash, int mask) {
+        hash *= 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Checks whether the given class is anonymous.
+     *
+     * @param index
+     * @return
+     * @returns -1, if all criteria are fulfilled, 0, if minimal group size is not fulfilled, (index+1) if criteria[index] is not fulfilled
+     */
+    private int isAnonymous(int index) {
+
+        // Check minimal group size
+        if (k != Integer.MAX_VALUE && counts[index] < k) {
+            return 0;
+        }
+
+        // Check other criteria
+        flyweight.count = counts[index];
+        flyweight.pcount = pcounts[index];
+        flyweight.distributions = distributions[index];
+        for (int i = 0; i < criteria.length; i++) {
+            if (!(cache != null ? cache.isAnonymous(i, flyweight) : criteria[i].isAnonymous(flyweight))) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Rehashes this operator.
+     */
+    private void rehash() {
+
+        final int length = HashTableUtil.calculateCapacity((table.length == 0 ? 1 : table.length << 1));
+        final int mask = length - 1;
+        table = new int[length];
+        threshold = HashTableUtil.calculateThreshold(length, LOAD_FACTOR);
+        allocate(threshold);
+        for (int i = 0; i < elementCount; i++) {
+            int slot = getSlot(hashcodes[i], mask);
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+            slots[i] = slot;
+        }
+    }
+}
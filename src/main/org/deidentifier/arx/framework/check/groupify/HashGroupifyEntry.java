@@ -34,10 +34,10 @@ public class HashGroupifyEntry {
     public int               pcount       = 0;
 
     /** The hashcode of this class. */
-    public final int         hashcode;
+    public int               hashcode;
 
     /** The key of this class. */
-    public final int[]       key;
+    public int[]             key;
 
     /** The next element in this bucket. */
     public HashGroupifyEntry next         = null;
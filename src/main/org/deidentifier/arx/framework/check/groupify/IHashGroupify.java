@@ -19,6 +19,8 @@ package org.deidentifier.arx.framework.check.groupify;
 
 import org.deidentifier.arx.framework.check.distribution.Distribution;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify.GroupStatistics;
+import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.metric.InformationLossAccumulator;
 
 /**
  * 
@@ -72,6 +74,17 @@ public interface IHashGroupify {
      */
     public abstract void analyze(boolean force);
 
+    /**
+     * Computes the anonymity properties, see analyze(boolean). Additionally, all equivalence
+     * classes are passed to the given accumulator after they have been classified, which allows
+     * computing information loss and the lower bound in the same pass. If the analysis is aborted
+     * early, the remaining classes are only passed to the accumulator, if it requires the lower bound.
+     * 
+     * @param force
+     * @param accumulator The accumulator, or null
+     */
+    public abstract void analyze(boolean force, InformationLossAccumulator<?> accumulator);
+
     /**
      * Clear.
      */
@@ -111,7 +124,7 @@ public interface IHashGroupify {
      *
      * @param buffer
      */
-    public abstract void markOutliers(int[][] buffer);
+    public abstract void markOutliers(DataMatrix buffer);
 
     /**
      * Resets all flags that indicate that equivalence classes are suppressed.
@@ -0,0 +1,194 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.groupify;
+
+import org.deidentifier.arx.framework.data.Data;
+import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
+
+/**
+ * Packs generalized tuples into two longs. Each column is assigned the number of bits needed
+ * to represent the largest code in its generalization hierarchy. The first column is assigned an
+ * additional bit, which stores the outlier flag. Columns are never split across both longs.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class PackedKeyEncoder {
+
+    /** The bit mask of the first column. */
+    private final long   mask0;
+
+    /** The bit masks of all columns. */
+    private final long[] masks;
+
+    /** The bit offset of the outlier flag in the first column. */
+    private final int    outlier;
+
+    /** The offset of each column in its long. */
+    private final int[]  shifts;
+
+    /** Columns [0, split) are stored in the lower long, the others in the upper long. */
+    private final int    split;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param bits
+     * @param shifts
+     * @param split
+     */
+    private PackedKeyEncoder(final int[] bits, final int[] shifts, final int split) {
+        this.shifts = shifts;
+        this.split = split;
+        this.outlier = bits[0] - 1;
+        this.masks = new long[bits.length];
+        for (int column = 0; column < bits.length; column++) {
+            masks[column] = (1L << bits[column]) - 1L;
+        }
+        this.mask0 = (1L << outlier) - 1L;
+    }
+
+    /**
+     * Creates a new encoder for tuples generalized with the given hierarchies. Returns null, if
+     * the tuples cannot be packed into 128 bits.
+     *
+     * @param hierarchies
+     * @return
+     */
+    public static PackedKeyEncoder create(final GeneralizationHierarchy[] hierarchies) {
+
+        if (hierarchies.length == 0) {
+            return null;
+        }
+
+        // Determine widths
+        final int[] bits = new int[hierarchies.length];
+        for (int column = 0; column < bits.length; column++) {
+            int max = 0;
+            for (final int[] values : hierarchies[column].getArray()) {
+                for (final int value : values) {
+                    max = Math.max(max, value);
+                }
+            }
+            bits[column] = Math.max(1, 32 - Integer.numberOfLeadingZeros(max));
+        }
+        bits[0]++;
+
+        // Assign columns to the lower long as long as they fit
+        final int[] shifts = new int[bits.length];
+        int split = 0;
+        int offset = 0;
+        while (split < bits.length && offset + bits[split] <= 64) {
+            shifts[split] = offset;
+            offset += bits[split++];
+        }
+
+        // Assign the remaining columns to the upper long
+        offset = 0;
+        for (int column = split; column < bits.length; column++) {
+            if (offset + bits[column] > 64) {
+                return null;
+            }
+            shifts[column] = offset;
+            offset += bits[column];
+        }
+
+        return new PackedKeyEncoder(bits, shifts, split);
+    }
+
+    /**
+     * Unpacks the given key into the given tuple.
+     *
+     * @param low
+     * @param high
+     * @param tuple
+     */
+    public void decode(final long low, final long high, final int[] tuple) {
+        tuple[0] = (int) (low & mask0);
+        if (((low >>> outlier) & 1L) != 0) {
+            tuple[0] |= Data.OUTLIER_MASK;
+        }
+        for (int column = 1; column < split; column++) {
+            tuple[column] = (int) ((low >>> shifts[column]) & masks[column]);
+        }
+        for (int column = split; column < shifts.length; column++) {
+            tuple[column] = (int) ((high >>> shifts[column]) & masks[column]);
+        }
+    }
+
+    /**
+     * Returns the upper long of the packed tuple.
+     *
+     * @param tuple
+     * @return
+     */
+    public long encodeHigh(final int[] tuple) {
+        long result = 0L;
+        for (int column = split; column < shifts.length; column++) {
+            result |= (long) tuple[column] << shifts[column];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the lower long of the packed tuple.
+     *
+     * @param tuple
+     * @return
+     */
+    public long encodeLow(final int[] tuple) {
+        final int first = tuple[0];
+        long result = (first & Data.REMOVE_OUTLIER_MASK) | ((long) (first >>> 31) << outlier);
+        for (int column = 1; column < split; column++) {
+            result |= (long) tuple[column] << shifts[column];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return
+     */
+    public int getNumColumns() {
+        return shifts.length;
+    }
+
+    /**
+     * Removes the outlier flag from the lower long of a packed tuple.
+     *
+     * @param low
+     * @return
+     */
+    public long removeOutlier(final long low) {
+        return low & ~(1L << outlier);
+    }
+
+    /**
+     * Computes a hash code for a packed tuple.
+     *
+     * @param low
+     * @param high
+     * @return
+     */
+    public static int hashcode(final long low, final long high) {
+        long hash = low * 0x9E3779B97F4A7C15L + high;
+        hash *= 0xC2B2AE3D27D4EB4FL;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
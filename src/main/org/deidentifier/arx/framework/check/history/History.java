@@ -17,8 +17,12 @@
 
 package org.deidentifier.arx.framework.check.history;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map.Entry;
 
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
@@ -30,7 +34,12 @@ import org.deidentifier.arx.framework.lattice.Node;
 import org.deidentifier.arx.framework.lattice.NodeAction;
 
 /**
- * The Class History.
+ * The Class History. Snapshots are limited by number and by the estimated number of bytes
+ * used by them and the dictionaries they reference. If a limit is exceeded, snapshots are
+ * evicted according to the GreedyDual-Size policy, which considers the number of rows that
+ * a snapshot saves when reused relative to its size, as well as how recently it has been used.
+ * If a disk limit is set, evicted snapshots are written to memory-mapped temporary files, from
+ * which they are loaded back into memory when they are needed again.
  * 
  * @author Fabian Prasser
  * @author Florian Kohlmayer
@@ -59,17 +68,77 @@ public class History {
     /** Current configuration. */
     private final ARXConfigurationInternal config;
 
+    /** Whether snapshots are compressed. */
+    private boolean                          compression                   = false;
+
+    /** The directory for snapshots on disk, created on demand. */
+    private File                             directory                     = null;
+
+    /** The maximal number of bytes used by snapshots on disk. */
+    private long                             diskLimit                     = 0L;
+
+    /** The maximal number of bytes used by snapshots on disk so far. */
+    private long                             diskPeak                      = 0L;
+
+    /** The number of bytes used by snapshots on disk. */
+    private long                             diskUsed                      = 0L;
+
     /** The dictionary for frequencies of the distributions. */
     private final IntArrayDictionary         dictionarySensFreq;
 
     /** The dictionary for values of the distributions. */
     private final IntArrayDictionary         dictionarySensValue;
 
+    /** The priority of the last evicted snapshot, which ages all other snapshots. */
+    private double                           inflation                     = 0d;
+
+    /** The snapshot which has been decompressed most recently. */
+    private Snapshot                         lastSnapshot                  = null;
+
+    /** The uncompressed data of the snapshot which has been decompressed most recently. */
+    private int[]                            lastSnapshotData              = null;
+
+    /** The maximal number of bytes. */
+    private long                             memoryLimit                   = Long.MAX_VALUE;
+
+    /** The maximal number of bytes used by snapshots and dictionaries so far. */
+    private long                             memoryPeak                    = 0L;
+
+    /** The number of bytes used by snapshots, excluding dictionaries. */
+    private long                             memoryUsed                    = 0L;
+
+    /** The number of snapshots evicted from memory. */
+    private long                             numEvicted                    = 0L;
+
+    /** The number of requests, for which a snapshot has been returned. */
+    private long                             numHits                       = 0L;
+
+    /** The number of snapshots loaded from disk. */
+    private long                             numLoaded                     = 0L;
+
+    /** The number of requests, for which no snapshot has been found. */
+    private long                             numMisses                     = 0L;
+
+    /** The number of snapshots written to disk. */
+    private long                             numSpilled                    = 0L;
+
+    /** The number of snapshots which could not be written to disk. */
+    private long                             numSpillErrors                = 0L;
+
+    /** The number of snapshots stored. */
+    private long                             numStored                     = 0L;
+
     /** Maximal number of entries. */
     private int                              size;
 
     /** A map from nodes to snapshots. */
-    private HashMap<Node, int[]>             nodeToSnapshot                = null;
+    private HashMap<Node, Snapshot>          nodeToSnapshot                = null;
+
+    /** A map from nodes to snapshots on disk. */
+    private HashMap<Node, SpilledSnapshot>   nodeToSpilledSnapshot         = new HashMap<Node, SpilledSnapshot>();
+
+    /** The last error which occurred while writing a snapshot to disk, if any. */
+    private IOException                      spillError                    = null;
 
     /** The current storage strategy. */
     private NodeAction                       storageTrigger;
@@ -80,6 +149,9 @@ public class History {
     /** The node backing the last returned snapshot. */
     private Node                             resultNode;
 
+    /** The number of rows. */
+    private final int                        rowCount;
+
     /** The snapshotSizeDataset for the size of entries. */
     private final long                       snapshotSizeDataset;
 
@@ -105,10 +177,11 @@ public class History {
                    final IntArrayDictionary dictionarySensValue,
                    final IntArrayDictionary dictionarySensFreq) {
         
+        this.rowCount = rowCount;
         this.snapshotSizeDataset = (long) (rowCount * snapshotSizeDataset);
         this.snapshotSizeSnapshot = snapshotSizeSnapshot;
         this.cache = new MRUCache<Node>(size);
-        this.nodeToSnapshot = new HashMap<Node, int[]>(size);
+        this.nodeToSnapshot = new HashMap<Node, Snapshot>(size);
         this.size = size;
         this.dictionarySensFreq = dictionarySensFreq;
         this.dictionarySensValue = dictionarySensValue;
@@ -126,7 +199,7 @@ public class History {
      */
     public int[] get(final Node node) {
 
-        int[] rData = null;
+        Snapshot rData = null;
         Node rNode = null;
 
         // Iterate over nodes with snapshots
@@ -135,18 +208,11 @@ public class History {
             final Node cNode = entry.data;
 
             if (cNode.getLevel() < node.getLevel()) {
-                final int[] cSnapshot = nodeToSnapshot.get(cNode);
+                final Snapshot cSnapshot = nodeToSnapshot.get(cNode);
 
                 if ((rNode == null) || (cSnapshot.length < rData.length)) {
 
-                    boolean synergetic = true;
-                    for (int i = 0; i < cNode.getTransformation().length; i++) {
-                        if (node.getTransformation()[i] < cNode.getTransformation()[i]) {
-                            synergetic = false;
-                            break;
-                        }
-                    }
-                    if (synergetic) {
+                    if (isSynergetic(cNode, node)) {
                         rNode = cNode;
                         rData = cSnapshot;
                     }
@@ -155,13 +221,44 @@ public class History {
             entry = entry.next;
         }
 
-        if (rNode != null) {
-            cache.touch(rNode);
+        // Iterate over nodes with snapshots on disk, which must be smaller to be preferred
+        Node dNode = null;
+        SpilledSnapshot dData = null;
+        for (final Entry<Node, SpilledSnapshot> spilled : nodeToSpilledSnapshot.entrySet()) {
+            final Node cNode = spilled.getKey();
+            final SpilledSnapshot cSnapshot = spilled.getValue();
+            if (cNode.getLevel() < node.getLevel() &&
+                (rNode == null || cSnapshot.length < rData.length) &&
+                (dNode == null || cSnapshot.length < dData.length) &&
+                isSynergetic(cNode, node)) {
+                dNode = cNode;
+                dData = cSnapshot;
+            }
+        }
+
+        // Load snapshot from disk
+        if (dNode != null) {
+            final int[] data = load(dNode, dData);
+            if (data != null) {
+                resultNode = dNode;
+                numHits++;
+                return data;
+            } else if (rNode != null && !nodeToSnapshot.containsKey(rNode)) {
+                rNode = null;
+            }
         }
 
         resultNode = rNode;
 
-        return rData;
+        if (rNode != null) {
+            cache.touch(rNode);
+            rData.priority = getPriority(rData);
+            numHits++;
+            return getData(rData);
+        } else {
+            numMisses++;
+            return null;
+        }
     }
     
     /**
@@ -182,6 +279,123 @@ public class History {
         return dictionarySensValue;
     }
 
+    /**
+     * Returns the maximal number of bytes used by snapshots on disk.
+     *
+     * @return
+     */
+    public long getDiskLimit() {
+        return diskLimit;
+    }
+
+    /**
+     * Returns the maximal number of bytes used by snapshots on disk so far.
+     *
+     * @return
+     */
+    public long getDiskPeak() {
+        return diskPeak;
+    }
+
+    /**
+     * Returns the maximal number of bytes used by snapshots and dictionaries.
+     *
+     * @return
+     */
+    public long getMemoryLimit() {
+        return memoryLimit;
+    }
+
+    /**
+     * Returns the maximal estimated number of bytes used by snapshots and dictionaries so far.
+     *
+     * @return
+     */
+    public long getMemoryPeak() {
+        return memoryPeak;
+    }
+
+    /**
+     * Returns the estimated number of bytes currently used by snapshots and dictionaries.
+     *
+     * @return
+     */
+    public long getMemoryUsed() {
+        return memoryUsed + dictionarySensValue.getByteSize() + dictionarySensFreq.getByteSize();
+    }
+
+    /**
+     * Returns the number of snapshots that have been evicted from memory.
+     *
+     * @return
+     */
+    public long getNumEvicted() {
+        return numEvicted;
+    }
+
+    /**
+     * Returns the number of requests, for which a snapshot has been returned.
+     *
+     * @return
+     */
+    public long getNumHits() {
+        return numHits;
+    }
+
+    /**
+     * Returns the number of snapshots that have been loaded from disk.
+     *
+     * @return
+     */
+    public long getNumLoaded() {
+        return numLoaded;
+    }
+
+    /**
+     * Returns the number of requests, for which no snapshot has been found.
+     *
+     * @return
+     */
+    public long getNumMisses() {
+        return numMisses;
+    }
+
+    /**
+     * Returns the number of snapshots that have been written to disk.
+     *
+     * @return
+     */
+    public long getNumSpilled() {
+        return numSpilled;
+    }
+
+    /**
+     * Returns the number of snapshots that could not be written to disk.
+     *
+     * @return
+     */
+    public long getNumSpillErrors() {
+        return numSpillErrors;
+    }
+
+    /**
+     * Returns the number of snapshots that have been stored.
+     *
+     * @return
+     */
+    public long getNumStored() {
+        return numStored;
+    }
+
+    /**
+     * Returns the last error which occurred while writing a snapshot to disk, null if there is none.
+     *
+     * @return
+     */
+    public IOException getSpillError() {
+        return spillError;
+    }
+
     /**
      * Returns the node backing the last returned snapshot.
      *
@@ -201,7 +415,16 @@ public class History {
     }
 
     /**
-     * Clears the history.
+     * Returns whether snapshots are compressed.
+     *
+     * @return
+     */
+    public boolean isCompressionEnabled() {
+        return compression;
+    }
+
+    /**
+     * Clears the history. Snapshots on disk and their directory are deleted.
      */
     public void reset() {
         this.cache.clear();
@@ -209,6 +432,53 @@ public class History {
         this.dictionarySensFreq.clear();
         this.dictionarySensValue.clear();
         this.resultNode = null;
+        this.lastSnapshot = null;
+        this.lastSnapshotData = null;
+        this.memoryUsed = 0L;
+        this.inflation = 0d;
+        for (final SpilledSnapshot snapshot : nodeToSpilledSnapshot.values()) {
+            snapshot.delete();
+        }
+        this.nodeToSpilledSnapshot.clear();
+        this.diskUsed = 0L;
+        if (this.directory != null) {
+            final File[] files = this.directory.listFiles();
+            if (files != null) {
+                for (final File file : files) {
+                    file.delete();
+                }
+            }
+            this.directory.delete();
+            this.directory = null;
+        }
+    }
+
+    /**
+     * Sets whether new snapshots are compressed.
+     *
+     * @param compression
+     */
+    public void setCompressionEnabled(boolean compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * Sets the maximal number of bytes used by snapshots on disk. If 0, evicted snapshots are
+     * discarded.
+     *
+     * @param diskLimit
+     */
+    public void setDiskLimit(long diskLimit) {
+        this.diskLimit = diskLimit;
+    }
+
+    /**
+     * Sets the maximal number of bytes used by snapshots and dictionaries.
+     *
+     * @param memoryLimit
+     */
+    public void setMemoryLimit(long memoryLimit) {
+        this.memoryLimit = memoryLimit;
     }
     
     /**
@@ -254,6 +524,11 @@ public class History {
             return false;
         }
 
+        // Early abort if the uncompressed snapshot exceeds the memory limit
+        if (!compression && Snapshot.getByteSize(groupify.size() * config.getSnapshotLength()) > memoryLimit) {
+            return false;
+        }
+
         // Early abort if too large
         if (snapshot != null) {
             final double relativeSize = (groupify.size() / ((double) snapshot.length / config.getSnapshotLength()));
@@ -269,19 +544,43 @@ public class History {
         // Clear the cache
         cleanUpHistory();
 
-        // Perform LRU eviction, if still too large
-        if (cache.size() >= size) {
-            removeHistoryEntry(cache.removeHead());
+        // Create and add the snapshot
+        if (add(transformation, createSnapshot(groupify))) {
+            numStored++;
+            return true;
+        } else {
+            return false;
         }
-        
-        // Create the snapshot
-        final int[] data = createSnapshot(groupify);
+    }
 
+    /**
+     * Adds a snapshot and evicts other snapshots, if a limit is exceeded. Returns false, if
+     * the snapshot could not be added.
+     *
+     * @param transformation
+     * @param data
+     * @return
+     */
+    private final boolean add(final Node transformation, final Snapshot data) {
 
         // assign snapshot and keep reference for cache
+        data.priority = getPriority(data);
         nodeToSnapshot.put(transformation, data);
         cache.append(transformation);
+        memoryUsed += data.bytes;
+
+        // Perform eviction, if too large
+        while (cache.size() > size || getMemoryUsed() > memoryLimit) {
+            final Node node = getEvictionCandidate(transformation);
+            if (node == null) {
+                cache.remove(transformation);
+                removeSnapshot(transformation);
+                return false;
+            }
+            removeHistoryEntry(node);
+        }
 
+        memoryPeak = Math.max(memoryPeak, getMemoryUsed());
         return true;
     }
 
@@ -295,7 +594,17 @@ public class History {
             final Node node = it.next();
             if (node.hasProperty(Node.PROPERTY_SUCCESSORS_PRUNED)) {
                 it.remove();
-                removeHistoryEntry(node);
+                removeSnapshot(node);
+            }
+        }
+
+        final Iterator<Entry<Node, SpilledSnapshot>> it2 = nodeToSpilledSnapshot.entrySet().iterator();
+        while (it2.hasNext()) {
+            final Entry<Node, SpilledSnapshot> entry = it2.next();
+            if (entry.getKey().hasProperty(Node.PROPERTY_SUCCESSORS_PRUNED)) {
+                it2.remove();
+                diskUsed -= entry.getValue().bytes;
+                entry.getValue().delete();
             }
         }
     }
@@ -306,7 +615,7 @@ public class History {
      * @param g the g
      * @return the int[]
      */
-    private final int[] createSnapshot(final IHashGroupify g) {
+    private final Snapshot createSnapshot(final IHashGroupify g) {
 
         final int[] data = new int[g.size() * config.getSnapshotLength()];
         int index = 0;
@@ -349,36 +658,215 @@ public class History {
             // Next element
             m = m.nextOrdered;
         }
-        return data;
+        return new Snapshot(data, config.getSnapshotLength(), compression);
     }
 
     /**
-     * Removes a snapshot.
+     * Returns the uncompressed data of the given snapshot. The data of the snapshot which has
+     * been decompressed most recently is cached, as it is often requested multiple times in a row,
+     * e.g. when it is spilled to disk and released afterwards.
+     *
+     * @param snapshot
+     * @return
+     */
+    private final int[] getData(final Snapshot snapshot) {
+        if (!snapshot.isCompressed()) {
+            return snapshot.getData();
+        }
+        if (snapshot != lastSnapshot) {
+            lastSnapshotData = snapshot.getData();
+            lastSnapshot = snapshot;
+        }
+        return lastSnapshotData;
+    }
+
+    /**
+     * Returns the index of the first distribution in an equivalence class, -1 if there is none.
+     *
+     * @return
+     */
+    private final int getDistributionOffset() {
+        if ((requirements & ARXConfiguration.REQUIREMENT_DISTRIBUTION) == 0) {
+            return -1;
+        } else if ((requirements & ARXConfiguration.REQUIREMENT_SECONDARY_COUNTER) != 0) {
+            return 3;
+        } else {
+            return 2;
+        }
+    }
+
+    /**
+     * Returns the snapshot with the lowest priority, excluding the given node. Returns null if
+     * there is no such snapshot.
+     *
+     * @param exclude
+     * @return
+     */
+    private final Node getEvictionCandidate(final Node exclude) {
+        Node result = null;
+        double priority = Double.MAX_VALUE;
+        MRUCacheEntry<Node> entry = cache.getHead();
+        while (entry != null) {
+            final Snapshot snapshot = nodeToSnapshot.get(entry.data);
+            if (snapshot.priority < priority && !entry.data.equals(exclude)) {
+                result = entry.data;
+                priority = snapshot.priority;
+            }
+            entry = entry.next;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the priority of the given snapshot, which is the number of rows saved
+     * when reusing the snapshot per byte plus the current inflation value.
+     *
+     * @param snapshot
+     * @return
+     */
+    private final double getPriority(final Snapshot snapshot) {
+        final double benefit = Math.max(1, rowCount - snapshot.length / config.getSnapshotLength());
+        return inflation + benefit / snapshot.bytes;
+    }
+
+    /**
+     * Returns whether the snapshot of the given node can be used for the given transformation.
+     *
+     * @param snapshotNode
+     * @param node
+     * @return
+     */
+    private final boolean isSynergetic(final Node snapshotNode, final Node node) {
+        for (int i = 0; i < snapshotNode.getTransformation().length; i++) {
+            if (node.getTransformation()[i] < snapshotNode.getTransformation()[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Loads a snapshot from disk and moves it to memory. Returns null, if the snapshot
+     * could not be loaded.
+     *
+     * @param node
+     * @param spilled
+     * @return
+     */
+    private final int[] load(final Node node, final SpilledSnapshot spilled) {
+
+        // Remove from disk
+        nodeToSpilledSnapshot.remove(node);
+        diskUsed -= spilled.bytes;
+
+        // Read
+        final int[] data;
+        try {
+            data = spilled.read(config.getSnapshotLength(), getDistributionOffset(), dictionarySensValue, dictionarySensFreq);
+        } catch (final IOException e) {
+            // Snapshots on disk are optional
+            return null;
+        } finally {
+            spilled.delete();
+        }
+
+        // Move to memory
+        numLoaded++;
+        final Snapshot snapshot = new Snapshot(data, config.getSnapshotLength(), compression);
+        return add(node, snapshot) ? data : null;
+    }
+
+    /**
+     * Evicts a snapshot.
      *
      * @param node
      */
     private final void removeHistoryEntry(final Node node) {
-        final int[] snapshot = nodeToSnapshot.remove(node);
+        final Snapshot snapshot = nodeToSnapshot.get(node);
+        inflation = Math.max(inflation, snapshot.priority);
+        numEvicted++;
+        if (diskLimit > 0) {
+            spill(node, snapshot);
+        }
+        cache.remove(node);
+        removeSnapshot(node);
+    }
 
-        switch (requirements) {
-        case ARXConfiguration.REQUIREMENT_COUNTER | ARXConfiguration.REQUIREMENT_SECONDARY_COUNTER | ARXConfiguration.REQUIREMENT_DISTRIBUTION:
+    /**
+     * Removes a snapshot.
+     *
+     * @param node
+     */
+    private final void removeSnapshot(final Node node) {
+        final Snapshot entry = nodeToSnapshot.remove(node);
+        memoryUsed -= entry.bytes;
+
+        // Release dictionary entries
+        final int offset = getDistributionOffset();
+        if (offset >= 0) {
+            final int[] snapshot = getData(entry);
             for (int i = 0; i < snapshot.length; i += config.getSnapshotLength()) {
-                for (int j = i + 3; j < i + config.getSnapshotLength() - 1; j += 2) {
+                for (int j = i + offset; j < i + config.getSnapshotLength() - 1; j += 2) {
                     dictionarySensValue.decrementRefCount(snapshot[j]);
                     dictionarySensFreq.decrementRefCount(snapshot[j+1]);
                 }
             }
-            break;
-        // TODO: If we only need a distribution, we should get rid of the primary counter
-        case ARXConfiguration.REQUIREMENT_COUNTER | ARXConfiguration.REQUIREMENT_DISTRIBUTION:
-        case ARXConfiguration.REQUIREMENT_DISTRIBUTION:
-            for (int i = 0; i < snapshot.length; i += config.getSnapshotLength()) {
-                for (int j = i + 2; j < i + config.getSnapshotLength() - 1; j += 2) {
-                    dictionarySensValue.decrementRefCount(snapshot[j]);
-                    dictionarySensFreq.decrementRefCount(snapshot[j+1]);
+        }
+
+        // Release cached data
+        if (entry == lastSnapshot) {
+            lastSnapshot = null;
+            lastSnapshotData = null;
+        }
+    }
+
+    /**
+     * Writes a snapshot to disk. Snapshots on disk with lower priorities are removed, if
+     * the disk limit is exceeded.
+     *
+     * @param node
+     * @param snapshot
+     */
+    private final void spill(final Node node, final Snapshot snapshot) {
+
+        // Write
+        final SpilledSnapshot spilled;
+        try {
+            if (directory == null) {
+                directory = Files.createTempDirectory("arx-history").toFile();
+            }
+            spilled = SpilledSnapshot.write(directory,
+                                            getData(snapshot),
+                                            config.getSnapshotLength(),
+                                            getDistributionOffset(),
+                                            dictionarySensValue,
+                                            dictionarySensFreq,
+                                            snapshot.priority);
+        } catch (final IOException e) {
+            // Snapshots on disk are optional, spilling is only disabled if the disk is unusable
+            spillError = e;
+            numSpillErrors++;
+            if (directory == null || !directory.canWrite() || directory.getUsableSpace() < 4L * snapshot.length) {
+                diskLimit = 0;
+            }
+            return;
+        }
+        nodeToSpilledSnapshot.put(node, spilled);
+        diskUsed += spilled.bytes;
+        numSpilled++;
+
+        // Remove snapshots with the lowest priorities
+        while (diskUsed > diskLimit) {
+            Node victim = null;
+            for (final Entry<Node, SpilledSnapshot> entry : nodeToSpilledSnapshot.entrySet()) {
+                if (victim == null || entry.getValue().priority < nodeToSpilledSnapshot.get(victim).priority) {
+                    victim = entry.getKey();
                 }
             }
+            final SpilledSnapshot removed = nodeToSpilledSnapshot.remove(victim);
+            diskUsed -= removed.bytes;
+            removed.delete();
         }
-
+        diskPeak = Math.max(diskPeak, diskUsed);
     }
 }
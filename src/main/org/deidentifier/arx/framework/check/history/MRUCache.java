@@ -200,6 +200,19 @@ public class MRUCache<T> {
         }
     }
 
+    /**
+     * Removes the given element.
+     *
+     * @param node
+     *            the node
+     */
+    public void remove(final T node) {
+        final MRUCacheEntry<T> entry = this.elementToEntry.remove(node);
+        if (entry != null) {
+            this.remove(entry);
+        }
+    }
+
     /**
      * Removes the head.
      * 
@@ -0,0 +1,215 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.history;
+
+/**
+ * A snapshot stored in the history. Snapshots may be compressed, in which case each value is
+ * stored as a variable-length integer and the representatives, which are increasing in most
+ * cases, are stored as differences to their predecessors.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+class Snapshot {
+
+    /** Size of an array header in bytes. */
+    private static final int ARRAY_OVERHEAD = 16;
+
+    /** Estimated size in bytes of the objects needed to manage an entry in the history. */
+    private static final int ENTRY_OVERHEAD = 96;
+
+    /**
+     * Returns the estimated number of bytes required to store an uncompressed snapshot
+     * with the given number of values.
+     *
+     * @param length
+     * @return
+     */
+    static long getByteSize(final int length) {
+        return ENTRY_OVERHEAD + ARRAY_OVERHEAD + 4L * length;
+    }
+
+    /**
+     * Compresses the given data.
+     *
+     * @param data
+     * @param step
+     * @return
+     */
+    private static byte[] compress(final int[] data, final int step) {
+
+        // Determine size
+        int size = 0;
+        int previous = 0;
+        for (int i = 0; i < data.length; i++) {
+            if (i % step == 0) {
+                size += getVarIntSize(zigzag(data[i] - previous));
+                previous = data[i];
+            } else {
+                size += getVarIntSize(data[i]);
+            }
+        }
+
+        // Encode
+        final byte[] result = new byte[size];
+        int offset = 0;
+        previous = 0;
+        for (int i = 0; i < data.length; i++) {
+            if (i % step == 0) {
+                offset = putVarInt(result, offset, zigzag(data[i] - previous));
+                previous = data[i];
+            } else {
+                offset = putVarInt(result, offset, data[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Decompresses the given data.
+     *
+     * @param compressed
+     * @param length
+     * @param step
+     * @return
+     */
+    private static int[] decompress(final byte[] compressed, final int length, final int step) {
+        final int[] result = new int[length];
+        int offset = 0;
+        int previous = 0;
+        for (int i = 0; i < length; i++) {
+
+            // Read variable-length integer
+            int value = 0;
+            int shift = 0;
+            byte current;
+            do {
+                current = compressed[offset++];
+                value |= (current & 0x7F) << shift;
+                shift += 7;
+            } while (current < 0);
+
+            // Decode
+            if (i % step == 0) {
+                previous += (value >>> 1) ^ -(value & 1);
+                result[i] = previous;
+            } else {
+                result[i] = value;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of bytes needed to store the given value as a variable-length integer.
+     *
+     * @param value
+     * @return
+     */
+    private static int getVarIntSize(final int value) {
+        if ((value & 0xFFFFFF80) == 0) return 1;
+        if ((value & 0xFFFFC000) == 0) return 2;
+        if ((value & 0xFFE00000) == 0) return 3;
+        if ((value & 0xF0000000) == 0) return 4;
+        return 5;
+    }
+
+    /**
+     * Writes the given value as a variable-length integer and returns the new offset.
+     *
+     * @param buffer
+     * @param offset
+     * @param value
+     * @return
+     */
+    private static int putVarInt(final byte[] buffer, int offset, int value) {
+        while ((value & 0xFFFFFF80) != 0) {
+            buffer[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[offset++] = (byte) value;
+        return offset;
+    }
+
+    /**
+     * Maps signed to unsigned values, such that values with a small magnitude remain small.
+     *
+     * @param value
+     * @return
+     */
+    private static int zigzag(final int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    /** The size in bytes. */
+    final long           bytes;
+
+    /** The number of values. */
+    final int            length;
+
+    /** The priority used for eviction. Snapshots with lower priorities are evicted first. */
+    double               priority;
+
+    /** The compressed data, null if not compressed. */
+    private final byte[] compressed;
+
+    /** The uncompressed data, null if compressed. */
+    private final int[]  data;
+
+    /** The number of values per equivalence class. */
+    private final int    step;
+
+    /**
+     * Creates a new snapshot.
+     *
+     * @param data The data
+     * @param step The number of values per equivalence class
+     * @param compress Whether the data should be compressed
+     */
+    Snapshot(final int[] data, final int step, final boolean compress) {
+        this.length = data.length;
+        this.step = step;
+        if (compress) {
+            this.compressed = compress(data, step);
+            this.data = null;
+            this.bytes = ENTRY_OVERHEAD + ARRAY_OVERHEAD + compressed.length;
+        } else {
+            this.compressed = null;
+            this.data = data;
+            this.bytes = getByteSize(data.length);
+        }
+    }
+
+    /**
+     * Returns the uncompressed data.
+     *
+     * @return
+     */
+    int[] getData() {
+        return data != null ? data : decompress(compressed, length, step);
+    }
+
+    /**
+     * Returns whether the data is compressed.
+     *
+     * @return
+     */
+    boolean isCompressed() {
+        return compressed != null;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel.MapMode;
+
+import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
+
+/**
+ * A snapshot which has been written to a memory-mapped file. As dictionaries only hold
+ * entries for snapshots in memory, the distributions referenced by a snapshot are resolved
+ * and stored inline. When the snapshot is read, they are added to the dictionaries again.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+class SpilledSnapshot {
+
+    /**
+     * Writes the given snapshot to a new file in the given directory.
+     *
+     * @param directory The directory
+     * @param data The snapshot
+     * @param step The number of values per equivalence class
+     * @param offset The index of the first distribution of an equivalence class, -1 if there is none
+     * @param dictionarySensValue The dictionary for values of the distributions
+     * @param dictionarySensFreq The dictionary for frequencies of the distributions
+     * @param priority The priority used for eviction
+     * @return
+     * @throws IOException
+     */
+    static SpilledSnapshot write(final File directory,
+                                 final int[] data,
+                                 final int step,
+                                 final int offset,
+                                 final IntArrayDictionary dictionarySensValue,
+                                 final IntArrayDictionary dictionarySensFreq,
+                                 final double priority) throws IOException {
+
+        // Determine size
+        long size = data.length;
+        if (offset >= 0) {
+            for (int i = 0; i < data.length; i += step) {
+                for (int j = i + offset; j < i + step - 1; j += 2) {
+                    size += dictionarySensValue.get(data[j]).length;
+                    size += dictionarySensFreq.get(data[j + 1]).length;
+                }
+            }
+        }
+
+        // Write
+        final File file = File.createTempFile("snapshot", ".bin", directory);
+        try {
+            write(file, data, step, offset, dictionarySensValue, dictionarySensFreq, size);
+        } catch (final IOException e) {
+            file.delete();
+            throw e;
+        }
+        return new SpilledSnapshot(file, data.length, size * 4L, priority);
+    }
+
+    /**
+     * Writes the snapshot to the given file.
+     *
+     * @param file The file
+     * @param data The snapshot
+     * @param step The number of values per equivalence class
+     * @param offset The index of the first distribution of an equivalence class, -1 if there is none
+     * @param dictionarySensValue The dictionary for values of the distributions
+     * @param dictionarySensFreq The dictionary for frequencies of the distributions
+     * @param size The number of values to write
+     * @throws IOException
+     */
+    private static void write(final File file,
+                              final int[] data,
+                              final int step,
+                              final int offset,
+                              final IntArrayDictionary dictionarySensValue,
+                              final IntArrayDictionary dictionarySensFreq,
+                              final long size) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            final IntBuffer buffer = raf.getChannel().map(MapMode.READ_WRITE, 0, size * 4L).asIntBuffer();
+            for (int i = 0; i < data.length; i += step) {
+                for (int j = i; j < i + step; j++) {
+                    if (offset >= 0 && j >= i + offset && (j - i - offset) % 2 == 0) {
+                        final int[] values = dictionarySensValue.get(data[j]);
+                        final int[] frequencies = dictionarySensFreq.get(data[j + 1]);
+                        buffer.put(values.length);
+                        buffer.put(values);
+                        buffer.put(frequencies.length);
+                        buffer.put(frequencies);
+                        j++;
+                    } else {
+                        buffer.put(data[j]);
+                    }
+                }
+            }
+        } finally {
+            raf.close();
+        }
+    }
+
+    /** The size in bytes. */
+    final long         bytes;
+
+    /** The number of values. */
+    final int          length;
+
+    /** The priority used for eviction. */
+    final double       priority;
+
+    /** The file. */
+    private final File file;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param file
+     * @param length
+     * @param bytes
+     * @param priority
+     */
+    private SpilledSnapshot(final File file, final int length, final long bytes, final double priority) {
+        this.file = file;
+        this.length = length;
+        this.bytes = bytes;
+        this.priority = priority;
+    }
+
+    /**
+     * Deletes the file.
+     */
+    void delete() {
+        file.delete();
+    }
+
+    /**
+     * Reads the snapshot. Distributions are added to the dictionaries.
+     *
+     * @param step The number of values per equivalence class
+     * @param offset The index of the first distribution of an equivalence class, -1 if there is none
+     * @param dictionarySensValue The dictionary for values of the distributions
+     * @param dictionarySensFreq The dictionary for frequencies of the distributions
+     * @return
+     * @throws IOException
+     */
+    int[] read(final int step,
+               final int offset,
+               final IntArrayDictionary dictionarySensValue,
+               final IntArrayDictionary dictionarySensFreq) throws IOException {
+
+        final int[] data = new int[length];
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            final IntBuffer buffer = raf.getChannel().map(MapMode.READ_ONLY, 0, bytes).asIntBuffer();
+            for (int i = 0; i < length; i += step) {
+                for (int j = i; j < i + step; j++) {
+                    if (offset >= 0 && j >= i + offset && (j - i - offset) % 2 == 0) {
+                        final int[] values = new int[buffer.get()];
+                        buffer.get(values);
+                        final int[] frequencies = new int[buffer.get()];
+                        buffer.get(frequencies);
+                        data[j] = dictionarySensValue.probe(values);
+                        data[j + 1] = dictionarySensFreq.probe(frequencies);
+                        j++;
+                    } else {
+                        data[j] = buffer.get();
+                    }
+                }
+            }
+        } finally {
+            raf.close();
+        }
+        return data;
+    }
+}
@@ -25,6 +25,7 @@ import org.deidentifier.arx.framework.check.StateMachine.TransitionType;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.check.groupify.IHashGroupify;
+import org.deidentifier.arx.framework.data.DataMatrix;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 
 /**
@@ -77,7 +78,8 @@ public abstract class AbstractTransformer implements Callable<IHashGroupify> {
          */
         @Override
         public final void callAll(final int[] outtuple, final int i) {
-            groupify.addAll(outtuple, i, 1, sensitiveValues[i], -1);
+            sensitiveValues.getRow(i, sensitiveTuple);
+            groupify.addAll(outtuple, i, 1, sensitiveTuple, -1);
         }
 
         /* (non-Javadoc)
@@ -95,8 +97,8 @@ public abstract class AbstractTransformer implements Callable<IHashGroupify> {
         public final void callSnapshot(final int[] outtuple, final int[] snapshot, final int i) {
             
             // TODO: Improve!
-            int[][] values = new int[sensitiveValues[0].length][];
-            int[][] frequencies = new int[sensitiveValues[0].length][];
+            int[][] values = new int[sensitiveValues.getNumColumns()][];
+            int[][] frequencies = new int[sensitiveValues.getNumColumns()][];
             int index = 0;
             int offset = i + 2;
             int length = config.getSnapshotLength() - 1 - 2;
@@ -152,7 +154,8 @@ public abstract class AbstractTransformer implements Callable<IHashGroupify> {
          */
         @Override
         public final void callAll(final int[] outtuple, final int i) {
-            groupify.addAll(outtuple, i, 1, sensitiveValues[i], 1);
+            sensitiveValues.getRow(i, sensitiveTuple);
+            groupify.addAll(outtuple, i, 1, sensitiveTuple, 1);
         }
 
         /* (non-Javadoc)
@@ -170,8 +173,8 @@ public abstract class AbstractTransformer implements Callable<IHashGroupify> {
         public final void callSnapshot(final int[] outtuple, final int[] snapshot, final int i) {
 
             // TODO: Improve!
-            int[][] values = new int[sensitiveValues[0].length][];
-            int[][] frequencies = new int[sensitiveValues[0].length][];
+            int[][] values = new int[sensitiveValues.getNumColumns()][];
+            int[][] frequencies = new int[sensitiveValues.getNumColumns()][];
             int index = 0;
             int offset = i + 3;
             int length = config.getSnapshotLength() - 1 - 3;
@@ -196,7 +199,8 @@ public abstract class AbstractTransformer implements Callable<IHashGroupify> {
          */
         @Override
         public final void callAll(final int[] outtuple, final int i) {
-            groupify.addAll(outtuple, i, 1, sensitiveValues[i], -1);
+            sensitiveValues.getRow(i, sensitiveTuple);
+            groupify.addAll(outtuple, i, 1, sensitiveTuple, -1);
         }
 
         /* (non-Javadoc)
@@ -214,8 +218,8 @@ public abstract class AbstractTransformer implements Callable<IHashGroupify> {
         public final void callSnapshot(final int[] outtuple, final int[] snapshot, final int i) {
 
             // TODO: Improve!
-            int[][] values = new int[sensitiveValues[0].length][];
-            int[][] frequencies = new int[sensitiveValues[0].length][];
+            int[][] values = new int[sensitiveValues.getNumColumns()][];
+            int[][] frequencies = new int[sensitiveValues.getNumColumns()][];
             int index = 0;
             int offset = i + 2;
             int length = config.getSnapshotLength() - 1 - 2;
@@ -268,19 +272,22 @@ public abstract class AbstractTransformer implements Callable<IHashGroupify> {
     protected int                              bucket;
 
     /** The buffer. */
-    protected int[][]                          buffer;
+    protected DataMatrix                       buffer;
 
     /** The column index array. */
     protected final int[]                      columnIndexArray;
 
-    /** The column map array. */
-    protected final int[][][]                  columnMapArray;
+    /** The indices of the columns that are not transformed. */
+    protected final int[]                      copyIndexArray;
+
+    /** The generalization of each input value, for each column that is transformed. */
+    protected final int[][]                    columnMapArray;
 
     /** The mode of operation *. */
     protected final ARXConfigurationInternal config;
 
-    /** The data. */
-    protected final int[][]                    data;
+    /** The data, in row-major order. */
+    protected final int[]                      data;
 
     /** The delegate. */
     protected final IGroupify                  delegate;
@@ -301,16 +308,16 @@ public abstract class AbstractTransformer implements Callable<IHashGroupify> {
     /** The hierarchies. */
     protected final GeneralizationHierarchy[]  hierarchies;
     /** The idindex14. */
-    protected int[][]                         idindex0, idindex1, idindex2, idindex3, idindex4, idindex5, 
+    protected int[]                           idindex0, idindex1, idindex2, idindex3, idindex4, idindex5, 
                                               idindex6, idindex7, idindex8, idindex9, idindex10, idindex11, idindex12, idindex13, idindex14;
     /** The index14. */
     protected int                             index0, index1, index2, index3, index4, index5, index6, index7, 
                                               index8, index9, index10, index11, index12, index13, index14;
-    /** The intuple. */
-    protected int[]                            intuple;
-    
-    /** The generalization hierarchies. */
-    protected int[][][]                        map;
+    /** The number of columns that are transformed. */
+    protected int                              numColumns;
+
+    /** The number of columns that are not transformed. */
+    protected int                              numCopyColumns;
     /** The num elements. */
     protected int                              numElements;
     /** The outindices. */
@@ -344,9 +351,12 @@ public abstract class AbstractTransformer implements Callable<IHashGroupify> {
     /** The outindices. */
     protected int                              outindex9;
     /** The outtuple. */
-    protected int[]                            outtuple;
+    protected final int[]                      outtuple;
     /** The sesitive values. */
-    protected final int[][]                    sensitiveValues;
+    protected final DataMatrix                 sensitiveValues;
+
+    /** The sensitive values of the current row. */
+    protected final int[]                      sensitiveTuple;
     /** The snapshot. */
     protected int[]                            snapshot;
     
@@ -355,53 +365,6 @@ public abstract class AbstractTransformer implements Callable<IHashGroupify> {
     /** The start index. */
     protected int                              startIndex;
     
-    /** The stateindices. */
-    protected int                              generalizationindex0;
-    
-    /** The stateindices. */
-    protected int                              generalizationindex1;
-    
-    /** The stateindices. */
-    protected int                              generalizationindex10;
-    
-    /** The stateindices. */
-    protected int                              generalizationindex11;
-    
-    /** The stateindices. */
-    protected int                              generalizationindex12;
-    
-    /** The stateindices. */
-    protected int                              generalizationindex13;
-    
-    /** The stateindices. */
-    protected int                              generalizationindex14;
-    
-    /** The stateindices. */
-    protected int                              generalizationindex2;
-    
-    /** The stateindices. */
-    protected int                              generalizationindex3;
-    
-    /** The stateindices. */
-    protected int                              generalizationindex4;
-    
-    /** The stateindices. */
-    protected int                              generalizationindex5;
-    
-    /** The stateindices. */
-    protected int                              generalizationindex6;
-    
-    /** The stateindices. */
-    protected int                              generalizationindex7;
-    
-    /** The stateindices. */
-    protected int                              generalizationindex8;
-    
-    /** The stateindices. */
-    protected int                              generalizationindex9;
-    /** The state index array. */
-    protected final int[]                      generalizationIndexArray;
-
     /** The states. */
     protected int[]                            generalization;
     /** The stop index. */
@@ -419,33 +382,31 @@ public abstract class AbstractTransformer implements Callable<IHashGroupify> {
      * @param dictionarySensFreq
      * @param config
      */
-    public AbstractTransformer(final int[][] data,
+    public AbstractTransformer(final DataMatrix data,
                                final GeneralizationHierarchy[] hierarchies,
-                               final int[][] sensitive,
+                               final DataMatrix sensitive,
                                final IntArrayDictionary dictionarySensValue,
                                final IntArrayDictionary dictionarySensFreq,
                                final ARXConfigurationInternal config) {
         this.config = config;
-        this.data = data;
+        this.data = data.getArray();
         this.hierarchies = hierarchies;
         this.sensitiveValues = sensitive;
+        this.sensitiveTuple = new int[sensitive.getNumColumns()];
         this.dictionarySensValue = dictionarySensValue;
         this.dictionarySensFreq = dictionarySensFreq;
         ssStepWidth = config.getSnapshotLength();
 
         // Init arrays
-        dimensions = data[0].length;
+        dimensions = data.getNumColumns();
+        outtuple = new int[dimensions];
         int arraySizes = 15;
         if (dimensions > arraySizes) {
             arraySizes = dimensions;
         }
-        generalizationIndexArray = new int[arraySizes];
         columnIndexArray = new int[arraySizes];
-        columnMapArray = new int[arraySizes][][];
-        map = new int[hierarchies.length][][];
-        for (int i = 0; i < hierarchies.length; i++) {
-            map[i] = hierarchies[i].getArray();
-        }
+        copyIndexArray = new int[dimensions];
+        columnMapArray = new int[arraySizes][];
 
         // Prepare delegate
         switch (config.getRequirements()) {
@@ -497,6 +458,21 @@ public abstract class AbstractTransformer implements Callable<IHashGroupify> {
         return groupify;
     }
 
+    /**
+     * Copies the values of the columns that are not transformed from the given row of the
+     * buffer into the outtuple, which is used as the key for grouping. Transformed values are
+     * written into the buffer and the outtuple directly.
+     *
+     * @param array The buffer
+     * @param offset The offset of the row
+     */
+    protected final void copyColumns(final int[] array, final int offset) {
+        for (int c = 0; c < numCopyColumns; c++) {
+            final int index = copyIndexArray[c];
+            outtuple[index] = array[offset + index];
+        }
+    }
+
     /**
      * Inits the.
      * 
@@ -533,7 +509,7 @@ public abstract class AbstractTransformer implements Callable<IHashGroupify> {
                      final int stopIndex,
                      final int bucket,
                      final HashGroupifyEntry element,
-                     final int[][] buffer) {
+                     final DataMatrix buffer) {
 
         this.buffer = buffer;
 
@@ -547,14 +523,18 @@ public abstract class AbstractTransformer implements Callable<IHashGroupify> {
         this.transition = transition;
 
         int index = 0;
+        int copyIndex = 0;
         for (int i = 0; i < dimensions; i++) {
             if ((projection & (1L << i)) == 0) {
-                generalizationIndexArray[index] = state[i];
                 columnIndexArray[index] = i;
-                columnMapArray[index] = hierarchies[i].getArray();
+                columnMapArray[index] = hierarchies[i].getLevel(state[i]);
                 index++;
+            } else {
+                copyIndexArray[copyIndex++] = i;
             }
         }
+        numColumns = index;
+        numCopyColumns = copyIndex;
 
         // Store groupify
         this.groupify = groupify;
@@ -597,23 +577,6 @@ public abstract class AbstractTransformer implements Callable<IHashGroupify> {
         outindex13 = columnIndexArray[13];
         outindex14 = columnIndexArray[14];
 
-        // Store values
-        generalizationindex0 = generalizationIndexArray[0];
-        generalizationindex1 = generalizationIndexArray[1];
-        generalizationindex2 = generalizationIndexArray[2];
-        generalizationindex3 = generalizationIndexArray[3];
-        generalizationindex4 = generalizationIndexArray[4];
-        generalizationindex5 = generalizationIndexArray[5];
-        generalizationindex6 = generalizationIndexArray[6];
-        generalizationindex7 = generalizationIndexArray[7];
-        generalizationindex8 = generalizationIndexArray[8];
-        generalizationindex9 = generalizationIndexArray[9];
-        generalizationindex10 = generalizationIndexArray[10];
-        generalizationindex11 = generalizationIndexArray[11];
-        generalizationindex12 = generalizationIndexArray[12];
-        generalizationindex13 = generalizationIndexArray[13];
-        generalizationindex14 = generalizationIndexArray[14];
-
         // Store values
         idindex0 = columnMapArray[0];
         idindex1 = columnMapArray[1];
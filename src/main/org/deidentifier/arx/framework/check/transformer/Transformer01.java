@@ -19,6 +19,7 @@ package org.deidentifier.arx.framework.check.transformer;
 
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
+import org.deidentifier.arx.framework.data.DataMatrix;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 
 /**
@@ -39,9 +40,9 @@ public class Transformer01 extends AbstractTransformer {
      * @param dictionarySensFreq
      * @param config
      */
-    public Transformer01(final int[][] data,
+    public Transformer01(final DataMatrix data,
                          final GeneralizationHierarchy[] hierarchies,
-                         final int[][] sensitiveValues,
+                         final DataMatrix sensitiveValues,
                          final IntArrayDictionary dictionarySensValue,
                          final IntArrayDictionary dictionarySensFreq,
                          final ARXConfigurationInternal config) {
@@ -56,12 +57,13 @@ public class Transformer01 extends AbstractTransformer {
      */
     @Override
     protected void processAll() {
+        final int[] array = buffer.getArray();
         for (int i = startIndex; i < stopIndex; i++) {
 
             // Transform
-            intuple = data[i];
-            outtuple = buffer[i];
-            outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
+            final int offset = i * dimensions;
+            copyColumns(array, offset);
+            array[offset + outindex0] = outtuple[outindex0] = idindex0[data[offset + index0]];
 
             // Call
             delegate.callAll(outtuple, i);
@@ -77,12 +79,13 @@ public class Transformer01 extends AbstractTransformer {
     @Override
     protected void processGroupify() {
 
+        final int[] array = buffer.getArray();
         int processed = 0;
         while (element != null) {
 
-            intuple = data[element.representant];
-            outtuple = buffer[element.representant];
-            outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
+            final int offset = element.representant * dimensions;
+            copyColumns(array, offset);
+            array[offset + outindex0] = outtuple[outindex0] = idindex0[data[offset + index0]];
 
             // Call
             delegate.callGroupify(outtuple, element);
@@ -104,13 +107,14 @@ public class Transformer01 extends AbstractTransformer {
     @Override
     protected void processSnapshot() {
 
+        final int[] array = buffer.getArray();
         startIndex *= ssStepWidth;
         stopIndex *= ssStepWidth;
 
         for (int i = startIndex; i < stopIndex; i += ssStepWidth) {
-            intuple = data[snapshot[i]];
-            outtuple = buffer[snapshot[i]];
-            outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
+            final int offset = snapshot[i] * dimensions;
+            copyColumns(array, offset);
+            array[offset + outindex0] = outtuple[outindex0] = idindex0[data[offset + index0]];
 
             // Call
             delegate.callSnapshot(outtuple, snapshot, i);
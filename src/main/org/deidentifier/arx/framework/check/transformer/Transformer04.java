@@ -19,6 +19,7 @@ package org.deidentifier.arx.framework.check.transformer;
 
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
+import org.deidentifier.arx.framework.data.DataMatrix;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 
 /**
@@ -39,9 +40,9 @@ public class Transformer04 extends AbstractTransformer {
      * @param dictionarySensFreq
      * @param config
      */
-    public Transformer04(final int[][] data,
+    public Transformer04(final DataMatrix data,
                          final GeneralizationHierarchy[] hierarchies,
-                         final int[][] sensitiveValues,
+                         final DataMatrix sensitiveValues,
                          final IntArrayDictionary dictionarySensValue,
                          final IntArrayDictionary dictionarySensFreq,
                          final ARXConfigurationInternal config) {
@@ -56,13 +57,14 @@ public class Transformer04 extends AbstractTransformer {
      */
     @Override
     protected void processAll() {
+        final int[] array = buffer.getArray();
         for (int i = startIndex; i < stopIndex; i++) {
-            intuple = data[i];
-            outtuple = buffer[i];
-            outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
-            outtuple[outindex1] = idindex1[intuple[index1]][generalizationindex1];
-            outtuple[outindex2] = idindex2[intuple[index2]][generalizationindex2];
-            outtuple[outindex3] = idindex3[intuple[index3]][generalizationindex3];
+            final int offset = i * dimensions;
+            copyColumns(array, offset);
+            array[offset + outindex0] = outtuple[outindex0] = idindex0[data[offset + index0]];
+            array[offset + outindex1] = outtuple[outindex1] = idindex1[data[offset + index1]];
+            array[offset + outindex2] = outtuple[outindex2] = idindex2[data[offset + index2]];
+            array[offset + outindex3] = outtuple[outindex3] = idindex3[data[offset + index3]];
 
             // Call
             delegate.callAll(outtuple, i);
@@ -77,15 +79,16 @@ public class Transformer04 extends AbstractTransformer {
      */
     @Override
     protected void processGroupify() {
+        final int[] array = buffer.getArray();
         int processed = 0;
         while (element != null) {
 
-            intuple = data[element.representant];
-            outtuple = buffer[element.representant];
-            outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
-            outtuple[outindex1] = idindex1[intuple[index1]][generalizationindex1];
-            outtuple[outindex2] = idindex2[intuple[index2]][generalizationindex2];
-            outtuple[outindex3] = idindex3[intuple[index3]][generalizationindex3];
+            final int offset = element.representant * dimensions;
+            copyColumns(array, offset);
+            array[offset + outindex0] = outtuple[outindex0] = idindex0[data[offset + index0]];
+            array[offset + outindex1] = outtuple[outindex1] = idindex1[data[offset + index1]];
+            array[offset + outindex2] = outtuple[outindex2] = idindex2[data[offset + index2]];
+            array[offset + outindex3] = outtuple[outindex3] = idindex3[data[offset + index3]];
 
             // Call
             delegate.callGroupify(outtuple, element);
@@ -106,16 +109,17 @@ public class Transformer04 extends AbstractTransformer {
     @Override
     protected void processSnapshot() {
 
+        final int[] array = buffer.getArray();
         startIndex *= ssStepWidth;
         stopIndex *= ssStepWidth;
 
         for (int i = startIndex; i < stopIndex; i += ssStepWidth) {
-            intuple = data[snapshot[i]];
-            outtuple = buffer[snapshot[i]];
-            outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
-            outtuple[outindex1] = idindex1[intuple[index1]][generalizationindex1];
-            outtuple[outindex2] = idindex2[intuple[index2]][generalizationindex2];
-            outtuple[outindex3] = idindex3[intuple[index3]][generalizationindex3];
+            final int offset = snapshot[i] * dimensions;
+            copyColumns(array, offset);
+            array[offset + outindex0] = outtuple[outindex0] = idindex0[data[offset + index0]];
+            array[offset + outindex1] = outtuple[outindex1] = idindex1[data[offset + index1]];
+            array[offset + outindex2] = outtuple[outindex2] = idindex2[data[offset + index2]];
+            array[offset + outindex3] = outtuple[outindex3] = idindex3[data[offset + index3]];
 
             // Call
             delegate.callSnapshot(outtuple, snapshot, i);
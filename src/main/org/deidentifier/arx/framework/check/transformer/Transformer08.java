@@ -19,6 +19,7 @@ package org.deidentifier.arx.framework.check.transformer;
 
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
+import org.deidentifier.arx.framework.data.DataMatrix;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 
 /**
@@ -39,9 +40,9 @@ public class Transformer08 extends AbstractTransformer {
      * @param dictionarySensFreq
      * @param config
      */
-    public Transformer08(final int[][] data,
+    public Transformer08(final DataMatrix data,
                          final GeneralizationHierarchy[] hierarchies,
-                         final int[][] sensitiveValues,
+                         final DataMatrix sensitiveValues,
                          final IntArrayDictionary dictionarySensValue,
                          final IntArrayDictionary dictionarySensFreq,
                          final ARXConfigurationInternal config) {
@@ -56,17 +57,18 @@ public class Transformer08 extends AbstractTransformer {
      */
     @Override
     protected void processAll() {
+        final int[] array = buffer.getArray();
         for (int i = startIndex; i < stopIndex; i++) {
-            intuple = data[i];
-            outtuple = buffer[i];
-            outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
-            outtuple[outindex1] = idindex1[intuple[index1]][generalizationindex1];
-            outtuple[outindex2] = idindex2[intuple[index2]][generalizationindex2];
-            outtuple[outindex3] = idindex3[intuple[index3]][generalizationindex3];
-            outtuple[outindex4] = idindex4[intuple[index4]][generalizationindex4];
-            outtuple[outindex5] = idindex5[intuple[index5]][generalizationindex5];
-            outtuple[outindex6] = idindex6[intuple[index6]][generalizationindex6];
-            outtuple[outindex7] = idindex7[intuple[index7]][generalizationindex7];
+            final int offset = i * dimensions;
+            copyColumns(array, offset);
+            array[offset + outindex0] = outtuple[outindex0] = idindex0[data[offset + index0]];
+            array[offset + outindex1] = outtuple[outindex1] = idindex1[data[offset + index1]];
+            array[offset + outindex2] = outtuple[outindex2] = idindex2[data[offset + index2]];
+            array[offset + outindex3] = outtuple[outindex3] = idindex3[data[offset + index3]];
+            array[offset + outindex4] = outtuple[outindex4] = idindex4[data[offset + index4]];
+            array[offset + outindex5] = outtuple[outindex5] = idindex5[data[offset + index5]];
+            array[offset + outindex6] = outtuple[outindex6] = idindex6[data[offset + index6]];
+            array[offset + outindex7] = outtuple[outindex7] = idindex7[data[offset + index7]];
 
             // Call
             delegate.callAll(outtuple, i);
@@ -81,19 +83,20 @@ public class Transformer08 extends AbstractTransformer {
      */
     @Override
     protected void processGroupify() {
+        final int[] array = buffer.getArray();
         int processed = 0;
         while (element != null) {
 
-            intuple = data[element.representant];
-            outtuple = buffer[element.representant];
-            outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
-            outtuple[outindex1] = idindex1[intuple[index1]][generalizationindex1];
-            outtuple[outindex2] = idindex2[intuple[index2]][generalizationindex2];
-            outtuple[outindex3] = idindex3[intuple[index3]][generalizationindex3];
-            outtuple[outindex4] = idindex4[intuple[index4]][generalizationindex4];
-            outtuple[outindex5] = idindex5[intuple[index5]][generalizationindex5];
-            outtuple[outindex6] = idindex6[intuple[index6]][generalizationindex6];
-            outtuple[outindex7] = idindex7[intuple[index7]][generalizationindex7];
+            final int offset = element.representant * dimensions;
+            copyColumns(array, offset);
+            array[offset + outindex0] = outtuple[outindex0] = idindex0[data[offset + index0]];
+            array[offset + outindex1] = outtuple[outindex1] = idindex1[data[offset + index1]];
+            array[offset + outindex2] = outtuple[outindex2] = idindex2[data[offset + index2]];
+            array[offset + outindex3] = outtuple[outindex3] = idindex3[data[offset + index3]];
+            array[offset + outindex4] = outtuple[outindex4] = idindex4[data[offset + index4]];
+            array[offset + outindex5] = outtuple[outindex5] = idindex5[data[offset + index5]];
+            array[offset + outindex6] = outtuple[outindex6] = idindex6[data[offset + index6]];
+            array[offset + outindex7] = outtuple[outindex7] = idindex7[data[offset + index7]];
 
             // Call
             delegate.callGroupify(outtuple, element);
@@ -113,20 +116,21 @@ public class Transformer08 extends AbstractTransformer {
      */
     @Override
     protected void processSnapshot() {
+        final int[] array = buffer.getArray();
         startIndex *= ssStepWidth;
         stopIndex *= ssStepWidth;
 
         for (int i = startIndex; i < stopIndex; i += ssStepWidth) {
-            intuple = data[snapshot[i]];
-            outtuple = buffer[snapshot[i]];
-            outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
-            outtuple[outindex1] = idindex1[intuple[index1]][generalizationindex1];
-            outtuple[outindex2] = idindex2[intuple[index2]][generalizationindex2];
-            outtuple[outindex3] = idindex3[intuple[index3]][generalizationindex3];
-            outtuple[outindex4] = idindex4[intuple[index4]][generalizationindex4];
-            outtuple[outindex5] = idindex5[intuple[index5]][generalizationindex5];
-            outtuple[outindex6] = idindex6[intuple[index6]][generalizationindex6];
-            outtuple[outindex7] = idindex7[intuple[index7]][generalizationindex7];
+            final int offset = snapshot[i] * dimensions;
+            copyColumns(array, offset);
+            array[offset + outindex0] = outtuple[outindex0] = idindex0[data[offset + index0]];
+            array[offset + outindex1] = outtuple[outindex1] = idindex1[data[offset + index1]];
+            array[offset + outindex2] = outtuple[outindex2] = idindex2[data[offset + index2]];
+            array[offset + outindex3] = outtuple[outindex3] = idindex3[data[offset + index3]];
+            array[offset + outindex4] = outtuple[outindex4] = idindex4[data[offset + index4]];
+            array[offset + outindex5] = outtuple[outindex5] = idindex5[data[offset + index5]];
+            array[offset + outindex6] = outtuple[outindex6] = idindex6[data[offset + index6]];
+            array[offset + outindex7] = outtuple[outindex7] = idindex7[data[offset + index7]];
 
             // Call
             delegate.callSnapshot(outtuple, snapshot, i);
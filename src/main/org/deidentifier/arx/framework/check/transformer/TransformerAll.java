@@ -19,10 +19,13 @@ package org.deidentifier.arx.framework.check.transformer;
 
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
+import org.deidentifier.arx.framework.data.DataMatrix;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 
 /**
- * The class TransformerAll.
+ * The class TransformerAll. Used for transformations of more than 15 columns. Only columns that are
+ * not covered by the projection are transformed, each with a single lookup in the generalization
+ * level of its hierarchy.
  * 
  * @author Fabian Prasser
  * @author Florian Kohlmayer
@@ -39,9 +42,9 @@ public class TransformerAll extends AbstractTransformer {
      * @param dictionarySensFreq
      * @param config
      */
-    public TransformerAll(final int[][] data,
+    public TransformerAll(final DataMatrix data,
                           final GeneralizationHierarchy[] hierarchies,
-                          final int[][] sensitiveValues,
+                          final DataMatrix sensitiveValues,
                           final IntArrayDictionary dictionarySensValue,
                           final IntArrayDictionary dictionarySensFreq,
                           final ARXConfigurationInternal config) {
@@ -56,13 +59,16 @@ public class TransformerAll extends AbstractTransformer {
      */
     @Override
     protected void processAll() {
-        final int dimensions = data[0].length;
+        final int[] array = buffer.getArray();
+        final int columns = numColumns;
+        final int[] indices = columnIndexArray;
+        final int[][] maps = columnMapArray;
         for (int i = startIndex; i < stopIndex; i++) {
-            intuple = data[i];
-            outtuple = buffer[i];
-            for (int d = 0; d < dimensions; d++) {
-                final int state = generalization[d];
-                outtuple[d] = map[d][intuple[d]][state];
+            final int offset = i * dimensions;
+            copyColumns(array, offset);
+            for (int c = 0; c < columns; c++) {
+                final int index = indices[c];
+                array[offset + index] = outtuple[index] = maps[c][data[offset + index]];
             }
 
             // Call
@@ -78,14 +84,18 @@ public class TransformerAll extends AbstractTransformer {
      */
     @Override
     protected void processGroupify() {
+        final int[] array = buffer.getArray();
+        final int columns = numColumns;
+        final int[] indices = columnIndexArray;
+        final int[][] maps = columnMapArray;
         int processed = 0;
         while (element != null) {
 
-            intuple = data[element.representant];
-            outtuple = buffer[element.representant];
-            for (int d = 0; d < dimensions; d++) {
-                final int state = generalization[d];
-                outtuple[d] = map[d][intuple[d]][state];
+            final int offset = element.representant * dimensions;
+            copyColumns(array, offset);
+            for (int c = 0; c < columns; c++) {
+                final int index = indices[c];
+                array[offset + index] = outtuple[index] = maps[c][data[offset + index]];
             }
 
             // Call
@@ -107,15 +117,19 @@ public class TransformerAll extends AbstractTransformer {
     @Override
     protected void processSnapshot() {
 
+        final int[] array = buffer.getArray();
+        final int columns = numColumns;
+        final int[] indices = columnIndexArray;
+        final int[][] maps = columnMapArray;
         startIndex *= ssStepWidth;
         stopIndex *= ssStepWidth;
 
         for (int i = startIndex; i < stopIndex; i += ssStepWidth) {
-            intuple = data[snapshot[i]];
-            outtuple = buffer[snapshot[i]];
-            for (int d = 0; d < dimensions; d++) {
-                final int state = generalization[d];
-                outtuple[d] = map[d][intuple[d]][state];
+            final int offset = snapshot[i] * dimensions;
+            copyColumns(array, offset);
+            for (int c = 0; c < columns; c++) {
+                final int index = indices[c];
+                array[offset + index] = outtuple[index] = maps[c][data[offset + index]];
             }
 
             // Call
@@ -17,11 +17,11 @@
 
 package org.deidentifier.arx.framework.data;
 
-import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Encodes a data object consisting of a dictionary encoded two-dimensional
- * array, an associated dictionary, a header and a mapping to the columns in the
+ * matrix, an associated dictionary, a header and a mapping to the columns in the
  * input data set.
  *
  * @author Fabian Prasser
@@ -36,22 +36,25 @@ public class Data implements Cloneable{
     public static final int  REMOVE_OUTLIER_MASK = ~OUTLIER_MASK;
 
     /** Row, Dimension. */
-    private final int[][]    data;
+    private final DataMatrix                         data;
 
     /** The header. */
-    private final String[]   header;
+    private final String[]                           header;
 
     /** The associated dictionary. */
-    private final Dictionary dictionary;
+    private final Dictionary                         dictionary;
 
     /** The associated map. */
-    private final int[]      map;
+    private final int[]                              map;
+
+    /** Values derived from the data, which are shared by all users of this object. */
+    private final ConcurrentHashMap<Object, Object> precomputed = new ConcurrentHashMap<Object, Object>();
 
     /**
      * Creates a new data object.
      * 
      * @param data
-     *            The int array
+     *            The matrix
      * @param header
      *            The header
      * @param map
@@ -59,7 +62,7 @@ public class Data implements Cloneable{
      * @param dictionary
      *            The dictionary
      */
-    public Data(final int[][] data,
+    public Data(final DataMatrix data,
                 final String[] header,
                 final int[] map,
                 final Dictionary dictionary) {
@@ -70,11 +73,11 @@ public class Data implements Cloneable{
     }
 
     /**
-     * Returns the data array.
+     * Returns the data matrix.
      *
      * @return
      */
-    public int[][] getArray() {
+    public DataMatrix getArray() {
         return data;
     }
 
@@ -83,7 +86,7 @@ public class Data implements Cloneable{
      *
      * @return
      */
-    public int[][] getData() {
+    public DataMatrix getData() {
         return data;
     }
 
@@ -93,7 +96,7 @@ public class Data implements Cloneable{
      * @return the data length
      */
     public int getDataLength() {
-        return data.length;
+        return data.getNumRows();
     }
 
     /**
@@ -123,15 +126,34 @@ public class Data implements Cloneable{
         return map;
     }
     
+    /**
+     * Returns a value derived from the data, which has been stored with the given key.
+     *
+     * @param key
+     * @return The value, or null
+     */
+    public Object getPrecomputed(final Object key) {
+        return precomputed.get(key);
+    }
+
+    /**
+     * Stores a value derived from the data with the given key, unless a value has already
+     * been stored by another thread. Values must not be modified after they have been stored.
+     *
+     * @param key
+     * @param value
+     * @return The value stored
+     */
+    public Object putPrecomputed(final Object key, final Object value) {
+        final Object previous = precomputed.putIfAbsent(key, value);
+        return previous != null ? previous : value;
+    }
+
     /* (non-Javadoc)
      * @see java.lang.Object#clone()
      */
     @Override
     public Data clone(){
-        int[][] newData = new int[data.length][];
-        for (int i=0; i < data.length; i++){
-            newData[i] = Arrays.copyOf(data[i], header.length);
-        }
-        return new Data(newData, header, map, dictionary);
+        return new Data(data.clone(), header, map, dictionary);
     }
 }
@@ -18,6 +18,7 @@
 package org.deidentifier.arx.framework.data;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -56,6 +57,9 @@ public class DataManager {
     /** The sensitive attributes. */
     protected final Map<String, GeneralizationHierarchy> hierarchiesSE;
 
+    /** The hierarchies from which the hierarchies of sensitive attributes have been built. */
+    protected final Map<String, String[][]>              hierarchiesSESource;
+
     /** The indexes of sensitive attributes. */
     protected final Map<String, Integer>                 indexesSE;
 
@@ -86,7 +90,7 @@ public class DataManager {
      * @param definition
      * @param criteria
      */
-    public DataManager(final String[] header, final int[][] data, final Dictionary dictionary, final DataDefinition definition, final Set<PrivacyCriterion> criteria) {
+    public DataManager(final String[] header, final DataMatrix data, final Dictionary dictionary, final DataDefinition definition, final Set<PrivacyCriterion> criteria) {
 
         // Store research subset
         for (PrivacyCriterion c : criteria) {
@@ -185,6 +189,7 @@ public class DataManager {
 
         // Build map with hierarchies for sensitive attributes
         Map<String, String[][]> sensitiveHierarchies = new HashMap<String, String[][]>();
+        hierarchiesSESource = sensitiveHierarchies;
         for (PrivacyCriterion c : criteria) {
             if (c instanceof HierarchicalDistanceTCloseness) {
                 HierarchicalDistanceTCloseness t = (HierarchicalDistanceTCloseness) c;
@@ -258,6 +263,31 @@ public class DataManager {
         this.minLevels = minLevels;
         this.indexesSE = indexesSE;
         this.header = header;
+        this.hierarchiesSESource = new HashMap<String, String[][]>();
+    }
+
+    /**
+     * Creates a new data manager, which shares all data with the given instance,
+     * but uses the given research subset.
+     *
+     * @param manager
+     * @param subset
+     * @param subsetSize
+     */
+    private DataManager(final DataManager manager, final RowSet subset, final int subsetSize) {
+        this.dataQI = manager.dataQI;
+        this.dataSE = manager.dataSE;
+        this.dataIS = manager.dataIS;
+        this.hierarchiesQI = manager.hierarchiesQI;
+        this.hierarchiesSE = manager.hierarchiesSE;
+        this.hierarchiesSESource = manager.hierarchiesSESource;
+        this.hierarchyHeights = manager.hierarchyHeights;
+        this.maxLevels = manager.maxLevels;
+        this.minLevels = manager.minLevels;
+        this.indexesSE = manager.indexesSE;
+        this.header = manager.header;
+        this.subset = subset;
+        this.subsetSize = subsetSize;
     }
 
     /**
@@ -300,18 +330,18 @@ public class DataManager {
         // TODO: Good idea?
         final int index = indexesSE.get(attribute);
         final int distinct = dataSE.getDictionary().getMapping()[index].length;
-        final int[][] data = dataSE.getArray();
+        final DataMatrix data = dataSE.getArray();
 
         // Initialize counts: iterate over all rows or the subset
         final int[] cardinalities = new int[distinct];
-        for (int i = 0; i < data.length; i++) {
+        for (int i = 0; i < data.getNumRows(); i++) {
             if (subset == null || subset.contains(i)) {
-                cardinalities[data[i][index]]++;
+                cardinalities[data.get(i, index)]++;
             }
         }
 
         // compute distribution
-        final double total = subset == null ? data.length : subsetSize;
+        final double total = subset == null ? data.getNumRows() : subsetSize;
         final double[] distribution = new double[cardinalities.length];
         for (int i = 0; i < distribution.length; i++) {
             distribution[i] = (double) cardinalities[i] / total;
@@ -366,6 +396,38 @@ public class DataManager {
         return minLevels;
     }
 
+    /**
+     * Returns a data manager for anonymizing the data with the given criteria. The
+     * returned instance shares the encoded data and all hierarchies with this instance,
+     * but uses the research subset defined by the criteria, if any. Hierarchies for
+     * sensitive attributes cannot be added to the encoded data. They must have been
+     * provided when this instance was created.
+     *
+     * @param criteria
+     * @return
+     */
+    public DataManager getInstance(final Set<PrivacyCriterion> criteria) {
+
+        // Check hierarchies for sensitive attributes
+        for (PrivacyCriterion c : criteria) {
+            if (c instanceof HierarchicalDistanceTCloseness) {
+                HierarchicalDistanceTCloseness t = (HierarchicalDistanceTCloseness) c;
+                String[][] hierarchy = hierarchiesSESource.get(t.getAttribute());
+                if (hierarchy == null || !Arrays.deepEquals(hierarchy, t.getHierarchy().getHierarchy())) {
+                    throw new IllegalArgumentException("Hierarchy for sensitive attribute '" + t.getAttribute() + "' has not been encoded");
+                }
+            }
+        }
+
+        // Research subset
+        for (PrivacyCriterion c : criteria) {
+            if (c instanceof DPresence) {
+                return new DataManager(this, ((DPresence) c).getSubset().getSet(), ((DPresence) c).getSubset().getArray().length);
+            }
+        }
+        return subset == null ? this : new DataManager(this, null, 0);
+    }
+
     /**
      * Returns the tree for the given sensitive attribute, if a generalization hierarchy
      * is associated. Required for t-closeness with hierarchical distance EMD
@@ -375,10 +437,10 @@ public class DataManager {
      */
     public int[] getTree(String attribute) {
 
-        final int[][] data = dataSE.getArray();
+        final DataMatrix data = dataSE.getArray();
         final int index = indexesSE.get(attribute);
         final int[][] hierarchy = hierarchiesSE.get(attribute).map;
-        final int totalElementsP = subset == null ? data.length : subsetSize;
+        final int totalElementsP = subset == null ? data.getNumRows() : subsetSize;
         final int height = hierarchy[0].length - 1;
         final int numLeafs = hierarchy.length;
 
@@ -395,11 +457,11 @@ public class DataManager {
 
         // Count frequencies
         final int offsetLeafs = 3;
-        for (int i = 0; i < data.length; i++) {
+        for (int i = 0; i < data.getNumRows(); i++) {
             if (subset == null || subset.contains(i)) {
-                int previousFreq = treeList.get(data[i][index] + offsetLeafs);
+                int previousFreq = treeList.get(data.get(i, index) + offsetLeafs);
                 previousFreq++;
-                treeList.set(data[i][index] + offsetLeafs, previousFreq);
+                treeList.set(data.get(i, index) + offsetLeafs, previousFreq);
             }
         }
 
@@ -495,7 +557,7 @@ public class DataManager {
      * @param headerIS
      * @return
      */
-    private Data[] encode(final int[][] data,
+    private Data[] encode(final DataMatrix data,
                           final int[] map,
                           final int[] mapQI,
                           final int[] mapSE,
@@ -508,31 +570,25 @@ public class DataManager {
                           final String[] headerIS) {
 
         // Parse the dataset
-        final int[][] valsQI = new int[data.length][];
-        final int[][] valsSE = new int[data.length][];
-        final int[][] valsIS = new int[data.length][];
+        final DataMatrix valsQI = new DataMatrix(data.getNumRows(), headerQI.length);
+        final DataMatrix valsSE = new DataMatrix(data.getNumRows(), headerSE.length);
+        final DataMatrix valsIS = new DataMatrix(data.getNumRows(), headerIS.length);
 
-        int index = 0;
-        for (final int[] tuple : data) {
+        final int[] array = data.getArray();
+        final int width = data.getNumColumns();
+        for (int index = 0; index < data.getNumRows(); index++) {
 
             // Process a tuple
-            final int[] tupleQI = new int[headerQI.length];
-            final int[] tupleSE = new int[headerSE.length];
-            final int[] tupleIS = new int[headerIS.length];
-
-            for (int i = 0; i < tuple.length; i++) {
+            final int offset = index * width;
+            for (int i = 0; i < width; i++) {
                 if (map[i] >= 1000) {
-                    tupleIS[map[i] - 1000] = tuple[i];
+                    valsIS.set(index, map[i] - 1000, array[offset + i]);
                 } else if (map[i] > 0) {
-                    tupleQI[map[i] - 1] = tuple[i];
+                    valsQI.set(index, map[i] - 1, array[offset + i]);
                 } else if (map[i] < 0) {
-                    tupleSE[-map[i] - 1] = tuple[i];
+                    valsSE.set(index, -map[i] - 1, array[offset + i]);
                 }
             }
-            valsQI[index] = tupleQI;
-            valsIS[index] = tupleIS;
-            valsSE[index] = tupleSE;
-            index++;
         }
 
         // Build data object
@@ -0,0 +1,174 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.data;
+
+import java.util.Arrays;
+
+/**
+ * A two-dimensional matrix of integers, which is stored in a single array in
+ * row-major order. Compared to an array of rows, this avoids one object and
+ * one reference per row and keeps the values of consecutive rows adjacent in
+ * memory.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class DataMatrix implements Cloneable {
+
+    /** The backing array. */
+    private final int[] array;
+
+    /** The number of columns. */
+    private final int   columns;
+
+    /** The number of rows. */
+    private final int   rows;
+
+    /**
+     * Creates a new matrix with the given number of rows and columns.
+     *
+     * @param rows
+     * @param columns
+     */
+    public DataMatrix(final int rows, final int columns) {
+        if ((long) rows * (long) columns > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Matrix is too large: " + rows + " rows x " + columns + " columns");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.array = new int[rows * columns];
+    }
+
+    /**
+     * Creates a new matrix backed by the given array.
+     *
+     * @param array
+     * @param rows
+     * @param columns
+     */
+    private DataMatrix(final int[] array, final int rows, final int columns) {
+        this.array = array;
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#clone()
+     */
+    @Override
+    public DataMatrix clone() {
+        return new DataMatrix(Arrays.copyOf(array, array.length), rows, columns);
+    }
+
+    /**
+     * Returns the value at the given position.
+     *
+     * @param row
+     * @param column
+     * @return
+     */
+    public int get(final int row, final int column) {
+        return array[row * columns + column];
+    }
+
+    /**
+     * Returns the backing array. The value at (row, column) is stored at
+     * index row * getNumColumns() + column.
+     *
+     * @return
+     */
+    public int[] getArray() {
+        return array;
+    }
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return
+     */
+    public int getNumColumns() {
+        return columns;
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return
+     */
+    public int getNumRows() {
+        return rows;
+    }
+
+    /**
+     * Returns a copy of the given row.
+     *
+     * @param row
+     * @return
+     */
+    public int[] getRow(final int row) {
+        final int offset = row * columns;
+        return Arrays.copyOfRange(array, offset, offset + columns);
+    }
+
+    /**
+     * Copies the given row into the given tuple.
+     *
+     * @param row
+     * @param tuple
+     */
+    public void getRow(final int row, final int[] tuple) {
+        System.arraycopy(array, row * columns, tuple, 0, columns);
+    }
+
+    /**
+     * Sets the value at the given position.
+     *
+     * @param row
+     * @param column
+     * @param value
+     */
+    public void set(final int row, final int column, final int value) {
+        array[row * columns + column] = value;
+    }
+
+    /**
+     * Copies the given tuple into the given row.
+     *
+     * @param row
+     * @param tuple
+     */
+    public void setRow(final int row, final int[] tuple) {
+        System.arraycopy(tuple, 0, array, row * columns, columns);
+    }
+
+    /**
+     * Swaps the given rows.
+     *
+     * @param row1
+     * @param row2
+     */
+    public void swap(final int row1, final int row2) {
+        int offset1 = row1 * columns;
+        int offset2 = row2 * columns;
+        for (int i = 0; i < columns; i++) {
+            final int temp = array[offset1];
+            array[offset1++] = array[offset2];
+            array[offset2++] = temp;
+        }
+    }
+}
@@ -34,6 +34,9 @@ public class GeneralizationHierarchy {
     /** Input->level->output. */
     protected final int[][] map;
 
+    /** Level->input->output. */
+    protected final int[][] levels;
+
     /** Name. */
     protected final String  attribute;
 
@@ -50,6 +53,7 @@ public class GeneralizationHierarchy {
         this.attribute = name;
         this.map = map;
         this.distinctValues = distinctValues;
+        this.levels = transpose(map);
     }
 
     /**
@@ -91,6 +95,9 @@ public class GeneralizationHierarchy {
             }
         }
 
+        // Store levels
+        levels = transpose(map);
+
         // Count distinct values on each level
         distinctValues = new int[height];
         final IntOpenHashSet vals = new IntOpenHashSet();
@@ -162,6 +169,16 @@ public class GeneralizationHierarchy {
         return map[0].length;
     }
 
+    /**
+     * Returns the generalization of each input value on the given level.
+     *
+     * @param level
+     * @return
+     */
+    public int[] getLevel(final int level) {
+        return levels[level];
+    }
+
     /**
      * Returns the name.
      *
@@ -217,4 +234,21 @@ public class GeneralizationHierarchy {
             }
         }
     }
+
+    /**
+     * Converts the given hierarchy into a column-major layout.
+     *
+     * @param map
+     * @return
+     */
+    private static int[][] transpose(final int[][] map) {
+        final int height = map.length == 0 ? 0 : map[0].length;
+        final int[][] result = new int[height][map.length];
+        for (int i = 0; i < map.length; i++) {
+            for (int level = 0; level < height; level++) {
+                result[level][i] = map[i][level];
+            }
+        }
+        return result;
+    }
 }
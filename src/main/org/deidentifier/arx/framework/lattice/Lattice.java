@@ -17,40 +17,209 @@
 
 package org.deidentifier.arx.framework.lattice;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.deidentifier.arx.ARXListener;
 import org.deidentifier.arx.framework.check.INodeChecker;
 import org.deidentifier.arx.metric.InformationLoss;
+import org.deidentifier.arx.metric.Metric;
 
 /**
- * The class Lattice.
+ * The class Lattice. The id of a node is the index of its transformation in a mixed-radix
+ * system, in which the generalization level of the first attribute is the least significant
+ * digit. Nodes are flyweights, which are created on demand from this index. Properties are
+ * stored in one bit set per property. Information loss and lower bounds are stored in arrays
+ * indexed by node id, which hold primitive values if supported by the metric.
  * 
  * @author Fabian Prasser
  * @author Florian Kohlmayer
  */
 public class Lattice {
 
-    /** The levels. */
-    private final Node[][] levels;
+    /**
+     * Iterates over all nodes on a level in ascending order of their ids.
+     * 
+     * @author Fabian Prasser
+     * @author Florian Kohlmayer
+     */
+    private class LevelIterator implements Iterator<Node> {
 
-    /** The size. */
-    private final int      size;
+        /** The level. */
+        private final int level;
+
+        /** The next transformation, null if there is none. */
+        private int[]     next;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param level
+         */
+        private LevelIterator(final int level) {
+            this.level = level;
+            if (level >= minSums[minSums.length - 1] && level <= maxSums[maxSums.length - 1]) {
+                this.next = new int[minLevels.length];
+                fill(next, next.length, level);
+            }
+        }
+
+        /* (non-Javadoc)
+         * @see java.util.Iterator#hasNext()
+         */
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        /* (non-Javadoc)
+         * @see java.util.Iterator#next()
+         */
+        @Override
+        public Node next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            final int[] transformation = next.clone();
+            final Node result = new Node(Lattice.this, getId(transformation), transformation, level);
+            advance();
+            return result;
+        }
+
+        /* (non-Javadoc)
+         * @see java.util.Iterator#remove()
+         */
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Moves to the next transformation on the level. Increments the least significant
+         * digit that can be incremented and distributes the remaining sum over the less
+         * significant digits.
+         */
+        private void advance() {
+            int sum = next[0];
+            for (int i = 1; i < next.length; i++) {
+                if (next[i] < maxLevels[i] && sum - 1 >= minSums[i]) {
+                    next[i]++;
+                    fill(next, i, sum - 1);
+                    return;
+                }
+                sum += next[i];
+            }
+            next = null;
+        }
+    }
+
+    /** The number of properties, see Node.PROPERTY_*. */
+    private static final int           NUM_PROPERTIES = 10;
+
+    /** Associated data. */
+    private final Map<Integer, Object> data           = new ConcurrentHashMap<Integer, Object>();
+
+    /** The information loss, if stored as objects. */
+    private final InformationLoss<?>[] informationLoss;
+
+    /** The information loss, if stored as primitives. NaN if not set. */
+    private final double[]             informationLossPrimitive;
 
     /** A listener. */
-    private ARXListener    listener = null;
+    private ARXListener                listener       = null;
+
+    /** The lower bounds, if stored as objects. */
+    private final InformationLoss<?>[] lowerBound;
+
+    /** The lower bounds, if stored as primitives. NaN if not set. */
+    private final double[]             lowerBoundPrimitive;
+
+    /** The maximal generalization level of each attribute. */
+    private final int[]                maxLevels;
+
+    /** The sum of the maximal generalization levels of the preceding attributes. */
+    private final int[]                maxSums;
+
+    /** The metric, used for converting primitive values. */
+    private final Metric<?>            metric;
+
+    /** The minimal generalization level of each attribute. */
+    private final int[]                minLevels;
+
+    /** The sum of the minimal generalization levels of the preceding attributes. */
+    private final int[]                minSums;
+
+    /** The difference between the ids of two nodes that differ by one level of the given attribute. */
+    private final int[]                offsets;
+
+    /** The ids of all nodes with the given property. */
+    private final BitSet[]             properties;
+
+    /** The size. */
+    private final int                  size;
 
     /** Tag trigger. */
-    private NodeAction     tagTrigger = null;
+    private NodeAction                 tagTrigger     = null;
 
     /**
      * Initializes a lattice.
      *
-     * @param levels the levels
-     * @param maxLevels the max levels
+     * @param maxLevels
+     * @param minLevels
+     * @param offsets
+     * @param numNodes
+     * @param metric The metric, may be null
+     * @param dense Whether to allocate arrays for information loss and lower bounds
      */
-    public Lattice(final Node[][] levels, final int numNodes) {
+    Lattice(final int[] maxLevels,
+            final int[] minLevels,
+            final int[] offsets,
+            final int numNodes,
+            final Metric<?> metric,
+            final boolean dense) {
 
-        this.levels = levels;
+        this.maxLevels = maxLevels;
+        this.minLevels = minLevels;
+        this.offsets = offsets;
         this.size = numNodes;
+        this.metric = metric;
+        this.minSums = new int[minLevels.length + 1];
+        this.maxSums = new int[maxLevels.length + 1];
+        for (int i = 0; i < minLevels.length; i++) {
+            minSums[i + 1] = minSums[i] + minLevels[i];
+            maxSums[i + 1] = maxSums[i] + maxLevels[i];
+        }
+
+        // Allocate all bits in advance, so that the sets are never resized while being read
+        this.properties = new BitSet[NUM_PROPERTIES];
+        for (int i = 0; i < properties.length; i++) {
+            properties[i] = new BitSet(numNodes);
+        }
+
+        // Allocate storage for information loss
+        boolean primitive = metric != null && metric.hasPrimitiveInformationLoss();
+        if (dense && primitive) {
+            this.informationLossPrimitive = new double[numNodes];
+            this.lowerBoundPrimitive = new double[numNodes];
+            Arrays.fill(informationLossPrimitive, Double.NaN);
+            Arrays.fill(lowerBoundPrimitive, Double.NaN);
+        } else {
+            this.informationLossPrimitive = null;
+            this.lowerBoundPrimitive = null;
+        }
+        if (dense && !primitive) {
+            this.informationLoss = new InformationLoss<?>[numNodes];
+            this.lowerBound = new InformationLoss<?>[numNodes];
+        } else {
+            this.informationLoss = null;
+            this.lowerBound = null;
+        }
     }
 
     /**
@@ -59,25 +228,97 @@ public class Lattice {
      * @return
      */
     public Node getBottom() {
-        for (int i = 0; i<levels.length; i++) {
-            if (levels[i].length==1){
-                return levels[i][0];
-            } else if (levels[i].length > 1) { 
-                throw new RuntimeException("Multiple bottom nodes!"); 
+        return getNode(0);
+    }
+
+    /**
+     * Returns all nodes that have been checked or for which the information loss is known.
+     *
+     * @return
+     */
+    public List<Node> getExploredNodes() {
+        final List<Node> result = new ArrayList<Node>();
+        final BitSet checked = properties[getIndex(Node.PROPERTY_CHECKED)];
+        for (int id = 0; id < size; id++) {
+            if (checked.get(id) || getInformationLoss(id) != null) {
+                result.add(getNode(id));
             }
         }
-        throw new RuntimeException("Empty lattice!");
+        return result;
+    }
+
+    /**
+     * Returns all nodes on the given level.
+     *
+     * @param level
+     * @return
+     */
+    public Iterable<Node> getLevel(final int level) {
+        return new Iterable<Node>() {
+            @Override
+            public Iterator<Node> iterator() {
+                return new LevelIterator(level);
+            }
+        };
     }
 
     /**
-     * Returns all levels in the lattice.
+     * Returns all levels in the lattice. Creates all nodes and should therefore only be 
+     * used for materialized lattices. Implicit lattices only return explored nodes.
      *
      * @return
      */
     public Node[][] getLevels() {
+        final Node[][] levels = new Node[getNumLevels()][];
+        for (int level = 0; level < levels.length; level++) {
+            final List<Node> nodes = new ArrayList<Node>();
+            for (final Node node : getLevel(level)) {
+                nodes.add(node);
+            }
+            levels[level] = nodes.toArray(new Node[nodes.size()]);
+        }
         return levels;
     }
 
+    /**
+     * Returns the node with the given id.
+     *
+     * @param id
+     * @return
+     */
+    public Node getNode(final int id) {
+        final int[] transformation = new int[offsets.length];
+        int remainder = id;
+        int level = 0;
+        for (int i = transformation.length - 1; i >= 0; i--) {
+            final int value = remainder / offsets[i];
+            remainder -= value * offsets[i];
+            transformation[i] = value + minLevels[i];
+            level += transformation[i];
+        }
+        return new Node(this, id, transformation, level);
+    }
+
+    /**
+     * Returns the ids of all nodes with the given property. The set is backed by
+     * the lattice and must not be modified.
+     *
+     * @param property
+     * @return
+     */
+    public BitSet getProperty(final int property) {
+        return properties[getIndex(property)];
+    }
+
+    /**
+     * Returns the number of levels in the lattice.
+     *
+     * @return
+     */
+    public int getNumLevels() {
+        return maxSums[maxSums.length - 1] + 1;
+    }
+
     /**
      * Returns the number of nodes in the lattice.
      *
@@ -93,16 +334,20 @@ public class Lattice {
      * @return
      */
     public Node getTop() {
-        for (int i = levels.length - 1; i>=0; i--) {
-            if (levels[i].length==1){
-                return levels[i][0];
-            } else if (levels[i].length > 1) { 
-                throw new RuntimeException("Multiple top nodes!"); 
-            }
-        }
-        throw new RuntimeException("Empty lattice!");
+        return getNode(size - 1);
+    }
+
+    /**
+     * Returns whether information loss is stored for all nodes and getLevels() returns
+     * all nodes. If not, information loss is stored in sparse data structures and
+     * getLevels() only returns the nodes which have been explored.
+     *
+     * @return
+     */
+    public boolean isMaterialized() {
+        return true;
     }
-    
+
     /**
      * Sets the properties to the given node.
      *
@@ -129,8 +374,8 @@ public class Lattice {
         }
 
         // Infoloss
-        node.setInformationLoss(result.informationLoss);
-        node.setLowerBound(result.lowerBound);
+        setInformationLoss(node.id, result.informationLoss);
+        setLowerBound(node.id, result.lowerBound);
     }
 
     /**
@@ -140,26 +385,26 @@ public class Lattice {
      * @param informationLoss
      */
     public void setInformationLoss(Node node, InformationLoss<?> informationLoss) {
-        node.setInformationLoss(informationLoss);
+        setInformationLoss(node.id, informationLoss);
     }
 
     /**
-     * Sets the lower bound.
+     * Attaches a listener.
      *
-     * @param node
-     * @param lowerBound
+     * @param listener
      */
-    public void setLowerBound(Node node, InformationLoss<?> lowerBound) {
-        node.setLowerBound(lowerBound);
+    public void setListener(final ARXListener listener) {
+        this.listener = listener;
     }
 
     /**
-     * Attaches a listener.
+     * Sets the lower bound.
      *
-     * @param listener
+     * @param node
+     * @param lowerBound
      */
-    public void setListener(final ARXListener listener) {
-        this.listener = listener;
+    public void setLowerBound(Node node, InformationLoss<?> lowerBound) {
+        setLowerBound(node.id, lowerBound);
     }
 
     /**
@@ -170,12 +415,22 @@ public class Lattice {
      */
     public void setProperty(Node node, int property) {
         
-        if (!node.hasProperty(property)) {
-            node.setProperty(property);
+        if (!hasProperty(node.id, property)) {
+            setProperty(node.id, property);
             triggerTagged(node);
         }
     }
-    
+
+    /**
+     * Sets the property to all nodes with the given ids. Does not fire events.
+     *
+     * @param ids the ids
+     * @param property the property
+     */
+    public void setProperty(BitSet ids, int property) {
+        properties[getIndex(property)].or(ids);
+    }
+
     /**
      * Sets the property to all predecessors of the given node.
      *
@@ -184,16 +439,7 @@ public class Lattice {
      * @param property the property
      */
     public void setPropertyDownwards(Node node, boolean include, int property) {
-        
-        if (include) {
-            setProperty(node, property);
-        }
-
-        for (final Node down : node.getPredecessors()) {
-            if (!down.hasProperty(property)) {
-                setPropertyDownwards(down, true, property);
-            }
-        }
+        setPropertyDownwards(node.id, node.getTransformation().clone(), include, property);
     }
 
     /**
@@ -204,25 +450,128 @@ public class Lattice {
      * @param property the property
      */
     public void setPropertyUpwards(Node node, boolean include, int property) {
+        setPropertyUpwards(node.id, node.getTransformation().clone(), include, property);
+    }
+
+    /**
+     * When this trigger executed, a tagged event will be fired.
+     *
+     * @param trigger
+     */
+    public void setTagTrigger(NodeAction trigger){
+        this.tagTrigger = trigger;
+    }
+
+    /**
+     * Fills the given number of least significant digits with the smallest values summing up to
+     * the given value, i.e. the most significant of these digits is assigned the smallest
+     * possible value.
+     *
+     * @param transformation
+     * @param length
+     * @param sum
+     */
+    private void fill(final int[] transformation, final int length, int sum) {
+        for (int i = length - 1; i >= 0; i--) {
+            transformation[i] = Math.max(minLevels[i], sum - maxSums[i]);
+            sum -= transformation[i];
+        }
+    }
+
+    /**
+     * Returns the id of the given transformation.
+     *
+     * @param transformation
+     * @return
+     */
+    private int getId(final int[] transformation) {
+        int id = 0;
+        for (int i = 0; i < transformation.length; i++) {
+            id += (transformation[i] - minLevels[i]) * offsets[i];
+        }
+        return id;
+    }
+
+    /**
+     * Returns the index of the bit set for the given property.
+     *
+     * @param property
+     * @return
+     */
+    private int getIndex(final int property) {
+        return Integer.numberOfTrailingZeros(property);
+    }
+
+    /**
+     * Sets a property and fires an event, if required.
+     *
+     * @param id
+     * @param transformation
+     * @param property
+     */
+    private void setProperty(final int id, final int[] transformation, final int property) {
+        if (!hasProperty(id, property)) {
+            setProperty(id, property);
+            if (listener != null) {
+                int level = 0;
+                for (int i = 0; i < transformation.length; i++) {
+                    level += transformation[i];
+                }
+                triggerTagged(new Node(this, id, transformation.clone(), level));
+            }
+        }
+    }
+
+    /**
+     * Sets the property to all predecessors of the given node.
+     *
+     * @param id
+     * @param transformation Will be modified, but restored on return
+     * @param include
+     * @param property
+     */
+    private void setPropertyDownwards(final int id, final int[] transformation, final boolean include, final int property) {
 
         if (include) {
-            setProperty(node, property);
+            setProperty(id, transformation, property);
         }
-        
-        for (final Node up : node.getSuccessors()) {
-            if (!up.hasProperty(property)) {
-                setPropertyUpwards(up, true, property);
+
+        for (int i = transformation.length - 1; i >= 0; i--) {
+            if (transformation[i] > minLevels[i]) {
+                final int down = id - offsets[i];
+                if (!hasProperty(down, property)) {
+                    transformation[i]--;
+                    setPropertyDownwards(down, transformation, true, property);
+                    transformation[i]++;
+                }
             }
         }
     }
 
     /**
-     * When this trigger executed, a tagged event will be fired.
+     * Sets the property to all successors of the given node.
      *
-     * @param trigger
+     * @param id
+     * @param transformation Will be modified, but restored on return
+     * @param include
+     * @param property
      */
-    public void setTagTrigger(NodeAction trigger){
-        this.tagTrigger = trigger;
+    private void setPropertyUpwards(final int id, final int[] transformation, final boolean include, final int property) {
+
+        if (include) {
+            setProperty(id, transformation, property);
+        }
+
+        for (int i = 0; i < transformation.length; i++) {
+            if (transformation[i] < maxLevels[i]) {
+                final int up = id + offsets[i];
+                if (!hasProperty(up, property)) {
+                    transformation[i]++;
+                    setPropertyUpwards(up, transformation, true, property);
+                    transformation[i]--;
+                }
+            }
+        }
     }
 
     /**
@@ -233,9 +582,187 @@ public class Lattice {
     private void triggerTagged(Node node) {
         if (this.listener != null && !node.hasProperty(Node.PROPERTY_EVENT_FIRED)){
             if (tagTrigger == null || tagTrigger.appliesTo(node)) {
-                node.setProperty(Node.PROPERTY_EVENT_FIRED);
+                setProperty(node.id, Node.PROPERTY_EVENT_FIRED);
                 this.listener.nodeTagged(size);
             }
         }
     }
+
+    /**
+     * Converts a primitive value.
+     *
+     * @param value
+     * @return
+     */
+    private InformationLoss<?> toInformationLoss(final double value) {
+        return Double.isNaN(value) ? null : metric.createInformationLoss(value);
+    }
+
+    /**
+     * Converts into a primitive value.
+     *
+     * @param value
+     * @return
+     */
+    private double toPrimitive(final InformationLoss<?> value) {
+        return (Double) value.getValue();
+    }
+
+    /**
+     * Returns associated data.
+     *
+     * @param id
+     * @return
+     */
+    Object getData(final int id) {
+        return data.get(id);
+    }
+
+    /**
+     * Returns the information loss.
+     *
+     * @param id
+     * @return
+     */
+    InformationLoss<?> getInformationLoss(final int id) {
+        if (informationLossPrimitive != null) {
+            return toInformationLoss(informationLossPrimitive[id]);
+        } else {
+            return informationLoss[id];
+        }
+    }
+
+    /**
+     * Returns the lower bound.
+     *
+     * @param id
+     * @return
+     */
+    InformationLoss<?> getLowerBound(final int id) {
+        if (lowerBoundPrimitive != null) {
+            return toInformationLoss(lowerBoundPrimitive[id]);
+        } else {
+            return lowerBound[id];
+        }
+    }
+
+    /**
+     * Returns the predecessors of the given node.
+     *
+     * @param node
+     * @return
+     */
+    Node[] getPredecessors(final Node node) {
+        final int[] transformation = node.getTransformation();
+        final List<Node> result = new ArrayList<Node>(transformation.length);
+        for (int i = transformation.length - 1; i >= 0; i--) {
+            if (transformation[i] > minLevels[i]) {
+                final int[] predecessor = transformation.clone();
+                predecessor[i]--;
+                result.add(new Node(this, node.id - offsets[i], predecessor, node.getLevel() - 1));
+            }
+        }
+        return result.toArray(new Node[result.size()]);
+    }
+
+    /**
+     * Returns the successors of the given node.
+     *
+     * @param node
+     * @return
+     */
+    Node[] getSuccessors(final Node node) {
+        final int[] transformation = node.getTransformation();
+        final List<Node> result = new ArrayList<Node>(transformation.length);
+        for (int i = 0; i < transformation.length; i++) {
+            if (transformation[i] < maxLevels[i]) {
+                final int[] successor = transformation.clone();
+                successor[i]++;
+                result.add(new Node(this, node.id + offsets[i], successor, node.getLevel() + 1));
+            }
+        }
+        return result.toArray(new Node[result.size()]);
+    }
+
+    /**
+     * Returns whether the node has all of the given properties.
+     *
+     * @param id
+     * @param property
+     * @return
+     */
+    boolean hasProperty(final int id, int property) {
+        while (property != 0) {
+            if (!properties[getIndex(property)].get(id)) {
+                return false;
+            }
+            property &= property - 1;
+        }
+        return true;
+    }
+
+    /**
+     * Sets associated data.
+     *
+     * @param id
+     * @param value
+     */
+    void setData(final int id, final Object value) {
+        if (value == null) {
+            data.remove(id);
+        } else {
+            data.put(id, value);
+        }
+    }
+
+    /**
+     * Sets the information loss, if it has not been set before.
+     *
+     * @param id
+     * @param value
+     */
+    void setInformationLoss(final int id, final InformationLoss<?> value) {
+        if (value == null) {
+            return;
+        }
+        if (informationLossPrimitive != null) {
+            if (Double.isNaN(informationLossPrimitive[id])) {
+                informationLossPrimitive[id] = toPrimitive(value);
+            }
+        } else if (informationLoss[id] == null) {
+            informationLoss[id] = value;
+        }
+    }
+
+    /**
+     * Sets the lower bound, if it has not been set before.
+     *
+     * @param id
+     * @param value
+     */
+    void setLowerBound(final int id, final InformationLoss<?> value) {
+        if (value == null) {
+            return;
+        }
+        if (lowerBoundPrimitive != null) {
+            if (Double.isNaN(lowerBoundPrimitive[id])) {
+                lowerBoundPrimitive[id] = toPrimitive(value);
+            }
+        } else if (lowerBound[id] == null) {
+            lowerBound[id] = value;
+        }
+    }
+
+    /**
+     * Sets the given properties.
+     *
+     * @param id
+     * @param property
+     */
+    void setProperty(final int id, int property) {
+        while (property != 0) {
+            properties[getIndex(property)].set(id);
+            property &= property - 1;
+        }
+    }
 }
@@ -17,6 +17,8 @@
 
 package org.deidentifier.arx.framework.lattice;
 
+import org.deidentifier.arx.metric.Metric;
+
 /**
  * The class LatticeBuilder.
  * 
@@ -25,9 +27,6 @@ package org.deidentifier.arx.framework.lattice;
  */
 public class LatticeBuilder {
 
-    /** The levels. */
-    private Node[][] levels     = null;
-
     /** The maxlevels. */
     private int[]    maxLevels  = null;
 
@@ -39,7 +38,6 @@ public class LatticeBuilder {
      *
      * @param maxLevels the maxlevels
      * @param minLevels the minlevels
-     * @param maxHeights
      */
     public LatticeBuilder(final int[] maxLevels,
                           final int[] minLevels) {
@@ -48,99 +46,66 @@ public class LatticeBuilder {
     }
 
     /**
-     * Builds the.
+     * Builds a lattice, which stores information loss in objects.
      * 
      * @return the lattice
      */
     public Lattice build() {
-        final int numNodes = buildLevelsAndMap();
-        return new Lattice(levels, numNodes);
+        return build(null);
     }
 
     /**
-     * Builds the levels and map.
+     * Builds a lattice. If the metric supports it, information loss is stored in
+     * primitive arrays.
      * 
-     * @return the int
+     * @param metric The metric, may be null
+     * @return the lattice
      */
-    private int buildLevelsAndMap() {
-
-        // Init
-        final int numQIs = maxLevels.length;
-        int numNodes = 1;
-        final int[] offsets = new int[numQIs];
-        final int[] maxIndices = new int[numQIs];
-        int maxLevel = 1;
-        int id = 0;
-
-        // Step 1
-        for (int i = 0; i < numQIs; i++) {
-            final int curMaxGeneralizationHeight = maxLevels[i] + 1;
-            offsets[i] = numNodes;
-            numNodes *= (curMaxGeneralizationHeight - minLevels[i]);
-            maxLevel += (curMaxGeneralizationHeight - 1);
-            maxIndices[i] = curMaxGeneralizationHeight - 1;
-        }
-
-        // Step 2
-        final int[] levelsize = new int[maxLevel];
-        final Node[] nodeArray = new Node[numNodes];
-        for (int i = 0; i < nodeArray.length; i++) {
-            nodeArray[i] = new Node(id++);
-        }
-
-        // Step 3
-        for (int count = 0; count < numNodes; count++) {
-            final int[] state = new int[numQIs];
-            int tempCount = count;
-            int level = 0;
-            int numUpwards = 0;
-            int numDownwards = 0;
-            for (int i = state.length - 1; i >= 0; i--) {
-                state[i] = (tempCount / offsets[i]) + minLevels[i];
-                tempCount -= (state[i] - minLevels[i]) * offsets[i];
-                level += (state[i]);
-
-                if (state[i] < maxIndices[i]) {
-                    numUpwards++;
-                }
+    public Lattice build(final Metric<?> metric) {
+        final int[] offsets = new int[maxLevels.length];
+        final int numNodes = buildOffsets(offsets);
+        return new Lattice(maxLevels, minLevels, offsets, numNodes, metric, true);
+    }
 
-                if (state[i] != minLevels[i]) {
-                    numDownwards++;
-                }
-            }
-            final Node node = nodeArray[count];
-            node.setTransformation(state, level);
-            node.setPredecessors(new Node[numDownwards]);
-            node.setSuccessors(new Node[numUpwards]);
-            levelsize[level]++;
-        }
+    /**
+     * Builds a lattice in which information loss is stored in sparse data structures.
+     *
+     * @return the lattice
+     */
+    public Lattice buildImplicit() {
+        final int[] offsets = new int[maxLevels.length];
+        final int numNodes = buildOffsets(offsets);
+        return new LatticeImplicit(maxLevels, minLevels, offsets, numNodes);
+    }
 
-        // Generate level arrays
-        final Node[][] levels = new Node[maxLevel][];
-        for (int i = 0; i < levels.length; i++) {
-            levels[i] = new Node[levelsize[i]];
+    /**
+     * Returns the number of nodes in the lattice.
+     *
+     * @return
+     */
+    public long getSize() {
+        long numNodes = 1;
+        for (int i = 0; i < maxLevels.length; i++) {
+            numNodes *= (maxLevels[i] + 1 - minLevels[i]);
         }
+        return numNodes;
+    }
 
-        // Generate up and down links and initialize levels
-        for (int i = 0; i < nodeArray.length; i++) {
-            final Node node = nodeArray[i];
-            final int level = node.getLevel();
-            --levelsize[node.getLevel()];
-            final int index = (levels[level].length - 1 - levelsize[level]);
-            levels[level][index] = node;
-            final int[] key = node.getTransformation();
-            for (int j = 0; j < key.length; j++) {
-                if (key[j] < maxIndices[j]) {
-                    final int plusIndex = i + offsets[j];
-                    final Node reachableNode = nodeArray[plusIndex];
-                    node.addSuccessor(reachableNode);
-                    reachableNode.addPredecessor(node);
-                }
+    /**
+     * Computes the offsets of the mixed-radix node ids and returns the number of nodes.
+     *
+     * @param offsets
+     * @return
+     */
+    private int buildOffsets(final int[] offsets) {
+        long numNodes = 1;
+        for (int i = 0; i < maxLevels.length; i++) {
+            offsets[i] = (int) numNodes;
+            numNodes *= (maxLevels[i] + 1 - minLevels[i]);
+            if (numNodes > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Too many transformations in the search space");
             }
         }
-
-        // Finalize
-        this.levels = levels;
-        return numNodes;
+        return (int) numNodes;
     }
 }
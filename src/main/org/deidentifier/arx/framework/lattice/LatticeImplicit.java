@@ -0,0 +1,138 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.lattice;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.deidentifier.arx.metric.InformationLoss;
+
+/**
+ * A lattice for very large search spaces, in which information loss and lower bounds are
+ * stored in sparse maps keyed by node id instead of arrays covering all nodes.
+ * 
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class LatticeImplicit extends Lattice {
+
+    /** The information loss. */
+    private final ConcurrentMap<Integer, InformationLoss<?>> informationLoss = new ConcurrentHashMap<Integer, InformationLoss<?>>();
+
+    /** The lower bounds. */
+    private final ConcurrentMap<Integer, InformationLoss<?>> lowerBound      = new ConcurrentHashMap<Integer, InformationLoss<?>>();
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxLevels
+     * @param minLevels
+     * @param offsets
+     * @param numNodes
+     */
+    LatticeImplicit(final int[] maxLevels,
+                    final int[] minLevels,
+                    final int[] offsets,
+                    final int numNodes) {
+        super(maxLevels, minLevels, offsets, numNodes, null, false);
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.lattice.Lattice#getExploredNodes()
+     */
+    @Override
+    public List<Node> getExploredNodes() {
+        final BitSet explored = (BitSet) getProperty(Node.PROPERTY_CHECKED).clone();
+        for (final Integer id : informationLoss.keySet()) {
+            explored.set(id);
+        }
+        final List<Node> result = new ArrayList<Node>();
+        for (int id = explored.nextSetBit(0); id >= 0; id = explored.nextSetBit(id + 1)) {
+            result.add(getNode(id));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the transformations which have been explored, grouped by level.
+     *
+     * @return
+     */
+    @Override
+    public Node[][] getLevels() {
+        final List<List<Node>> levels = new ArrayList<List<Node>>();
+        for (int i = 0; i < getNumLevels(); i++) {
+            levels.add(new ArrayList<Node>());
+        }
+        for (final Node node : getExploredNodes()) {
+            levels.get(node.getLevel()).add(node);
+        }
+        final Node[][] result = new Node[levels.size()][];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = levels.get(i).toArray(new Node[levels.get(i).size()]);
+        }
+        return result;
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.lattice.Lattice#isMaterialized()
+     */
+    @Override
+    public boolean isMaterialized() {
+        return false;
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.lattice.Lattice#getInformationLoss(int)
+     */
+    @Override
+    InformationLoss<?> getInformationLoss(final int id) {
+        return informationLoss.get(id);
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.lattice.Lattice#getLowerBound(int)
+     */
+    @Override
+    InformationLoss<?> getLowerBound(final int id) {
+        return lowerBound.get(id);
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.lattice.Lattice#setInformationLoss(int, org.deidentifier.arx.metric.InformationLoss)
+     */
+    @Override
+    void setInformationLoss(final int id, final InformationLoss<?> value) {
+        if (value != null) {
+            informationLoss.putIfAbsent(id, value);
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.framework.lattice.Lattice#setLowerBound(int, org.deidentifier.arx.metric.InformationLoss)
+     */
+    @Override
+    void setLowerBound(final int id, final InformationLoss<?> value) {
+        if (value != null) {
+            lowerBound.putIfAbsent(id, value);
+        }
+    }
+}
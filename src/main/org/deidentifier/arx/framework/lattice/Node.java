@@ -19,16 +19,103 @@ package org.deidentifier.arx.framework.lattice;
 
 import java.util.Arrays;
 
+import org.deidentifier.arx.framework.check.INodeChecker;
 import org.deidentifier.arx.metric.InformationLoss;
 
 /**
- * The Class Node.
+ * The Class Node. Instances are flyweights, which are created on demand. All state except
+ * for the transformation is kept by the lattice, so that different instances representing
+ * the same transformation are interchangeable.
  * 
  * @author Fabian Prasser
  * @author Florian Kohlmayer
  */
 public class Node {
 
+    /**
+     * A copy of a node, which holds information loss, lower bound and properties itself instead
+     * of reading them from the lattice. Associated data and whether successors have been pruned
+     * may still change while the copy is in use. They are read from the lattice, which supports
+     * concurrent access to them.
+     *
+     * @author Fabian Prasser
+     * @author Florian Kohlmayer
+     */
+    public static class DetachedNode extends Node {
+
+        /** The information loss. */
+        private InformationLoss<?> informationLoss;
+
+        /** The lower bound. */
+        private InformationLoss<?> lowerBound;
+
+        /** The properties. */
+        private int                properties;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param node
+         */
+        private DetachedNode(final Node node) {
+            super(node.lattice, node.id, node.transformation, node.level);
+            this.informationLoss = node.getInformationLoss();
+            this.lowerBound = node.getLowerBound();
+            for (int property = PROPERTY_ANONYMOUS; property <= PROPERTY_EVENT_FIRED; property <<= 1) {
+                if (node.hasProperty(property)) {
+                    this.properties |= property;
+                }
+            }
+        }
+
+        /* (non-Javadoc)
+         * @see org.deidentifier.arx.framework.lattice.Node#getInformationLoss()
+         */
+        @Override
+        public InformationLoss<?> getInformationLoss() {
+            return informationLoss;
+        }
+
+        /* (non-Javadoc)
+         * @see org.deidentifier.arx.framework.lattice.Node#getLowerBound()
+         */
+        @Override
+        public InformationLoss<?> getLowerBound() {
+            return lowerBound;
+        }
+
+        /* (non-Javadoc)
+         * @see org.deidentifier.arx.framework.lattice.Node#hasProperty(int)
+         */
+        @Override
+        public boolean hasProperty(int property) {
+            if ((property & PROPERTY_SUCCESSORS_PRUNED) != 0) {
+                if (!super.hasProperty(PROPERTY_SUCCESSORS_PRUNED)) {
+                    return false;
+                }
+                property &= ~PROPERTY_SUCCESSORS_PRUNED;
+            }
+            return (properties & property) == property;
+        }
+
+        /**
+         * Sets the properties resulting from the given check, as the lattice does.
+         *
+         * @param result
+         */
+        public void setChecked(INodeChecker.Result result) {
+            properties |= PROPERTY_CHECKED;
+            properties |= result.anonymous ? PROPERTY_ANONYMOUS : PROPERTY_NOT_ANONYMOUS;
+            properties |= result.kAnonymous ? PROPERTY_K_ANONYMOUS : PROPERTY_NOT_K_ANONYMOUS;
+            if (informationLoss == null) {
+                informationLoss = result.informationLoss;
+            }
+            if (lowerBound == null) {
+                lowerBound = result.lowerBound;
+            }
+        }
+    }
+
     /** All privacy criteria are fulfilled. */
     public static final int    PROPERTY_ANONYMOUS            = 1 << 0;
 
@@ -62,47 +149,28 @@ public class Node {
     /** The id. */
     public final int           id;
 
-    /** Set of properties. */
-    private int                properties;
-
-    /** The predecessors. */
-    private Node[]             predecessors;
+    /** The lattice. */
+    private final Lattice      lattice;
 
     /** The level. */
-    private int                level;
-
-    /** The information loss. */
-    private InformationLoss<?> informationLoss;
-
-    /** The lower bound. */
-    private InformationLoss<?> lowerBound;
+    private final int          level;
 
     /** The transformation. */
-    private int[]              transformation;
-
-    /** The upwards. */
-    private Node[]             successors;
-
-    /** The down index. */
-    private int                preIndex;
-
-    /** The up index. */
-    private int                sucIndex;
-
-    /** Associated data. */
-    private Object             data;
+    private final int[]        transformation;
 
     /**
      * Instantiates a new node.
      *
+     * @param lattice
      * @param id
+     * @param transformation
+     * @param level
      */
-    public Node(int id) {
+    Node(final Lattice lattice, final int id, final int[] transformation, final int level) {
+        this.lattice = lattice;
         this.id = id;
-        this.informationLoss = null;
-        this.preIndex = 0;
-        this.sucIndex = 0;
-        this.properties = 0;
+        this.transformation = transformation;
+        this.level = level;
     }
 
     /*
@@ -114,19 +182,30 @@ public class Node {
     public boolean equals(Object obj) {
         if (this == obj) { return true; }
         if (obj == null) { return false; }
-        if (getClass() != obj.getClass()) { return false; }
+        if (!(obj instanceof Node)) { return false; }
         final Node other = (Node) obj;
         if (!Arrays.equals(transformation, other.transformation)) { return false; }
         return true;
     }
 
+    /**
+     * Returns a copy of this node, which does not access the lattice when information loss,
+     * lower bound or properties other than PROPERTY_SUCCESSORS_PRUNED are read. The copy
+     * reflects the state at the time of this call and may be passed to other threads.
+     *
+     * @return
+     */
+    public DetachedNode detach() {
+        return new DetachedNode(this);
+    }
+
     /**
      * Associated data.
      *
      * @return
      */
     public Object getData() {
-        return data;
+        return lattice.getData(id);
     }
 
     /**
@@ -135,7 +214,16 @@ public class Node {
      * @return
      */
     public InformationLoss<?> getInformationLoss() {
-        return informationLoss;
+        return lattice.getInformationLoss(id);
+    }
+
+    /**
+     * Returns the lattice.
+     *
+     * @return
+     */
+    public Lattice getLattice() {
+        return lattice;
     }
 
     /**
@@ -151,7 +239,7 @@ public class Node {
      * @return the lowerBound
      */
     public InformationLoss<?> getLowerBound() {
-        return lowerBound;
+        return lattice.getLowerBound(id);
     }
 
     /**
@@ -160,7 +248,7 @@ public class Node {
      * @return
      */
     public Node[] getPredecessors() {
-        return predecessors;
+        return lattice.getPredecessors(this);
     }
 
     /**
@@ -169,7 +257,7 @@ public class Node {
      * @return
      */
     public Node[] getSuccessors() {
-        return successors;
+        return lattice.getSuccessors(this);
     }
 
     /**
@@ -198,7 +286,7 @@ public class Node {
      * @return
      */
     public boolean hasProperty(int property){
-        return (properties & property) == property;
+        return lattice.hasProperty(id, property);
     }
 
     /**
@@ -207,85 +295,6 @@ public class Node {
      * @param data
      */
     public void setData(Object data) {
-        this.data = data;
-    }
-
-    /**
-     * Sets the transformation.
-     *
-     * @param transformation
-     * @param level
-     */
-    public void setTransformation(int[] transformation, int level) {
-        this.transformation = transformation;
-        this.level = level;
-    }
-
-    /**
-     * Sets the information loss.
-     *
-     * @param informationLoss
-     */
-    protected void setInformationLoss(final InformationLoss<?> informationLoss) {
-        if (this.informationLoss == null) {
-            this.informationLoss = informationLoss;
-        }
-    }
-
-    /**
-     * Sets the information loss.
-     *
-     * @param lowerBound
-     */
-    protected void setLowerBound(final InformationLoss<?> lowerBound) {
-        if (this.lowerBound == null) {
-            this.lowerBound = lowerBound;
-        }
-    }
-
-    
-    /**
-     * Sets the predecessors.
-     *
-     * @param nodes
-     */
-    protected void setPredecessors(Node[] nodes) {
-        predecessors = nodes;
-    }
-
-    /**
-     * Sets the given property.
-     *
-     * @param property
-     */
-    protected void setProperty(int property){
-        properties |= property;
-    }
-  
-    /**
-     * Sets the successors.
-     *
-     * @param nodes
-     */
-    protected void setSuccessors(Node[] nodes) {
-        successors = nodes;
-    }
-
-    /**
-     * Adds a predecessor.
-     *
-     * @param predecessor
-     */
-    void addPredecessor(Node predecessor) {
-        predecessors[preIndex++] = predecessor;
-    }
-
-    /**
-     * Adds a successor.
-     *
-     * @param successor
-     */
-    void addSuccessor(Node successor) {
-        successors[sucIndex++] = successor;
+        lattice.setData(id, data);
     }
 }
@@ -0,0 +1,581 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.deidentifier.arx.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.framework.data.Dictionary;
+
+/**
+ * This class implements a reader for CSV encoded information, which maps the file into memory
+ * and encodes values directly into a dictionary. Fields are scanned on the byte level and looked
+ * up in per-column hash tables, so that a string is only created for each distinct value.
+ * Fields may be enclosed in double quotes, in which case quotes are escaped by doubling them.
+ * <br>
+ * The file can be split into chunks which are parsed by multiple threads. The resulting codes
+ * are merged in the order of the chunks and are thus equal to the codes assigned by a single
+ * thread. When multiple threads are used, quoted fields must not contain line breaks.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class CSVMappedDataInput {
+
+    /**
+     * A chunk of the file, which is parsed by a single thread.
+     *
+     * @author Fabian Prasser
+     */
+    private class Chunk implements Callable<Chunk> {
+
+        /** The encoded rows, stored in row-major order. */
+        private int[]            codes = new int[1024];
+
+        /** The byte offset of the end of this chunk. */
+        private final long       end;
+
+        /** The number of rows. */
+        private int              rows  = 0;
+
+        /** The byte offset of the start of this chunk. */
+        private final long       start;
+
+        /** The distinct values of each column. */
+        private final ValueMap[] values;
+
+        /**
+         * Creates a new chunk.
+         *
+         * @param start
+         * @param end
+         */
+        private Chunk(final long start, final long end) {
+            this.start = start;
+            this.end = end;
+            this.values = new ValueMap[header.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = new ValueMap();
+            }
+        }
+
+        /* (non-Javadoc)
+         * @see java.util.concurrent.Callable#call()
+         */
+        @Override
+        public Chunk call() throws IOException {
+            final Field field = new Field();
+            long position = start;
+            while (position < end) {
+
+                // Skip empty lines
+                final byte first = get(position);
+                if (first == '\n' || first == '\r') {
+                    position++;
+                    continue;
+                }
+
+                // Parse a row
+                final int offset = rows * header.length;
+                if (offset + header.length > codes.length) {
+                    codes = Arrays.copyOf(codes, Math.max(codes.length * 2, offset + header.length));
+                }
+                for (int column = 0; column < header.length; column++) {
+                    position = field.read(position);
+                    if (column < header.length - 1 && !field.separated) {
+                        throw new IOException("Each line must have (" + header.length + ") columns");
+                    }
+                    codes[offset + column] = values[column].get(field.buffer, field.length);
+                }
+                if (field.separated) {
+                    throw new IOException("Each line must have (" + header.length + ") columns");
+                }
+                rows++;
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Reads single fields into a reusable buffer.
+     *
+     * @author Fabian Prasser
+     */
+    private class Field {
+
+        /** The buffer. */
+        private byte[]  buffer = new byte[64];
+
+        /** The length of the current field. */
+        private int     length;
+
+        /** Whether the current field is followed by a separator. */
+        private boolean separated;
+
+        /**
+         * Reads the field starting at the given position. Returns the position after the field
+         * and the following separator or line break.
+         *
+         * @param position
+         * @return
+         * @throws IOException
+         */
+        private long read(long position) throws IOException {
+
+            length = 0;
+            separated = false;
+
+            // Unquoted field
+            if (position >= size || get(position) != QUOTE) {
+                while (position < size) {
+                    final byte b = get(position++);
+                    if (b == separator) {
+                        separated = true;
+                        return position;
+                    } else if (b == '\n') {
+                        return position;
+                    } else if (b == '\r') {
+                        return skipLineFeed(position);
+                    }
+                    append(b);
+                }
+                return position;
+            }
+
+            // Quoted field
+            position++;
+            while (true) {
+                if (position >= size) {
+                    throw new IOException("Unterminated quote");
+                }
+                final byte b = get(position++);
+                if (b == QUOTE) {
+                    if (position < size && get(position) == QUOTE) {
+                        append(QUOTE);
+                        position++;
+                    } else {
+                        break;
+                    }
+                } else {
+                    append(b);
+                }
+            }
+
+            // Field must be followed by separator, line break or end of file
+            if (position >= size) {
+                return position;
+            }
+            final byte b = get(position++);
+            if (b == separator) {
+                separated = true;
+                return position;
+            } else if (b == '\n') {
+                return position;
+            } else if (b == '\r') {
+                return skipLineFeed(position);
+            }
+            throw new IOException("Unexpected character after quoted field at offset " + (position - 1));
+        }
+
+        /**
+         * Appends a byte to the buffer.
+         *
+         * @param b
+         */
+        private void append(final byte b) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[length++] = b;
+        }
+
+        /**
+         * Skips a line feed following a carriage return.
+         *
+         * @param position
+         * @return
+         */
+        private long skipLineFeed(final long position) {
+            return (position < size && get(position) == '\n') ? position + 1 : position;
+        }
+    }
+
+    /**
+     * Maps byte sequences to consecutive codes. A string is only created for each
+     * distinct sequence.
+     *
+     * @author Fabian Prasser
+     */
+    private class ValueMap {
+
+        /** The bytes of all distinct values. */
+        private byte[]       bytes   = new byte[1024];
+
+        /** The hash codes of all distinct values. */
+        private int[]        hashes  = new int[16];
+
+        /** The lengths of all distinct values. */
+        private int[]        lengths = new int[16];
+
+        /** The offsets of all distinct values. */
+        private int[]        offsets = new int[16];
+
+        /** The number of bytes used. */
+        private int          used    = 0;
+
+        /** The hash table, storing codes incremented by one. */
+        private int[]        table   = new int[32];
+
+        /** The distinct values. */
+        private List<String> values  = new ArrayList<String>();
+
+        /**
+         * Returns the code of the given byte sequence, registering it if necessary.
+         *
+         * @param buffer
+         * @param length
+         * @return
+         */
+        private int get(final byte[] buffer, final int length) {
+
+            // Hash
+            int hash = 0;
+            for (int i = 0; i < length; i++) {
+                hash = 31 * hash + buffer[i];
+            }
+            hash ^= (hash >>> 16);
+
+            // Probe
+            final int mask = table.length - 1;
+            int slot = hash & mask;
+            while (table[slot] != 0) {
+                final int code = table[slot] - 1;
+                if (hashes[code] == hash && equals(code, buffer, length)) {
+                    return code;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            // Register
+            final int code = values.size();
+            if (code == hashes.length) {
+                hashes = Arrays.copyOf(hashes, code * 2);
+                lengths = Arrays.copyOf(lengths, code * 2);
+                offsets = Arrays.copyOf(offsets, code * 2);
+            }
+            if (used + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, used + length));
+            }
+            System.arraycopy(buffer, 0, bytes, used, length);
+            hashes[code] = hash;
+            lengths[code] = length;
+            offsets[code] = used;
+            used += length;
+            values.add(new String(buffer, 0, length, charset));
+            table[slot] = code + 1;
+
+            // Grow
+            if (values.size() * 2 > table.length) {
+                table = new int[table.length * 2];
+                final int newMask = table.length - 1;
+                for (int i = 0; i < values.size(); i++) {
+                    int index = hashes[i] & newMask;
+                    while (table[index] != 0) {
+                        index = (index + 1) & newMask;
+                    }
+                    table[index] = i + 1;
+                }
+            }
+            return code;
+        }
+
+        /**
+         * Compares the value with the given code to the given byte sequence.
+         *
+         * @param code
+         * @param buffer
+         * @param length
+         * @return
+         */
+        private boolean equals(final int code, final byte[] buffer, final int length) {
+            if (lengths[code] != length) {
+                return false;
+            }
+            final int offset = offsets[code];
+            for (int i = 0; i < length; i++) {
+                if (bytes[offset + i] != buffer[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /** The quote character. */
+    private static final byte  QUOTE        = '"';
+
+    /** The size of each memory-mapped segment. */
+    private static final int   SEGMENT_BITS = 30;
+
+    /** The charset. */
+    private final Charset      charset;
+
+    /** The encoded data. */
+    private DataMatrix         data;
+
+    /** The dictionary. */
+    private Dictionary         dictionary;
+
+    /** The file. */
+    private final File         file;
+
+    /** The header. */
+    private String[]           header;
+
+    /** The number of threads. */
+    private final int          numThreads;
+
+    /** The memory-mapped segments of the file. */
+    private MappedByteBuffer[] segments;
+
+    /** The separator. */
+    private final byte         separator;
+
+    /** The size of the file. */
+    private long               size;
+
+    /**
+     * Creates a new instance, which uses the platform's default charset and a single thread.
+     *
+     * @param file
+     * @param separator
+     */
+    public CSVMappedDataInput(final File file, final char separator) {
+        this(file, Charset.defaultCharset(), separator, 1);
+    }
+
+    /**
+     * Creates a new instance. The charset must encode line breaks, quotes and the
+     * separator with single bytes, as is the case with UTF-8 and ISO-8859 charsets.
+     *
+     * @param file
+     * @param charset
+     * @param separator
+     * @param numThreads
+     */
+    public CSVMappedDataInput(final File file, final Charset charset, final char separator, final int numThreads) {
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+        for (final char c : new char[] { separator, '\n', '\r', (char) QUOTE }) {
+            final byte[] encoded = String.valueOf(c).getBytes(charset);
+            if (encoded.length != 1 || encoded[0] != c) {
+                throw new IllegalArgumentException("Charset must encode the separator, quotes and line breaks with single bytes");
+            }
+        }
+        this.file = file;
+        this.charset = charset;
+        this.separator = (byte) separator;
+        this.numThreads = numThreads;
+    }
+
+    /**
+     * Returns the encoded rows, excluding the header. Only available after calling read().
+     *
+     * @return
+     */
+    public DataMatrix getData() {
+        checkRead();
+        return data;
+    }
+
+    /**
+     * Returns the finalized dictionary. Only available after calling read().
+     *
+     * @return
+     */
+    public Dictionary getDictionary() {
+        checkRead();
+        return dictionary;
+    }
+
+    /**
+     * Returns the header. Only available after calling read().
+     *
+     * @return
+     */
+    public String[] getHeader() {
+        checkRead();
+        return header;
+    }
+
+    /**
+     * Reads and encodes the file.
+     *
+     * @throws IOException
+     */
+    public void read() throws IOException {
+
+        // Map file
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            this.size = channel.size();
+            this.segments = new MappedByteBuffer[(int) ((size >>> SEGMENT_BITS) + 1)];
+            for (int i = 0; i < segments.length; i++) {
+                long offset = (long) i << SEGMENT_BITS;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(1L << SEGMENT_BITS, size - offset));
+            }
+        } finally {
+            raf.close();
+        }
+
+        try {
+            // Read header
+            final Field field = new Field();
+            final List<String> columns = new ArrayList<String>();
+            long position = 0;
+            if (size == 0) {
+                throw new IOException("File is empty");
+            }
+            do {
+                position = field.read(position);
+                columns.add(new String(field.buffer, 0, field.length, charset));
+            } while (field.separated);
+            this.header = columns.toArray(new String[columns.size()]);
+
+            // Split into chunks at line breaks
+            final int count = (int) Math.max(1, Math.min(numThreads, (size - position) / (1024 * 1024)));
+            final Chunk[] chunks = new Chunk[count];
+            long start = position;
+            for (int i = 0; i < count; i++) {
+                long end = i == count - 1 ? size : Math.max(start, position + (size - position) * (i + 1) / count);
+                while (end < size && end > start && get(end - 1) != '\n') {
+                    end++;
+                }
+                chunks[i] = new Chunk(start, end);
+                start = end;
+            }
+
+            // Parse
+            if (count == 1) {
+                chunks[0].call();
+            } else {
+                parse(chunks);
+            }
+
+            // Merge dictionaries and translate codes in the order of the chunks
+            this.dictionary = new Dictionary(header.length);
+            int rows = 0;
+            for (final Chunk chunk : chunks) {
+                rows += chunk.rows;
+            }
+            this.data = new DataMatrix(rows, header.length);
+            final int[] array = data.getArray();
+            int offset = 0;
+            for (final Chunk chunk : chunks) {
+                final int[][] translation = new int[header.length][];
+                for (int column = 0; column < header.length; column++) {
+                    final List<String> values = chunk.values[column].values;
+                    translation[column] = new int[values.size()];
+                    for (int code = 0; code < values.size(); code++) {
+                        translation[column][code] = dictionary.register(column, values.get(code));
+                    }
+                }
+                for (int i = 0; i < chunk.rows * header.length; i += header.length) {
+                    for (int column = 0; column < header.length; column++) {
+                        array[offset++] = translation[column][chunk.codes[i + column]];
+                    }
+                }
+                chunk.codes = null;
+            }
+            this.dictionary.finalizeAll();
+        } finally {
+            this.segments = null;
+        }
+    }
+
+    /**
+     * Checks whether the file has been read.
+     */
+    private void checkRead() {
+        if (data == null) {
+            throw new IllegalStateException("File has not been read");
+        }
+    }
+
+    /**
+     * Returns the byte at the given position.
+     *
+     * @param position
+     * @return
+     */
+    private byte get(final long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & ((1L << SEGMENT_BITS) - 1)));
+    }
+
+    /**
+     * Parses the given chunks with multiple threads.
+     *
+     * @param chunks
+     * @throws IOException
+     */
+    private void parse(final Chunk[] chunks) throws IOException {
+        final ExecutorService executor = Executors.newFixedThreadPool(chunks.length, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ARX CSV reader");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            final List<Future<Chunk>> futures = new ArrayList<Future<Chunk>>();
+            for (final Chunk chunk : chunks) {
+                futures.add(executor.submit(chunk));
+            }
+            for (final Future<Chunk> future : futures) {
+                future.get();
+            }
+        } catch (final InterruptedException e) {
+            throw new IOException(e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
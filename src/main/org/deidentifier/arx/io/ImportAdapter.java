@@ -56,6 +56,9 @@ abstract public class ImportAdapter implements Iterator<String[]> {
         if (config instanceof ImportConfigurationCSV) {
             return new ImportAdapterCSV((ImportConfigurationCSV) config);
         } else if (config instanceof ImportConfigurationExcel) {
+            if (((ImportConfigurationExcel) config).isStreaming()) {
+                return new ImportAdapterExcelStreaming((ImportConfigurationExcel) config);
+            }
             return new ImportAdapterExcel((ImportConfigurationExcel) config);
         } else if (config instanceof ImportConfigurationJDBC) {
             return new ImportAdapterJDBC((ImportConfigurationJDBC) config);
@@ -0,0 +1,738 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import javax.xml.parsers.SAXParserFactory;
+
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BlankRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.DimensionsRecord;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.ErrorConstants;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.deidentifier.arx.io.ImportConfigurationExcel.ExcelFileTypes;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Streaming import adapter for Excel files
+ * 
+ * In contrast to {@link ImportAdapterExcel}, this adapter does not load the
+ * workbook into memory. The sheet is parsed by a background thread using the
+ * event APIs of Apache POI (a SAX parser for XLSX and an HSSF listener for
+ * XLS), which passes rows to the adapter through a bounded queue. Cells are
+ * converted into the same strings as with {@link ImportAdapterExcel}. Rows
+ * that do not contain any cells are skipped.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ * @see <a href="https://poi.apache.org/spreadsheet/how-to.html">Apache POI event API</a>
+ */
+public class ImportAdapterExcelStreaming extends ImportAdapter {
+
+    /**
+     * Reads rows from XLS files.
+     *
+     * @author Fabian Prasser
+     */
+    private class HSSFReader implements HSSFListener {
+
+        /** The nesting level of substreams. */
+        private int       depth  = 0;
+
+        /** The index of the current sheet. */
+        private int       sheet  = -1;
+
+        /** The shared strings. */
+        private SSTRecord strings;
+
+        /** The pending formula cell with a string result, if any. */
+        private FormulaRecord formula;
+
+        /**
+         * Reads the sheet.
+         *
+         * @throws IOException
+         */
+        private void read() throws IOException {
+            NPOIFSFileSystem filesystem = new NPOIFSFileSystem(new File(config.getFileLocation()), true);
+            try {
+                HSSFRequest request = new HSSFRequest();
+                request.addListenerForAllRecords(this);
+                new HSSFEventFactory().processWorkbookEvents(request, filesystem.getRoot());
+            } catch (StopException e) {
+                /* Done*/
+            } finally {
+                filesystem.close();
+            }
+        }
+
+        /* (non-Javadoc)
+         * @see org.apache.poi.hssf.eventusermodel.HSSFListener#processRecord(org.apache.poi.hssf.record.Record)
+         */
+        @Override
+        public void processRecord(Record record) {
+
+            // Track sheets
+            switch (record.getSid()) {
+            case BOFRecord.sid:
+                if (depth++ == 0 && ((BOFRecord) record).getType() == BOFRecord.TYPE_WORKSHEET) {
+                    sheet++;
+                }
+                return;
+            case EOFRecord.sid:
+                if (--depth == 0 && sheet == config.getSheetIndex()) {
+                    flush();
+                    throw new StopException();
+                }
+                return;
+            case SSTRecord.sid:
+                strings = (SSTRecord) record;
+                return;
+            }
+            if (depth != 1 || sheet != config.getSheetIndex()) {
+                return;
+            }
+
+            // Convert cells
+            String value = null;
+            switch (record.getSid()) {
+            case DimensionsRecord.sid:
+                totalRows = ((DimensionsRecord) record).getLastRow();
+                return;
+            case StringRecord.sid:
+                if (formula != null) {
+                    add(formula, ((StringRecord) record).getString());
+                    formula = null;
+                }
+                return;
+            case BlankRecord.sid:
+                value = "";
+                break;
+            case BoolErrRecord.sid:
+                BoolErrRecord boolErr = (BoolErrRecord) record;
+                value = boolErr.isBoolean() ? (boolErr.getBooleanValue() ? "TRUE" : "FALSE") : ErrorConstants.getText(boolErr.getErrorValue());
+                break;
+            case FormulaRecord.sid:
+                FormulaRecord formula = (FormulaRecord) record;
+                switch (formula.getCachedResultType()) {
+                case Cell.CELL_TYPE_STRING:
+                    this.formula = formula;
+                    return;
+                case Cell.CELL_TYPE_BOOLEAN:
+                    value = formula.getCachedBooleanValue() ? "TRUE" : "FALSE";
+                    break;
+                case Cell.CELL_TYPE_ERROR:
+                    value = ErrorConstants.getText(formula.getCachedErrorValue());
+                    break;
+                default:
+                    value = NumberToTextConverter.toText(formula.getValue());
+                    break;
+                }
+                break;
+            case LabelRecord.sid:
+                value = ((LabelRecord) record).getValue();
+                break;
+            case LabelSSTRecord.sid:
+                value = strings.getString(((LabelSSTRecord) record).getSSTIndex()).getString();
+                break;
+            case NumberRecord.sid:
+                value = NumberToTextConverter.toText(((NumberRecord) record).getValue());
+                break;
+            default:
+                return;
+            }
+            add((CellValueRecordInterface) record, value);
+        }
+
+        /**
+         * Adds a cell.
+         *
+         * @param cell
+         * @param value
+         */
+        private void add(CellValueRecordInterface cell, String value) {
+            if (cell.getRow() != row) {
+                flush();
+                row = cell.getRow();
+            }
+            set(cell.getColumn(), value);
+        }
+    }
+
+    /**
+     * Signals that reading has been stopped.
+     *
+     * @author Fabian Prasser
+     */
+    private static class StopException extends RuntimeException {
+
+        /** SVUID. */
+        private static final long serialVersionUID = 3393254722346512537L;
+    }
+
+    /**
+     * Reads rows from XLSX files.
+     *
+     * @author Fabian Prasser
+     */
+    private class XSSFHandler extends DefaultHandler {
+
+        /** The column of the current cell. */
+        private int                        column;
+
+        /** The shared strings. */
+        private ReadOnlySharedStringsTable strings;
+
+        /** The text of the current element. */
+        private final StringBuilder        text = new StringBuilder();
+
+        /** Whether the text of the current element is collected. */
+        private boolean                    textActive;
+
+        /** The type of the current cell. */
+        private String                     type;
+
+        /** The value of the current cell. */
+        private String                     value;
+
+        /* (non-Javadoc)
+         * @see org.xml.sax.helpers.DefaultHandler#characters(char[], int, int)
+         */
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            if (textActive) {
+                text.append(ch, start, length);
+            }
+        }
+
+        /* (non-Javadoc)
+         * @see org.xml.sax.helpers.DefaultHandler#endElement(java.lang.String, java.lang.String, java.lang.String)
+         */
+        @Override
+        public void endElement(String uri, String localName, String name) throws SAXException {
+
+            if ("v".equals(localName)) {
+                textActive = false;
+                value = text.toString();
+            } else if ("t".equals(localName)) {
+                textActive = false;
+            } else if ("is".equals(localName)) {
+                value = text.toString();
+            } else if ("c".equals(localName)) {
+                set(column, convert());
+            } else if ("row".equals(localName)) {
+                flush();
+            }
+        }
+
+        /**
+         * Reads the sheet.
+         *
+         * @throws IOException
+         */
+        private void read() throws IOException {
+            OPCPackage pkg = null;
+            try {
+                pkg = OPCPackage.open(config.getFileLocation(), PackageAccess.READ);
+                strings = new ReadOnlySharedStringsTable(pkg);
+                XSSFReader reader = new XSSFReader(pkg);
+
+                // Determine the relationship of the sheet from the workbook
+                final List<String> sheets = new ArrayList<String>();
+                InputStream workbook = reader.getWorkbookData();
+                try {
+                    parse(workbook, new DefaultHandler() {
+                        @Override
+                        public void startElement(String uri, String localName, String name, Attributes attributes) {
+                            if ("sheet".equals(localName)) {
+                                sheets.add(attributes.getValue(RELATIONSHIPS, "id"));
+                            }
+                        }
+                    });
+                } finally {
+                    workbook.close();
+                }
+                if (config.getSheetIndex() >= sheets.size()) {
+                    throw new IOException("Sheet doesn't exist");
+                }
+
+                // Parse sheet
+                InputStream sheet = reader.getSheet(sheets.get(config.getSheetIndex()));
+                try {
+                    parse(sheet, this);
+                } finally {
+                    sheet.close();
+                }
+            } catch (StopException e) {
+                /* Done*/
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            } finally {
+                if (pkg != null) {
+                    pkg.revert();
+                }
+            }
+        }
+
+        /* (non-Javadoc)
+         * @see org.xml.sax.helpers.DefaultHandler#startElement(java.lang.String, java.lang.String, java.lang.String, org.xml.sax.Attributes)
+         */
+        @Override
+        public void startElement(String uri, String localName, String name, Attributes attributes) throws SAXException {
+
+            if ("c".equals(localName)) {
+                String reference = attributes.getValue("r");
+                column = reference == null ? length : getColumn(reference);
+                type = attributes.getValue("t");
+                value = null;
+            } else if ("v".equals(localName)) {
+                text.setLength(0);
+                textActive = true;
+            } else if ("is".equals(localName)) {
+                text.setLength(0);
+            } else if ("t".equals(localName)) {
+                textActive = true;
+            } else if ("row".equals(localName)) {
+                String reference = attributes.getValue("r");
+                row = reference == null ? row + 1 : Integer.parseInt(reference) - 1;
+            } else if ("dimension".equals(localName)) {
+                String reference = attributes.getValue("ref");
+                if (reference != null) {
+                    int index = reference.lastIndexOf(':');
+                    String last = reference.substring(index + 1).replaceAll("[^0-9]", "");
+                    if (!last.isEmpty()) {
+                        totalRows = Integer.parseInt(last);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Parses the given stream.
+         *
+         * @param stream
+         * @param handler
+         * @throws Exception
+         */
+        private void parse(InputStream stream, DefaultHandler handler) throws Exception {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            XMLReader reader = factory.newSAXParser().getXMLReader();
+            reader.setContentHandler(handler);
+            reader.parse(new InputSource(stream));
+        }
+
+        /**
+         * Converts the current cell into a string.
+         *
+         * @return
+         */
+        private String convert() {
+            if (value == null) {
+                return "";
+            } else if ("s".equals(type)) {
+                return strings.getEntryAt(Integer.parseInt(value));
+            } else if ("b".equals(type)) {
+                return "0".equals(value) ? "FALSE" : "TRUE";
+            } else {
+                return value;
+            }
+        }
+
+        /**
+         * Returns the index of the column referenced by the given cell reference, e.g. "AB12".
+         *
+         * @param reference
+         * @return
+         */
+        private int getColumn(String reference) {
+            int result = 0;
+            for (int i = 0; i < reference.length(); i++) {
+                char c = reference.charAt(i);
+                if (c < 'A' || c > 'Z') {
+                    break;
+                }
+                result = result * 26 + (c - 'A' + 1);
+            }
+            return result - 1;
+        }
+    }
+
+    /** Marks the end of the sheet. */
+    private static final String[]         END              = new String[0];
+
+    /** The namespace of relationships in XLSX files. */
+    private static final String           RELATIONSHIPS    = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    /** The number of rows buffered. */
+    private static final int              QUEUE_SIZE       = 1024;
+
+    /** The configuration describing the Excel file. */
+    private final ImportConfigurationExcel config;
+
+    /** The number of rows returned so far. */
+    private int                            currentRow       = 0;
+
+    /** An error that occurred while reading, if any. */
+    private volatile Throwable             error;
+
+    /** Indicates whether the first row has already been returned. */
+    private boolean                        headerReturned   = false;
+
+    /** The number of cells in the row being read. */
+    private int                            length           = 0;
+
+    /** The next row to return, as read from the file. */
+    private String[]                       nextRow;
+
+    /** The number of columns. */
+    private int                            numberOfColumns;
+
+    /** The rows read. */
+    private final BlockingQueue<String[]>  queue            = new ArrayBlockingQueue<String[]>(QUEUE_SIZE);
+
+    /** The index of the row being read. */
+    private int                            row              = -1;
+
+    /** The cells of the row being read. */
+    private String[]                       rowBuffer        = new String[16];
+
+    /** Indicates whether reading has been stopped. */
+    private volatile boolean               stopped          = false;
+
+    /** Number of rows within the specified sheet, as declared by the file. */
+    private volatile int                   totalRows        = 0;
+
+    /**
+     * Creates a new instance of this object with given configuration.
+     *
+     * @param config
+     * @throws IOException In case file doesn't contain actual data
+     */
+    protected ImportAdapterExcelStreaming(ImportConfigurationExcel config) throws IOException {
+
+        super(config);
+        this.config = config;
+        if (config.getExcelFileType() != ExcelFileTypes.XLS && config.getExcelFileType() != ExcelFileTypes.XLSX) {
+            throw new IllegalArgumentException("File type not supported");
+        }
+
+        /* Start reading */
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (ImportAdapterExcelStreaming.this.config.getExcelFileType() == ExcelFileTypes.XLS) {
+                        new HSSFReader().read();
+                    } else {
+                        new XSSFHandler().read();
+                    }
+                } catch (Throwable e) {
+                    error = e;
+                } finally {
+                    try {
+                        if (!stopped) {
+                            queue.put(END);
+                        }
+                    } catch (InterruptedException e) {
+                        /* Die silently*/
+                    }
+                }
+            }
+        }, "ImportAdapterExcelStreaming");
+        thread.setDaemon(true);
+        thread.start();
+
+        /* Check whether there is actual data within the file */
+        nextRow = take();
+        if (nextRow == null) {
+            throw new IOException("File contains no data");
+        }
+
+        // Create header
+        header = createHeader();
+        if (config.getContainsHeader()) {
+            nextRow = take();
+            if (nextRow == null) {
+                throw new IOException("File contains nothing but header");
+            }
+        }
+    }
+
+    /**
+     * Returns the percentage of data that has already been returned, based on
+     * the number of rows declared by the file.
+     *
+     * @return
+     */
+    @Override
+    public int getProgress() {
+        int total = totalRows;
+        return total == 0 ? 0 : Math.min(100, (int) ((double) currentRow / (double) total * 100d));
+    }
+
+    /* (non-Javadoc)
+     * @see java.util.Iterator#hasNext()
+     */
+    @Override
+    public boolean hasNext() {
+        return nextRow != null;
+    }
+
+    /**
+     * Returns the next row
+     * 
+     * The returned element is sorted as defined by {@link ImportColumn#index} and contains as many elements as there are columns selected to import
+     * from {@link #indexes}. The first row will always contain the names of the
+     * columns.
+     *
+     * @return
+     */
+    @Override
+    public String[] next() {
+
+        /* Check whether header was already returned */
+        if (!headerReturned) {
+            headerReturned = true;
+            return header;
+        }
+
+        /* Check whether number of columns is too big */
+        int cells = 0;
+        for (String value : nextRow) {
+            if (value != null) {
+                cells++;
+            }
+        }
+        if (cells > numberOfColumns) {
+            stop();
+            throw new IllegalArgumentException("Number of columns in row " + currentRow + " is too big");
+        }
+
+        /* Create regular row */
+        String[] result = new String[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            result[i] = getValue(nextRow, indexes[i]);
+            if (!dataTypes[i].isValid(result[i])) {
+                stop();
+                throw new IllegalArgumentException("Data value does not match data type");
+            }
+        }
+
+        /* Fetches the next row, which will be used in next iteration */
+        nextRow = take();
+        currentRow++;
+        return result;
+    }
+
+    /**
+     * Dummy.
+     */
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Creates the header row
+     * 
+     * This returns a string array with the names of the columns that will be
+     * returned later on by iterating over this object. Names are determined
+     * as with {@link ImportAdapterExcel}.
+     *
+     * @return
+     */
+    private String[] createHeader() {
+
+        /* Preparation work */
+        if (config.getContainsHeader()) this.config.prepare(getValues(nextRow));
+        this.indexes = getIndexesToImport();
+        this.dataTypes = getColumnDatatypes();
+
+        /* Initialization */
+        String[] header = new String[config.getColumns().size()];
+        List<ImportColumn> columns = config.getColumns();
+
+        /* Create header */
+        for (int i = 0, len = columns.size(); i < len; i++) {
+
+            ImportColumn column = columns.get(i);
+            String name = getValue(nextRow, ((ImportColumnExcel) column).getIndex());
+
+            if (config.getContainsHeader() && !name.equals("")) {
+                /* Assign name of file itself */
+                header[i] = name;
+            } else {
+                /* Nothing defined in header (or empty), build name manually */
+                header[i] = "Column #" + ((ImportColumnExcel) column).getIndex();
+            }
+
+            if (column.getAliasName() != null) {
+                /* Name has been assigned explicitly */
+                header[i] = column.getAliasName();
+            }
+
+            column.setAliasName(header[i]);
+        }
+
+        /* Store number of columns */
+        numberOfColumns = header.length;
+
+        /* Return header */
+        return header;
+    }
+
+    /**
+     * Passes the row being read to the consumer, if it contains any cells.
+     */
+    private void flush() {
+        if (length != 0) {
+            try {
+                queue.put(Arrays.copyOf(rowBuffer, length));
+            } catch (InterruptedException e) {
+                throw new StopException();
+            }
+            Arrays.fill(rowBuffer, 0, length, null);
+            length = 0;
+        }
+        if (stopped) {
+            throw new StopException();
+        }
+    }
+
+    /**
+     * Returns the value of the given column, an empty string if the cell does not exist.
+     *
+     * @param row
+     * @param column
+     * @return
+     */
+    private String getValue(String[] row, int column) {
+        String value = column < row.length ? row[column] : null;
+        return value == null ? "" : value;
+    }
+
+    /**
+     * Returns the values of all columns.
+     *
+     * @param row
+     * @return
+     */
+    private String[] getValues(String[] row) {
+        String[] result = new String[row.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = getValue(row, i);
+        }
+        return result;
+    }
+
+    /**
+     * Sets a cell of the row being read.
+     *
+     * @param column
+     * @param value
+     */
+    private void set(int column, String value) {
+        if (column >= rowBuffer.length) {
+            rowBuffer = Arrays.copyOf(rowBuffer, Math.max(column + 1, rowBuffer.length * 2));
+        }
+        rowBuffer[column] = value;
+        length = Math.max(length, column + 1);
+    }
+
+    /**
+     * Stops reading.
+     */
+    private void stop() {
+        stopped = true;
+        queue.clear();
+    }
+
+    /**
+     * Returns the next row read, null if there is none.
+     *
+     * @return
+     */
+    private String[] take() {
+        try {
+            String[] row = queue.take();
+            if (row != END) {
+                return row;
+            }
+            if (error != null) {
+                throw new RuntimeException("Couldn't read data from file", error);
+            }
+            return null;
+        } catch (InterruptedException e) {
+            throw new RuntimeException("Interrupted while reading data from file", e);
+        }
+    }
+
+    /**
+     * Returns an array with indexes of columns that should be imported.
+     * 
+     * @return Array containing indexes of columns that should be imported
+     */
+    protected int[] getIndexesToImport() {
+
+        /* Get indexes to import from */
+        ArrayList<Integer> indexes = new ArrayList<Integer>();
+        for (ImportColumn column : config.getColumns()) {
+            indexes.add(((ImportColumnExcel) column).getIndex());
+        }
+
+        int[] result = new int[indexes.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = indexes.get(i);
+        }
+        return result;
+    }
+}
@@ -18,11 +18,15 @@
 package org.deidentifier.arx.io;
 
 import java.io.IOException;
+import java.math.BigInteger;
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * Import adapter for JDBC
@@ -30,14 +34,121 @@ import java.util.List;
  * This adapter can import data from JDBC sources. The source itself is
  * described by an appropriate {@link ImportConfigurationJDBC} object.
  * 
+ * Rows are read with a forward-only, read-only cursor using the configured
+ * fetch size. If a partitioning has been configured, the table is split into
+ * ranges of values of the partitioning column, which are read in parallel
+ * over separate connections and returned in the order of the ranges. If not
+ * all rows are read, {@link #close()} must be called to stop the threads
+ * reading the partitions.
+ * 
  * @author Karol Babioch
  * @author Fabian Prasser
  */
 public class ImportAdapterJDBC extends ImportAdapter {
 
+    /**
+     * Reads the rows of one partition into a bounded queue.
+     *
+     * @author Fabian Prasser
+     */
+    private class Partition implements Runnable {
+
+        /** The query. */
+        private final String                  query;
+
+        /** The rows read, terminated by {@link ImportAdapterJDBC#END}. */
+        private final BlockingQueue<String[]> queue = new ArrayBlockingQueue<String[]>(QUEUE_SIZE);
+
+        /** An error that occurred while reading, if any. */
+        private volatile Exception            error;
+
+        /** Indicates whether reading has been stopped by the consumer. */
+        private volatile boolean              stopped;
+
+        /** The thread reading the partition. */
+        private Thread                        thread;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param query
+         */
+        private Partition(String query) {
+            this.query = query;
+        }
+
+        /* (non-Javadoc)
+         * @see java.lang.Runnable#run()
+         */
+        @Override
+        public void run() {
+            Connection connection = null;
+            try {
+                connection = config.createConnection();
+                disableAutoCommit(connection);
+                ResultSet resultSet = executeQuery(connection, query);
+                while (!stopped && resultSet.next()) {
+                    queue.put(getRow(resultSet));
+                }
+            } catch (InterruptedException e) {
+                /* Stopped by the consumer*/
+                stopped = true;
+            } catch (Exception e) {
+                error = e;
+            } finally {
+                close(connection);
+                try {
+                    if (!stopped) {
+                        queue.put(END);
+                    }
+                } catch (InterruptedException e) {
+                    /* Die silently*/
+                }
+            }
+        }
+
+        /**
+         * Returns the next row or {@link ImportAdapterJDBC#END}.
+         *
+         * @return
+         */
+        private String[] take() {
+            try {
+                String[] row = queue.take();
+                if (row == END && error != null) {
+                    throw new RuntimeException("Couldn't retrieve data from database", error);
+                }
+                return row;
+            } catch (InterruptedException e) {
+                throw new RuntimeException("Interrupted while retrieving data from database", e);
+            }
+        }
+    }
+
+    /** Marks the end of a partition. */
+    private static final String[]   END        = new String[0];
+
+    /** The number of rows buffered per partition. */
+    private static final int        QUEUE_SIZE = 1024;
+
     /** The configuration describing the CSV file being used. */
     private ImportConfigurationJDBC config;
 
+    /** Indicates whether auto commit has been disabled for the configured connection. */
+    private boolean                 autoCommitDisabled;
+
+    /** The index of the partition currently read, if the table is partitioned. */
+    private int                     partition;
+
+    /** The partitions, if the table is partitioned. */
+    private Partition[]             partitions;
+
+    /** The next row to return, if the table is partitioned. */
+    private String[]                nextRow;
+
+    /** The number of rows returned so far. */
+    private int                     returnedRows;
+
     /**
      * ResultSet containing rows to return.
      *
@@ -82,55 +193,90 @@ public class ImportAdapterJDBC extends ImportAdapter {
 
         try {
 
-            Statement statement;
-
-            /* Used to keep track of progress */
-            statement = config.getConnection().createStatement();
-            statement.execute("SELECT COUNT(*) FROM " + config.getTable());
-            resultSet = statement.getResultSet();
+            String column = config.getPartitionColumn();
+            if (column == null || config.getNumPartitions() == 1) {
 
-            if (resultSet.next()) {
+                /* Used to keep track of progress */
+                Statement statement = config.getConnection().createStatement();
+                statement.execute("SELECT COUNT(*) FROM " + config.getTable());
+                resultSet = statement.getResultSet();
 
-                totalRows = resultSet.getInt(1);
-                if (totalRows == 0) {
-                    throw new IOException("Table doesn't contain any rows");
+                if (resultSet.next()) {
+                    totalRows = resultSet.getInt(1);
+                } else {
+                    throw new IOException("Couldn't determine number of rows");
                 }
+                checkRows();
+
+                /* Query for actual data. Auto commit is restored when all rows have been read */
+                autoCommitDisabled = disableAutoCommit(config.getConnection());
+                resultSet = executeQuery(config.getConnection(), "SELECT * FROM " + config.getTable());
+                hasNext = resultSet.next();
 
             } else {
-                throw new IOException("Couldn't determine number of rows");
-            }
 
-            /* Query for actual data */
-            statement = config.getConnection().createStatement();
-            statement.execute("SELECT * FROM " + config.getTable());
-            resultSet = statement.getResultSet();
-            hasNext = resultSet.next();
+                /* Determine range of keys, used to split the table and to keep track of progress */
+                Statement statement = config.getConnection().createStatement();
+                statement.execute("SELECT MIN(" + column + "), MAX(" + column + "), COUNT(*) FROM " + config.getTable());
+                resultSet = statement.getResultSet();
+
+                if (!resultSet.next()) {
+                    throw new IOException("Couldn't determine number of rows");
+                }
+                totalRows = resultSet.getInt(3);
+                checkRows();
+                String min = resultSet.getString(1);
+                String max = resultSet.getString(2);
+
+                /* Query for metadata */
+                resultSet = config.getConnection().createStatement().executeQuery("SELECT * FROM " + config.getTable() + " WHERE 1=0");
+
+                /* Start reading partitions */
+                partitions = createPartitions(column, min, max);
+                for (int i = 0; i < partitions.length; i++) {
+                    Thread thread = new Thread(partitions[i], "ImportAdapterJDBC-" + i);
+                    thread.setDaemon(true);
+                    partitions[i].thread = thread;
+                    thread.start();
+                }
+                nextRow = takeRow();
+                hasNext = nextRow != null;
+            }
 
         } catch (SQLException e) {
+            restoreAutoCommit();
             throw new IOException(e.getMessage());
         }
 
         // Create header
         header = createHeader();
+        
+        // Release connection early, if partitions are read from separate connections
+        if (partitions != null) {
+            close(config.getConnection());
+        }
+    }
+
+    /**
+     * Stops reading and closes all connections. This must be called, if not all
+     * rows are read.
+     */
+    public void close() {
+        stop();
+        close(config.getConnection());
     }
 
     /**
      * Returns the percentage of data that has already been returned
      * 
      * This divides the number of rows that have already been returned by the
-     * number of total rows and casts the result into a percentage. In case of
-     * an {@link SQLException} 0 will be returned.
+     * number of total rows and casts the result into a percentage.
      *
      * @return
      */
     @Override
     public int getProgress() {
-
-        try {
-            return (int) ((double) resultSet.getRow() / (double) totalRows * 100d);
-        } catch (SQLException e) {
-            return 0;
-        }
+        return (int) ((double) returnedRows / (double) totalRows * 100d);
     }
 
     /**
@@ -159,29 +305,29 @@ public class ImportAdapterJDBC extends ImportAdapter {
 
         try {
 
-            /* Create regular row */
-            String[] result = new String[indexes.length];
-            for (int i = 0; i < indexes.length; i++) {
-                
-                result[i] = resultSet.getString(indexes[i]);
-                if (!dataTypes[i].isValid(result[i])) {
-                    throw new IllegalArgumentException("Data value does not match data type");
+            /* Create regular row and move forward */
+            String[] result;
+            if (partitions == null) {
+                result = getRow(resultSet);
+                hasNext = resultSet.next();
+                if (!hasNext) {
+                    restoreAutoCommit();
+                    close(config.getConnection());
                 }
+            } else {
+                result = nextRow;
+                nextRow = takeRow();
+                hasNext = nextRow != null;
             }
-
-            /* Move cursor forward and assign result to {@link #hasNext} */
-            hasNext = resultSet.next();
             
-            if (!hasNext) {
-                try {
-                    if (!config.getConnection().isClosed()) {
-                        config.getConnection().close();
-                    }
-                } catch (Exception e){
-                    /* Die silently*/
+            /* Check data types */
+            for (int i = 0; i < indexes.length; i++) {
+                if (!dataTypes[i].isValid(result[i])) {
+                    stop();
+                    throw new IllegalArgumentException("Data value does not match data type");
                 }
             }
-            
+            returnedRows++;
             return result;
 
         } catch (SQLException e) {
@@ -197,6 +343,32 @@ public class ImportAdapterJDBC extends ImportAdapter {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Checks the number of rows.
+     *
+     * @throws IOException
+     */
+    private void checkRows() throws IOException {
+        if (totalRows == 0) {
+            throw new IOException("Table doesn't contain any rows");
+        }
+    }
+
+    /**
+     * Closes the given connection.
+     *
+     * @param connection
+     */
+    private void close(Connection connection) {
+        try {
+            if (connection != null && !connection.isClosed()) {
+                connection.close();
+            }
+        } catch (Exception e){
+            /* Die silently*/
+        }
+    }
+
     /**
      * Creates the header row
      * 
@@ -242,6 +414,156 @@ public class ImportAdapterJDBC extends ImportAdapter {
 
     }
 
+    /**
+     * Splits the range [min, max] of the given column into partitions of equal size.
+     * Rows in which the column is NULL are read with the last partition.
+     *
+     * @param column
+     * @param min
+     * @param max
+     * @return
+     * @throws IOException
+     */
+    private Partition[] createPartitions(String column, String min, String max) throws IOException {
+
+        /* Only NULL values */
+        String prefix = "SELECT * FROM " + config.getTable() + " WHERE ";
+        if (min == null || max == null) {
+            return new Partition[] { new Partition(prefix + column + " IS NULL") };
+        }
+
+        /* Parse bounds */
+        BigInteger lower;
+        BigInteger upper;
+        try {
+            lower = new BigInteger(min.trim());
+            upper = new BigInteger(max.trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Partitioning column '" + column + "' must contain integers");
+        }
+
+        /* Split range */
+        BigInteger range = upper.subtract(lower).add(BigInteger.ONE);
+        int count = (int) Math.min(config.getNumPartitions(), range.min(BigInteger.valueOf(Integer.MAX_VALUE)).longValue());
+        Partition[] result = new Partition[count];
+        BigInteger start = lower;
+        for (int i = 0; i < count; i++) {
+            BigInteger end = lower.add(range.multiply(BigInteger.valueOf(i + 1)).divide(BigInteger.valueOf(count)));
+            String query = prefix + "(" + column + " >= " + start + " AND " + column + " < " + end + ")";
+            if (i == count - 1) {
+                query += " OR " + column + " IS NULL";
+            }
+            result[i] = new Partition(query);
+            start = end;
+        }
+        return result;
+    }
+
+    /**
+     * Disables auto commit for the given connection, if a fetch size has been
+     * configured. This is required by some drivers to stream results.
+     *
+     * @param connection
+     * @return Whether auto commit has been disabled
+     * @throws SQLException
+     */
+    private boolean disableAutoCommit(Connection connection) throws SQLException {
+        if (config.getFetchSize() != 0 && connection.getAutoCommit()) {
+            connection.setAutoCommit(false);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Executes the given query with a forward-only, read-only cursor using the
+     * configured fetch size.
+     *
+     * @param connection
+     * @param query
+     * @return
+     * @throws SQLException
+     */
+    private ResultSet executeQuery(Connection connection, String query) throws SQLException {
+        int fetchSize = config.getFetchSize();
+        Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        if (fetchSize != 0) {
+            statement.setFetchSize(fetchSize);
+        }
+        return statement.executeQuery(query);
+    }
+
+    /**
+     * Returns the columns to import from the current row of the given result set.
+     *
+     * @param resultSet
+     * @return
+     * @throws SQLException
+     */
+    private String[] getRow(ResultSet resultSet) throws SQLException {
+        String[] result = new String[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            result[i] = resultSet.getString(indexes[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Closes the result set and restores auto commit for the configured
+     * connection, if it has been disabled.
+     */
+    private void restoreAutoCommit() {
+        if (autoCommitDisabled) {
+            autoCommitDisabled = false;
+            try {
+                resultSet.close();
+                config.getConnection().setAutoCommit(true);
+            } catch (Exception e) {
+                /* Die silently*/
+            }
+        }
+    }
+
+    /**
+     * Stops reading partitions. Threads which are blocked while reading or
+     * waiting for space in their queues are interrupted.
+     */
+    private void stop() {
+        if (partitions != null) {
+            for (Partition partition : partitions) {
+                partition.stopped = true;
+                partition.queue.clear();
+                if (partition.thread != null) {
+                    partition.thread.interrupt();
+                }
+            }
+        } else {
+            restoreAutoCommit();
+        }
+    }
+
+    /**
+     * Returns the next row from the partitions, null if there is none.
+     *
+     * @return
+     */
+    private String[] takeRow() {
+        while (partition < partitions.length) {
+            String[] row;
+            try {
+                row = partitions[partition].take();
+            } catch (RuntimeException e) {
+                stop();
+                throw e;
+            }
+            if (row != END) {
+                return row;
+            }
+            partition++;
+        }
+        return null;
+    }
+
     /**
      * Returns an array with indexes of columns that should be imported
      * 
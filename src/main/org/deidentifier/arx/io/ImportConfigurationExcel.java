@@ -69,6 +69,14 @@ public class ImportConfigurationExcel extends ImportConfigurationFile implements
      */
     private boolean        containsHeader;
 
+    /**
+     * Indicates whether the file is read with the event API of Apache POI
+     * instead of being loaded into memory.
+     *
+     * @see {@link ImportAdapterExcelStreaming}
+     */
+    private boolean        streaming = false;
+
     /**
      * Creates a new instance of this object.
      *
@@ -188,6 +196,13 @@ public class ImportConfigurationExcel extends ImportConfigurationFile implements
         return sheetIndex;
     }
 
+    /**
+     * @return {@link #streaming}
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
     /**
      * @param containsHeader
      *            {@link #containsHeader}
@@ -213,6 +228,14 @@ public class ImportConfigurationExcel extends ImportConfigurationFile implements
         this.sheetIndex = sheetIndex;
     }
 
+    /**
+     * @param streaming
+     *            {@link #streaming}
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
 
     /**
      * Sets the indexes based on the header.
@@ -238,4 +261,28 @@ public class ImportConfigurationExcel extends ImportConfigurationFile implements
             }
         }
     }
+
+    /**
+     * Sets the indexes based on the header.
+     *
+     * @param row
+     */
+    public void prepare(String[] row) {
+
+        for (ImportColumn c : super.getColumns()) {
+            ImportColumnExcel column = (ImportColumnExcel) c;
+            if (!column.isIndexSpecified()) {
+                boolean found = false;
+                for (int i = 0; i < row.length; i++) {
+                    if (row[i].equals(column.getName())) {
+                        found = true;
+                        column.setIndex(i);
+                    }
+                }
+                if (!found) {
+                    throw new IllegalArgumentException("Index for column '" + column.getName() + "' couldn't be found");
+                }
+            }
+        }
+    }
 }
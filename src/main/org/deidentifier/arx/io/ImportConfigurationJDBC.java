@@ -39,6 +39,36 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
      */
     private Connection connection;
 
+    /**
+     * Number of rows fetched from the database at once, 0 to use the driver's
+     * default.
+     *
+     * @see {@link #setFetchSize(int)}
+     * @see {@link #getFetchSize()}
+     */
+    private int        fetchSize       = 0;
+
+    /**
+     * Number of partitions read in parallel.
+     *
+     * @see {@link #setPartitioning(String, int)}
+     * @see {@link #getNumPartitions()}
+     */
+    private int        numPartitions   = 1;
+
+    /**
+     * Password used for opening further connections, if any.
+     */
+    private String     password;
+
+    /**
+     * Numeric column used for splitting the table into partitions, if any.
+     *
+     * @see {@link #setPartitioning(String, int)}
+     * @see {@link #getPartitionColumn()}
+     */
+    private String     partitionColumn = null;
+
     /**
      * Name of table to be used.
      *
@@ -47,6 +77,16 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
      */
     private String     table;
 
+    /**
+     * URL used for opening further connections, if any.
+     */
+    private String     url;
+
+    /**
+     * User used for opening further connections, if any.
+     */
+    private String     user;
+
     /**
      * Creates a new instance of this object.
      *
@@ -68,6 +108,7 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
     public ImportConfigurationJDBC(String url, String table) throws SQLException {
         setConnection(DriverManager.getConnection(url));
         setTable(table);
+        this.url = url;
     }
 
     /**
@@ -82,6 +123,9 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
     public ImportConfigurationJDBC(String url, String user, String password, String table) throws SQLException {
         setConnection(DriverManager.getConnection(url, user, password));
         setTable(table);
+        this.url = url;
+        this.user = user;
+        this.password = password;
     }
 
     /**
@@ -126,6 +170,27 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
         return connection;
     }
 
+    /**
+     * @return {@link #fetchSize}
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * @return {@link #numPartitions}
+     */
+    public int getNumPartitions() {
+        return numPartitions;
+    }
+
+    /**
+     * @return {@link #partitionColumn}
+     */
+    public String getPartitionColumn() {
+        return partitionColumn;
+    }
+
     /**
      * @return {@link #table}
      */
@@ -141,6 +206,45 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
         this.connection = connection;
     }
 
+    /**
+     * Sets the number of rows fetched from the database at once. Rows are read
+     * with a forward-only, read-only cursor. If the fetch size is not 0, auto
+     * commit is disabled for the connections used for importing, as is
+     * required by some drivers (e.g. PostgreSQL) to stream results. It is
+     * enabled again for the configured connection when all rows have been
+     * read. MySQL streams rows one by one if the fetch size is
+     * Integer.MIN_VALUE.
+     *
+     * @param fetchSize
+     *            {@link #fetchSize}
+     */
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Splits the table into the given number of partitions by ranges of
+     * values of the given numeric column. Partitions are read in parallel over
+     * separate connections and returned in the order of the ranges. Rows in
+     * which the column is NULL belong to the last partition. Reading multiple
+     * partitions requires the configuration to be created with a URL.
+     *
+     * @param column
+     *            {@link #partitionColumn}, null to disable partitioning
+     * @param numPartitions
+     *            {@link #numPartitions}
+     */
+    public void setPartitioning(String column, int numPartitions) {
+        if (numPartitions < 1) {
+            throw new IllegalArgumentException("Number of partitions must be positive");
+        }
+        if (numPartitions > 1 && column != null && url == null) {
+            throw new IllegalArgumentException("Partitioning requires a configuration with a URL");
+        }
+        this.partitionColumn = column;
+        this.numPartitions = column == null ? 1 : numPartitions;
+    }
+
     /**
      * @param table
      *            {@link #setTable(String)}
@@ -149,6 +253,19 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
         this.table = table;
     }
 
+    /**
+     * Opens a further connection to the database.
+     *
+     * @return
+     * @throws SQLException
+     */
+    protected Connection createConnection() throws SQLException {
+        if (url == null) {
+            throw new SQLException("A URL is required for opening further connections");
+        }
+        return user == null ? DriverManager.getConnection(url) : DriverManager.getConnection(url, user, password);
+    }
+
     /**
      * 
      *
@@ -0,0 +1,81 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.metric;
+
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
+import org.deidentifier.arx.framework.lattice.Node;
+
+/**
+ * Accumulates the information loss and the lower bound of a transformation while the groupify
+ * operator evaluates the privacy criteria, which avoids additional passes over all equivalence
+ * classes. The operator passes each class to add() after it has been classified.
+ * 
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ * @param <T>
+ */
+public abstract class InformationLossAccumulator<T extends InformationLoss<?>> {
+
+    /** Whether the lower bound must be computed. */
+    private final boolean lowerBoundRequired;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param node The node for which information loss is computed
+     */
+    protected InformationLossAccumulator(final Node node) {
+        this.lowerBoundRequired = node.getLowerBound() == null;
+    }
+
+    /**
+     * Adds an equivalence class. HashGroupifyEntry.isNotOutlier is set correctly, unless the
+     * analysis has been aborted early, in which case only the lower bound will be used. The entry
+     * may be a flyweight, which must not be stored.
+     *
+     * @param entry
+     */
+    public abstract void add(HashGroupifyEntry entry);
+
+    /**
+     * Returns the information loss and the lower bound of all classes added.
+     *
+     * @param suppressed Whether classes that are outliers are suppressed. Otherwise, all classes
+     *                   are treated as if they were not outliers.
+     * @return
+     */
+    public abstract InformationLossWithBound<T> getInformationLoss(boolean suppressed);
+
+    /**
+     * Returns the lower bound of all classes added, which does not depend on the classification
+     * of the classes.
+     *
+     * @return
+     */
+    public abstract T getLowerBound();
+
+    /**
+     * Returns whether the lower bound must be computed, i.e. whether classes must still be added
+     * when the analysis has been aborted early. This is not the case if the bound is already known.
+     *
+     * @return
+     */
+    public boolean isLowerBoundRequired() {
+        return lowerBoundRequired;
+    }
+}
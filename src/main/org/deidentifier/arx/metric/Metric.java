@@ -685,6 +685,30 @@ public abstract class Metric<T extends InformationLoss<?>> implements Serializab
         this.independent = independent;
     }
     
+    /**
+     * Returns an accumulator, which computes the information loss and the lower bound for the
+     * given node in the same pass over all equivalence classes in which the privacy criteria
+     * are evaluated. Returns <code>null</code>, if this is not supported by the metric. In this
+     * case, getInformationLoss() and getLowerBound() will be called after the analysis.
+     *
+     * @param node
+     * @return
+     */
+    public InformationLossAccumulator<T> createAccumulator(final Node node) {
+        return null;
+    }
+
+    /**
+     * Returns an instance of the given value. Only supported, if hasPrimitiveInformationLoss()
+     * returns true.
+     *
+     * @param value
+     * @return
+     */
+    public InformationLoss<?> createInformationLoss(double value) {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * Returns an instance of the maximal value.
      *
@@ -783,6 +807,16 @@ public abstract class Metric<T extends InformationLoss<?>> implements Serializab
         return this.toString();
     }
 
+    /**
+     * Returns whether the information loss measured by this metric is a single value of type
+     * Double, which can be stored as a primitive and converted back with createInformationLoss().
+     *
+     * @return
+     */
+    public boolean hasPrimitiveInformationLoss() {
+        return false;
+    }
+
     /**
      * Initializes the metric.
      *
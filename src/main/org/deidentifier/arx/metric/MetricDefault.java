@@ -45,6 +45,14 @@ public abstract class MetricDefault extends Metric<InformationLossDefault> {
         super(monotonic, independent);
     }
     
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.metric.Metric#createInformationLoss(double)
+     */
+    @Override
+    public InformationLoss<?> createInformationLoss(double value) {
+        return new InformationLossDefault(value);
+    }
+
     /* (non-Javadoc)
      * @see org.deidentifier.arx.metric.Metric#createMaxInformationLoss()
      */
@@ -61,6 +69,14 @@ public abstract class MetricDefault extends Metric<InformationLossDefault> {
         return new InformationLossDefault(0d);
     }
     
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.metric.Metric#hasPrimitiveInformationLoss()
+     */
+    @Override
+    public boolean hasPrimitiveInformationLoss() {
+        return true;
+    }
+
     /* (non-Javadoc)
      * @see org.deidentifier.arx.metric.Metric#getLowerBoundInternal(org.deidentifier.arx.framework.lattice.Node)
      */
@@ -26,9 +26,10 @@ import org.deidentifier.arx.RowSet;
 import org.deidentifier.arx.criteria.DPresence;
 import org.deidentifier.arx.framework.check.groupify.IHashGroupify;
 import org.deidentifier.arx.framework.data.Data;
-import org.deidentifier.arx.framework.data.Dictionary;
+import org.deidentifier.arx.framework.data.DataMatrix;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 import org.deidentifier.arx.framework.lattice.Node;
+import org.deidentifier.arx.metric.v2.Cardinalities;
 
 /**
  * This class provides an efficient implementation of the non-uniform entropy
@@ -182,9 +183,6 @@ public class MetricEntropy extends MetricDefault {
                                       final GeneralizationHierarchy[] ahierarchies, 
                                       final ARXConfiguration config) {
         
-        // Obtain dictionary
-        final Dictionary dictionary = input.getDictionary();
-
         // Obtain research subset
         RowSet rSubset = null;
         if (config.containsCriterion(DPresence.class)) {
@@ -196,41 +194,15 @@ public class MetricEntropy extends MetricDefault {
         }
 
         // Create reference to the hierarchies
-        final int[][] data = input.getArray();
-        hierarchies = new int[data[0].length][][];
+        final DataMatrix data = input.getArray();
+        hierarchies = new int[data.getNumColumns()][][];
         for (int i = 0; i < ahierarchies.length; i++) {
             hierarchies[i] = ahierarchies[i].getArray();
             // Column -> Id -> Level -> Output
         }
 
-        // Initialize counts
-        cardinalities = new int[data[0].length][][];
-        for (int i = 0; i < cardinalities.length; i++) {
-            cardinalities[i] = new int[dictionary.getMapping()[i].length][ahierarchies[i].getArray()[0].length];
-            // Column -> Id -> Level -> Count
-        }
-
-		for (int i = 0; i < data.length; i++) { 
-			// only use the rows contained in the research subset
-			if (rSubset == null || rSubset.contains(i)) {
-				final int[] row = data[i];
-				for (int column = 0; column < row.length; column++) {
-					cardinalities[column][row[column]][0]++;
-				}
-			}
-		}
-
-        // Create counts for other levels
-        for (int column = 0; column < hierarchies.length; column++) {
-            final int[][] hierarchy = hierarchies[column];
-            for (int in = 0; in < hierarchy.length; in++) {
-                final int cardinality = cardinalities[column][in][0];
-                for (int level = 1; level < hierarchy[in].length; level++) {
-                    final int out = hierarchy[in][level];
-                    cardinalities[column][out][level] += cardinality;
-                }
-            }
-        }
+        // Cardinalities
+        cardinalities = Cardinalities.create(input, rSubset, ahierarchies).getCardinalities();
 
         // Create a cache for the results
         cache = new double[hierarchies.length][];
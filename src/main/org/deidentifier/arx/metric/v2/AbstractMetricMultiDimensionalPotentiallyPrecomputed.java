@@ -24,6 +24,7 @@ import org.deidentifier.arx.framework.data.Data;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 import org.deidentifier.arx.framework.lattice.Node;
 import org.deidentifier.arx.metric.InformationLoss;
+import org.deidentifier.arx.metric.InformationLossAccumulator;
 import org.deidentifier.arx.metric.InformationLossWithBound;
 
 /**
@@ -128,6 +129,15 @@ public abstract class AbstractMetricMultiDimensionalPotentiallyPrecomputed exten
         return this.defaultMetric;
     }
 
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.metric.Metric#createAccumulator(org.deidentifier.arx.framework.lattice.Node)
+     */
+    @Override
+    public InformationLossAccumulator<AbstractILMultiDimensional> createAccumulator(Node node) {
+        return precomputed ? precomputedMetric.createAccumulator(node) : 
+                             defaultMetric.createAccumulator(node);
+    }
+
     /* (non-Javadoc)
      * @see org.deidentifier.arx.metric.Metric#getInformationLossInternal(org.deidentifier.arx.framework.lattice.Node, org.deidentifier.arx.framework.check.groupify.IHashGroupify)
      */
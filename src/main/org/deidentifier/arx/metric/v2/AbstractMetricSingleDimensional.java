@@ -51,6 +51,14 @@ public abstract class AbstractMetricSingleDimensional extends Metric<ILSingleDim
         super(monotonic, independent);
     }
     
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.metric.Metric#createInformationLoss(double)
+     */
+    @Override
+    public InformationLoss<?> createInformationLoss(double value) {
+        return new ILSingleDimensional(value);
+    }
+
     /* (non-Javadoc)
      * @see org.deidentifier.arx.metric.Metric#createMaxInformationLoss()
      */
@@ -67,6 +75,14 @@ public abstract class AbstractMetricSingleDimensional extends Metric<ILSingleDim
         return new ILSingleDimensional(0d);
     }
     
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.metric.Metric#hasPrimitiveInformationLoss()
+     */
+    @Override
+    public boolean hasPrimitiveInformationLoss() {
+        return true;
+    }
+
     /**
      * Returns the number of rows in the dataset or subset.
      *
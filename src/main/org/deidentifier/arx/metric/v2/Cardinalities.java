@@ -18,9 +18,11 @@
 package org.deidentifier.arx.metric.v2;
 
 import java.io.Serializable;
+import java.util.Arrays;
 
 import org.deidentifier.arx.RowSet;
 import org.deidentifier.arx.framework.data.Data;
+import org.deidentifier.arx.framework.data.DataMatrix;
 import org.deidentifier.arx.framework.data.Dictionary;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 
@@ -48,21 +50,20 @@ public class Cardinalities implements Serializable {
      */
     public Cardinalities(Data data, RowSet subset, GeneralizationHierarchy[] hierarchies){
 
-        int[][] array = data.getArray();
+        DataMatrix array = data.getArray();
         Dictionary dictionary = data.getDictionary();
         
         // Initialize counts
-        cardinalities = new int[array[0].length][][];
+        cardinalities = new int[array.getNumColumns()][][];
         for (int i = 0; i < cardinalities.length; i++) {
             cardinalities[i] = new int[dictionary.getMapping()[i].length][hierarchies[i].getArray()[0].length];
         }
 
         // Compute counts
-        for (int i = 0; i < array.length; i++) { 
+        for (int i = 0; i < array.getNumRows(); i++) { 
             if (subset == null || subset.contains(i)) {
-                final int[] row = array[i];
-                for (int column = 0; column < row.length; column++) {
-                    cardinalities[column][row[column]][0]++;
+                for (int column = 0; column < array.getNumColumns(); column++) {
+                    cardinalities[column][array.get(i, column)][0]++;
                 }
             }
         }
@@ -80,6 +81,24 @@ public class Cardinalities implements Serializable {
         }
     }
     
+    /**
+     * Returns the cardinalities for the given data set. Cardinalities are computed once for
+     * each combination of data and research subset and are shared by all callers.
+     *
+     * @param data
+     * @param subset
+     * @param hierarchies
+     * @return
+     */
+    public static Cardinalities create(Data data, RowSet subset, GeneralizationHierarchy[] hierarchies) {
+        Object key = Arrays.asList(Cardinalities.class, subset);
+        Cardinalities result = (Cardinalities) data.getPrecomputed(key);
+        if (result == null) {
+            result = (Cardinalities) data.putPrecomputed(key, new Cardinalities(data, subset, hierarchies));
+        }
+        return result;
+    }
+
     /**
      * For backwards compatibility, derives the cardinalities from the given array.
      *
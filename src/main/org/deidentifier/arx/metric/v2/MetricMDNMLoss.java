@@ -32,6 +32,8 @@ import org.deidentifier.arx.framework.check.groupify.IHashGroupify;
 import org.deidentifier.arx.framework.data.Data;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 import org.deidentifier.arx.framework.lattice.Node;
+import org.deidentifier.arx.metric.InformationLossAccumulator;
+import org.deidentifier.arx.metric.InformationLossWithBound;
 import org.deidentifier.arx.metric.MetricConfiguration;
 
 /**
@@ -41,6 +43,95 @@ import org.deidentifier.arx.metric.MetricConfiguration;
  */
 public class MetricMDNMLoss extends AbstractMetricMultiDimensional {
 
+    /**
+     * Accumulates the loss and the lower bound while the privacy criteria are evaluated.
+     *
+     * @author Fabian Prasser
+     * @author Florian Kohlmayer
+     */
+    private class Accumulator extends InformationLossAccumulator<AbstractILMultiDimensional> {
+
+        /** The lower bound, which equals the loss without suppression. */
+        private final double[] bound;
+
+        /** The node. */
+        private final Node     node;
+
+        /** The domain shares of the levels of the transformation, indexed by value. */
+        private final double[][] tables;
+
+        /** The loss with suppression. */
+        private final double[] result;
+
+        /** The transformation. */
+        private final int[]    transformation;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param node
+         */
+        private Accumulator(Node node) {
+            super(node);
+            this.node = node;
+            this.transformation = node.getTransformation();
+            this.bound = new double[transformation.length];
+            this.result = new double[transformation.length];
+            this.tables = getShareTables(transformation);
+        }
+
+        /* (non-Javadoc)
+         * @see org.deidentifier.arx.metric.InformationLossAccumulator#add(org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry)
+         */
+        @Override
+        public void add(HashGroupifyEntry m) {
+            if (m.count>0) {
+                for (int dimension=0; dimension<transformation.length; dimension++){
+                    double share = (double)m.count * tables[dimension][m.key[dimension]];
+                    result[dimension] += m.isNotOutlier ? share * gFactor :
+                                         (sFactor == 1d ? m.count : share + sFactor * ((double)m.count - share));
+                    bound[dimension] += share * gFactor;
+                }
+            }
+        }
+
+        /* (non-Javadoc)
+         * @see org.deidentifier.arx.metric.InformationLossAccumulator#getInformationLoss(boolean)
+         */
+        @Override
+        public InformationLossWithBound<AbstractILMultiDimensional> getInformationLoss(boolean suppressed) {
+            
+            // Without suppression, the loss equals the lower bound
+            double[] loss = suppressed ? result : bound;
+            double[] normalizedLoss = new double[loss.length];
+            double[] normalizedBound = new double[bound.length];
+            for (int dimension=0; dimension<loss.length; dimension++){
+                normalizedLoss[dimension] = normalize(loss[dimension], dimension);
+                normalizedBound[dimension] = normalize(bound[dimension], dimension);
+            }
+            return new ILMultiDimensionalWithBound(createInformationLoss(normalizedLoss),
+                                                   createInformationLoss(normalizedBound));
+        }
+
+        /* (non-Javadoc)
+         * @see org.deidentifier.arx.metric.InformationLossAccumulator#getLowerBound()
+         */
+        @Override
+        public AbstractILMultiDimensional getLowerBound() {
+            
+            // Use the bound computed independently of the data, if any
+            AbstractILMultiDimensional precomputed = getLowerBoundInternal(node);
+            if (precomputed != null) {
+                return precomputed;
+            }
+            double[] normalizedBound = new double[bound.length];
+            for (int dimension=0; dimension<bound.length; dimension++){
+                normalizedBound[dimension] = normalize(bound[dimension], dimension);
+            }
+            return createInformationLoss(normalizedBound);
+        }
+    }
+
     /** SUID. */
     private static final long serialVersionUID = -573670902335136600L;
 
@@ -50,6 +141,12 @@ public class MetricMDNMLoss extends AbstractMetricMultiDimensional {
     /** Domain shares for each dimension. */
     private DomainShare[]     shares;
 
+    /** Dense domain shares for each dimension and level, indexed by value. Levels are computed on demand. */
+    private transient double[][][] tables;
+
+    /** The size of the domain of each attribute, used for computing the dense domain shares. */
+    private transient int[] domainSizes;
+
     /** Configuration factor. */
     private final double      gFactor;
     
@@ -93,6 +190,14 @@ public class MetricMDNMLoss extends AbstractMetricMultiDimensional {
         this.gFactor = gsFactor <= 0.5d ? 1d            : 1d - 2d * (gsFactor - 0.5d);
     }
     
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.metric.Metric#createAccumulator(org.deidentifier.arx.framework.lattice.Node)
+     */
+    @Override
+    public InformationLossAccumulator<AbstractILMultiDimensional> createAccumulator(Node node) {
+        return new Accumulator(node);
+    }
+
     /**
      * Returns the configuration of this metric.
      *
@@ -166,15 +271,14 @@ public class MetricMDNMLoss extends AbstractMetricMultiDimensional {
         int dimensions = transformation.length;
         double[] result = new double[dimensions];
         double[] bound = new double[dimensions];
+        double[][] tables = getShareTables(transformation);
 
         // Compute NDS and lower bound
         HashGroupifyEntry m = g.getFirstEntry();
         while (m != null) {
             if (m.count>0) {
                 for (int dimension=0; dimension<dimensions; dimension++){
-                    int value = m.key[dimension];
-                    int level = transformation[dimension];
-                    double share = (double)m.count * shares[dimension].getShare(value, level);
+                    double share = (double)m.count * tables[dimension][m.key[dimension]];
                     result[dimension] += m.isNotOutlier ? share * gFactor :
                                          (sFactor == 1d ? m.count : share + sFactor * ((double)m.count - share));
                     bound[dimension] += share * gFactor;
@@ -214,15 +318,14 @@ public class MetricMDNMLoss extends AbstractMetricMultiDimensional {
         int[] transformation = node.getTransformation();
         int dimensions = transformation.length;
         double[] bound = new double[dimensions];
+        double[][] tables = getShareTables(transformation);
 
         // Compute lower bound
         HashGroupifyEntry m = g.getFirstEntry();
         while (m != null) {
             if (m.count>0) {
                 for (int dimension=0; dimension<dimensions; dimension++){
-                    int value = m.key[dimension];
-                    int level = transformation[dimension];
-                    double share = (double)m.count * shares[dimension].getShare(value, level);
+                    double share = (double)m.count * tables[dimension][m.key[dimension]];
                     bound[dimension] += share * gFactor;
                 }
             }
@@ -238,6 +341,42 @@ public class MetricMDNMLoss extends AbstractMetricMultiDimensional {
         return super.createInformationLoss(bound);
     }
     
+    /**
+     * Returns the domain shares of all values on the given level of the given dimension,
+     * indexed by value. Tables cover the whole dictionary of the dimension. They
+     * are computed when they are requested for the first time, as the domains of some
+     * hierarchies are very large and only few levels may be needed.
+     *
+     * @param dimension
+     * @param level
+     * @return
+     */
+    protected synchronized double[] getShareTable(int dimension, int level) {
+        double[] table = tables[dimension][level];
+        if (table == null) {
+            table = new double[domainSizes[dimension]];
+            for (int value = 0; value < table.length; value++) {
+                table[value] = shares[dimension].getShare(value, level);
+            }
+            tables[dimension][level] = table;
+        }
+        return table;
+    }
+
+    /**
+     * Returns the domain shares for the levels of the given transformation.
+     *
+     * @param transformation
+     * @return
+     */
+    protected double[][] getShareTables(int[] transformation) {
+        double[][] result = new double[transformation.length][];
+        for (int dimension = 0; dimension < result.length; dimension++) {
+            result[dimension] = getShareTable(dimension, transformation[dimension]);
+        }
+        return result;
+    }
+
     /**
      * For subclasses.
      *
@@ -288,6 +427,14 @@ public class MetricMDNMLoss extends AbstractMetricMultiDimensional {
             }
         }
    
+        // Prepare dense domain shares
+        this.tables = new double[hierarchies.length][][];
+        this.domainSizes = new int[hierarchies.length];
+        for (int i=0; i<hierarchies.length; i++) {
+            this.domainSizes[i] = input.getDictionary().getMapping()[i].length;
+            this.tables[i] = new double[hierarchies[i].getHeight()][];
+        }
+   
         // Determine total number of tuples
         this.tuples = input.getDataLength();
         if (config.containsCriterion(DPresence.class)) {
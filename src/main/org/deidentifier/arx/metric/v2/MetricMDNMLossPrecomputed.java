@@ -97,7 +97,6 @@ public class MetricMDNMLossPrecomputed extends MetricMDNMLoss {
         int[] transformation = node.getTransformation();
         int dimensions = transformation.length;
         double[] bound = new double[dimensions];
-        DomainShare[] shares = super.getShares();
         double gFactor = super.getGeneralizationFactor();
         // Column -> Id -> Level -> Count
         int[][][] cardinalities = this.cardinalities.getCardinalities();
@@ -110,10 +109,11 @@ public class MetricMDNMLossPrecomputed extends MetricMDNMLoss {
             int level = node.getTransformation()[column];
             int[][] cardinality = cardinalities[column];
             int[] values = this.values[column][level];
+            double[] table = super.getShareTable(column, level);
             
             for (int value : values) {
                 double count = cardinality[value][level];
-                double share = count * shares[column].getShare(value, level);
+                double share = count * table[value];
                 bound[column] += share * gFactor;
             }
         }
@@ -156,7 +156,7 @@ public class MetricMDNMLossPrecomputed extends MetricMDNMLoss {
         } 
         
         // Cardinalities
-        this.cardinalities = new Cardinalities(input, subset, hierarchies);
+        this.cardinalities = Cardinalities.create(input, subset, hierarchies);
         
         // Distinct values
         this.values = new int[hierarchies.length][][];
@@ -245,7 +245,7 @@ public class MetricMDNUEntropyPrecomputed extends AbstractMetricMultiDimensional
         } 
         
         // Cardinalities
-        this.cardinalities = new Cardinalities(input, subset, hierarchies);
+        this.cardinalities = Cardinalities.create(input, subset, hierarchies);
         
         // Create a cache for the results
         cache = new double[hierarchies.length][];
@@ -255,8 +255,7 @@ public class MetricMDNUEntropyPrecomputed extends AbstractMetricMultiDimensional
         }
         
         // Create reference to the hierarchies
-        final int[][] data = input.getArray();
-        this.hierarchies = new int[data[0].length][][];
+        this.hierarchies = new int[input.getArray().getNumColumns()][][];
         for (int i = 0; i < hierarchies.length; i++) {
             this.hierarchies[i] = hierarchies[i].getArray();
         }
@@ -18,11 +18,17 @@
 package org.deidentifier.arx.test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.Random;
 
 import junit.framework.TestCase;
 
 import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.AttributeType;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.Data.DefaultData;
 import org.deidentifier.arx.metric.Metric;
 import org.junit.Before;
 
@@ -89,6 +95,62 @@ public abstract class AbstractTest extends TestCase {
         return metric;
     }
 
+    /**
+     * Creates a synthetic dataset with 5000 rows. It consists of the quasi-identifiers age
+     * and zipcode, optionally the quasi-identifier sex, and the sensitive attribute disease
+     * with the values of {@link #createSyntheticDiseaseHierarchy()}.
+     *
+     * @param sex Whether the dataset contains the quasi-identifier sex
+     * @return
+     */
+    protected Data createSyntheticData(final boolean sex) {
+        final DefaultData data = Data.create();
+        if (sex) {
+            data.add("age", "zipcode", "sex", "disease");
+        } else {
+            data.add("age", "zipcode", "disease");
+        }
+        final Random random = new Random(0);
+        for (int i = 0; i < 5000; i++) {
+            final String age = String.valueOf(random.nextInt(100));
+            final String zipcode = String.valueOf(10000 + random.nextInt(1000));
+            if (sex) {
+                data.add(age, zipcode, random.nextBoolean() ? "m" : "f", "disease" + random.nextInt(8));
+            } else {
+                data.add(age, zipcode, "disease" + random.nextInt(8));
+            }
+        }
+        final String[][] age = new String[100][];
+        for (int i = 0; i < age.length; i++) {
+            age[i] = new String[] { String.valueOf(i), String.valueOf(i / 5), String.valueOf(i / 10), String.valueOf(i / 50), "*" };
+        }
+        final String[][] zipcode = new String[1000][];
+        for (int i = 0; i < zipcode.length; i++) {
+            final String value = String.valueOf(10000 + i);
+            zipcode[i] = new String[] { value, value.substring(0, 4) + "*", value.substring(0, 3) + "**", value.substring(0, 2) + "***", "*" };
+        }
+        data.getDefinition().setAttributeType("age", Hierarchy.create(age));
+        data.getDefinition().setAttributeType("zipcode", Hierarchy.create(zipcode));
+        if (sex) {
+            data.getDefinition().setAttributeType("sex", Hierarchy.create(new String[][] { { "m", "*" }, { "f", "*" } }));
+        }
+        data.getDefinition().setAttributeType("disease", AttributeType.SENSITIVE_ATTRIBUTE);
+        return data;
+    }
+
+    /**
+     * Creates a hierarchy for the attribute disease of {@link #createSyntheticData(boolean)}.
+     *
+     * @return
+     */
+    protected String[][] createSyntheticDiseaseHierarchy() {
+        final String[][] disease = new String[8][];
+        for (int i = 0; i < disease.length; i++) {
+            disease[i] = new String[] { "disease" + i, "group" + (i / 4), "*" };
+        }
+        return disease;
+    }
+
     /**
      * 
      *
@@ -103,6 +165,21 @@ public abstract class AbstractTest extends TestCase {
         return list.toArray(new String[list.size()][]);
     }
 
+    /**
+     * Returns a string representation of the global optimum of the given result, which
+     * consists of the transformation and its information loss.
+     *
+     * @param result
+     * @return
+     */
+    protected String optimumToString(final ARXResult result) {
+        if (result.getGlobalOptimum() == null) {
+            return "none";
+        }
+        return Arrays.toString(result.getGlobalOptimum().getTransformation()) + " " +
+               result.getGlobalOptimum().getMaximumInformationLoss().toString();
+    }
+
     /**
      * 
      *
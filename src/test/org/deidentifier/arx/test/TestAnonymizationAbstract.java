@@ -20,7 +20,10 @@ package org.deidentifier.arx.test;
 import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -32,6 +35,7 @@ import org.deidentifier.arx.ARXResult;
 import org.deidentifier.arx.AttributeType;
 import org.deidentifier.arx.AttributeType.Hierarchy;
 import org.deidentifier.arx.Data;
+import org.deidentifier.arx.criteria.HierarchicalDistanceTCloseness;
 import org.deidentifier.arx.criteria.KAnonymity;
 import org.deidentifier.arx.criteria.LDiversity;
 import org.deidentifier.arx.criteria.TCloseness;
@@ -226,6 +230,56 @@ public abstract class TestAnonymizationAbstract extends AbstractTest {
         this.testCase = testCase;
     }
 
+    /**
+     * Returns the test cases for k-anonymity, l-diversity and t-closeness, which use the adult dataset.
+     *
+     * @return
+     * @throws IOException
+     */
+    public static Collection<Object[]> getAdultTestCases() throws IOException {
+        final List<Object[]> result = new ArrayList<Object[]>();
+        addAdultTestCases(result, TestAnonymizationKAnonymity.cases(), false);
+        addAdultTestCases(result, TestAnonymizationLDiversity.cases(), false);
+        addAdultTestCases(result, TestAnonymizationTCloseness.cases(), true);
+        return result;
+    }
+
+    /**
+     * Adds t-closeness with hierarchical ground distance for the sensitive attribute, if the
+     * test case does not already define a t-closeness criterion.
+     *
+     * @param testCase
+     * @throws IOException
+     */
+    public static void addHierarchicalDistanceTCloseness(final ARXAnonymizationTestCase testCase) throws IOException {
+        if (!testCase.config.containsCriterion(TCloseness.class)) {
+            final Hierarchy hierarchy = Hierarchy.create(testCase.dataset.substring(0, testCase.dataset.length() - 4) + "_hierarchy_" + testCase.sensitiveAttribute + ".csv", ';');
+            testCase.config.addCriterion(new HierarchicalDistanceTCloseness(testCase.sensitiveAttribute, 0.2d, hierarchy));
+        }
+    }
+
+    /**
+     * Adds the given test cases, which use the adult dataset.
+     *
+     * @param result
+     * @param cases
+     * @param tCloseness Whether t-closeness must be added as in TestAnonymizationTCloseness
+     * @throws IOException
+     */
+    private static void addAdultTestCases(final List<Object[]> result,
+                                          final Collection<Object[]> cases,
+                                          final boolean tCloseness) throws IOException {
+        for (final Object[] parameters : cases) {
+            final ARXAnonymizationTestCase testCase = (ARXAnonymizationTestCase) parameters[0];
+            if (testCase.dataset.endsWith("/adult.csv")) {
+                if (tCloseness) {
+                    addHierarchicalDistanceTCloseness(testCase);
+                }
+                result.add(parameters);
+            }
+        }
+    }
+
     /**
      * Returns the data object for the test case.
      *
@@ -296,7 +350,7 @@ public abstract class TestAnonymizationAbstract extends AbstractTest {
         final Data data = getDataObject(testCase);
 
         // Create an instance of the anonymizer
-        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        final ARXAnonymizer anonymizer = getAnonymizer();
         testCase.config.setPracticalMonotonicity(testCase.practical);
 
         ARXResult result = anonymizer.anonymize(data, testCase.config);
@@ -360,6 +414,27 @@ public abstract class TestAnonymizationAbstract extends AbstractTest {
             assertEquals(algorithmConfiguration + ". Mismatch: number of probably non-anonymous transformations", testCase.statistics[5], statistics[5]);
             assertEquals(algorithmConfiguration + ". Mismatch: number of transformations with utility available", testCase.statistics[6], statistics[6]);
         }
+
+        // Additional checks
+        checkResult(result);
+    }
+
+    /**
+     * Performs additional checks on the result of the test case. Does nothing by default.
+     *
+     * @param result
+     */
+    protected void checkResult(final ARXResult result) {
+        // Empty by design
+    }
+
+    /**
+     * Returns the anonymizer for the test case.
+     *
+     * @return
+     */
+    protected ARXAnonymizer getAnonymizer() {
+        return new ARXAnonymizer();
     }
 
     /**
@@ -0,0 +1,82 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.io.IOException;
+import java.util.Collection;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXResult;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Test for data transformations with a small memory limit for the history, which forces
+ * snapshots to be written to disk and loaded frequently. Reuses the test cases for the
+ * adult dataset, which must yield the same results.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+@RunWith(Parameterized.class)
+public class TestAnonymizationHistorySpilling extends TestAnonymizationAbstract {
+
+    /**
+     * Returns the test cases.
+     *
+     * @return
+     * @throws IOException
+     */
+    @Parameters(name = "{index}:[{0}]")
+    public static Collection<Object[]> cases() throws IOException {
+        return getAdultTestCases();
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param testCase
+     */
+    public TestAnonymizationHistorySpilling(final ARXAnonymizationTestCase testCase) {
+        super(testCase);
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.test.TestAnonymizationAbstract#checkResult(org.deidentifier.arx.ARXResult)
+     */
+    @Override
+    protected void checkResult(final ARXResult result) {
+        // With suppression, many snapshots are stored, unless practical monotonicity is assumed
+        if (testCase.config.getMaxOutliers() > 0d && !testCase.practical) {
+            assertTrue("No snapshots spilled", result.getStatistics().getNumSnapshotsSpilled() > 0);
+            assertTrue("No snapshots loaded", result.getStatistics().getNumSnapshotsLoaded() > 0);
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see org.deidentifier.arx.test.TestAnonymizationAbstract#getAnonymizer()
+     */
+    @Override
+    protected ARXAnonymizer getAnonymizer() {
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setHistoryDiskLimit(64 * 1024 * 1024);
+        anonymizer.setHistoryMemoryLimit(256 * 1024);
+        return anonymizer;
+    }
+}
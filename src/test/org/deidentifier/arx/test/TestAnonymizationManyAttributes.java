@@ -0,0 +1,147 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.deidentifier.arx.test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.Data.DefaultData;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.Test;
+
+/**
+ * Test for data transformations with more than 15 quasi-identifiers, which are not handled
+ * by the specialized transformers. Each value of the output must equal the generalization
+ * of the input value that is defined by the hierarchy.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class TestAnonymizationManyAttributes extends AbstractTest {
+
+    /** The number of attributes. */
+    private static final int ATTRIBUTES = 17;
+
+    /** The number of values per attribute. */
+    private static final int VALUES     = 4;
+
+    /**
+     * Test k-anonymity.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testKAnonymity() throws IOException {
+
+        // Prepare
+        final String[][] input = createInput();
+        final Data data = createData(input);
+        final ARXConfiguration config = ARXConfiguration.create(0.1d, Metric.createLossMetric());
+        config.addCriterion(new KAnonymity(3));
+
+        // Anonymize
+        final ARXResult result = new ARXAnonymizer().anonymize(data, config);
+        assertNotNull(result.getGlobalOptimum());
+        final int[] transformation = result.getGlobalOptimum().getTransformation();
+        final DataHandle output = result.getOutput(false);
+
+        // Compare
+        final Map<String, Integer> classes = new HashMap<String, Integer>();
+        for (int row = 0; row < input.length; row++) {
+            if (output.isOutlier(row)) {
+                continue;
+            }
+            final StringBuilder key = new StringBuilder();
+            for (int column = 0; column < ATTRIBUTES; column++) {
+                final String value = output.getValue(row, column);
+                assertEquals(generalize(input[row][column], transformation[column]), value);
+                key.append(value).append(';');
+            }
+            final Integer count = classes.get(key.toString());
+            classes.put(key.toString(), count == null ? 1 : count + 1);
+        }
+        assertFalse(classes.isEmpty());
+        for (final int count : classes.values()) {
+            assertTrue(count >= 3);
+        }
+    }
+
+    /**
+     * Creates a dataset.
+     *
+     * @param input
+     * @return
+     */
+    private Data createData(final String[][] input) {
+        final DefaultData data = Data.create();
+        final String[] header = new String[ATTRIBUTES];
+        for (int column = 0; column < ATTRIBUTES; column++) {
+            header[column] = "attribute" + column;
+        }
+        data.add(header);
+        for (final String[] row : input) {
+            data.add(row);
+        }
+        final String[][] hierarchy = new String[VALUES][];
+        for (int value = 0; value < VALUES; value++) {
+            hierarchy[value] = new String[] { generalize(String.valueOf(value), 0), generalize(String.valueOf(value), 1) };
+        }
+        for (int column = 0; column < ATTRIBUTES; column++) {
+            data.getDefinition().setAttributeType(header[column], Hierarchy.create(hierarchy));
+        }
+        return data;
+    }
+
+    /**
+     * Creates the input values. Most rows only differ in few attributes.
+     *
+     * @return
+     */
+    private String[][] createInput() {
+        final Random random = new Random(0);
+        final String[][] result = new String[500][ATTRIBUTES];
+        for (int row = 0; row < result.length; row++) {
+            for (int column = 0; column < ATTRIBUTES; column++) {
+                final int value = column < 3 || random.nextInt(20) == 0 ? random.nextInt(VALUES) : 0;
+                result[row][column] = String.valueOf(value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Generalizes the given value.
+     *
+     * @param value
+     * @param level
+     * @return
+     */
+    private String generalize(final String value, final int level) {
+        return level == 0 ? value : "*";
+    }
+}
@@ -22,11 +22,8 @@ import java.util.Arrays;
 import java.util.Collection;
 
 import org.deidentifier.arx.ARXConfiguration;
-import org.deidentifier.arx.AttributeType.Hierarchy;
 import org.deidentifier.arx.criteria.EqualDistanceTCloseness;
-import org.deidentifier.arx.criteria.HierarchicalDistanceTCloseness;
 import org.deidentifier.arx.criteria.KAnonymity;
-import org.deidentifier.arx.criteria.TCloseness;
 import org.deidentifier.arx.metric.Metric;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -108,10 +105,7 @@ public class TestAnonymizationTCloseness extends TestAnonymizationAbstract {
     public void test() throws IOException {
 
         // TODO: Ugly hack!
-        if (!testCase.config.containsCriterion(TCloseness.class)) {
-            final Hierarchy hierarchy = Hierarchy.create(testCase.dataset.substring(0, testCase.dataset.length() - 4) + "_hierarchy_" + testCase.sensitiveAttribute + ".csv", ';');
-            testCase.config.addCriterion(new HierarchicalDistanceTCloseness(testCase.sensitiveAttribute, 0.2d, hierarchy));
-        }
+        addHierarchicalDistanceTCloseness(testCase);
         super.test();
 
     }
@@ -0,0 +1,167 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.deidentifier.arx.test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataSubset;
+import org.deidentifier.arx.criteria.DPresence;
+import org.deidentifier.arx.criteria.DistinctLDiversity;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.criteria.PrivacyCriterion;
+import org.deidentifier.arx.criteria.RecursiveCLDiversity;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.TestAnonymizationAbstract.ARXAnonymizationTestCase;
+import org.junit.Test;
+
+/**
+ * Test for checks which partition the rows across multiple threads. The partial results
+ * are merged, which must yield the same results as processing all rows with one thread.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class TestAnonymizationThreadsPerCheck extends AbstractTest {
+
+    /** The dataset. */
+    private static final String DATASET = "../arx-data/data-junit/adult.csv";
+
+    /**
+     * Test d-presence, which requires secondary counters.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testDPresence() throws IOException {
+        final Data data = Data.create(DATASET, ';');
+        final Set<Integer> indices = new HashSet<Integer>();
+        final Random random = new Random(0);
+        for (int row = 0; row < data.getHandle().getNumRows(); row++) {
+            if (random.nextInt(10) == 0) {
+                indices.add(row);
+            }
+        }
+        check("occupation", 0.05d, new DPresence(0.0d, 0.3d, DataSubset.create(data, indices)));
+    }
+
+    /**
+     * Test distinct-l-diversity, which requires distributions of sensitive values.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testDistinctLDiversity() throws IOException {
+        check("occupation", 0.04d, new DistinctLDiversity("occupation", 5));
+    }
+
+    /**
+     * Test k-anonymity.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testKAnonymity() throws IOException {
+        check(null, 0.04d, new KAnonymity(5));
+    }
+
+    /**
+     * Test recursive-(c,l)-diversity combined with k-anonymity.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testRecursiveCLDiversity() throws IOException {
+        check("occupation", 0.0d, new KAnonymity(3), new RecursiveCLDiversity("occupation", 4d, 3));
+    }
+
+    /**
+     * Anonymizes the dataset with one and with multiple threads per check and compares
+     * the results for all transformations.
+     *
+     * @param sensitiveAttribute
+     * @param suppression
+     * @param criteria
+     * @throws IOException
+     */
+    private void check(final String sensitiveAttribute, final double suppression, final PrivacyCriterion... criteria) throws IOException {
+
+        // One thread
+        final ARXResult expected = anonymize(sensitiveAttribute, suppression, criteria, 1);
+
+        // Multiple threads
+        final ARXResult result = anonymize(sensitiveAttribute, suppression, criteria, 4);
+
+        // Compare optimum
+        assertNotNull(expected.getGlobalOptimum());
+        assertTrue(Arrays.equals(expected.getGlobalOptimum().getTransformation(), result.getGlobalOptimum().getTransformation()));
+        assertEquals(0, expected.getGlobalOptimum().getMaximumInformationLoss().compareTo(result.getGlobalOptimum().getMaximumInformationLoss()));
+
+        // Compare all transformations
+        final ARXNode[][] expectedLevels = expected.getLattice().getLevels();
+        final ARXNode[][] levels = result.getLattice().getLevels();
+        for (int level = 0; level < expectedLevels.length; level++) {
+            for (int i = 0; i < expectedLevels[level].length; i++) {
+                final ARXNode expectedNode = expectedLevels[level][i];
+                final ARXNode node = levels[level][i];
+                final String message = Arrays.toString(expectedNode.getTransformation());
+                assertTrue(message, Arrays.equals(expectedNode.getTransformation(), node.getTransformation()));
+                assertEquals(message, expectedNode.getAnonymity(), node.getAnonymity());
+                assertEquals(message, expectedNode.isChecked(), node.isChecked());
+                if (expectedNode.getMaximumInformationLoss() != null) {
+                    assertEquals(message, 0, expectedNode.getMaximumInformationLoss().compareTo(node.getMaximumInformationLoss()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Anonymizes the dataset with the given number of threads per check.
+     *
+     * @param sensitiveAttribute
+     * @param suppression
+     * @param criteria
+     * @param threads
+     * @return
+     * @throws IOException
+     */
+    private ARXResult anonymize(final String sensitiveAttribute,
+                                final double suppression,
+                                final PrivacyCriterion[] criteria,
+                                final int threads) throws IOException {
+
+        final ARXConfiguration config = ARXConfiguration.create(suppression, Metric.createEntropyMetric(false));
+        for (final PrivacyCriterion criterion : criteria) {
+            config.addCriterion(criterion);
+        }
+        final ARXAnonymizationTestCase testCase = new ARXAnonymizationTestCase(config, sensitiveAttribute, DATASET, 0d, null, false);
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setNumThreadsPerCheck(threads);
+        anonymizer.setMinRowsPerThread(2000);
+        return anonymizer.anonymize(TestAnonymizationAbstract.getDataObject(testCase), config);
+    }
+}
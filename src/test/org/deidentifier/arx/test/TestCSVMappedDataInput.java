@@ -0,0 +1,109 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.deidentifier.arx.test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.io.CSVMappedDataInput;
+import org.junit.Test;
+
+/**
+ * Test for reading memory-mapped CSV files.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class TestCSVMappedDataInput extends AbstractTest {
+
+    /**
+     * Quoted fields and different line breaks must be parsed correctly.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testQuoting() throws IOException {
+
+        final File file = write("age;\"name\";zipcode\r\n" +
+                                "34;\"Doe; John\";81667\n" +
+                                "45;\"say \"\"hi\"\"\";\r\n" +
+                                "\n" +
+                                "34;\"Doe; John\";81931");
+
+        final Data data = Data.create(file, Charset.forName("UTF-8"), ';', 1);
+        final String[][] given = iteratorToArray(data.getHandle().iterator());
+        final String[][] expected = { { "age", "name", "zipcode" },
+                                      { "34", "Doe; John", "81667" },
+                                      { "45", "say \"hi\"", "" },
+                                      { "34", "Doe; John", "81931" } };
+        assertTrue(Arrays.deepEquals(given, expected));
+        file.delete();
+    }
+
+    /**
+     * Parsing with multiple threads must assign the same codes as parsing with one thread.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testParallel() throws IOException {
+
+        final StringBuilder builder = new StringBuilder();
+        builder.append("id;value;text\n");
+        final Random random = new Random(0);
+        for (int i = 0; i < 200000; i++) {
+            builder.append(i % 1000).append(';').append(random.nextInt(100)).append(";\"text ").append(random.nextInt(50)).append("\"\n");
+        }
+        final File file = write(builder.toString());
+
+        final CSVMappedDataInput input1 = new CSVMappedDataInput(file, Charset.forName("UTF-8"), ';', 1);
+        final CSVMappedDataInput input2 = new CSVMappedDataInput(file, Charset.forName("UTF-8"), ';', 4);
+        input1.read();
+        input2.read();
+
+        assertTrue(Arrays.equals(input1.getHeader(), input2.getHeader()));
+        assertTrue(Arrays.equals(input1.getData().getArray(), input2.getData().getArray()));
+        assertTrue(Arrays.deepEquals(input1.getDictionary().getMapping(), input2.getDictionary().getMapping()));
+        assertEquals(200000, input2.getData().getNumRows());
+        assertEquals(50, input2.getDictionary().getMapping()[2].length);
+        file.delete();
+    }
+
+    /**
+     * Writes the given content to a temporary file.
+     *
+     * @param content
+     * @return
+     * @throws IOException
+     */
+    private File write(final String content) throws IOException {
+        final File file = File.createTempFile("arx", ".csv");
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        writer.write(content);
+        writer.close();
+        return file;
+    }
+}
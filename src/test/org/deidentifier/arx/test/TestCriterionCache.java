@@ -0,0 +1,107 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.criteria.EntropyLDiversity;
+import org.deidentifier.arx.criteria.HierarchicalDistanceTCloseness;
+import org.deidentifier.arx.criteria.PrivacyCriterion;
+import org.deidentifier.arx.criteria.RecursiveCLDiversity;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.Test;
+
+/**
+ * Test for caching results of privacy criteria per distribution of sensitive values. The results
+ * must equal the ones obtained without the cache.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class TestCriterionCache extends AbstractTest {
+
+    /**
+     * Test entropy-l-diversity.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testEntropyLDiversity() throws IOException {
+        check(new EntropyLDiversity("disease", 3));
+    }
+
+    /**
+     * Test t-closeness with hierarchical ground distance.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testHierarchicalDistanceTCloseness() throws IOException {
+        check(new HierarchicalDistanceTCloseness("disease", 0.2d, Hierarchy.create(createSyntheticDiseaseHierarchy())));
+    }
+
+    /**
+     * Test recursive-(c,l)-diversity.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testRecursiveCLDiversity() throws IOException {
+        check(new RecursiveCLDiversity("disease", 3d, 2));
+    }
+
+    /**
+     * Anonymizes the data with and without the cache and compares the results.
+     *
+     * @param criterion
+     * @throws IOException
+     */
+    private void check(final PrivacyCriterion criterion) throws IOException {
+
+        final Data data = createSyntheticData(false);
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+
+        // Without cache
+        ARXConfiguration config = ARXConfiguration.create(0.02d, Metric.createEntropyMetric(false));
+        config.addCriterion(criterion);
+        config.setCriterionCacheEnabled(false);
+        final ARXResult expected = anonymizer.anonymize(data, config);
+        assertEquals(0L, expected.getStatistics().getNumCriterionCacheHits());
+        assertEquals(0L, expected.getStatistics().getNumCriterionCacheMisses());
+        data.getHandle().release();
+
+        // With cache
+        config = ARXConfiguration.create(0.02d, Metric.createEntropyMetric(false));
+        config.addCriterion(criterion);
+        final ARXResult result = anonymizer.anonymize(data, config);
+        assertTrue(result.getStatistics().getNumCriterionCacheHits() > 0L);
+        assertTrue(result.getStatistics().getNumCriterionCacheMisses() > 0L);
+
+        // Compare
+        assertNotNull(expected.getGlobalOptimum());
+        assertTrue(Arrays.equals(expected.getGlobalOptimum().getTransformation(), result.getGlobalOptimum().getTransformation()));
+        assertEquals(0, expected.getGlobalOptimum().getMaximumInformationLoss().compareTo(result.getGlobalOptimum().getMaximumInformationLoss()));
+        assertEquals(expected.getStatistics().getNumChecks(), result.getStatistics().getNumChecks());
+    }
+}
@@ -17,8 +17,12 @@
 
 package org.deidentifier.arx.test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.Arrays;
+import java.util.Random;
 
 import org.deidentifier.arx.ARXAnonymizer;
 import org.deidentifier.arx.ARXConfiguration;
@@ -28,12 +32,15 @@ import org.deidentifier.arx.ARXResult;
 import org.deidentifier.arx.AttributeType;
 import org.deidentifier.arx.AttributeType.Hierarchy;
 import org.deidentifier.arx.Data;
+import org.deidentifier.arx.Data.DefaultData;
 import org.deidentifier.arx.DataHandle;
 import org.deidentifier.arx.DataSelector;
 import org.deidentifier.arx.DataSubset;
+import org.deidentifier.arx.DataType;
 import org.deidentifier.arx.criteria.DPresence;
 import org.deidentifier.arx.criteria.Inclusion;
 import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.io.CSVDataOutput;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -478,4 +485,93 @@ public class TestDataHandle extends AbstractTest {
         assertTrue(Arrays.deepEquals(inArray, bottomExpected));
 
     }
+
+    /**
+     * Sorting with multiple threads must yield the same, stable order as sorting
+     * with a single thread.
+     *
+     * @throws IllegalArgumentException
+     * @throws IOException
+     */
+    @Test
+    public void testParallelSorting() throws IllegalArgumentException, IOException {
+
+        // Create two identical datasets that are large enough to be sorted in parallel
+        final DefaultData data1 = Data.create();
+        final DefaultData data2 = Data.create();
+        data1.add("id", "value");
+        data2.add("id", "value");
+        final Random random = new Random(0);
+        for (int i = 0; i < 50000; i++) {
+            final String value = String.valueOf(random.nextInt(1000));
+            data1.add(String.valueOf(i), value);
+            data2.add(String.valueOf(i), value);
+        }
+        data1.getDefinition().setDataType("value", DataType.INTEGER);
+        data2.getDefinition().setDataType("value", DataType.INTEGER);
+
+        // Sort
+        final DataHandle handle1 = data1.getHandle();
+        final DataHandle handle2 = data2.getHandle();
+        handle2.setNumThreadsForSorting(4);
+        handle1.sort(true, 1);
+        handle2.sort(true, 1);
+
+        // Compare
+        final String[][] array1 = iteratorToArray(handle1.iterator());
+        final String[][] array2 = iteratorToArray(handle2.iterator());
+        assertTrue(Arrays.deepEquals(array1, array2));
+        for (int i = 2; i < array1.length; i++) {
+            final int value1 = Integer.valueOf(array1[i - 1][1]);
+            final int value2 = Integer.valueOf(array1[i][1]);
+            assertTrue(value1 < value2 || (value1 == value2 && Integer.valueOf(array1[i - 1][0]) < Integer.valueOf(array1[i][0])));
+        }
+    }
+
+    /**
+     * Writing output data directly from the encoded data must yield the same
+     * result as writing the rows returned by the iterator.
+     *
+     * @throws IllegalArgumentException
+     * @throws IOException
+     */
+    @Test
+    public void testSave() throws IllegalArgumentException, IOException {
+
+        // Create a dataset that is large enough to be written in parallel
+        final DefaultData data = Data.create();
+        data.add("id", "age", "value");
+        final Random random = new Random(0);
+        for (int i = 0; i < 40000; i++) {
+            data.add(String.valueOf(i), String.valueOf(random.nextInt(100)), String.valueOf(random.nextInt(10)));
+        }
+        final String[][] hierarchy = new String[100][];
+        for (int i = 0; i < hierarchy.length; i++) {
+            hierarchy[i] = new String[] { String.valueOf(i), String.valueOf(i / 10), "*" };
+        }
+        data.getDefinition().setAttributeType("id", AttributeType.IDENTIFYING_ATTRIBUTE);
+        data.getDefinition().setAttributeType("age", Hierarchy.create(hierarchy));
+        data.getDefinition().setAttributeType("value", AttributeType.INSENSITIVE_ATTRIBUTE);
+
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addCriterion(new KAnonymity(410));
+        config.setMaxOutliers(0.1d);
+        final ARXResult result = new ARXAnonymizer().anonymize(data, config);
+        final DataHandle output = result.getOutput(false);
+        output.sort(true, 2);
+
+        // Write
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        new CSVDataOutput(expected, ';').write(output.iterator());
+        final ByteArrayOutputStream given = new ByteArrayOutputStream();
+        output.save(given, ';');
+        final File file = File.createTempFile("arx", ".csv");
+        output.save(file, ';', 4);
+        final byte[] parallel = Files.readAllBytes(file.toPath());
+        file.delete();
+
+        // Compare
+        assertTrue(Arrays.equals(expected.toByteArray(), given.toByteArray()));
+        assertTrue(Arrays.equals(expected.toByteArray(), parallel));
+    }
 }
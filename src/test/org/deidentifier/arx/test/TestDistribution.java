@@ -0,0 +1,145 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.deidentifier.arx.framework.check.distribution.Distribution;
+import org.junit.Test;
+
+/**
+ * Test for distributions of sensitive values, which switch from a dense to a hashed representation.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class TestDistribution extends AbstractTest {
+
+    /**
+     * Test distributions with values smaller than the limit for the dense representation.
+     */
+    @Test
+    public void testDense() {
+        check(Distribution.DENSE_LIMIT, true);
+    }
+
+    /**
+     * Test distributions with values larger than the limit for the dense representation.
+     */
+    @Test
+    public void testHashed() {
+        check(Distribution.DENSE_LIMIT * 64, false);
+    }
+
+    /**
+     * Test switching from the dense to the hashed representation.
+     */
+    @Test
+    public void testSwitch() {
+        final Distribution distribution = new Distribution();
+        distribution.add(3);
+        distribution.add(3);
+        distribution.add(1);
+        assertTrue(distribution.isDense());
+        distribution.add(Distribution.DENSE_LIMIT);
+        assertFalse(distribution.isDense());
+        assertEquals(3, distribution.size());
+        distribution.pack();
+        assertEquals("[1, 3, 64]", Arrays.toString(sort(distribution.getPackedElements(), distribution.getPackedFrequency())[0]));
+        assertEquals("[1, 2, 1]", Arrays.toString(sort(distribution.getPackedElements(), distribution.getPackedFrequency())[1]));
+    }
+
+    /**
+     * Merges random distributions in all possible ways and compares the results to a reference.
+     *
+     * @param domain
+     * @param dense
+     */
+    private void check(final int domain, final boolean dense) {
+
+        final Random random = new Random(0);
+        for (int run = 0; run < 100; run++) {
+
+            // Create
+            final int[] expected = new int[domain];
+            final Distribution[] distributions = new Distribution[5];
+            for (int i = 0; i < distributions.length; i++) {
+                distributions[i] = new Distribution();
+                for (int j = 0; j < 20; j++) {
+                    final int value = random.nextInt(domain);
+                    distributions[i].add(value);
+                    expected[value]++;
+                }
+                distributions[i].pack();
+                assertEquals(dense, distributions[i].isDense());
+            }
+
+            // Merge
+            final Distribution merged = new Distribution();
+            final Distribution mergedPacked = new Distribution();
+            for (final Distribution distribution : distributions) {
+                merged.merge(distribution);
+                mergedPacked.merge(distribution.getPackedElements(), distribution.getPackedFrequency());
+            }
+            final Distribution restored = new Distribution(distributions[0].getPackedElements(), distributions[0].getPackedFrequency());
+            for (int i = 1; i < distributions.length; i++) {
+                restored.merge(distributions[i]);
+            }
+
+            // Compare
+            for (final Distribution distribution : new Distribution[] { merged, mergedPacked, restored }) {
+                assertEquals(dense, distribution.isDense());
+                distribution.pack();
+                final int[] actual = new int[domain];
+                final int[] elements = distribution.getPackedElements();
+                final int[] frequencies = distribution.getPackedFrequency();
+                for (int i = 0; i < elements.length; i++) {
+                    actual[elements[i]] += frequencies[i];
+                }
+                assertTrue(Arrays.equals(expected, actual));
+                int size = 0;
+                for (final int frequency : expected) {
+                    size += frequency != 0 ? 1 : 0;
+                }
+                assertEquals(size, distribution.size());
+            }
+        }
+    }
+
+    /**
+     * Returns the given packed distribution sorted by value.
+     *
+     * @param elements
+     * @param frequencies
+     * @return
+     */
+    private int[][] sort(final int[] elements, final int[] frequencies) {
+        final long[] pairs = new long[elements.length];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = ((long) elements[i] << 32) | frequencies[i];
+        }
+        Arrays.sort(pairs);
+        final int[][] result = new int[2][pairs.length];
+        for (int i = 0; i < pairs.length; i++) {
+            result[0][i] = (int) (pairs[i] >>> 32);
+            result[1][i] = (int) pairs[i];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataSource;
+import org.junit.Test;
+
+/**
+ * Test for importing data from Excel files.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class TestExcelImport extends AbstractTest {
+
+    /**
+     * Streaming must return the same rows as loading XLS files into memory.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStreamingXLS() throws IOException {
+
+        final HSSFWorkbook workbook = new HSSFWorkbook();
+        workbook.createSheet("first").createRow(0).createCell(0).setCellValue("ignored");
+        final Sheet sheet = workbook.createSheet("second");
+        final Row header = sheet.createRow(0);
+        header.createCell(0).setCellValue("id");
+        header.createCell(1).setCellValue("value");
+        header.createCell(2).setCellValue("flag");
+        header.createCell(3).setCellValue("text");
+        for (int i = 1; i <= 2000; i++) {
+            final Row row = sheet.createRow(i);
+            row.createCell(0).setCellValue(i);
+            row.createCell(1).setCellValue(i * 0.25d + 1e6);
+            row.createCell(2).setCellValue(i % 3 == 0);
+            if (i % 5 == 0) {
+                row.createCell(3).setCellFormula("\"v\"&A" + (i + 1));
+            } else if (i % 7 != 0) {
+                row.createCell(3).setCellValue("text " + (i % 11));
+            }
+        }
+        final File file = File.createTempFile("arx", ".xls");
+        final FileOutputStream out = new FileOutputStream(file);
+        workbook.write(out);
+        out.close();
+
+        final String[][] expected = read(file, false);
+        assertEquals(2001, expected.length);
+        assertTrue(Arrays.deepEquals(expected, read(file, true)));
+        file.delete();
+    }
+
+    /**
+     * Streaming must convert the different types of cells in XLSX files.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStreamingXLSX() throws IOException {
+
+        final String main = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+        final String relationships = "http://schemas.openxmlformats.org/package/2006/relationships";
+        final String type = "http://schemas.openxmlformats.org/officeDocument/2006/relationships/";
+        final String content = "application/vnd.openxmlformats-officedocument.spreadsheetml.";
+
+        final File file = File.createTempFile("arx", ".xlsx");
+        final ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file));
+        write(out, "[Content_Types].xml", "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">" +
+                                          "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>" +
+                                          "<Default Extension=\"xml\" ContentType=\"application/xml\"/>" +
+                                          "<Override PartName=\"/xl/workbook.xml\" ContentType=\"" + content + "sheet.main+xml\"/>" +
+                                          "<Override PartName=\"/xl/sharedStrings.xml\" ContentType=\"" + content + "sharedStrings+xml\"/>" +
+                                          "<Override PartName=\"/xl/worksheets/sheet1.xml\" ContentType=\"" + content + "worksheet+xml\"/>" +
+                                          "<Override PartName=\"/xl/worksheets/sheet2.xml\" ContentType=\"" + content + "worksheet+xml\"/></Types>");
+        write(out, "_rels/.rels", "<Relationships xmlns=\"" + relationships + "\">" +
+                                  "<Relationship Id=\"rId1\" Type=\"" + type + "officeDocument\" Target=\"xl/workbook.xml\"/></Relationships>");
+        write(out, "xl/workbook.xml", "<workbook xmlns=\"" + main + "\" xmlns:r=\"" + type.substring(0, type.length() - 1) + "\"><sheets>" +
+                                      "<sheet name=\"first\" sheetId=\"1\" r:id=\"rId2\"/>" +
+                                      "<sheet name=\"second\" sheetId=\"2\" r:id=\"rId1\"/></sheets></workbook>");
+        write(out, "xl/_rels/workbook.xml.rels", "<Relationships xmlns=\"" + relationships + "\">" +
+                                                 "<Relationship Id=\"rId1\" Type=\"" + type + "worksheet\" Target=\"worksheets/sheet2.xml\"/>" +
+                                                 "<Relationship Id=\"rId2\" Type=\"" + type + "worksheet\" Target=\"worksheets/sheet1.xml\"/>" +
+                                                 "<Relationship Id=\"rId3\" Type=\"" + type + "sharedStrings\" Target=\"sharedStrings.xml\"/></Relationships>");
+        write(out, "xl/sharedStrings.xml", "<sst xmlns=\"" + main + "\"><si><t>age</t></si><si><t>name</t></si><si><r><t>Doe, </t></r><r><t>John</t></r></si></sst>");
+        write(out, "xl/worksheets/sheet1.xml", "<worksheet xmlns=\"" + main + "\"><sheetData><row r=\"1\"><c r=\"A1\"><v>1</v></c></row></sheetData></worksheet>");
+        write(out, "xl/worksheets/sheet2.xml", "<worksheet xmlns=\"" + main + "\"><dimension ref=\"A1:C4\"/><sheetData>" +
+                                               "<row r=\"1\"><c r=\"A1\" t=\"s\"><v>0</v></c><c r=\"B1\" t=\"s\"><v>1</v></c><c r=\"C1\" t=\"inlineStr\"><is><t>flag</t></is></c></row>" +
+                                               "<row r=\"2\"><c r=\"A2\"><v>34.5</v></c><c r=\"B2\" t=\"s\"><v>2</v></c><c r=\"C2\" t=\"b\"><v>1</v></c></row>" +
+                                               "<row r=\"3\"><c r=\"A3\"><v>45</v></c><c r=\"C3\" t=\"str\"><f>1=2</f><v>FALSE</v></c></row>" +
+                                               "<row r=\"5\"><c r=\"A5\" s=\"1\"/><c r=\"B5\" t=\"inlineStr\"><is><r><t>a</t></r><r><t>b</t></r></is></c><c r=\"C5\" t=\"e\"><v>#N/A</v></c></row>" +
+                                               "</sheetData></worksheet>");
+        out.close();
+
+        final DataSource source = DataSource.createExcelSource(file, 1, true);
+        source.addColumn("name");
+        source.addColumn("age");
+        source.addColumn(2);
+        source.setStreaming(true);
+        final String[][] given = iteratorToArray(Data.create(source).getHandle().iterator());
+        final String[][] expected = { { "name", "age", "flag" },
+                                      { "Doe, John", "34.5", "TRUE" },
+                                      { "", "45", "FALSE" },
+                                      { "ab", "", "#N/A" } };
+        assertTrue(Arrays.deepEquals(given, expected));
+        file.delete();
+    }
+
+    /**
+     * Imports the given file.
+     *
+     * @param file
+     * @param streaming
+     * @return
+     * @throws IOException
+     */
+    private String[][] read(final File file, final boolean streaming) throws IOException {
+        final DataSource source = DataSource.createExcelSource(file, 1, true);
+        source.addColumn("id");
+        source.addColumn("value");
+        source.addColumn(2, "flag");
+        source.addColumn(3, "text");
+        source.setStreaming(streaming);
+        return iteratorToArray(Data.create(source).getHandle().iterator());
+    }
+
+    /**
+     * Writes an entry into the given archive.
+     *
+     * @param out
+     * @param name
+     * @param xml
+     * @throws IOException
+     */
+    private void write(final ZipOutputStream out, final String name, final String xml) throws IOException {
+        out.putNextEntry(new ZipEntry(name));
+        out.write(("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>" + xml).getBytes("UTF-8"));
+        out.closeEntry();
+    }
+}
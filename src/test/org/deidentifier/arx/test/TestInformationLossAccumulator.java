@@ -0,0 +1,145 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.io.IOException;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.AttributeType;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.criteria.DistinctLDiversity;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.framework.lattice.Node;
+import org.deidentifier.arx.metric.InformationLossAccumulator;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.metric.v2.AbstractILMultiDimensional;
+import org.deidentifier.arx.metric.v2.MetricMDNMLoss;
+import org.junit.Test;
+
+/**
+ * Test for computing information loss while the privacy criteria are evaluated. All nodes
+ * must have the same information loss as when it is computed in a separate pass.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class TestInformationLossAccumulator extends AbstractTest {
+
+    /**
+     * A variant of the loss metric, which does not use an accumulator.
+     *
+     * @author Fabian Prasser
+     * @author Florian Kohlmayer
+     */
+    private static class MetricWithoutAccumulator extends MetricMDNMLoss {
+
+        /** SVUID. */
+        private static final long serialVersionUID = 6174930376223536047L;
+
+        /* (non-Javadoc)
+         * @see org.deidentifier.arx.metric.v2.MetricMDNMLoss#createAccumulator(org.deidentifier.arx.framework.lattice.Node)
+         */
+        @Override
+        public InformationLossAccumulator<AbstractILMultiDimensional> createAccumulator(Node node) {
+            return null;
+        }
+    }
+
+    /**
+     * Test with k-anonymity only.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testKAnonymity() throws IOException {
+        check(false, false);
+    }
+
+    /**
+     * Test with l-diversity, which may abort the analysis early.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testLDiversity() throws IOException {
+        check(true, false);
+    }
+
+    /**
+     * Test with classes stored in primitive arrays.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testPrimitiveGroupify() throws IOException {
+        check(true, true);
+    }
+
+    /**
+     * Anonymizes the data with and without the accumulator and compares the information loss
+     * of all nodes.
+     *
+     * @param diversity
+     * @param primitive
+     * @throws IOException
+     */
+    private void check(final boolean diversity, final boolean primitive) throws IOException {
+
+        final Data data = createSyntheticData(false);
+        data.getDefinition().setAttributeType("disease", diversity ? AttributeType.SENSITIVE_ATTRIBUTE : AttributeType.INSENSITIVE_ATTRIBUTE);
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        final ARXResult expected = anonymizer.anonymize(data, createConfiguration(new MetricWithoutAccumulator(), diversity, primitive));
+        data.getHandle().release();
+        final ARXResult result = anonymizer.anonymize(data, createConfiguration(new MetricMDNMLoss(), diversity, primitive));
+
+        // Compare
+        assertEquals(0, expected.getGlobalOptimum().getMaximumInformationLoss().compareTo(result.getGlobalOptimum().getMaximumInformationLoss()));
+        final ARXNode[][] expectedLevels = expected.getLattice().getLevels();
+        final ARXNode[][] levels = result.getLattice().getLevels();
+        for (int level = 0; level < levels.length; level++) {
+            for (int i = 0; i < levels[level].length; i++) {
+                final ARXNode expectedNode = expectedLevels[level][i];
+                final ARXNode node = levels[level][i];
+                assertEquals(expectedNode.getAnonymity(), node.getAnonymity());
+                assertEquals(0, expectedNode.getMinimumInformationLoss().compareTo(node.getMinimumInformationLoss()));
+                assertEquals(0, expectedNode.getMaximumInformationLoss().compareTo(node.getMaximumInformationLoss()));
+            }
+        }
+    }
+
+    /**
+     * Creates a configuration.
+     *
+     * @param metric
+     * @param diversity
+     * @param primitive
+     * @return
+     */
+    private ARXConfiguration createConfiguration(final Metric<?> metric, final boolean diversity, final boolean primitive) {
+        final ARXConfiguration config = ARXConfiguration.create(0.05d, metric);
+        config.addCriterion(new KAnonymity(5));
+        config.setPrimitiveGroupifyEnabled(primitive);
+        if (diversity) {
+            config.addCriterion(new DistinctLDiversity("disease", 3));
+        }
+        return config;
+    }
+}
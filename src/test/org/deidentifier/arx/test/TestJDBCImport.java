@@ -0,0 +1,159 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataSource;
+import org.deidentifier.arx.DataType;
+import org.deidentifier.arx.io.ImportAdapter;
+import org.deidentifier.arx.io.ImportAdapterJDBC;
+import org.deidentifier.arx.io.ImportColumnJDBC;
+import org.deidentifier.arx.io.ImportConfigurationJDBC;
+import org.junit.Test;
+
+/**
+ * Test for importing data via JDBC.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class TestJDBCImport extends AbstractTest {
+
+    /**
+     * Closing an adapter before all rows have been read must stop the threads
+     * reading the partitions.
+     *
+     * @throws IOException
+     * @throws SQLException
+     * @throws ClassNotFoundException
+     * @throws InterruptedException
+     */
+    @Test
+    public void testClose() throws IOException, SQLException, ClassNotFoundException, InterruptedException {
+
+        final File file = createTable();
+        final String url = "jdbc:sqlite:" + file.getAbsolutePath();
+
+        // Read some rows
+        final ImportConfigurationJDBC config = new ImportConfigurationJDBC(url, "test");
+        config.addColumn(new ImportColumnJDBC(0, DataType.STRING));
+        config.addColumn(new ImportColumnJDBC(1, DataType.STRING));
+        config.setPartitioning("id", 4);
+        final ImportAdapterJDBC adapter = (ImportAdapterJDBC) ImportAdapter.create(config);
+        for (int i = 0; i < 10; i++) {
+            adapter.next();
+        }
+        adapter.close();
+
+        // Wait for the threads
+        for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("ImportAdapterJDBC-")) {
+                thread.join(10000);
+                assertFalse("Thread still running", thread.isAlive());
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * Reading with a fetch size and reading partitions in parallel must return
+     * the same rows in the same order as reading with the default settings.
+     *
+     * @throws IOException
+     * @throws SQLException
+     * @throws ClassNotFoundException
+     */
+    @Test
+    public void testPartitioning() throws IOException, SQLException, ClassNotFoundException {
+
+        final File file = createTable();
+        final String url = "jdbc:sqlite:" + file.getAbsolutePath();
+
+        final String[][] expected = read(url, null, 1, 0);
+        assertEquals(10001, expected.length);
+        assertTrue(Arrays.deepEquals(expected, read(url, null, 1, 100)));
+        assertTrue(Arrays.deepEquals(expected, read(url, "id", 4, 0)));
+        assertTrue(Arrays.deepEquals(expected, read(url, "id", 7, 100)));
+        file.delete();
+    }
+
+    /**
+     * Creates a database with the test table.
+     *
+     * @return The file of the database
+     * @throws IOException
+     * @throws SQLException
+     * @throws ClassNotFoundException
+     */
+    private File createTable() throws IOException, SQLException, ClassNotFoundException {
+
+        Class.forName("org.sqlite.JDBC");
+        final File file = File.createTempFile("arx", ".db");
+        final String url = "jdbc:sqlite:" + file.getAbsolutePath();
+
+        // Create table, rows without a key come last
+        final Connection connection = DriverManager.getConnection(url);
+        connection.setAutoCommit(false);
+        final Statement statement = connection.createStatement();
+        statement.execute("CREATE TABLE test (id INTEGER, age INTEGER, zipcode TEXT)");
+        final PreparedStatement insert = connection.prepareStatement("INSERT INTO test VALUES (?, ?, ?)");
+        for (int i = 0; i < 10000; i++) {
+            if (i < 9990) {
+                insert.setInt(1, i - 5000);
+            } else {
+                insert.setNull(1, java.sql.Types.INTEGER);
+            }
+            insert.setInt(2, i % 97);
+            insert.setString(3, "8" + (i % 1000));
+            insert.executeUpdate();
+        }
+        connection.commit();
+        connection.close();
+        return file;
+    }
+
+    /**
+     * Imports the test table.
+     *
+     * @param url
+     * @param column
+     * @param numPartitions
+     * @param fetchSize
+     * @return
+     * @throws IOException
+     * @throws SQLException
+     */
+    private String[][] read(final String url, final String column, final int numPartitions, final int fetchSize) throws IOException, SQLException {
+        final DataSource source = DataSource.createJDBCSource(url, "test");
+        source.addColumn(0);
+        source.addColumn(1);
+        source.addColumn(2);
+        source.setFetchSize(fetchSize);
+        source.setPartitioning(column, numPartitions);
+        return iteratorToArray(Data.create(source).getHandle().iterator());
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.deidentifier.arx.test;
+
+import java.io.IOException;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice.Anonymity;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.AttributeType;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.Test;
+
+/**
+ * Test for searches which are limited by time or by the number of checks.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class TestLimitedSearch extends AbstractTest {
+
+    /**
+     * A search limited by the number of checks returns the best transformation found so far.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCheckLimit() throws IOException {
+
+        final Data data = createSyntheticData(true);
+        data.getDefinition().setAttributeType("disease", AttributeType.INSENSITIVE_ATTRIBUTE);
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+
+        // Unlimited
+        final ARXResult optimum = anonymizer.anonymize(data, createConfiguration());
+        assertTrue(optimum.isOptimal());
+        assertTrue(optimum.getStatistics().getNumChecksBinaryPhase() + optimum.getStatistics().getNumChecksLinearPhase() > 5);
+        data.getHandle().release();
+
+        // Limited
+        anonymizer.setCheckLimit(5);
+        final ARXResult result = anonymizer.anonymize(data, createConfiguration());
+        assertFalse(result.isOptimal());
+        assertNotNull(result.getGlobalOptimum());
+        assertEquals(5, result.getStatistics().getNumChecksBinaryPhase() + result.getStatistics().getNumChecksLinearPhase());
+        assertBest(optimum, result);
+        data.getHandle().release();
+
+        // Limit is not reached
+        anonymizer.setCheckLimit(100000);
+        assertTrue(anonymizer.anonymize(data, createConfiguration()).isOptimal());
+    }
+
+    /**
+     * A search limited by time returns the best transformation found so far.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testTimeLimit() throws IOException {
+
+        final Data data = createSyntheticData(true);
+        data.getDefinition().setAttributeType("disease", AttributeType.INSENSITIVE_ATTRIBUTE);
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        final ARXResult optimum = anonymizer.anonymize(data, createConfiguration());
+        data.getHandle().release();
+
+        anonymizer.setTimeLimit(1);
+        final ARXResult result = anonymizer.anonymize(data, createConfiguration());
+        if (!result.isOptimal()) {
+            assertBest(optimum, result);
+        } else {
+            assertEquals(optimum.getGlobalOptimum().getMaximumInformationLoss(), result.getGlobalOptimum().getMaximumInformationLoss());
+        }
+    }
+
+    /**
+     * Asserts that the optimum of the limited search is anonymous and not better than the
+     * optimum of the unlimited search.
+     *
+     * @param optimum
+     * @param result
+     */
+    private void assertBest(final ARXResult optimum, final ARXResult result) {
+        if (result.getGlobalOptimum() != null) {
+            assertEquals(Anonymity.ANONYMOUS, result.getGlobalOptimum().getAnonymity());
+            assertTrue(optimum.getGlobalOptimum().getMaximumInformationLoss().compareTo(result.getGlobalOptimum().getMaximumInformationLoss()) <= 0);
+        }
+    }
+
+    /**
+     * Creates a configuration.
+     *
+     * @return
+     */
+    private ARXConfiguration createConfiguration() {
+        final ARXConfiguration config = ARXConfiguration.create(0.02d, Metric.createEntropyMetric(false));
+        config.addCriterion(new KAnonymity(5));
+        return config;
+    }
+}
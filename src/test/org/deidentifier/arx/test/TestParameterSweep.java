@@ -0,0 +1,136 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.deidentifier.arx.test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.criteria.DistinctLDiversity;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.criteria.RecursiveCLDiversity;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.Test;
+
+/**
+ * Test for anonymizing data with multiple configurations, which reuses the results of
+ * previous runs.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class TestParameterSweep extends AbstractTest {
+
+    /**
+     * Sweeping k without suppression reuses anonymous and non-anonymous transformations.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testSweepK() throws IOException {
+        final List<ARXConfiguration> configs = new ArrayList<ARXConfiguration>();
+        final Metric<?> metric = Metric.createLossMetric();
+        for (int k = 2; k <= 50; k += 4) {
+            final ARXConfiguration config = ARXConfiguration.create(0d, metric);
+            config.addCriterion(new KAnonymity(k));
+            config.addCriterion(new DistinctLDiversity("disease", 2));
+            configs.add(config);
+        }
+        final long checks = compare(configs);
+        assertTrue("Number of checks not reduced: " + checks, checks < 0);
+    }
+
+    /**
+     * Sweeping the suppression limit with an independent metric.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testSweepSuppression() throws IOException {
+        final List<ARXConfiguration> configs = new ArrayList<ARXConfiguration>();
+        final Metric<?> metric = Metric.createEntropyMetric(true);
+        for (int i = 10; i >= 0; i -= 2) {
+            final ARXConfiguration config = ARXConfiguration.create(i / 100d, metric);
+            config.addCriterion(new KAnonymity(10));
+            config.addCriterion(new DistinctLDiversity("disease", 4));
+            configs.add(config);
+        }
+        final long checks = compare(configs);
+        assertTrue("Number of checks not reduced: " + checks, checks < 0);
+    }
+
+    /**
+     * Configurations which are partially comparable and use separate metrics.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testSweepMixed() throws IOException {
+        final List<ARXConfiguration> configs = new ArrayList<ARXConfiguration>();
+        for (int i = 0; i < 8; i++) {
+            final ARXConfiguration config = ARXConfiguration.create(i % 2 == 0 ? 0d : 0.04d,
+                                                                    i % 3 == 0 ? Metric.createLossMetric() : Metric.createEntropyMetric(false));
+            config.addCriterion(new KAnonymity(3 + i * 3));
+            if (i < 4) {
+                config.addCriterion(new DistinctLDiversity("disease", 2 + i));
+            } else {
+                config.addCriterion(new RecursiveCLDiversity("disease", 3d - i * 0.25d, 3));
+            }
+            configs.add(config);
+        }
+        compare(configs);
+    }
+
+    /**
+     * Compares the results of a sweep with the results of independent runs. Returns the
+     * difference between the total number of checks.
+     *
+     * @param configs
+     * @return
+     * @throws IOException
+     */
+    private long compare(final List<ARXConfiguration> configs) throws IOException {
+
+        final Data data = createSyntheticData(true);
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+
+        // Anonymize separately
+        final List<String> expected = new ArrayList<String>();
+        long checks = 0;
+        for (final ARXConfiguration config : configs) {
+            final ARXResult result = anonymizer.anonymize(data, config);
+            expected.add(optimumToString(result));
+            checks -= result.getStatistics().getNumChecks();
+            data.getHandle().release();
+        }
+
+        // Sweep
+        final List<ARXResult> results = anonymizer.anonymize(data, configs);
+        assertEquals(configs.size(), results.size());
+        for (int i = 0; i < configs.size(); i++) {
+            assertEquals("Configuration " + i, expected.get(i), optimumToString(results.get(i)));
+            checks += results.get(i).getStatistics().getNumChecks();
+        }
+        return checks;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXPreparedData;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.criteria.DistinctLDiversity;
+import org.deidentifier.arx.criteria.EqualDistanceTCloseness;
+import org.deidentifier.arx.criteria.HierarchicalDistanceTCloseness;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.Test;
+
+/**
+ * Test for anonymizing prepared data with multiple configurations.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class TestPreparedData extends AbstractTest {
+
+    /**
+     * Anonymizing prepared data, also concurrently, must yield the same results as
+     * anonymizing the data with each configuration separately.
+     *
+     * @throws IOException
+     * @throws ExecutionException
+     * @throws InterruptedException
+     */
+    @Test
+    public void testPreparedData() throws IOException, InterruptedException, ExecutionException {
+
+        final Data data = createSyntheticData(false);
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+
+        // Anonymize separately
+        final int numConfigurations = 8;
+        final List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < numConfigurations; i++) {
+            expected.add(optimumToString(anonymizer.anonymize(data, createConfiguration(i))));
+            data.getHandle().release();
+        }
+
+        // Anonymize prepared data concurrently
+        final ARXPreparedData prepared = anonymizer.prepare(data);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final List<Future<String>> futures = new ArrayList<Future<String>>();
+        for (int i = 0; i < numConfigurations; i++) {
+            final int index = i;
+            futures.add(executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return optimumToString(anonymizer.anonymize(prepared, createConfiguration(index)));
+                }
+            }));
+        }
+        executor.shutdown();
+
+        // Compare
+        for (int i = 0; i < numConfigurations; i++) {
+            assertEquals(expected.get(i), futures.get(i).get());
+        }
+    }
+
+    /**
+     * Hierarchies of sensitive attributes must be encoded when the data is prepared.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testSensitiveHierarchy() throws IOException {
+
+        final Data data = createSyntheticData(false);
+        final String[][] hierarchy = createSyntheticDiseaseHierarchy();
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+
+        // Anonymize separately
+        final String expected = optimumToString(anonymizer.anonymize(data, createConfiguration(hierarchy)));
+        data.getHandle().release();
+
+        // Not encoded
+        try {
+            anonymizer.anonymize(anonymizer.prepare(data), createConfiguration(hierarchy));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        data.getHandle().release();
+
+        // Encoded
+        final ARXPreparedData prepared = anonymizer.prepare(data, new HierarchicalDistanceTCloseness("disease", 0.5d, Hierarchy.create(hierarchy)));
+        assertEquals(expected, optimumToString(anonymizer.anonymize(prepared, createConfiguration(hierarchy))));
+    }
+
+    /**
+     * Creates a configuration.
+     *
+     * @param index
+     * @return
+     */
+    private ARXConfiguration createConfiguration(final int index) {
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addCriterion(new KAnonymity(2 + index * 10));
+        if (index % 2 == 0) {
+            config.addCriterion(new DistinctLDiversity("disease", 2 + index));
+        } else {
+            config.addCriterion(new EqualDistanceTCloseness("disease", 0.1d + index * 0.05d));
+        }
+        config.setMaxOutliers(index % 3 == 0 ? 0d : 0.05d);
+        config.setMetric(index % 4 < 2 ? Metric.createEntropyMetric(true) : Metric.createLossMetric());
+        return config;
+    }
+
+    /**
+     * Creates a configuration with t-closeness using the given hierarchy.
+     *
+     * @param hierarchy
+     * @return
+     */
+    private ARXConfiguration createConfiguration(final String[][] hierarchy) {
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addCriterion(new KAnonymity(5));
+        config.addCriterion(new HierarchicalDistanceTCloseness("disease", 0.5d, Hierarchy.create(hierarchy)));
+        return config;
+    }
+}
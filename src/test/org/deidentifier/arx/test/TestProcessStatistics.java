@@ -0,0 +1,85 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.io.IOException;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXProcessStatistics;
+import org.deidentifier.arx.ARXProgressListener;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.junit.Test;
+
+/**
+ * Test for the statistics about the anonymization process and for progress events.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class TestProcessStatistics extends AbstractTest {
+
+    /**
+     * Checks the statistics of the result and the progress events.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStatistics() throws IOException {
+
+        provider.createDataDefinition();
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addCriterion(new KAnonymity(2));
+        config.setMaxOutliers(0d);
+
+        // Record progress events
+        final long[] events = new long[1];
+        anonymizer.setProgressInterval(0);
+        anonymizer.setListener(new ARXProgressListener() {
+            @Override
+            public void nodeTagged(int searchSpaceSize) {
+                // Empty by design
+            }
+
+            @Override
+            public void progress(ARXProcessStatistics statistics) {
+                assertTrue(statistics.getNumChecks() >= events[0]);
+                events[0] = statistics.getNumChecks();
+            }
+        });
+
+        final ARXResult result = anonymizer.anonymize(provider.getData(), config);
+        final ARXProcessStatistics statistics = result.getStatistics();
+
+        assertNotNull(statistics);
+        assertTrue(events[0] > 0);
+        assertTrue(statistics.getNumChecks() > 0);
+        assertTrue(statistics.getNumChecks() >= events[0]);
+        assertEquals(statistics.getNumChecks(),
+                     statistics.getNumChecksUnoptimized() + statistics.getNumChecksRollup() + statistics.getNumChecksSnapshot());
+        assertTrue(statistics.getNumChecks() >= statistics.getNumChecksBinaryPhase() + statistics.getNumChecksLinearPhase());
+        assertEquals(result.getLattice().getSize(), statistics.getSearchSpaceSize());
+        assertTrue(statistics.getNumRowsProcessed() > 0);
+        assertTrue(statistics.getMaximalNumberOfEquivalenceClasses() > 0);
+        assertTrue(statistics.getAverageNumberOfEquivalenceClasses() <= statistics.getMaximalNumberOfEquivalenceClasses());
+        assertTrue(statistics.getPeakHeapUsage() > 0);
+        assertTrue(statistics.getNumSnapshotsStored() >= statistics.getNumSnapshotsEvicted());
+    }
+}